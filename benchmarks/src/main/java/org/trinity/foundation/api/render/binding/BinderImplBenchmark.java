@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewChange;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
+import org.trinity.foundation.api.render.binding.view.delegate.PropertySlotInvocatorDelegate;
+import org.trinity.foundation.api.render.binding.view.delegate.Signal;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+
+/**
+ * {@link BinderImpl#bind(ListeningExecutorService, Object, Object)} and
+ * {@link BinderImpl#updateBinding(ListeningExecutorService, Object, String)}
+ * on the {@link Model} and {@link View} of the binding tests. The view
+ * delegates do nothing, so only the cost of the binder itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinderImplBenchmark {
+
+	private final ListeningExecutorService modelExecutor = MoreExecutors.sameThreadExecutor();
+	private BinderImpl binder;
+	private Model model;
+	private View view;
+
+	@Setup
+	public void setup() {
+		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = new PropertySlotInvocatorDelegate() {
+			@Override
+			public ListenableFuture<Void> invoke(	final Object view,
+													final Method viewMethod,
+													final Object argument) {
+				return Futures.immediateFuture(null);
+			}
+		};
+		final ChildViewDelegate childViewDelegate = new ChildViewDelegate() {
+			@Override
+			public <T> ListenableFuture<T> newView(	final Object parentView,
+													final Class<T> childViewType,
+													final int position) {
+				try {
+					return Futures.immediateFuture(childViewType.newInstance());
+				} catch (final ReflectiveOperationException e) {
+					throw Throwables.propagate(e);
+				}
+			}
+
+			@Override
+			public ListenableFuture<Void> destroyView(	final Object parentView,
+														final Object deletedChildView,
+														final int deletedPosition) {
+				return Futures.immediateFuture(null);
+			}
+
+			@Override
+			public ListenableFuture<Void> updateChildViewPosition(	final Object parentView,
+																	final Object childView,
+																	final int oldPosition,
+																	final int newPosition) {
+				return Futures.immediateFuture(null);
+			}
+
+			@Override
+			public <T> ListenableFuture<List<T>> applyChanges(	final Object parentView,
+																final Class<T> childViewType,
+																final List<ChildViewChange> changes) {
+				final List<T> childViews = new ArrayList<T>();
+				for (final ChildViewChange change : changes) {
+					if (change.getType() == ChildViewChange.Type.CREATE) {
+						try {
+							childViews.add(childViewType.newInstance());
+						} catch (final ReflectiveOperationException e) {
+							throw Throwables.propagate(e);
+						}
+					}
+				}
+				return Futures.immediateFuture(childViews);
+			}
+		};
+		final EventSignalFilter eventSignalFilter = new EventSignalFilter() {
+			@Override
+			public void installFilter(	@Nonnull final Object view,
+										@Nonnull final Signal signal) {
+			}
+
+			@Override
+			public void uninstallFilter(@Nonnull final Object view,
+										@Nonnull final Signal signal) {
+			}
+		};
+
+		this.binder = new BinderImpl(	Guice.createInjector(new AbstractModule() {
+											@Override
+											protected void configure() {
+												bind(EventSignalFilter.class).toInstance(eventSignalFilter);
+											}
+										}),
+										propertySlotInvocatorDelegate,
+										childViewDelegate);
+		this.model = new Model();
+		this.view = new View();
+		this.binder.bind(	this.modelExecutor,
+							this.model,
+							this.view);
+	}
+
+	@Benchmark
+	public View bind() {
+		final View newView = new View();
+		this.binder.bind(	this.modelExecutor,
+							new Model(),
+							newView);
+		return newView;
+	}
+
+	@Benchmark
+	public void updateDataContextBinding() {
+		this.binder.updateBinding(	this.modelExecutor,
+									this.model,
+									"dummySubModel");
+	}
+
+	@Benchmark
+	public void updatePropertyBinding() {
+		this.binder.updateBinding(	this.modelExecutor,
+									this.model.getOtherSubModel().getSubSubModel(),
+									"booleanProperty");
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.shared;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Post and register throughput of an {@link AsyncListenableEventBus} with
+ * {@link #listeners} subscribers. Everything runs on the calling thread, so
+ * the numbers are the cost of the bus itself and not of a thread hand over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncListenableEventBusBenchmark {
+
+	public static class Event {
+	}
+
+	public static class Listener {
+
+		long received;
+
+		@Subscribe
+		public void handleEvent(final Event event) {
+			this.received++;
+		}
+	}
+
+	@Param({ "1", "16", "128" })
+	public int listeners;
+
+	private final Event event = new Event();
+	private final Listener extraListener = new Listener();
+	// the bus only holds weak references to its listeners
+	private Listener[] registeredListeners;
+	private AsyncListenableEventBus eventBus;
+
+	@Setup
+	public void setup() {
+		this.eventBus = new AsyncListenableEventBus(MoreExecutors.sameThreadExecutor());
+		this.registeredListeners = new Listener[this.listeners];
+		for (int i = 0; i < this.listeners; i++) {
+			this.registeredListeners[i] = new Listener();
+			this.eventBus.register(this.registeredListeners[i]);
+		}
+	}
+
+	@Benchmark
+	public void post() {
+		this.eventBus.post(this.event);
+	}
+
+	@Benchmark
+	public void registerAndUnregister() {
+		this.eventBus.register(this.extraListener);
+		this.eventBus.unregister(this.extraListener);
+	}
+}
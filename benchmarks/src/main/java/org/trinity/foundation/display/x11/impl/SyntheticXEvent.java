@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.x11.impl;
+
+import org.freedesktop.xcb.xcb_generic_event_t;
+
+/**
+ * An {@link xcb_generic_event_t} that is not backed by native memory. Only the
+ * response type is available, which is all that is needed to dispatch it.
+ * Reading any other field fails, so it can only be handled by handlers that
+ * do not look inside the event.
+ */
+public class SyntheticXEvent extends xcb_generic_event_t {
+
+	private final short responseType;
+
+	public SyntheticXEvent(final int responseType) {
+		super(	0,
+				false);
+		this.responseType = (short) responseType;
+	}
+
+	@Override
+	public short getResponse_type() {
+		return this.responseType;
+	}
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.x11.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.freedesktop.xcb.xcb_generic_event_t;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.foundation.api.display.event.DisplayEvent;
+import org.trinity.foundation.api.display.event.ShowNotify;
+import org.trinity.foundation.api.shared.AsyncListenable;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.display.x11.api.XEventHandler;
+
+import com.google.common.base.Optional;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Dispatch of {@link SyntheticXEvent}s by {@link XEventHandlers}, both
+ * directly and through the X event bus like the {@link XEventPump} does. The
+ * handlers are benchmark handlers that post a prepared display event, so the
+ * numbers cover the dispatch and not the decoding of a particular event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XEventHandlersBenchmark {
+
+	// the core X protocol event codes, 0 and 1 are errors and replies.
+	private static final int FIRST_EVENT_CODE = 2;
+	private static final int LAST_EVENT_CODE = 34;
+	// the event with this code has no handler.
+	private static final int UNHANDLED_EVENT_CODE = 18;
+
+	public static class Listener {
+
+		long received;
+
+		@Subscribe
+		public void handleDisplayEvent(final DisplayEvent displayEvent) {
+			this.received++;
+		}
+	}
+
+	private static class BenchmarkXEventHandler implements XEventHandler {
+
+		private final Integer eventCode;
+		private final Optional<DisplayEvent> displayEvent = Optional.<DisplayEvent> of(new ShowNotify());
+		private final Optional<AsyncListenable> target;
+
+		BenchmarkXEventHandler(	final int eventCode,
+								final AsyncListenable target) {
+			this.eventCode = eventCode;
+			this.target = Optional.of(target);
+		}
+
+		@Override
+		public Optional<DisplayEvent> handle(final xcb_generic_event_t event) {
+			return this.displayEvent;
+		}
+
+		@Override
+		public Optional<AsyncListenable> getTarget(final xcb_generic_event_t event) {
+			return this.target;
+		}
+
+		@Override
+		public Integer getEventCode() {
+			return this.eventCode;
+		}
+	}
+
+	private final Listener listener = new Listener();
+	private final xcb_generic_event_t[] events = new xcb_generic_event_t[LAST_EVENT_CODE - FIRST_EVENT_CODE + 1];
+	private final xcb_generic_event_t unhandledEvent = new SyntheticXEvent(UNHANDLED_EVENT_CODE);
+	private EventBus xEventBus;
+	private XEventHandlers xEventHandlers;
+	private int next;
+
+	@Setup
+	public void setup() {
+		final AsyncListenableEventBus target = new AsyncListenableEventBus(MoreExecutors.sameThreadExecutor());
+		target.register(this.listener);
+
+		final Set<XEventHandler> handlers = new HashSet<>();
+		for (int eventCode = FIRST_EVENT_CODE; eventCode <= LAST_EVENT_CODE; eventCode++) {
+			if (eventCode != UNHANDLED_EVENT_CODE) {
+				handlers.add(new BenchmarkXEventHandler(eventCode,
+														target));
+			}
+			// set the 'sent by SendEvent' bit on every other event, it must be
+			// masked off.
+			final int responseType = (eventCode % 2) == 0 ? eventCode : eventCode | 0x80;
+			this.events[eventCode - FIRST_EVENT_CODE] = new SyntheticXEvent(responseType);
+		}
+
+		this.xEventBus = new EventBus();
+		this.xEventHandlers = new XEventHandlers(	handlers,
+													this.xEventBus);
+	}
+
+	private xcb_generic_event_t nextEvent() {
+		final xcb_generic_event_t event = this.events[this.next];
+		this.next = (this.next + 1) % this.events.length;
+		return event;
+	}
+
+	@Benchmark
+	public void handleXEvent() {
+		this.xEventHandlers.handleXEvent(nextEvent());
+	}
+
+	@Benchmark
+	public void handleUnhandledXEvent() {
+		this.xEventHandlers.handleXEvent(this.unhandledEvent);
+	}
+
+	@Benchmark
+	public void postXEvent() {
+		this.xEventBus.post(nextEvent());
+	}
+}
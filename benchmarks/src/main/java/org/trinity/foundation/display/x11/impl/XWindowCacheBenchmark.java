@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.x11.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.display.DisplaySurfaceFactory;
+import org.trinity.foundation.api.display.DisplaySurfaceHandle;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Lookups in a {@link XWindowCacheImpl} holding {@link #windows} windows. The
+ * cached {@link XWindow}s have no X connection, a lookup never talks to the X
+ * server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XWindowCacheBenchmark {
+
+	// X window ids of a client start at a resource base.
+	private static final int RESOURCE_BASE = 0x1400000;
+
+	@Param({ "16", "1024" })
+	public int windows;
+
+	private XWindowCacheImpl xWindowCache;
+	private int next;
+
+	@Setup
+	public void setup() {
+		final ListeningExecutorService xExecutor = MoreExecutors.sameThreadExecutor();
+		this.xWindowCache = new XWindowCacheImpl(new DisplaySurfaceFactory() {
+			@Override
+			public DisplaySurface createDisplaySurface(final DisplaySurfaceHandle displaySurfaceHandle) {
+				return new XWindow(	null,
+									null,
+									null,
+									displaySurfaceHandle,
+									xExecutor);
+			}
+		});
+		for (int i = 0; i < this.windows; i++) {
+			this.xWindowCache.getWindow(RESOURCE_BASE + i);
+		}
+	}
+
+	private int nextWindowId() {
+		this.next = (this.next + 1) % this.windows;
+		return RESOURCE_BASE + this.next;
+	}
+
+	@Benchmark
+	public DisplaySurface getWindow() {
+		return this.xWindowCache.getWindow(nextWindowId());
+	}
+
+	@Benchmark
+	public boolean isPresent() {
+		return this.xWindowCache.isPresent(nextWindowId());
+	}
+
+	@Benchmark
+	public boolean isAbsent() {
+		return this.xWindowCache.isPresent(RESOURCE_BASE - 1);
+	}
+}
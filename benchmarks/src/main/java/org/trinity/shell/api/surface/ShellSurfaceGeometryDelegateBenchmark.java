@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.surface;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.foundation.api.display.DisplayArea;
+import org.trinity.foundation.api.display.DisplayAreaManipulator;
+import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.AbstractShellNodeParent;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.scene.impl.BenchmarkScene;
+
+/**
+ * The translation from 'shell space' to 'display space' done by an
+ * {@link AbstractShellSurfaceGeometryDelegate}, for a parent that is nested
+ * {@link #depth} virtual surfaces deep inside a surface.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShellSurfaceGeometryDelegateBenchmark {
+
+	/**
+	 * Finds the closest parent {@link AbstractShellSurface}. The display is
+	 * never touched.
+	 */
+	private static class GeometryDelegate extends AbstractShellSurfaceGeometryDelegate {
+
+		private AbstractShellSurface shellSurface;
+
+		@Override
+		public AbstractShellSurface getShellNode() {
+			return this.shellSurface;
+		}
+
+		@Override
+		public DisplayAreaManipulator getShellNodeManipulator() {
+			return null;
+		}
+
+		@Override
+		protected AbstractShellSurface findClosestSameTypeSurface(@Nonnull final ShellNode node) {
+			ShellNodeParent parent = ((AbstractShellNode) node).getParentImpl();
+			while ((parent != null) && !parent.equals(node)) {
+				if (parent instanceof AbstractShellSurface) {
+					return (AbstractShellSurface) parent;
+				}
+				parent = ((AbstractShellNode) parent).getParentImpl();
+			}
+			return null;
+		}
+
+		@Override
+		protected DisplayArea getSurfacePeer(@Nonnull final ShellSurface shellSurface) {
+			return null;
+		}
+
+		Coordinate relativePosition(final AbstractShellNodeParent shellParent,
+									final Coordinate position) {
+			return calculateRelativePosition(	shellParent,
+												position);
+		}
+	}
+
+	@Param({ "1", "8", "64" })
+	public int depth;
+
+	private final Coordinate position = new Coordinate(	10,
+														10);
+	private final GeometryDelegate geometryDelegate = new GeometryDelegate();
+	private AbstractShellNodeParent nestedParent;
+	private AbstractShellNodeParent topLevelParent;
+
+	@Setup
+	public void setup() {
+		final BenchmarkScene scene = new BenchmarkScene();
+		final AbstractShellSurface shellSurface = new AbstractShellSurface(	null,
+																			scene.getShellScene(),
+																			scene.getShellExecutor()) {
+			@Override
+			public AbstractShellSurfaceGeometryDelegate getShellNodeGeometryDelegate() {
+				return ShellSurfaceGeometryDelegateBenchmark.this.geometryDelegate;
+			}
+
+			@Override
+			public DisplaySurface getDisplaySurfaceImpl() {
+				return null;
+			}
+		};
+		this.geometryDelegate.shellSurface = shellSurface;
+
+		AbstractShellNodeParent parent = shellSurface;
+		for (int i = 0; i < this.depth; i++) {
+			parent = scene.createNode(	parent,
+										5,
+										5,
+										100,
+										100);
+		}
+		this.nestedParent = parent;
+		this.topLevelParent = scene.getRoot();
+	}
+
+	@Benchmark
+	public Coordinate nestedPosition() {
+		return this.geometryDelegate.relativePosition(	this.nestedParent,
+														this.position);
+	}
+
+	@Benchmark
+	public Coordinate topLevelPosition() {
+		return this.geometryDelegate.relativePosition(	this.topLevelParent,
+														this.position);
+	}
+}
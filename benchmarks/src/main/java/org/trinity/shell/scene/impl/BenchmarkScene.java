@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl;
+
+import org.trinity.foundation.api.shared.AsyncListenable;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * A detached shell scene made of {@link ShellVirtualSurface}s for use in
+ * benchmarks. All node calls and events are executed on the calling thread so
+ * a benchmark thread can act as the shell executor.
+ */
+public class BenchmarkScene {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenable shellScene = new AsyncListenableEventBus(this.shellExecutor);
+	private final ShellVirtualSurface root = new ShellVirtualSurface(	null,
+																		this.shellScene,
+																		this.shellExecutor) {
+		@Override
+		public Boolean isVisibleImpl() {
+			// the root has no parent to inherit its visibility from.
+			return Boolean.TRUE;
+		}
+	};
+
+	public ShellVirtualSurface getRoot() {
+		return this.root;
+	}
+
+	public AsyncListenable getShellScene() {
+		return this.shellScene;
+	}
+
+	public ListeningExecutorService getShellExecutor() {
+		return this.shellExecutor;
+	}
+
+	/**
+	 * Create a visible child of the root with the given geometry.
+	 */
+	public ShellVirtualSurface createNode(	final int x,
+											final int y,
+											final int width,
+											final int height) {
+		return createNode(	this.root,
+							x,
+							y,
+							width,
+							height);
+	}
+
+	/**
+	 * Create a visible child of the given parent with the given geometry.
+	 */
+	public ShellVirtualSurface createNode(	final ShellNodeParent parent,
+											final int x,
+											final int y,
+											final int width,
+											final int height) {
+		final ShellVirtualSurface node = new ShellVirtualSurface(	parent,
+																	this.shellScene,
+																	this.shellExecutor);
+		place(	node,
+				x,
+				y,
+				width,
+				height);
+		node.doShowImpl();
+		return node;
+	}
+
+	public static void place(	final AbstractShellNode node,
+								final int x,
+								final int y,
+								final int width,
+								final int height) {
+		node.setPositionImpl(	x,
+								y);
+		node.setSizeImpl(	width,
+							height);
+		node.doMoveResizeImpl();
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.scene.impl.BenchmarkScene;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+import com.google.common.base.Optional;
+
+/**
+ * Point, rectangle and topmost-at-point queries on a {@link ShellSpatialIndexImpl}
+ * holding {@link #nodes} children, next to the incremental update cost of a
+ * moved child. {@link #linearTopmostAt()} is the full walk the index replaces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShellSpatialIndexBenchmark {
+
+	private static final int EXTENT = 8000;
+	private static final int PROBES = 1024;
+
+	@Param({ "10000" })
+	public int nodes;
+
+	private final Random random = new Random(1);
+	private final List<ShellVirtualSurface> children = new ArrayList<>();
+	private final Coordinate[] points = new Coordinate[PROBES];
+	private final Rectangle[] areas = new Rectangle[PROBES];
+	private ShellSpatialIndexImpl index;
+	private int probe;
+
+	@Setup
+	public void setup() {
+		final BenchmarkScene scene = new BenchmarkScene();
+		this.index = new ShellSpatialIndexImpl();
+		for (int i = 0; i < this.nodes; i++) {
+			final ShellVirtualSurface child = scene.createNode(	this.random.nextInt(EXTENT),
+																this.random.nextInt(EXTENT),
+																20 + this.random.nextInt(300),
+																20 + this.random.nextInt(300));
+			this.children.add(child);
+			this.index.addChildNode(child);
+		}
+		for (int i = 0; i < PROBES; i++) {
+			this.points[i] = new Coordinate(this.random.nextInt(EXTENT),
+											this.random.nextInt(EXTENT));
+			this.areas[i] = new ImmutableRectangle(	this.random.nextInt(EXTENT),
+													this.random.nextInt(EXTENT),
+													200,
+													200);
+		}
+	}
+
+	private int nextProbe() {
+		return this.probe = (this.probe + 1) & (PROBES - 1);
+	}
+
+	@Benchmark
+	public List<ShellNode> nodesAt() {
+		return this.index.getNodesAt(this.points[nextProbe()]);
+	}
+
+	@Benchmark
+	public List<ShellNode> nodesIntersecting() {
+		return this.index.getNodesIntersecting(this.areas[nextProbe()]);
+	}
+
+	@Benchmark
+	public Optional<ShellNode> topmostAt() {
+		return this.index.getTopmostNodeAt(this.points[nextProbe()]);
+	}
+
+	@Benchmark
+	public ShellNode linearTopmostAt() {
+		final Coordinate point = this.points[nextProbe()];
+		ShellNode topmost = null;
+		for (final ShellVirtualSurface child : this.children) {
+			final Rectangle geometry = child.getGeometryImpl();
+			final int x = point.getX() - geometry.getPosition().getX();
+			final int y = point.getY() - geometry.getPosition().getY();
+			if (x >= 0 && y >= 0 && x < geometry.getSize().getWidth() && y < geometry.getSize().getHeight()) {
+				topmost = child;
+			}
+		}
+		return topmost;
+	}
+
+	@Benchmark
+	public void moveChild() {
+		final int i = nextProbe();
+		final ShellVirtualSurface child = this.children.get(i);
+		final Coordinate point = this.points[i];
+		child.setPositionImpl(	point.getX(),
+								point.getY());
+		child.doMoveImpl();
+	}
+}
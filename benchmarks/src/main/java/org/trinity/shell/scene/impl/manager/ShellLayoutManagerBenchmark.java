@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.shell.api.scene.manager.ShellLayoutManager;
+import org.trinity.shell.scene.impl.BenchmarkScene;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+/**
+ * Compares how {@link ShellLayoutManagerLineImpl} and
+ * {@link ShellLayoutManagerBspImpl} scale with the number of clients, both
+ * when adopting a whole session one client at a time and when a single client
+ * comes and goes in an existing layout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShellLayoutManagerBenchmark {
+
+	private static final int CONTAINER_SIZE = 8192;
+
+	@State(Scope.Thread)
+	public static class Layout {
+
+		@Param({ "line", "bsp" })
+		public String layout;
+
+		@Param({ "16", "128", "1024" })
+		public int clients;
+
+		ShellVirtualSurface container;
+		ShellLayoutManager layoutManager;
+		List<ShellVirtualSurface> nodes;
+		ShellVirtualSurface extraNode;
+
+		void create() {
+			final BenchmarkScene scene = new BenchmarkScene();
+			this.container = scene.getRoot();
+			BenchmarkScene.place(	this.container,
+									0,
+									0,
+									CONTAINER_SIZE,
+									CONTAINER_SIZE);
+			this.layoutManager = "line".equals(this.layout) ? new ShellLayoutManagerLineImpl()
+					: new ShellLayoutManagerBspImpl();
+			this.nodes = new ArrayList<>(this.clients);
+			for (int i = 0; i < this.clients; i++) {
+				this.nodes.add(scene.createNode(0,
+												0,
+												10,
+												10));
+			}
+			this.extraNode = scene.createNode(	0,
+												0,
+												10,
+												10);
+		}
+	}
+
+	public static class EmptyLayout extends Layout {
+		@Setup(Level.Invocation)
+		public void setup() {
+			create();
+		}
+	}
+
+	public static class FilledLayout extends Layout {
+		@Setup(Level.Trial)
+		public void setup() {
+			create();
+			for (final ShellVirtualSurface node : this.nodes) {
+				this.layoutManager.addChildNode(node);
+			}
+			this.layoutManager.layout(this.container);
+		}
+	}
+
+	@Benchmark
+	public void adoptSession(final EmptyLayout state) {
+		for (final ShellVirtualSurface node : state.nodes) {
+			state.layoutManager.addChildNode(node);
+			state.layoutManager.layout(state.container);
+		}
+	}
+
+	@Benchmark
+	public void insertAndRemove(final FilledLayout state) {
+		state.layoutManager.addChildNode(state.extraNode);
+		state.layoutManager.layout(state.container);
+		state.layoutManager.removeChild(state.extraNode);
+		state.layoutManager.layout(state.container);
+	}
+}
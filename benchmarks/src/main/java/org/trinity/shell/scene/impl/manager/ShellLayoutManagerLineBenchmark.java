@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.manager;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.shell.api.scene.manager.ShellLayoutPlan;
+import org.trinity.shell.api.scene.manager.ShellLayoutSnapshot;
+import org.trinity.shell.scene.impl.BenchmarkScene;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+/**
+ * A full layout pass of a {@link ShellLayoutManagerLineImpl} with
+ * {@link #children} children, split in its side effect free part and the
+ * complete pass that also moves and resizes the children.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShellLayoutManagerLineBenchmark {
+
+	private static final int CONTAINER_WIDTH = 100000;
+	private static final int CONTAINER_HEIGHT = 1080;
+
+	@Param({ "10", "100", "1000", "10000" })
+	public int children;
+
+	private ShellVirtualSurface container;
+	private ShellLayoutManagerLineImpl layoutManager;
+	private boolean wide;
+
+	@Setup
+	public void setup() {
+		final BenchmarkScene scene = new BenchmarkScene();
+		this.container = scene.getRoot();
+		BenchmarkScene.place(	this.container,
+								0,
+								0,
+								CONTAINER_WIDTH,
+								CONTAINER_HEIGHT);
+		this.layoutManager = new ShellLayoutManagerLineImpl();
+		for (int i = 0; i < this.children; i++) {
+			this.layoutManager.addChildNode(scene.createNode(	0,
+																0,
+																10,
+																10));
+		}
+		this.layoutManager.layout(this.container);
+	}
+
+	@Benchmark
+	public ShellLayoutPlan computeLayout() {
+		final ShellLayoutSnapshot snapshot = this.layoutManager.snapshot(this.container);
+		return this.layoutManager.computeLayout(snapshot);
+	}
+
+	@Benchmark
+	public void layout() {
+		// alternate the container width so every pass changes the geometry of
+		// all children.
+		this.wide = !this.wide;
+		BenchmarkScene.place(	this.container,
+								0,
+								0,
+								this.wide ? CONTAINER_WIDTH : CONTAINER_WIDTH / 2,
+								CONTAINER_HEIGHT);
+		this.layoutManager.layout(this.container);
+	}
+}
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.manager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.scene.impl.BenchmarkScene;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Measures the latency of switching between two workspaces, both through
+ * {@link ShellWorkspaceSwitcherImpl} and by hiding and showing the workspaces
+ * one after the other. The windows talk to a fake display that counts the
+ * number of requests and flushes it receives, which are reported next to the
+ * latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShellWorkspaceSwitcherBenchmark {
+
+	@State(Scope.Thread)
+	public static class Workspaces {
+
+		@Param({ "50" })
+		public int windowsPerWorkspace;
+
+		final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+		final FakeDisplay display = new FakeDisplay();
+		ShellWorkspaceSwitcherImpl switcher;
+		ShellVirtualSurface visible;
+		ShellVirtualSurface hidden;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			final BenchmarkScene scene = new BenchmarkScene();
+			this.switcher = new ShellWorkspaceSwitcherImpl(this.shellExecutor);
+			this.visible = createWorkspace(scene);
+			this.hidden = createWorkspace(scene);
+			this.hidden.doHideImpl();
+		}
+
+		ShellVirtualSurface createWorkspace(final BenchmarkScene scene) {
+			final ShellVirtualSurface workspace = scene.createNode(	0,
+																	0,
+																	1920,
+																	1080);
+			final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+			for (int i = 0; i < this.windowsPerWorkspace; i++) {
+				final FakeWindow window = new FakeWindow(	workspace,
+															shellScene,
+															this.shellExecutor,
+															this.display);
+				BenchmarkScene.place(	window,
+										i * 10,
+										i * 10,
+										640,
+										480);
+				window.doShowImpl();
+			}
+			return workspace;
+		}
+
+		void swap() {
+			final ShellVirtualSurface visible = this.visible;
+			this.visible = this.hidden;
+			this.hidden = visible;
+		}
+	}
+
+	/**
+	 * Totals over an iteration. Requests divided by flushes gives the number
+	 * of requests the display receives per flush.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class DisplayCounters {
+		public long requests;
+		public long flushes;
+	}
+
+	@Benchmark
+	public void switchWorkspace(final Workspaces workspaces,
+								final DisplayCounters counters) {
+		workspaces.switcher.switchWorkspaceImpl(workspaces.visible,
+												workspaces.hidden);
+		workspaces.swap();
+		workspaces.display.drainTo(counters);
+	}
+
+	@Benchmark
+	public void hideThenShow(	final Workspaces workspaces,
+								final DisplayCounters counters) {
+		workspaces.visible.doHideImpl();
+		workspaces.hidden.doShowImpl();
+		workspaces.swap();
+		workspaces.display.drainTo(counters);
+	}
+
+	/**
+	 * A display that executes requests on the calling thread and only counts
+	 * them.
+	 */
+	static class FakeDisplay implements DisplayBatch.Target {
+
+		long requests;
+		long flushes;
+
+		void request() {
+			if (!DisplayBatch.add(	this,
+									new Runnable() {
+										@Override
+										public void run() {
+											FakeDisplay.this.requests++;
+										}
+									})) {
+				this.requests++;
+				this.flushes++;
+			}
+		}
+
+		@Override
+		public void execute(final List<Runnable> requests) {
+			for (final Runnable request : requests) {
+				request.run();
+			}
+			this.flushes++;
+		}
+
+		void drainTo(final DisplayCounters counters) {
+			counters.requests += this.requests;
+			counters.flushes += this.flushes;
+			this.requests = 0;
+			this.flushes = 0;
+		}
+	}
+
+	static class FakeWindow extends AbstractShellNode {
+
+		private final ShellNodeGeometryDelegate delegate;
+
+		FakeWindow(	final ShellNodeParent workspace,
+					final AsyncListenableEventBus shellScene,
+					final ListeningExecutorService shellExecutor,
+					final FakeDisplay display) {
+			super(	workspace,
+					shellScene,
+					shellExecutor);
+			this.delegate = new FakeWindowDelegate(	this,
+													display);
+			doReparent(false);
+		}
+
+		@Override
+		public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
+			return this.delegate;
+		}
+	}
+
+	static class FakeWindowDelegate implements ShellNodeGeometryDelegate {
+
+		private final ShellNode shellNode;
+		private final FakeDisplay display;
+
+		FakeWindowDelegate(	final ShellNode shellNode,
+							final FakeDisplay display) {
+			this.shellNode = shellNode;
+			this.display = display;
+		}
+
+		@Override
+		public ShellNode getShellNode() {
+			return this.shellNode;
+		}
+
+		@Override
+		public void lower() {
+			this.display.request();
+		}
+
+		@Override
+		public void raise() {
+			this.display.request();
+		}
+
+		@Override
+		public void move(final Coordinate desiredPosition) {
+			this.display.request();
+		}
+
+		@Override
+		public void resize(final Size desiredSize) {
+			this.display.request();
+		}
+
+		@Override
+		public void moveResize(	final Coordinate desiredPosition,
+								final Size desiredSize) {
+			this.display.request();
+		}
+
+		@Override
+		public void show() {
+			this.display.request();
+		}
+
+		@Override
+		public void hide() {
+			this.display.request();
+		}
+
+		@Override
+		public void reparent(final ShellNodeParent parent) {
+			this.display.request();
+		}
+
+		@Override
+		public void destroy() {
+			this.display.request();
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.display;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/***************************************
+ * Groups the display requests made by the current thread, so the display can
+ * execute them in one go with a single flush, instead of one task and one
+ * flush per request. A batch is opened with {@link #open()} and executed when
+ * it is closed:
+ *
+ * <pre>
+ * final DisplayBatch batch = DisplayBatch.open();
+ * try {
+ * 	displaySurface0.move(10, 10);
+ * 	displaySurface1.move(20, 10);
+ * } finally {
+ * 	batch.close();
+ * }
+ * </pre>
+ *
+ * Batches can be nested. Opening a batch while one is already open on the same
+ * thread joins the open batch. The requests are only executed when the
+ * outermost batch is closed, in the order they were made.
+ * <p>
+ * It is up to the display implementation to decide which requests take part in
+ * a batch. The futures returned by those requests are done once the batch is
+ * executed.
+ * <p>
+ * Code that holds back display requests until later, like the merged geometry
+ * of a shell node, can add a close task with {@link #addCloseTask(Runnable)}
+ * so its requests still end up in the batch.
+ ***************************************
+ */
+@NotThreadSafe
+public final class DisplayBatch implements AutoCloseable {
+
+	/***************************************
+	 * Executes the requests of a batch that were made for the same display.
+	 ***************************************
+	 */
+	public interface Target {
+
+		/***************************************
+		 * Execute all requests in the given order and flush them to the
+		 * display once. This method is called by the thread that closes the
+		 * batch.
+		 *
+		 * @param requests
+		 *            the requests to execute.
+		 ***************************************
+		 */
+		void execute(List<Runnable> requests);
+	}
+
+	private static final ThreadLocal<DisplayBatch> CURRENT_BATCH = new ThreadLocal<>();
+
+	private final Map<Target, List<Runnable>> requestsByTarget = new LinkedHashMap<>();
+	private final List<Runnable> closeTasks = new ArrayList<>();
+	private int depth;
+
+	private DisplayBatch() {
+	}
+
+	/***************************************
+	 * Open a new batch on the current thread, or join the batch that is
+	 * already open.
+	 *
+	 * @return the open {@link DisplayBatch}. It must be closed by the same
+	 *         thread.
+	 ***************************************
+	 */
+	public static DisplayBatch open() {
+		DisplayBatch batch = CURRENT_BATCH.get();
+		if (batch == null) {
+			batch = new DisplayBatch();
+			CURRENT_BATCH.set(batch);
+		}
+		batch.depth++;
+		return batch;
+	}
+
+	/***************************************
+	 * Indicates if a batch is open on the current thread.
+	 *
+	 * @return true if a batch is open, false if not.
+	 ***************************************
+	 */
+	public static boolean isOpen() {
+		return CURRENT_BATCH.get() != null;
+	}
+
+	/***************************************
+	 * Add a request to the batch that is open on the current thread. This
+	 * method is meant to be used by display implementations.
+	 *
+	 * @param target
+	 *            the {@link Target} that will execute the request.
+	 * @param request
+	 *            the request.
+	 * @return true if the request was added, false if no batch is open, in
+	 *         which case the caller should execute the request itself.
+	 ***************************************
+	 */
+	public static boolean add(	final Target target,
+								final Runnable request) {
+		final DisplayBatch batch = CURRENT_BATCH.get();
+		if (batch == null) {
+			return false;
+		}
+		List<Runnable> requests = batch.requestsByTarget.get(target);
+		if (requests == null) {
+			requests = new ArrayList<>();
+			batch.requestsByTarget.put(	target,
+										requests);
+		}
+		requests.add(request);
+		return true;
+	}
+
+	/***************************************
+	 * Run a task when the batch that is open on the current thread is closed,
+	 * before its requests are handed to their {@link Target}. Requests made by
+	 * the task are part of the batch.
+	 *
+	 * @param task
+	 *            the task to run.
+	 * @return true if the task was added, false if no batch is open, in which
+	 *         case the caller should run the task itself.
+	 ***************************************
+	 */
+	public static boolean addCloseTask(final Runnable task) {
+		final DisplayBatch batch = CURRENT_BATCH.get();
+		if (batch == null) {
+			return false;
+		}
+		batch.closeTasks.add(task);
+		return true;
+	}
+
+	/***************************************
+	 * Close this batch. If this is the outermost batch, its close tasks are
+	 * run and then all requests that were added are handed to their
+	 * {@link Target}.
+	 ***************************************
+	 */
+	@Override
+	public void close() {
+		checkState(	CURRENT_BATCH.get() == this,
+					"Batch was not opened by this thread or was already closed.");
+		if (this.depth > 1) {
+			this.depth--;
+			return;
+		}
+		try {
+			// the batch stays open while the close tasks run, a close task
+			// may add more close tasks.
+			while (!this.closeTasks.isEmpty()) {
+				final List<Runnable> closeTasks = new ArrayList<>(this.closeTasks);
+				this.closeTasks.clear();
+				for (final Runnable closeTask : closeTasks) {
+					closeTask.run();
+				}
+			}
+		} finally {
+			this.depth = 0;
+			CURRENT_BATCH.remove();
+			for (final Map.Entry<Target, List<Runnable>> entry : this.requestsByTarget.entrySet()) {
+				entry.getKey().execute(entry.getValue());
+			}
+		}
+	}
+}
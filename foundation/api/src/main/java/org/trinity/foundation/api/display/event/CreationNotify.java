@@ -21,6 +21,7 @@
 package org.trinity.foundation.api.display.event;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import javax.inject.Singleton;
 
@@ -28,21 +29,55 @@ import org.trinity.foundation.api.display.Display;
 import org.trinity.foundation.api.display.DisplaySurface;
 import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
 import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.Rectangle;
+
+import com.google.common.base.Optional;
 
 /**
  * Signals the {@link Display} {@link Singleton} that a new client
- * {@link DisplaySurface} is available.
+ * {@link DisplaySurface} is available. If the event that made the display
+ * discover the client also carried its geometry, it is passed along so
+ * listeners don't need to query it again.
  */
 @Immutable
 @ExecutionContext(DisplayExecutor.class)
 public class CreationNotify extends DisplayEvent {
 	private final DisplaySurface displaySurface;
+	private final Optional<Rectangle> geometry;
+	private final long timestamp = System.nanoTime();
 
 	public CreationNotify(@Nonnull final DisplaySurface displaySurface) {
+		this(	displaySurface,
+				null);
+	}
+
+	public CreationNotify(	@Nonnull final DisplaySurface displaySurface,
+							@Nullable final Rectangle geometry) {
 		this.displaySurface = displaySurface;
+		this.geometry = Optional.fromNullable(geometry);
 	}
 
 	public DisplaySurface getDisplaySurface() {
 		return this.displaySurface;
 	}
+
+	/**
+	 * The geometry of the new {@link DisplaySurface}, if it was known when it
+	 * was discovered.
+	 *
+	 * @return an optional {@link Rectangle}.
+	 */
+	public Optional<Rectangle> getGeometry() {
+		return this.geometry;
+	}
+
+	/**
+	 * The time at which the new {@link DisplaySurface} was discovered, as given
+	 * by {@link System#nanoTime()}.
+	 *
+	 * @return a time in nanoseconds.
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
 }
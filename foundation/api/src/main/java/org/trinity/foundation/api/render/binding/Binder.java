@@ -22,8 +22,13 @@ package org.trinity.foundation.api.render.binding;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
+import java.util.Set;
+
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
+import org.trinity.foundation.api.render.binding.view.ObservableCollection;
+
 /***************************************
  * Binds views to models.
  *
@@ -44,6 +49,22 @@ public interface Binder {
 											@Nonnull Object changedViewModel,
 											@Nonnull String propertyName);
 
+	/***************************************
+	 * Update the bound views so they reflect the state of several changed
+	 * properties of the same model. All properties are updated in a single
+	 * task on the model executor.
+	 *
+	 * @param changedViewModel
+	 *            The view model that changed.
+	 * @param propertyNames
+	 *            The names of the properties that changed.
+	 * @see #updateBinding(ListeningExecutorService, Object, String)
+	 ***************************************
+	 */
+	ListenableFuture<Void> updateBindings(	@Nonnull ListeningExecutorService modelExecutor,
+											@Nonnull Object changedViewModel,
+											@Nonnull Set<String> propertyNames);
+
 	/***************************************
 	 * Bind a view to a model so it reflects the model's state. The given view
 	 * model will be the data context of the given view.
@@ -57,4 +78,21 @@ public interface Binder {
 	ListenableFuture<Void> bind(@Nonnull ListeningExecutorService modelExecutor,
 								@Nonnull Object viewModel,
 								@Nonnull Object view);
-}
\ No newline at end of file
+
+	/***************************************
+	 * Set the range of elements of a virtualized {@link ObservableCollection}
+	 * that is visible. Only the visible elements have a child view.
+	 *
+	 * @param view
+	 *            The view that is bound to the observable collection.
+	 * @param firstVisibleIndex
+	 *            The index of the first visible element.
+	 * @param visibleCount
+	 *            The number of visible elements.
+	 ***************************************
+	 */
+	ListenableFuture<Void> updateVisibleRange(	@Nonnull ListeningExecutorService modelExecutor,
+												@Nonnull Object view,
+												@Nonnegative int firstVisibleIndex,
+												@Nonnegative int visibleCount);
+}
@@ -56,4 +56,15 @@ public @interface EventSignal {
 	 */
 	Class<? extends EventSignalFilter> filter();
 
+	/**
+	 * The minimum time in milliseconds between two invocations of the model
+	 * method. Events that arrive sooner are coalesced into a single invocation
+	 * at the end of the interval. Use it for high frequency events like
+	 * pointer motion. The default of 0 invokes the model method for every
+	 * event.
+	 *
+	 * @return a duration in milliseconds.
+	 */
+	long throttle() default 0;
+
 }
@@ -27,11 +27,29 @@ import javax.annotation.Nonnull;
 /**
  * A filter for view events. An event signal filter is used to listen to a
  * specific view event. When the event arrives, the given {@link Signal} should
- * be {@link Signal#fire()}d. An event signal filter should not keep any state
- * as creation and destruction of the filter is undefined.
+ * be {@link Signal#fire()}d.
+ * <p>
+ * A single event signal filter instance is used for all event signals of the
+ * same filter type on the same view, so it can keep state about the filters
+ * it installed on that view. That state is kept as long as the view is bound,
+ * it should not hold a strong reference to the view itself, or the view is
+ * never garbage collected.
  */
 public interface EventSignalFilter {
 
 	void installFilter(	@Nonnull Object view,
 						@Nonnull Signal signal);
+
+	/**
+	 * Remove a filter previously installed with
+	 * {@link #installFilter(Object, Signal)}, eg because the view is bound
+	 * again. The given signal should not be fired afterwards.
+	 *
+	 * @param view
+	 *            The view the filter was installed on.
+	 * @param signal
+	 *            The signal the filter was installed with.
+	 */
+	void uninstallFilter(	@Nonnull Object view,
+							@Nonnull Signal signal);
 }
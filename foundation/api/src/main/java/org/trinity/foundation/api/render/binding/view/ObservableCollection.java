@@ -30,6 +30,11 @@ import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate
  * Bind every child view of the marked view to the respective element of the
  * referenced collection. Correctly handling these child views is delegated to
  * the {@link ChildViewDelegate}.
+ * <p>
+ * Child views of removed elements are kept so they can be reused for new
+ * elements. A virtualized collection only has child views for the elements in
+ * its visible range, as set by
+ * {@link org.trinity.foundation.api.render.binding.Binder}.
  ***************************************
  */
 @Retention(RetentionPolicy.RUNTIME)
@@ -53,4 +58,21 @@ public @interface ObservableCollection {
 	 ***************************************
 	 */
 	Class<?> view();
-}
\ No newline at end of file
+
+	/***************************************
+	 * Only keep child views for the elements in the visible range.
+	 *
+	 * @return true if the child views are virtualized.
+	 ***************************************
+	 */
+	boolean virtualized() default false;
+
+	/***************************************
+	 * The initial number of visible elements of a virtualized collection,
+	 * starting from the first element.
+	 *
+	 * @return a number of elements.
+	 ***************************************
+	 */
+	int visibleCount() default 32;
+}
@@ -81,4 +81,15 @@ public @interface PropertySlot {
 	 ***************************************
 	 */
 	Class<? extends PropertyAdapter<?>> adapter() default DefaultPropertyAdapter.class;
+
+	/***************************************
+	 * Skip invoking the view method when the adapted property value is equal
+	 * to the value it was last invoked with for the same view. Set to false
+	 * when the view method should see every value, eg when the value is a
+	 * mutable object that can change without its equality changing.
+	 *
+	 * @return true if unchanged values should be skipped.
+	 ***************************************
+	 */
+	boolean memoize() default true;
 }
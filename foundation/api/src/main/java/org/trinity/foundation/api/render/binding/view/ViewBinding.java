@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding.view;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.Optional;
+
+/***************************************
+ * Binding code for a single view class, generated at compile time for every
+ * view class that carries binding annotations. It hands out a typed accessor
+ * for every field and property slot method of the view class, so they don't
+ * have to be accessed through reflection. An accessor is looked up by name
+ * once, when the binding of the view class is planned, and is a direct field
+ * read or method call from then on. Fields and methods that are not visible
+ * to the generated code are not part of the binding.
+ * <p>
+ * Event signals are not part of the binding: their filter is created by the
+ * injector and installs itself on the view, and their slot is a method of the
+ * data context, whose class is only known at runtime.
+ * <p>
+ * Use {@link ViewBindings#find(Class)} to find the generated binding of a view
+ * class.
+ ***************************************
+ */
+@Immutable
+public interface ViewBinding {
+
+	/***************************************
+	 * The accessor of a field of the view class.
+	 *
+	 * @param fieldName
+	 *            The name of a field declared by the view class.
+	 * @return The reader of the field, or absent if the field can not be read
+	 *         through this binding.
+	 ***************************************
+	 */
+	Optional<FieldReader> getFieldReader(@Nonnull String fieldName);
+
+	/***************************************
+	 * The accessor of a single argument method of the view class.
+	 *
+	 * @param methodKey
+	 *            A method key as returned by
+	 *            {@link ViewBindings#toMethodKey(java.lang.reflect.Method)}.
+	 * @return The invoker of the method, or absent if the method can not be
+	 *         invoked through this binding.
+	 ***************************************
+	 */
+	Optional<MethodInvoker> getMethodInvoker(@Nonnull String methodKey);
+
+	/***************************************
+	 * Reads a single field of a view.
+	 ***************************************
+	 */
+	@Immutable
+	interface FieldReader {
+
+		/***************************************
+		 * Read the field of a view.
+		 *
+		 * @param view
+		 *            A view of the class of the binding.
+		 * @return The value of the field.
+		 ***************************************
+		 */
+		@Nullable
+		Object read(@Nonnull Object view);
+	}
+
+	/***************************************
+	 * Invokes a single argument method of a view.
+	 ***************************************
+	 */
+	@Immutable
+	interface MethodInvoker {
+
+		/***************************************
+		 * Invoke the method of a view.
+		 *
+		 * @param view
+		 *            A view of the class of the binding.
+		 * @param argument
+		 *            The method argument, of the parameter type of the method.
+		 ***************************************
+		 */
+		void invoke(@Nonnull Object view,
+					@Nullable Object argument);
+	}
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding.view;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/***************************************
+ * Finds the generated {@link ViewBinding} of a view class. The binding of a
+ * view class {@code a.b.View} is named {@code a.b.View$$ViewBinding}. The use
+ * of generated bindings can be disabled by setting the system property
+ * {@value #GENERATED_BINDINGS_PROPERTY} to false.
+ ***************************************
+ */
+@ThreadSafe
+public final class ViewBindings {
+
+	public static final String VIEW_BINDING_SUFFIX = "$$ViewBinding";
+	public static final String GENERATED_BINDINGS_PROPERTY = "trinity.binding.generated";
+
+	private static final Logger LOG = LoggerFactory.getLogger(ViewBindings.class);
+	private static final boolean GENERATED_BINDINGS_ENABLED = Boolean
+			.parseBoolean(System.getProperty(	GENERATED_BINDINGS_PROPERTY,
+												"true"));
+	private static final Cache<Class<?>, Optional<ViewBinding>> VIEW_BINDINGS = CacheBuilder.newBuilder().weakKeys()
+			.build();
+	private static final Cache<Method, String> METHOD_KEYS = CacheBuilder.newBuilder().weakKeys().build();
+
+	private ViewBindings() {
+	}
+
+	/***************************************
+	 * Find the generated binding of a view class.
+	 *
+	 * @param viewClass
+	 *            A view class.
+	 * @return The generated {@link ViewBinding}, or absent if no binding was
+	 *         generated or generated bindings are disabled.
+	 ***************************************
+	 */
+	public static Optional<ViewBinding> find(@Nonnull final Class<?> viewClass) {
+		if (!GENERATED_BINDINGS_ENABLED) {
+			return Optional.absent();
+		}
+		try {
+			return VIEW_BINDINGS.get(	viewClass,
+										new Callable<Optional<ViewBinding>>() {
+											@Override
+											public Optional<ViewBinding> call() {
+												return loadViewBinding(viewClass);
+											}
+										});
+		} catch (final ExecutionException e) {
+			LOG.error(	"Error while looking up the generated view binding of view class=" + viewClass,
+						e);
+			return Optional.absent();
+		}
+	}
+
+	private static Optional<ViewBinding> loadViewBinding(final Class<?> viewClass) {
+		if (viewClass.isAnonymousClass() || viewClass.isLocalClass() || viewClass.isArray()
+				|| viewClass.isPrimitive()) {
+			// no binding is generated for these.
+			return Optional.absent();
+		}
+		try {
+			final Class<?> viewBindingClass = Class.forName(viewClass.getName() + VIEW_BINDING_SUFFIX,
+															true,
+															viewClass.getClassLoader());
+			return Optional.of((ViewBinding) viewBindingClass.newInstance());
+		} catch (final ClassNotFoundException e) {
+			return Optional.absent();
+		} catch (final InstantiationException | IllegalAccessException e) {
+			LOG.error(	"Can not instantiate the generated view binding of view class=" + viewClass,
+						e);
+			return Optional.absent();
+		}
+	}
+
+	/***************************************
+	 * The key of a method as used by a {@link ViewBinding}: its name followed by
+	 * the names of its parameter types between parentheses, eg
+	 * {@code setText(java.lang.String)}.
+	 *
+	 * @param method
+	 *            A method.
+	 * @return The method key.
+	 ***************************************
+	 */
+	public static String toMethodKey(@Nonnull final Method method) {
+		final String methodKey = METHOD_KEYS.getIfPresent(method);
+		if (methodKey != null) {
+			return methodKey;
+		}
+		final StringBuilder methodKeyBuilder = new StringBuilder(method.getName()).append('(');
+		final Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i > 0) {
+				methodKeyBuilder.append(',');
+			}
+			methodKeyBuilder.append(parameterTypes[i].getName());
+		}
+		final String newMethodKey = methodKeyBuilder.append(')').toString();
+		METHOD_KEYS.put(method,
+						newMethodKey);
+		return newMethodKey;
+	}
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding.view.delegate;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.Optional;
+
+/***************************************
+ * A single change to the child views of a parent view. A list of changes is
+ * applied in order by a {@link ChildViewDelegate}.
+ *
+ * @see ChildViewDelegate#applyChanges(Object, Class, java.util.List)
+ ***************************************
+ */
+@Immutable
+public final class ChildViewChange {
+
+	public enum Type {
+		/**
+		 * Create a new child view at the position.
+		 */
+		CREATE,
+		/**
+		 * Add a previously detached child view at the position.
+		 */
+		ATTACH,
+		/**
+		 * Remove the child view from its parent, but keep it so it can be
+		 * attached again later.
+		 */
+		DETACH,
+		/**
+		 * Remove the child view from its parent and destroy it.
+		 */
+		DESTROY,
+		/**
+		 * Move the child view from its old position to the position.
+		 */
+		MOVE
+	}
+
+	private final Type type;
+	private final Optional<Object> childView;
+	private final int oldPosition;
+	private final int position;
+
+	private ChildViewChange(	final Type type,
+								final Optional<Object> childView,
+								final int oldPosition,
+								final int position) {
+		this.type = type;
+		this.childView = childView;
+		this.oldPosition = oldPosition;
+		this.position = position;
+	}
+
+	public static ChildViewChange create(@Nonnegative final int position) {
+		return new ChildViewChange(	Type.CREATE,
+									Optional.absent(),
+									position,
+									position);
+	}
+
+	public static ChildViewChange attach(	@Nonnull final Object childView,
+											@Nonnegative final int position) {
+		return new ChildViewChange(	Type.ATTACH,
+									Optional.of(checkNotNull(childView)),
+									position,
+									position);
+	}
+
+	public static ChildViewChange detach(	@Nonnull final Object childView,
+											@Nonnegative final int position) {
+		return new ChildViewChange(	Type.DETACH,
+									Optional.of(checkNotNull(childView)),
+									position,
+									position);
+	}
+
+	public static ChildViewChange destroy(	@Nonnull final Object childView,
+											@Nonnegative final int position) {
+		return new ChildViewChange(	Type.DESTROY,
+									Optional.of(checkNotNull(childView)),
+									position,
+									position);
+	}
+
+	public static ChildViewChange move(	@Nonnull final Object childView,
+										@Nonnegative final int oldPosition,
+										@Nonnegative final int newPosition) {
+		return new ChildViewChange(	Type.MOVE,
+									Optional.of(checkNotNull(childView)),
+									oldPosition,
+									newPosition);
+	}
+
+	public Type getType() {
+		return this.type;
+	}
+
+	/***************************************
+	 * The child view this change applies to.
+	 *
+	 * @return The child view, absent for a {@link Type#CREATE}.
+	 ***************************************
+	 */
+	public Optional<Object> getChildView() {
+		return this.childView;
+	}
+
+	/***************************************
+	 * The position of the child view before a {@link Type#MOVE}. For all other
+	 * types this is the same as {@link #getPosition()}.
+	 *
+	 * @return a position (index) relative to the parent.
+	 ***************************************
+	 */
+	public int getOldPosition() {
+		return this.oldPosition;
+	}
+
+	public int getPosition() {
+		return this.position;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(	"%s[%s@%d]",
+								this.type,
+								this.childView.orNull(),
+								this.position);
+	}
+}
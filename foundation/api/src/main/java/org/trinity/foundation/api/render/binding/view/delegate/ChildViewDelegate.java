@@ -19,6 +19,8 @@
  ******************************************************************************/
 package org.trinity.foundation.api.render.binding.view.delegate;
 
+import java.util.List;
+
 import org.trinity.foundation.api.render.bindkey.RenderExecutor;
 import org.trinity.foundation.api.shared.ExecutionContext;
 
@@ -83,4 +85,22 @@ public interface ChildViewDelegate {
 													Object childView,
 													int oldPosition,
 													int newPosition);
+
+	/***************************************
+	 * Apply a batch of changes to the child views of a parent view, in order,
+	 * in a single task.
+	 *
+	 * @param parentView
+	 *            The parent view.
+	 * @param childViewType
+	 *            The type of the child views to create.
+	 * @param changes
+	 *            The {@link ChildViewChange}s to apply.
+	 * @return The child views that were created, one for every
+	 *         {@link ChildViewChange.Type#CREATE} change, in order.
+	 ***************************************
+	 */
+	<T> ListenableFuture<List<T>> applyChanges(	Object parentView,
+												Class<T> childViewType,
+												List<ChildViewChange> changes);
 }
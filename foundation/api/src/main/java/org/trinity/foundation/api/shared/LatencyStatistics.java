@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.shared;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Keeps track of the count, mean and maximum of a series of latencies. Samples
+ * can be recorded from any thread. The statistics are not a consistent
+ * snapshot, each value is read on its own.
+ */
+@ThreadSafe
+public class LatencyStatistics {
+
+	private final String name;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Create new, empty {@code LatencyStatistics}.
+	 *
+	 * @param name
+	 *            a name, used to identify the statistics when printed.
+	 */
+	public LatencyStatistics(@Nonnull final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Add a sample.
+	 *
+	 * @param latencyNanos
+	 *            The latency in nanoseconds.
+	 */
+	public void record(@Nonnegative final long latencyNanos) {
+		this.count.incrementAndGet();
+		this.totalNanos.addAndGet(latencyNanos);
+		long max = this.maxNanos.get();
+		while (latencyNanos > max && !this.maxNanos.compareAndSet(	max,
+																	latencyNanos)) {
+			max = this.maxNanos.get();
+		}
+	}
+
+	/**
+	 * Add a sample that started at the given time and ends now.
+	 *
+	 * @param startNanos
+	 *            a start time, as given by {@link System#nanoTime()}.
+	 */
+	public void recordSince(final long startNanos) {
+		record(Math.max(0,
+						System.nanoTime() - startNanos));
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * The mean of all samples.
+	 *
+	 * @param timeUnit
+	 *            The {@link TimeUnit} of the result.
+	 * @return the mean latency, 0 if there are no samples.
+	 */
+	public long getMean(@Nonnull final TimeUnit timeUnit) {
+		final long count = this.count.get();
+		if (count == 0) {
+			return 0;
+		}
+		return timeUnit.convert(this.totalNanos.get() / count,
+								TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * The largest sample.
+	 *
+	 * @param timeUnit
+	 *            The {@link TimeUnit} of the result.
+	 * @return the maximum latency, 0 if there are no samples.
+	 */
+	public long getMax(@Nonnull final TimeUnit timeUnit) {
+		return timeUnit.convert(this.maxNanos.get(),
+								TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(	"%s[count=%d, mean=%dus, max=%dus]",
+								this.name,
+								getCount(),
+								getMean(TimeUnit.MICROSECONDS),
+								getMax(TimeUnit.MICROSECONDS));
+	}
+}
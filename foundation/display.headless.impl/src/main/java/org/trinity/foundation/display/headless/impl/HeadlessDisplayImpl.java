@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.headless.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.trinity.foundation.api.display.Display;
+import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.display.DisplaySurfaceFactory;
+import org.trinity.foundation.api.display.Screen;
+import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
+import org.trinity.foundation.api.display.event.CreationNotify;
+import org.trinity.foundation.api.display.event.DestroyNotify;
+import org.trinity.foundation.api.display.event.GeometryRequest;
+import org.trinity.foundation.api.display.event.ShowRequest;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.foundation.api.shared.Size;
+
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * A {@link Display} without a display server. Clients live in an in-memory
+ * window tree, and are simulated by injecting the events a real client would
+ * cause: a map request for a new client, configure requests, destruction and
+ * property changes.
+ * <p>
+ * The requests the shell sends to the display are counted by the
+ * {@link HeadlessServer}.
+ */
+@Bind
+@Singleton
+@ThreadSafe
+@ExecutionContext(DisplayExecutor.class)
+public class HeadlessDisplayImpl implements Display {
+
+	private static final Size SCREEN_SIZE = new Size(	Integer.getInteger(	"trinity.headless.width",
+																			1920),
+														Integer.getInteger(	"trinity.headless.height",
+																			1080));
+	private static final int ROOT_WINDOW_ID = 0;
+
+	private final List<DisplaySurface> clientDisplaySurfaces = new ArrayList<DisplaySurface>();
+	private final HeadlessServer headlessServer;
+	private final DisplaySurfaceFactory displaySurfaceFactory;
+	private final ListeningExecutorService displayExecutor;
+	private final AsyncListenableEventBus displayEventBus;
+	private final Screen screen = new HeadlessScreen(SCREEN_SIZE);
+	private final HeadlessWindow rootWindow;
+
+	@Inject
+	HeadlessDisplayImpl(final HeadlessServer headlessServer,
+						final DisplaySurfaceFactory displaySurfaceFactory,
+						@DisplayExecutor final ListeningExecutorService displayExecutor) {
+		this.headlessServer = headlessServer;
+		this.displaySurfaceFactory = displaySurfaceFactory;
+		this.displayExecutor = displayExecutor;
+		this.displayEventBus = new AsyncListenableEventBus(displayExecutor);
+		this.rootWindow = (HeadlessWindow) displaySurfaceFactory.createDisplaySurface(new HeadlessWindowHandle(ROOT_WINDOW_ID));
+		this.displayExecutor.submit(new Runnable() {
+			@Override
+			public void run() {
+				HeadlessDisplayImpl.this.rootWindow.configureImpl(new ImmutableRectangle(	0,
+																					0,
+																					SCREEN_SIZE));
+				HeadlessDisplayImpl.this.rootWindow.show();
+			}
+		});
+	}
+
+	public HeadlessServer getHeadlessServer() {
+		return this.headlessServer;
+	}
+
+	public DisplaySurface getRootDisplaySurface() {
+		return this.rootWindow;
+	}
+
+	@Override
+	public void register(@Nonnull final Object listener) {
+		this.displayEventBus.register(listener);
+	}
+
+	@Override
+	public void register(	@Nonnull final Object listener,
+							@Nonnull final ExecutorService executor) {
+		this.displayEventBus.register(	listener,
+										executor);
+	}
+
+	@Override
+	public void post(@Nonnull final Object event) {
+		this.displayEventBus.post(event);
+	}
+
+	@Override
+	public void unregister(@Nonnull final Object listener) {
+		this.displayEventBus.unregister(listener);
+	}
+
+	@Override
+	public ListenableFuture<Screen> getScreen() {
+		return Futures.immediateFuture(this.screen);
+	}
+
+	@Override
+	public ListenableFuture<List<DisplaySurface>> getClientDisplaySurfaces() {
+		return this.displayExecutor.submit(new Callable<List<DisplaySurface>>() {
+			@Override
+			public List<DisplaySurface> call() {
+				// we return a copy
+				return new ArrayList<DisplaySurface>(HeadlessDisplayImpl.this.clientDisplaySurfaces);
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Void> quit() {
+		return Futures.immediateFuture(null);
+	}
+
+	/**
+	 * Simulate a new client that asks to be mapped. A new window is created
+	 * in the root window, the display is notified of the new client, and the
+	 * new window receives a {@link ShowRequest}.
+	 *
+	 * @param geometry
+	 *            The geometry the client asks for.
+	 * @return The new client window.
+	 */
+	public ListenableFuture<DisplaySurface> injectMapRequest(@Nonnull final Rectangle geometry) {
+		return this.displayExecutor.submit(new Callable<DisplaySurface>() {
+			@Override
+			public DisplaySurface call() {
+				final int windowId = HeadlessDisplayImpl.this.headlessServer.nextWindowId();
+				final HeadlessWindow window = (HeadlessWindow) HeadlessDisplayImpl.this.displaySurfaceFactory
+						.createDisplaySurface(new HeadlessWindowHandle(windowId));
+				window.setParentImpl(HeadlessDisplayImpl.this.rootWindow);
+				window.configureImpl(geometry);
+				trackClient(window);
+
+				post(new CreationNotify(window,
+										geometry));
+				window.post(new ShowRequest());
+				return window;
+			}
+		});
+	}
+
+	/**
+	 * Simulate a client that asks for a new geometry.
+	 *
+	 * @param displaySurface
+	 *            A client window.
+	 * @param geometry
+	 *            The geometry the client asks for.
+	 * @return A future that is done once the request is posted.
+	 */
+	public ListenableFuture<Void> injectConfigureRequest(	@Nonnull final DisplaySurface displaySurface,
+															@Nonnull final Rectangle geometry) {
+		return injectEvent(	displaySurface,
+							new GeometryRequest(geometry,
+												true,
+												true,
+												true,
+												true));
+	}
+
+	/**
+	 * Simulate a client that destroys its window.
+	 *
+	 * @param displaySurface
+	 *            A client window.
+	 * @return A future that is done once the window is destroyed.
+	 */
+	public ListenableFuture<Void> injectDestroy(@Nonnull final DisplaySurface displaySurface) {
+		checkArgument(displaySurface instanceof HeadlessWindow);
+
+		return this.displayExecutor.submit(	new Runnable() {
+												@Override
+												public void run() {
+													((HeadlessWindow) displaySurface).destroyImpl();
+												}
+											},
+											(Void) null);
+	}
+
+	/**
+	 * Simulate a client that changes one of its properties.
+	 *
+	 * @param displaySurface
+	 *            A client window.
+	 * @param name
+	 *            The name of the property.
+	 * @param value
+	 *            The new value of the property.
+	 * @return A future that is done once the change is posted.
+	 */
+	public ListenableFuture<Void> injectPropertyChange(	@Nonnull final DisplaySurface displaySurface,
+														@Nonnull final String name,
+														@Nullable final Object value) {
+		return injectEvent(	displaySurface,
+							new HeadlessPropertyNotify(	name,
+														value));
+	}
+
+	private ListenableFuture<Void> injectEvent(	final DisplaySurface displaySurface,
+												final Object event) {
+		checkArgument(displaySurface instanceof HeadlessWindow);
+
+		return this.displayExecutor.submit(	new Runnable() {
+												@Override
+												public void run() {
+													if (!((HeadlessWindow) displaySurface).isDestroyedImpl()) {
+														displaySurface.post(event);
+													}
+												}
+											},
+											(Void) null);
+	}
+
+	// called by display executor
+	private void trackClient(final DisplaySurface clientDisplaySurface) {
+		clientDisplaySurface.register(new Object() {
+			@Subscribe
+			public void handleClientDestroyed(final DestroyNotify destroyNotify) {
+				HeadlessDisplayImpl.this.clientDisplaySurfaces.remove(clientDisplaySurface);
+			}
+		});
+		this.clientDisplaySurfaces.add(clientDisplaySurface);
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.headless.impl;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.display.DisplaySurfaceFactory;
+import org.trinity.foundation.api.display.DisplaySurfaceHandle;
+import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
+import org.trinity.foundation.api.shared.ExecutionContext;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+@Bind
+@Singleton
+@NotThreadSafe
+@ExecutionContext(DisplayExecutor.class)
+public class HeadlessDisplaySurfaceFactory implements DisplaySurfaceFactory {
+
+	private final HeadlessServer headlessServer;
+	private final ListeningExecutorService displayExecutor;
+
+	@Inject
+	HeadlessDisplaySurfaceFactory(	final HeadlessServer headlessServer,
+									@DisplayExecutor final ListeningExecutorService displayExecutor) {
+		this.headlessServer = headlessServer;
+		this.displayExecutor = displayExecutor;
+	}
+
+	@Override
+	public DisplaySurface createDisplaySurface(final DisplaySurfaceHandle displaySurfaceHandle) {
+		return new HeadlessWindow(	this.headlessServer,
+									displaySurfaceHandle,
+									this.displayExecutor);
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.headless.impl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
+import org.trinity.foundation.api.display.event.DisplayEvent;
+import org.trinity.foundation.api.shared.ExecutionContext;
+
+/**
+ * Signals that a property of a {@link HeadlessWindow} changed. This is the
+ * headless counterpart of an X property notify event.
+ */
+@Immutable
+@ExecutionContext(DisplayExecutor.class)
+public class HeadlessPropertyNotify extends DisplayEvent {
+
+	private final String name;
+	@Nullable
+	private final Object value;
+
+	public HeadlessPropertyNotify(	@Nonnull final String name,
+									@Nullable final Object value) {
+		this.name = name;
+		this.value = value;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	@Nullable
+	public Object getValue() {
+		return this.value;
+	}
+}
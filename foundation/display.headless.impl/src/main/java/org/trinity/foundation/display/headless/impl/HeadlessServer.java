@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.headless.impl;
+
+import static org.apache.onami.autobind.annotations.To.Type.IMPLEMENTATION;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.apache.onami.autobind.annotations.To;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
+import org.trinity.foundation.api.shared.ExecutionContext;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Stands in for the display server. Every request a {@link HeadlessWindow}
+ * receives is counted, and executed on the display executor the same way the
+ * X display would send it: on its own followed by a flush, or as part of a
+ * {@link DisplayBatch} that is flushed once.
+ * <p>
+ * An artificial latency can be configured. It is spent on the display
+ * executor for every flush and for every request that needs a reply, which
+ * is when a real display has to wait for the server.
+ */
+@Bind(to = @To(IMPLEMENTATION))
+@Singleton
+@ThreadSafe
+@ExecutionContext(DisplayExecutor.class)
+public class HeadlessServer implements DisplayBatch.Target {
+
+	private final ListeningExecutorService displayExecutor;
+	private final AtomicInteger nextWindowId = new AtomicInteger(1);
+	private final Map<HeadlessRequest, AtomicLong> requestCounts = new EnumMap<HeadlessRequest, AtomicLong>(HeadlessRequest.class);
+	private final AtomicLong flushCount = new AtomicLong();
+	private volatile long latencyNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong("trinity.headless.latency.micros",
+																						0));
+
+	@Inject
+	HeadlessServer(@DisplayExecutor final ListeningExecutorService displayExecutor) {
+		this.displayExecutor = displayExecutor;
+		for (final HeadlessRequest request : HeadlessRequest.values()) {
+			this.requestCounts.put(	request,
+									new AtomicLong());
+		}
+	}
+
+	/**
+	 * Set the artificial latency of the server. The default is taken from the
+	 * {@code trinity.headless.latency.micros} system property, or 0.
+	 *
+	 * @param latency
+	 *            a latency.
+	 * @param timeUnit
+	 *            The {@link TimeUnit} of the latency.
+	 */
+	public void setLatency(	final long latency,
+							@Nonnull final TimeUnit timeUnit) {
+		this.latencyNanos = timeUnit.toNanos(latency);
+	}
+
+	/**
+	 * The number of requests of the given kind, since the counters were last
+	 * reset.
+	 */
+	public long getRequestCount(@Nonnull final HeadlessRequest request) {
+		return this.requestCounts.get(request).get();
+	}
+
+	/**
+	 * The number of requests of any kind, since the counters were last reset.
+	 */
+	public long getRequestCount() {
+		long count = 0;
+		for (final AtomicLong requestCount : this.requestCounts.values()) {
+			count += requestCount.get();
+		}
+		return count;
+	}
+
+	/**
+	 * The number of flushes, since the counters were last reset.
+	 */
+	public long getFlushCount() {
+		return this.flushCount.get();
+	}
+
+	public void resetCounters() {
+		for (final AtomicLong requestCount : this.requestCounts.values()) {
+			requestCount.set(0);
+		}
+		this.flushCount.set(0);
+	}
+
+	int nextWindowId() {
+		return this.nextWindowId.getAndIncrement();
+	}
+
+	/**
+	 * Count a request and execute it on the display executor, either in the
+	 * {@link DisplayBatch} of the calling thread or on its own.
+	 */
+	ListenableFuture<Void> request(	final HeadlessRequest request,
+									final Runnable requestImpl) {
+		this.requestCounts.get(request).incrementAndGet();
+
+		final ListenableFutureTask<Void> requestTask = ListenableFutureTask.create(	requestImpl,
+																					null);
+		if (DisplayBatch.add(	this,
+								requestTask)) {
+			return requestTask;
+		}
+		return this.displayExecutor.submit(	new Runnable() {
+												@Override
+												public void run() {
+													requestImpl.run();
+													flush();
+												}
+											},
+											(Void) null);
+	}
+
+	/**
+	 * Count a request that needs a reply from the server.
+	 */
+	// called by display executor
+	void roundTrip(final HeadlessRequest request) {
+		this.requestCounts.get(request).incrementAndGet();
+		spendLatency();
+	}
+
+	@Override
+	public void execute(final List<Runnable> requests) {
+		this.displayExecutor.submit(new Runnable() {
+			@Override
+			public void run() {
+				for (final Runnable request : requests) {
+					request.run();
+				}
+				flush();
+			}
+		});
+	}
+
+	// called by display executor
+	private void flush() {
+		this.flushCount.incrementAndGet();
+		spendLatency();
+	}
+
+	private void spendLatency() {
+		final long latencyNanos = this.latencyNanos;
+		if (latencyNanos > 0) {
+			LockSupport.parkNanos(latencyNanos);
+		}
+	}
+}
@@ -0,0 +1,336 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.headless.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.trinity.foundation.api.display.DisplayArea;
+import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.display.DisplaySurfaceHandle;
+import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
+import org.trinity.foundation.api.display.event.DestroyNotify;
+import org.trinity.foundation.api.display.event.GeometryNotify;
+import org.trinity.foundation.api.display.event.HideNotify;
+import org.trinity.foundation.api.display.event.ShowNotify;
+import org.trinity.foundation.api.display.event.StackingChangedNotify;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Rectangle;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * An in-memory window. Requests update the window tree on the display
+ * executor and post the notify events the X server would send back, so the
+ * shell reacts to them the same way it does on a real display.
+ */
+@ExecutionContext(DisplayExecutor.class)
+@ThreadSafe
+public final class HeadlessWindow implements DisplaySurface {
+
+	private final HeadlessServer headlessServer;
+	private final DisplaySurfaceHandle displaySurfaceHandle;
+	private final ListeningExecutorService displayExecutor;
+	private final AsyncListenableEventBus windowEventBus;
+
+	// only accessed by the display executor.
+	private Rectangle geometry = new ImmutableRectangle(0,
+														0,
+														1,
+														1);
+	private boolean mapped;
+	private boolean destroyed;
+	@Nullable
+	private HeadlessWindow parent;
+	// bottom to top.
+	private final List<HeadlessWindow> children = new ArrayList<HeadlessWindow>();
+
+	HeadlessWindow(	@Nonnull final HeadlessServer headlessServer,
+					@Nonnull final DisplaySurfaceHandle displaySurfaceHandle,
+					@Nonnull final ListeningExecutorService displayExecutor) {
+		checkNotNull(displaySurfaceHandle);
+
+		this.headlessServer = headlessServer;
+		this.displaySurfaceHandle = displaySurfaceHandle;
+		this.displayExecutor = displayExecutor;
+		this.windowEventBus = new AsyncListenableEventBus(displayExecutor);
+	}
+
+	@Override
+	public void register(@Nonnull final Object listener) {
+		this.windowEventBus.register(listener);
+	}
+
+	@Override
+	public void register(	@Nonnull final Object listener,
+							@Nonnull final ExecutorService executor) {
+		this.windowEventBus.register(	listener,
+										executor);
+	}
+
+	@Override
+	public void post(@Nonnull final Object event) {
+		this.windowEventBus.post(event);
+	}
+
+	@Override
+	public void unregister(@Nonnull final Object listener) {
+		this.windowEventBus.unregister(listener);
+	}
+
+	@Override
+	public DisplaySurfaceHandle getDisplaySurfaceHandle() {
+		return this.displaySurfaceHandle;
+	}
+
+	@Override
+	public ListenableFuture<Void> destroy() {
+		return this.headlessServer.request(	HeadlessRequest.DESTROY,
+											new Runnable() {
+												@Override
+												public void run() {
+													destroyImpl();
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> setInputFocus() {
+		return this.headlessServer.request(	HeadlessRequest.SET_INPUT_FOCUS,
+											new Runnable() {
+												@Override
+												public void run() {
+													// nothing to do, there is no input.
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> lower() {
+		return this.headlessServer.request(	HeadlessRequest.LOWER,
+											new Runnable() {
+												@Override
+												public void run() {
+													restackImpl(false);
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> raise() {
+		return this.headlessServer.request(	HeadlessRequest.RAISE,
+											new Runnable() {
+												@Override
+												public void run() {
+													restackImpl(true);
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> show() {
+		return this.headlessServer.request(	HeadlessRequest.SHOW,
+											new Runnable() {
+												@Override
+												public void run() {
+													if (!isDestroyedImpl() && !HeadlessWindow.this.mapped) {
+														HeadlessWindow.this.mapped = true;
+														post(new ShowNotify());
+													}
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> hide() {
+		return this.headlessServer.request(	HeadlessRequest.HIDE,
+											new Runnable() {
+												@Override
+												public void run() {
+													if (!isDestroyedImpl() && HeadlessWindow.this.mapped) {
+														HeadlessWindow.this.mapped = false;
+														post(new HideNotify());
+													}
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> move(	final int x,
+										final int y) {
+		return this.headlessServer.request(	HeadlessRequest.MOVE,
+											new Runnable() {
+												@Override
+												public void run() {
+													configureImpl(new ImmutableRectangle(	x,
+																							y,
+																							getGeometryImpl().getSize()));
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> resize(	final int width,
+											final int height) {
+		return this.headlessServer.request(	HeadlessRequest.RESIZE,
+											new Runnable() {
+												@Override
+												public void run() {
+													configureImpl(new ImmutableRectangle(	getGeometryImpl().getPosition(),
+																							width,
+																							height));
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> moveResize(	final int x,
+												final int y,
+												final int width,
+												final int height) {
+		return this.headlessServer.request(	HeadlessRequest.MOVE_RESIZE,
+											new Runnable() {
+												@Override
+												public void run() {
+													configureImpl(new ImmutableRectangle(	x,
+																							y,
+																							width,
+																							height));
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Void> setParent(final DisplayArea parent,
+											final int x,
+											final int y) {
+		checkArgument(parent instanceof HeadlessWindow);
+
+		return this.headlessServer.request(	HeadlessRequest.SET_PARENT,
+											new Runnable() {
+												@Override
+												public void run() {
+													setParentImpl((HeadlessWindow) parent);
+													configureImpl(new ImmutableRectangle(	x,
+																							y,
+																							getGeometryImpl().getSize()));
+												}
+											});
+	}
+
+	@Override
+	public ListenableFuture<Rectangle> getGeometry() {
+		return this.displayExecutor.submit(new Callable<Rectangle>() {
+			@Override
+			public Rectangle call() {
+				HeadlessWindow.this.headlessServer.roundTrip(HeadlessRequest.GET_GEOMETRY);
+				return getGeometryImpl();
+			}
+		});
+	}
+
+	// called by display executor
+	Rectangle getGeometryImpl() {
+		return this.geometry;
+	}
+
+	// called by display executor
+	boolean isMappedImpl() {
+		return this.mapped;
+	}
+
+	// called by display executor
+	boolean isDestroyedImpl() {
+		return this.destroyed;
+	}
+
+	// called by display executor
+	@Nullable
+	HeadlessWindow getParentImpl() {
+		return this.parent;
+	}
+
+	// called by display executor
+	List<HeadlessWindow> getChildrenImpl() {
+		return this.children;
+	}
+
+	// called by display executor
+	void configureImpl(final Rectangle geometry) {
+		if (isDestroyedImpl()) {
+			return;
+		}
+		this.geometry = new ImmutableRectangle(geometry);
+		post(new GeometryNotify(this.geometry));
+	}
+
+	// called by display executor
+	void setParentImpl(@Nullable final HeadlessWindow parent) {
+		if (this.parent != null) {
+			this.parent.children.remove(this);
+		}
+		this.parent = parent;
+		if (parent != null) {
+			parent.children.add(this);
+		}
+	}
+
+	// called by display executor
+	void destroyImpl() {
+		if (isDestroyedImpl()) {
+			return;
+		}
+		for (final HeadlessWindow child : new ArrayList<HeadlessWindow>(this.children)) {
+			child.destroyImpl();
+		}
+		setParentImpl(null);
+		this.mapped = false;
+		this.destroyed = true;
+		post(new DestroyNotify());
+	}
+
+	// called by display executor
+	private void restackImpl(final boolean raise) {
+		if (isDestroyedImpl() || (this.parent == null)) {
+			return;
+		}
+		final List<HeadlessWindow> siblings = this.parent.children;
+		siblings.remove(this);
+		if (raise) {
+			siblings.add(this);
+		} else {
+			siblings.add(	0,
+							this);
+		}
+		post(new StackingChangedNotify());
+	}
+}
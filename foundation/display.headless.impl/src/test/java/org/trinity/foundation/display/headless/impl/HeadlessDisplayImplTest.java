@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.headless.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.display.event.CreationNotify;
+import org.trinity.foundation.api.display.event.DestroyNotify;
+import org.trinity.foundation.api.display.event.GeometryNotify;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Rectangle;
+
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class HeadlessDisplayImplTest {
+
+	private ListeningExecutorService displayExecutor;
+	private HeadlessServer headlessServer;
+	private HeadlessDisplayImpl headlessDisplay;
+
+	@Before
+	public void setup() {
+		this.displayExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+		this.headlessServer = new HeadlessServer(this.displayExecutor);
+		this.headlessDisplay = new HeadlessDisplayImpl(	this.headlessServer,
+														new HeadlessDisplaySurfaceFactory(	this.headlessServer,
+																							this.displayExecutor),
+														this.displayExecutor);
+	}
+
+	@After
+	public void teardown() {
+		this.displayExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testBatchedRequestsAreFlushedOnce() throws InterruptedException, ExecutionException {
+		final List<Object> events = new CopyOnWriteArrayList<Object>();
+		this.headlessDisplay.register(new Object() {
+			@Subscribe
+			public void onCreationNotify(final CreationNotify creationNotify) {
+				events.add(creationNotify);
+			}
+		});
+
+		final DisplaySurface client = this.headlessDisplay.injectMapRequest(new ImmutableRectangle(	0,
+																									0,
+																									100,
+																									100)).get();
+		client.register(new Object() {
+			@Subscribe
+			public void onGeometryNotify(final GeometryNotify geometryNotify) {
+				events.add(geometryNotify);
+			}
+
+			@Subscribe
+			public void onDestroyNotify(final DestroyNotify destroyNotify) {
+				events.add(destroyNotify);
+			}
+		});
+		awaitDisplay();
+		this.headlessServer.resetCounters();
+
+		try (DisplayBatch displayBatch = DisplayBatch.open()) {
+			client.move(10,
+						20);
+			client.resize(	200,
+							300);
+		}
+		awaitDisplay();
+
+		assertEquals(	1,
+						this.headlessServer.getRequestCount(HeadlessRequest.MOVE));
+		assertEquals(	1,
+						this.headlessServer.getRequestCount(HeadlessRequest.RESIZE));
+		assertEquals(	1,
+						this.headlessServer.getFlushCount());
+		final Rectangle geometry = client.getGeometry().get();
+		assertEquals(	10,
+						geometry.getPosition().getX());
+		assertEquals(	20,
+						geometry.getPosition().getY());
+		assertEquals(	200,
+						geometry.getSize().getWidth());
+		assertEquals(	300,
+						geometry.getSize().getHeight());
+		assertEquals(	1,
+						this.headlessDisplay.getClientDisplaySurfaces().get().size());
+
+		this.headlessDisplay.injectDestroy(client).get();
+		awaitDisplay();
+
+		assertTrue(this.headlessDisplay.getClientDisplaySurfaces().get().isEmpty());
+		assertTrue(events.get(0) instanceof CreationNotify);
+		assertTrue(events.get(events.size() - 1) instanceof DestroyNotify);
+	}
+
+	private void awaitDisplay() throws InterruptedException, ExecutionException {
+		// event bus listeners are called by the display executor as well
+		this.displayExecutor.submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}).get();
+	}
+}
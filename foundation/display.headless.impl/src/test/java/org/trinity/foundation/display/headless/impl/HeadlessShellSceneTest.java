@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.headless.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nonnull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.trinity.foundation.api.display.DisplayArea;
+import org.trinity.foundation.api.display.DisplayAreaManipulator;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.display.DisplaySurfaceFactory;
+import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
+import org.trinity.foundation.api.shared.AsyncListenable;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.bindingkey.ShellRootNode;
+import org.trinity.shell.api.bindingkey.ShellScene;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.api.scene.manager.ShellLayoutManager;
+import org.trinity.shell.api.surface.AbstractAsyncShellSurface;
+import org.trinity.shell.api.surface.AbstractShellSurface;
+import org.trinity.shell.api.surface.AbstractShellSurfaceGeometryDelegate;
+import org.trinity.shell.api.surface.ShellSurface;
+import org.trinity.shell.api.surface.ShellSurfaceFactory;
+import org.trinity.shell.scene.impl.manager.ShellLayoutManagerBspImpl;
+import org.trinity.shell.surface.impl.ShellSurfaceFactoryImpl;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+
+/**
+ * Runs the shell scene and shell surfaces against the headless display, with
+ * as many clients as a busy desktop would never have, and counts what reaches
+ * the display.
+ */
+public class HeadlessShellSceneTest {
+
+	private static final int CLIENTS = 10000;
+
+	private ListeningExecutorService displayExecutor;
+	private ListeningExecutorService shellExecutor;
+	private HeadlessDisplayImpl headlessDisplay;
+	private HeadlessServer headlessServer;
+	private ShellSurfaceFactory shellSurfaceFactory;
+	private AbstractShellSurface shellRootNode;
+	private ShellLayoutManager rootLayoutManager;
+
+	@Before
+	public void setup() throws InterruptedException, ExecutionException {
+		this.displayExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+		this.shellExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+		final Injector injector = Guice.createInjector(new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(ListeningExecutorService.class).annotatedWith(DisplayExecutor.class)
+						.toInstance(HeadlessShellSceneTest.this.displayExecutor);
+				bind(ListeningExecutorService.class).annotatedWith(ShellExecutor.class)
+						.toInstance(HeadlessShellSceneTest.this.shellExecutor);
+				bind(AsyncListenable.class).annotatedWith(ShellScene.class)
+						.toInstance(new AsyncListenableEventBus(HeadlessShellSceneTest.this.shellExecutor));
+				bind(DisplaySurfaceFactory.class).to(HeadlessDisplaySurfaceFactory.class);
+			}
+
+			@Provides
+			@Singleton
+			@ShellRootNode
+			ShellNodeParent provideShellRootNode(	final HeadlessDisplayImpl headlessDisplay,
+													@ShellScene final AsyncListenable shellScene,
+													@ShellExecutor final ListeningExecutorService shellExecutor) {
+				return new HeadlessRootSurface(	headlessDisplay.getRootDisplaySurface(),
+												shellScene,
+												shellExecutor);
+			}
+		});
+		this.headlessDisplay = injector.getInstance(HeadlessDisplayImpl.class);
+		this.headlessServer = this.headlessDisplay.getHeadlessServer();
+		this.shellSurfaceFactory = injector.getInstance(ShellSurfaceFactoryImpl.class);
+		this.shellRootNode = (AbstractShellSurface) injector.getInstance(Key.get(	ShellNodeParent.class,
+																					ShellRootNode.class));
+		this.rootLayoutManager = injector.getInstance(ShellLayoutManagerBspImpl.class);
+		this.shellExecutor.submit(new Callable<Void>() {
+			@Override
+			public Void call() {
+				HeadlessShellSceneTest.this.shellRootNode.setSizeImpl(	1920,
+																		1080);
+				HeadlessShellSceneTest.this.shellRootNode.flushSizePlaceValues();
+				HeadlessShellSceneTest.this.shellRootNode.setLayoutManagerImpl(HeadlessShellSceneTest.this.rootLayoutManager);
+				return null;
+			}
+		}).get();
+		awaitDisplay();
+		this.headlessServer.resetCounters();
+	}
+
+	@After
+	public void teardown() {
+		this.shellExecutor.shutdownNow();
+		this.displayExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testNewClientsAreMappedInOneFlush() throws InterruptedException, ExecutionException {
+		final List<ListenableFuture<DisplaySurface>> mapRequests = new ArrayList<ListenableFuture<DisplaySurface>>(CLIENTS);
+		for (int i = 0; i < CLIENTS; i++) {
+			mapRequests.add(this.headlessDisplay.injectMapRequest(new ImmutableRectangle(	i % 100,
+																							i / 100,
+																							100,
+																							100)));
+		}
+		final List<ListenableFuture<ShellSurface>> newClients = new ArrayList<ListenableFuture<ShellSurface>>(CLIENTS);
+		for (final DisplaySurface clientDisplaySurface : Futures.allAsList(mapRequests).get()) {
+			newClients.add(this.shellSurfaceFactory.createShellClientSurface(clientDisplaySurface));
+		}
+		final List<ShellSurface> clients = Futures.allAsList(newClients).get();
+		// the shell asks for the geometry of each new client.
+		assertEquals(	CLIENTS,
+						this.headlessServer.getRequestCount(HeadlessRequest.GET_GEOMETRY));
+
+		this.headlessServer.resetCounters();
+		this.shellExecutor.submit(new Callable<Void>() {
+			@Override
+			public Void call() {
+				manageNewClients(clients);
+				return null;
+			}
+		}).get();
+		awaitDisplay();
+		awaitShell();
+		awaitDisplay();
+
+		// each client is reparented, configured once and mapped, all in a
+		// single flush.
+		assertEquals(	1,
+						this.headlessServer.getFlushCount());
+		assertEquals(	CLIENTS,
+						this.headlessServer.getRequestCount(HeadlessRequest.SET_PARENT));
+		assertEquals(	CLIENTS,
+						this.headlessServer.getRequestCount(HeadlessRequest.MOVE_RESIZE));
+		assertEquals(	CLIENTS,
+						this.headlessServer.getRequestCount(HeadlessRequest.SHOW));
+		assertEquals(	3L * CLIENTS,
+						this.headlessServer.getRequestCount());
+
+		// and the display ends up with the layout of the shell.
+		final List<Rectangle> layedOut = this.shellExecutor.submit(new Callable<List<Rectangle>>() {
+			@Override
+			public List<Rectangle> call() {
+				final List<Rectangle> geometries = new ArrayList<Rectangle>(CLIENTS);
+				for (final ShellSurface client : clients) {
+					geometries.add(((AbstractShellNode) client).getGeometryImpl());
+				}
+				return geometries;
+			}
+		}).get();
+		this.displayExecutor.submit(new Callable<Void>() {
+			@Override
+			public Void call() {
+				for (int i = 0; i < CLIENTS; i++) {
+					final HeadlessWindow window = (HeadlessWindow) ((AbstractAsyncShellSurface) clients.get(i))
+							.getDisplaySurfaceImpl();
+					assertTrue(window.isMappedImpl());
+					assertEquals(	HeadlessShellSceneTest.this.headlessDisplay.getRootDisplaySurface(),
+									window.getParentImpl());
+					assertEquals(	layedOut.get(i).getPosition().getX(),
+									window.getGeometryImpl().getPosition().getX());
+					assertEquals(	layedOut.get(i).getPosition().getY(),
+									window.getGeometryImpl().getPosition().getY());
+					assertEquals(	layedOut.get(i).getSize().getWidth(),
+									window.getGeometryImpl().getSize().getWidth());
+					assertEquals(	layedOut.get(i).getSize().getHeight(),
+									window.getGeometryImpl().getSize().getHeight());
+				}
+				return null;
+			}
+		}).get();
+	}
+
+	// called by shell executor, the same way the window manager adopts the
+	// clients that exist when it starts.
+	private void manageNewClients(final List<ShellSurface> clients) {
+		for (final ShellSurface client : clients) {
+			((AbstractShellNode) client).setParentImpl(this.shellRootNode);
+			this.rootLayoutManager.addChildNode(client);
+		}
+
+		final DisplayBatch batch = DisplayBatch.open();
+		this.shellRootNode.setLayoutSuspended(true);
+		try {
+			this.rootLayoutManager.layout(this.shellRootNode);
+			for (final ShellSurface client : clients) {
+				final AbstractShellNode clientNode = (AbstractShellNode) client;
+				clientNode.doReparentImpl();
+				clientNode.doShowImpl();
+			}
+		} finally {
+			this.shellRootNode.setLayoutSuspended(false);
+			batch.close();
+		}
+	}
+
+	private void awaitDisplay() throws InterruptedException, ExecutionException {
+		await(this.displayExecutor);
+	}
+
+	private void awaitShell() throws InterruptedException, ExecutionException {
+		await(this.shellExecutor);
+	}
+
+	private static void await(final ListeningExecutorService executor) throws InterruptedException,
+			ExecutionException {
+		executor.submit(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}).get();
+	}
+
+	/**
+	 * The shell root, backed by the root window of the headless display.
+	 */
+	private static class HeadlessRootSurface extends AbstractShellSurface {
+
+		private final DisplaySurface rootDisplaySurface;
+		private final ShellNodeGeometryDelegate shellNodeGeometryDelegate = new AbstractShellSurfaceGeometryDelegate() {
+			@Override
+			public AbstractShellSurface getShellNode() {
+				return HeadlessRootSurface.this;
+			}
+
+			@Override
+			public DisplayAreaManipulator getShellNodeManipulator() {
+				return HeadlessRootSurface.this.rootDisplaySurface;
+			}
+
+			@Override
+			protected AbstractShellSurface findClosestSameTypeSurface(@Nonnull final ShellNode node) {
+				return node == HeadlessRootSurface.this ? HeadlessRootSurface.this : null;
+			}
+
+			@Override
+			protected DisplayArea getSurfacePeer(@Nonnull final ShellSurface shellSurface) {
+				return ((AbstractAsyncShellSurface) shellSurface).getDisplaySurfaceImpl();
+			}
+		};
+
+		HeadlessRootSurface(final DisplaySurface rootDisplaySurface,
+							final AsyncListenable shellScene,
+							final ListeningExecutorService shellExecutor) {
+			super(	null,
+					shellScene,
+					shellExecutor);
+			this.rootDisplaySurface = rootDisplaySurface;
+		}
+
+		@Override
+		public Boolean isVisibleImpl() {
+			// the root has no parent to inherit its visibility from.
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
+			return this.shellNodeGeometryDelegate;
+		}
+
+		@Override
+		public DisplaySurface getDisplaySurfaceImpl() {
+			return this.rootDisplaySurface;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.display.x11.impl;
+
+import static org.apache.onami.autobind.annotations.To.Type.IMPLEMENTATION;
+import static org.freedesktop.xcb.LibXcb.xcb_flush;
+
+import java.util.List;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.apache.onami.autobind.annotations.To;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.display.x11.api.XConnection;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Executes the X requests of a {@link DisplayBatch} as a single task on the
+ * display executor, followed by a single flush of the X connection.
+ */
+@Bind(to = @To(IMPLEMENTATION))
+@Singleton
+@ThreadSafe
+@ExecutionContext(DisplayExecutor.class)
+public class XBatchTarget implements DisplayBatch.Target {
+
+	private static final Logger LOG = LoggerFactory.getLogger(XBatchTarget.class);
+
+	private final XConnection xConnection;
+	private final ListeningExecutorService xExecutor;
+
+	@Inject
+	XBatchTarget(	final XConnection xConnection,
+					@DisplayExecutor final ListeningExecutorService xExecutor) {
+		this.xConnection = xConnection;
+		this.xExecutor = xExecutor;
+	}
+
+	@Override
+	public void execute(final List<Runnable> requests) {
+		this.xExecutor.submit(new Runnable() {
+			@Override
+			public void run() {
+				LOG.debug(	"execute batch of {} requests.",
+							requests.size());
+				for (final Runnable request : requests) {
+					request.run();
+				}
+				xcb_flush(XBatchTarget.this.xConnection.getConnectionReference().get());
+			}
+		});
+	}
+}
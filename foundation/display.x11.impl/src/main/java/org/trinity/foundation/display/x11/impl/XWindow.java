@@ -55,6 +55,7 @@ import org.freedesktop.xcb.xcb_get_geometry_reply_t;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.trinity.foundation.api.display.DisplayArea;
+import org.trinity.foundation.api.display.DisplayBatch;
 import org.trinity.foundation.api.display.DisplaySurface;
 import org.trinity.foundation.api.display.DisplaySurfaceHandle;
 import org.trinity.foundation.api.display.bindkey.DisplayExecutor;
@@ -65,9 +66,9 @@ import org.trinity.foundation.api.shared.Rectangle;
 import org.trinity.foundation.display.x11.api.XConnection;
 import org.trinity.foundation.display.x11.api.XcbErrorUtil;
 
-import com.google.common.base.Function;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -95,16 +96,21 @@ public final class XWindow implements DisplaySurface {
     private final XTime xTime;
     private final ListeningExecutorService xExecutor;
     private final AsyncListenableEventBus xWindowEventBus;
+    private final XBatchTarget xBatchTarget;
+    // -1 while unknown.
+    private volatile int borderWidth = -1;
 
     @AssistedInject
     XWindow(final XTime xTime,
             final XConnection xConnection,
+            final XBatchTarget xBatchTarget,
             @Nonnull @Assisted final DisplaySurfaceHandle resourceHandle,
             @DisplayExecutor final ListeningExecutorService xExecutor) {
         checkNotNull(resourceHandle);
 
         this.xTime = xTime;
         this.xConnection = xConnection;
+        this.xBatchTarget = xBatchTarget;
         this.resourceHandle = resourceHandle;
         this.xExecutor = xExecutor;
         this.xWindowEventBus = new AsyncListenableEventBus(xExecutor);
@@ -140,7 +146,7 @@ public final class XWindow implements DisplaySurface {
     @Override
     public ListenableFuture<Void> destroy() {
         final int winId = getWindowId();
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
 
             @Override
             public void run() {
@@ -148,10 +154,8 @@ public final class XWindow implements DisplaySurface {
                         winId);
                 xcb_destroy_window(getConnectionRef(),
                         winId);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     private int getWindowId() {
@@ -162,13 +166,41 @@ public final class XWindow implements DisplaySurface {
         return this.xConnection.getConnectionReference().get();
     }
 
+    /**
+     * Execute an X request on the display executor. If a {@link DisplayBatch}
+     * is open on the calling thread, the request is added to the batch and
+     * flushed together with the other requests of the batch. Otherwise the
+     * request is executed on its own and flushed immediately.
+     *
+     * @param request
+     *            the X request, without a flush.
+     * @return a future that is done once the request is executed.
+     */
+    private ListenableFuture<Void> request(final Runnable request) {
+        final ListenableFutureTask<Void> requestTask = ListenableFutureTask.create(request,
+                null);
+        if (DisplayBatch.add(this.xBatchTarget,
+                requestTask)) {
+            return requestTask;
+        }
+
+        return this.xExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                request.run();
+                xcb_flush(getConnectionRef());
+            }
+        },
+                null);
+    }
+
     @Override
     public ListenableFuture<Void> setInputFocus() {
 
         final int winId = getWindowId();
         final int time = this.xTime.getTime();
 
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
 
             @Override
             public void run() {
@@ -178,10 +210,8 @@ public final class XWindow implements DisplaySurface {
                         (short) XCB_INPUT_FOCUS_NONE,
                         winId,
                         time);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     @Override
@@ -189,7 +219,7 @@ public final class XWindow implements DisplaySurface {
 
         final int winId = getWindowId();
 
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
 
             @Override
             public void run() {
@@ -199,17 +229,15 @@ public final class XWindow implements DisplaySurface {
                         winId,
                         XWindow.LOWER_VALUE_MASK,
                         XWindow.LOWER_VALUE_LIST_BUFFER);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     @Override
     public ListenableFuture<Void> show() {
         final int winId = getWindowId();
 
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
 
             @Override
             public void run() {
@@ -217,17 +245,15 @@ public final class XWindow implements DisplaySurface {
                         winId);
                 xcb_map_window(getConnectionRef(),
                         winId);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     @Override
     public ListenableFuture<Void> move(final int x,
                                        final int y) {
 
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
 
             @Override
             public void run() {
@@ -243,10 +269,8 @@ public final class XWindow implements DisplaySurface {
                         winId,
                         XWindow.MOVE_VALUE_MASK,
                         XWindow.MOVE_VALUE_LIST_BUFFER);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     @Override
@@ -254,71 +278,76 @@ public final class XWindow implements DisplaySurface {
                                              final int y,
                                              final int width,
                                              final int height) {
-        // we have to adjust the size with the X border. This sucks because it
-        // introduces an extra roundtrip to the X server. -_-
-
         final int winId = getWindowId();
-        final ListenableFuture<xcb_get_geometry_cookie_t> geometryRequest = this.xExecutor
-                .submit(new Callable<xcb_get_geometry_cookie_t>() {
-                    @Override
-                    public xcb_get_geometry_cookie_t call() {
-                        LOG.debug("[winId={}] get geometry request.",
-                                winId);
 
-                        return xcb_get_geometry(getConnectionRef(),
-                                winId);
-                    }
-                });
+        return request(new Runnable() {
+            @Override
+            public void run() {
+                final int borderAdjust = 2 * getBorderWidth(winId);
+                final int adjustedWidth = width - borderAdjust;
+                final int adjustedHeight = height - borderAdjust;
 
-        final ListenableFuture<Integer> borderFuture = transform(geometryRequest,
-                new Function<xcb_get_geometry_cookie_t, Integer>() {
-                    @Override
-                    public Integer apply(final xcb_get_geometry_cookie_t cookie_t) {
-                        final xcb_generic_error_t e = new xcb_generic_error_t();
-                        final xcb_get_geometry_reply_t reply = xcb_get_geometry_reply(getConnectionRef(),
-                                cookie_t,
-                                e);
-
-                        checkError(e);
-                        return reply.getBorder_width();
-                    }
-                });
+                MOVE_RESIZE_VALUE_LIST_BUFFER.clear();
+                MOVE_RESIZE_VALUE_LIST_BUFFER.putInt(x).putInt(y).putInt(adjustedWidth)
+                        .putInt(adjustedHeight);
 
-        return transform(borderFuture,
-                new Function<Integer, Void>() {
-                    @Override
-                    public Void apply(final Integer border) {
-
-                        final int borderAdjust = 2 * border;
-                        final int adjustedWidth = width - borderAdjust;
-                        final int adjustedHeight = height - borderAdjust;
-
-                        MOVE_RESIZE_VALUE_LIST_BUFFER.clear();
-                        MOVE_RESIZE_VALUE_LIST_BUFFER.putInt(x).putInt(y).putInt(adjustedWidth)
-                                .putInt(adjustedHeight);
-                        final int winId = getWindowId();
-
-                        LOG.debug("[winId={}] move resize x={}, y={}, width={}, height={}.",
-                                winId,
-                                x,
-                                y,
-                                adjustedWidth,
-                                adjustedHeight);
-                        xcb_configure_window(getConnectionRef(),
-                                winId,
-                                XWindow.MOVE_RESIZE_VALUE_MASK,
-                                XWindow.MOVE_RESIZE_VALUE_LIST_BUFFER);
-                        xcb_flush(getConnectionRef());
-                        return null;
-                    }
-                });
+                LOG.debug("[winId={}] move resize x={}, y={}, width={}, height={}.",
+                        winId,
+                        x,
+                        y,
+                        adjustedWidth,
+                        adjustedHeight);
+                xcb_configure_window(getConnectionRef(),
+                        winId,
+                        XWindow.MOVE_RESIZE_VALUE_MASK,
+                        XWindow.MOVE_RESIZE_VALUE_LIST_BUFFER);
+            }
+        });
+    }
+
+    /**
+     * We have to adjust the size with the X border. The border width is
+     * cached, so only the first call that happens before the border width is
+     * known from a configure notify or geometry reply does a roundtrip to the
+     * X server.
+     */
+    private int getBorderWidth(final int winId) {
+        final int cachedBorderWidth = this.borderWidth;
+        if (cachedBorderWidth >= 0) {
+            return cachedBorderWidth;
+        }
+
+        LOG.debug("[winId={}] get geometry request.",
+                winId);
+        final xcb_get_geometry_cookie_t cookie_t = xcb_get_geometry(getConnectionRef(),
+                winId);
+        final xcb_generic_error_t e = new xcb_generic_error_t();
+        final xcb_get_geometry_reply_t reply = xcb_get_geometry_reply(getConnectionRef(),
+                cookie_t,
+                e);
+
+        checkError(e);
+        final int replyBorderWidth = reply.getBorder_width();
+        setBorderWidth(replyBorderWidth);
+        return replyBorderWidth;
+    }
+
+    /**
+     * Update the cached border width of this window, eg when it is received
+     * in a configure notify event.
+     *
+     * @param borderWidth
+     *            the border width of this window as known by the X server.
+     */
+    public void setBorderWidth(final int borderWidth) {
+        this.borderWidth = borderWidth;
     }
 
     @Override
     public ListenableFuture<Void> raise() {
         final int winId = getWindowId();
 
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
 
             @Override
             public void run() {
@@ -328,10 +357,8 @@ public final class XWindow implements DisplaySurface {
                         winId,
                         XWindow.RAISE_VALUE_MASK,
                         XWindow.RAISE_VALUE_LIST_BUFFER);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     @Override
@@ -342,7 +369,7 @@ public final class XWindow implements DisplaySurface {
         final int parentId = ((Integer) ((DisplaySurface) parent).getDisplaySurfaceHandle().getNativeHandle());
         final int winId = getWindowId();
 
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
 
             @Override
             public void run() {
@@ -357,74 +384,41 @@ public final class XWindow implements DisplaySurface {
                         parentId,
                         (short) x,
                         (short) y);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     @Override
     public ListenableFuture<Void> resize(final int width,
                                          final int height) {
-        // we have to adjust the size with the X border. This sucks because it
-        // introduces an extra roundtrip to the X server. -_-
-
         final int winId = getWindowId();
-        final ListenableFuture<xcb_get_geometry_cookie_t> geometryRequest = this.xExecutor
-                .submit(new Callable<xcb_get_geometry_cookie_t>() {
-                    @Override
-                    public xcb_get_geometry_cookie_t call() {
-                        LOG.debug("[winId={}] get geometry request.",
-                                winId);
-
-                        return xcb_get_geometry(getConnectionRef(),
-                                winId);
-                    }
-                });
 
-        final ListenableFuture<Integer> borderFuture = transform(geometryRequest,
-                new Function<xcb_get_geometry_cookie_t, Integer>() {
-                    @Override
-                    public Integer apply(final xcb_get_geometry_cookie_t cookie_t) {
-                        final xcb_generic_error_t e = new xcb_generic_error_t();
-                        final xcb_get_geometry_reply_t reply = xcb_get_geometry_reply(getConnectionRef(),
-                                cookie_t,
-                                e);
-
-                        checkError(e);
-                        return reply.getBorder_width();
-                    }
-                });
+        return request(new Runnable() {
+            @Override
+            public void run() {
+                final int borderAdjust = 2 * getBorderWidth(winId);
+                final int adjustedWidth = width - borderAdjust;
+                final int adjustedHeight = height - borderAdjust;
 
-        return transform(borderFuture,
-                new Function<Integer, Void>() {
-                    @Override
-                    public Void apply(final Integer border) {
-                        final int borderAdjust = 2 * border;
-                        final int adjustedWidth = width - borderAdjust;
-                        final int adjustedHeight = height - borderAdjust;
-
-                        LOG.debug("[winId={}] resize width={}, height={}.",
-                                adjustedWidth,
-                                adjustedHeight,
-                                winId);
+                LOG.debug("[winId={}] resize width={}, height={}.",
+                        adjustedWidth,
+                        adjustedHeight,
+                        winId);
 
-                        RESIZE_VALUE_LIST.clear();
-                        RESIZE_VALUE_LIST.putInt(adjustedWidth).putInt(adjustedHeight);
-                        xcb_configure_window(getConnectionRef(),
-                                winId,
-                                RESIZE_VALUE_MASK,
-                                RESIZE_VALUE_LIST);
-                        xcb_flush(getConnectionRef());
-                        return null;
-                    }
-                });
+                RESIZE_VALUE_LIST.clear();
+                RESIZE_VALUE_LIST.putInt(adjustedWidth).putInt(adjustedHeight);
+                xcb_configure_window(getConnectionRef(),
+                        winId,
+                        RESIZE_VALUE_MASK,
+                        RESIZE_VALUE_LIST);
+            }
+        });
     }
 
     @Override
     public ListenableFuture<Void> hide() {
         final int winId = getWindowId();
-        return this.xExecutor.submit(new Runnable() {
+        return request(new Runnable() {
             @Override
             public void run() {
                 XWindow.LOG.debug("[winId={}] hide.",
@@ -432,10 +426,8 @@ public final class XWindow implements DisplaySurface {
 
                 xcb_unmap_window(getConnectionRef(),
                         winId);
-                xcb_flush(getConnectionRef());
             }
-        },
-                null);
+        });
     }
 
     @Override
@@ -475,6 +467,7 @@ public final class XWindow implements DisplaySurface {
                         e);
 
                 checkError(e);
+                setBorderWidth(get_geometry_reply.getBorder_width());
                 final int width = get_geometry_reply.getWidth() + (2 * get_geometry_reply.getBorder_width());
                 final int height = get_geometry_reply.getHeight() + (2 * get_geometry_reply.getBorder_width());
                 final int x = get_geometry_reply.getX();
@@ -37,6 +37,7 @@ import org.trinity.foundation.api.shared.ImmutableRectangle;
 import org.trinity.foundation.api.shared.Rectangle;
 import org.trinity.foundation.display.x11.api.XEventHandler;
 import org.trinity.foundation.display.x11.api.bindkey.XEventBus;
+import org.trinity.foundation.display.x11.impl.XWindow;
 import org.trinity.foundation.display.x11.impl.XWindowCacheImpl;
 
 import com.google.common.eventbus.EventBus;
@@ -70,6 +71,12 @@ public class ConfigureNotifyHandler implements XEventHandler {
 
 		this.xEventBus.post(configure_notify_event);
 
+		final int windowId = configure_notify_event.getWindow();
+		if (this.xWindowCache.isPresent(windowId)) {
+			// so resizing the window doesn't have to query its border width.
+			((XWindow) this.xWindowCache.getWindow(windowId)).setBorderWidth(configure_notify_event.getBorder_width());
+		}
+
 		final int x = configure_notify_event.getX();
 		final int y = configure_notify_event.getY();
 		final int width = configure_notify_event.getWidth() + (2 * configure_notify_event.getBorder_width());
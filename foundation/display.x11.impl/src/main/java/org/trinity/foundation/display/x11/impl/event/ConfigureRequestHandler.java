@@ -72,6 +72,8 @@ public class ConfigureRequestHandler implements XEventHandler {
 			.putInt(CLIENT_EVENT_MASK);
 	private static final Logger LOG = LoggerFactory.getLogger(ConfigureRequestHandler.class);
 	private static final Integer EVENT_CODE = XCB_CONFIGURE_REQUEST;
+	private static final int CONFIGURE_GEOMETRY_MASK = XCB_CONFIG_WINDOW_X | XCB_CONFIG_WINDOW_Y
+			| XCB_CONFIG_WINDOW_WIDTH | XCB_CONFIG_WINDOW_HEIGHT;
 	private final XConnection xConnection;
 	private final XWindowCacheImpl xWindowCache;
 	private final EventBus xEventBus;
@@ -136,13 +138,32 @@ public class ConfigureRequestHandler implements XEventHandler {
 			configureClientEvents(displayEventTarget);
 			// this is a bit of a dirty hack to work around X's model of client
 			// discovery.
-			final CreationNotify creationNotify = new CreationNotify(displayEventTarget);
+			final CreationNotify creationNotify = new CreationNotify(	displayEventTarget,
+																		getRequestedGeometry(request_event_t));
 			this.display.post(creationNotify);
 		}
 
 		return Optional.of(displayEventTarget);
 	}
 
+	/**
+	 * The geometry of a new client, if the request configures all of it. This
+	 * is usually the case for a new client, and saves asking the X server for
+	 * it.
+	 */
+	private Rectangle getRequestedGeometry(final xcb_configure_request_event_t request_event_t) {
+		final int valueMask = request_event_t.getValue_mask();
+		if ((valueMask & CONFIGURE_GEOMETRY_MASK) != CONFIGURE_GEOMETRY_MASK) {
+			return null;
+		}
+		final int width = request_event_t.getWidth() + (2 * request_event_t.getBorder_width());
+		final int height = request_event_t.getHeight() + (2 * request_event_t.getBorder_width());
+		return new ImmutableRectangle(	request_event_t.getX(),
+										request_event_t.getY(),
+										width,
+										height);
+	}
+
 	private void configureClientEvents(final DisplaySurface window) {
 		final int winId = (Integer) window.getDisplaySurfaceHandle().getNativeHandle();
 
@@ -35,6 +35,7 @@ import org.trinity.foundation.display.x11.api.XConnection;
 
 import xcb4j.LibXcbLoader;
 
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 
 @Ignore
@@ -98,10 +99,14 @@ public class XWindowTest {
 
 		final XWindowHandle xWindowHandle = new XWindowHandle(this.windowId);
 
+		final ListeningExecutorService xExecutor = MoreExecutors.listeningDecorator(Executors
+				.newSingleThreadExecutor());
 		this.xWindow = new XWindow(	this.xTime,
 									XWindowTest.xConnection,
+									new XBatchTarget(	XWindowTest.xConnection,
+														xExecutor),
 									xWindowHandle,
-									MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor()));
+									xExecutor);
 	}
 
 	@After
@@ -22,49 +22,49 @@ package org.trinity.foundation.api.render.binding;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.util.concurrent.Futures.addCallback;
 import static java.lang.String.format;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.apache.onami.autobind.annotations.Bind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.render.binding.BindingDependencyIndex.DataContextDependent;
+import org.trinity.foundation.api.render.binding.BindingDependencyIndex.PropertySlotDependent;
+import org.trinity.foundation.api.render.binding.BindingRegistry.ViewState;
+import org.trinity.foundation.api.render.binding.ViewBindingPlan.ChildViewElement;
+import org.trinity.foundation.api.render.binding.ViewBindingPlan.PropertySlotBinding;
 import org.trinity.foundation.api.render.binding.view.DataContext;
 import org.trinity.foundation.api.render.binding.view.EventSignal;
 import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
 import org.trinity.foundation.api.render.binding.view.EventSignals;
 import org.trinity.foundation.api.render.binding.view.ObservableCollection;
-import org.trinity.foundation.api.render.binding.view.PropertyAdapter;
 import org.trinity.foundation.api.render.binding.view.PropertySlot;
 import org.trinity.foundation.api.render.binding.view.PropertySlots;
 import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
 import org.trinity.foundation.api.render.binding.view.delegate.PropertySlotInvocatorDelegate;
 
 import ca.odell.glazedlists.EventList;
-import ca.odell.glazedlists.event.ListEvent;
-import ca.odell.glazedlists.event.ListEventListener;
 
 import com.google.common.base.CaseFormat;
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
-import com.google.common.base.Splitter;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.Sets;
-import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
@@ -77,22 +77,20 @@ import com.google.inject.Singleton;
 public class BinderImpl implements Binder {
 
     private static final Logger LOG = LoggerFactory.getLogger(BinderImpl.class);
-    private static final Cache<Class<?>, Cache<String, Optional<Method>>> GETTER_CACHE = CacheBuilder.newBuilder()
-            .build();
-    private static final Cache<Class<?>, Field[]> DECLARED_FIELDS_CACHE = CacheBuilder.newBuilder()
-            .build();
+    private static final Cache<Class<?>, Cache<String, Optional<MethodHandle>>> GETTER_CACHE = CacheBuilder
+            .newBuilder().build();
     private static final String GET_BOOLEAN_PREFIX = "is";
     private static final String GET_PREFIX = "get";
+    private static final Joiner PROPERTY_PATH_JOINER = Joiner.on('.');
     private final PropertySlotInvocatorDelegate propertySlotDelegate;
     private final Injector injector;
     private final ChildViewDelegate childViewDelegate;
 
-    private final Map<Object, Object> dataContextValueByView = new WeakHashMap<>();
-    private final Map<Object, Set<Object>> viewsByDataContextValue = new WeakHashMap<>();
-    private final Map<Object, PropertySlots> propertySlotsByView = new WeakHashMap<>();
-    private final Map<Object, ObservableCollection> observableCollectionByView = new WeakHashMap<>();
-    private final Map<Object, EventSignals> inputSignalsByView = new WeakHashMap<>();
-    private final Map<Object, Map<Object, DataContext>> dataContextByViewByParentDataContextValue = new WeakHashMap<>();
+    private final BindingRegistry registry = new BindingRegistry();
+    private final BindingDependencyIndex dependencyIndex = new BindingDependencyIndex();
+    private final ChildViewPool childViewPool = new ChildViewPool();
+    private final AtomicLong propertySlotInvocations = new AtomicLong();
+    private final AtomicLong suppressedPropertySlotInvocations = new AtomicLong();
 
     @Inject
     BinderImpl(final Injector injector,
@@ -158,6 +156,89 @@ public class BinderImpl implements Binder {
         });
     }
 
+    @Override
+    public ListenableFuture<Void> updateBindings(final ListeningExecutorService modelExecutor,
+                                                 final Object model,
+                                                 final Set<String> propertyNames) {
+        checkNotNull(modelExecutor);
+        checkNotNull(model);
+        checkNotNull(propertyNames);
+
+        return modelExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                for (final String propertyName : propertyNames) {
+                    updateBindingImpl(modelExecutor,
+                            model,
+                            propertyName);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Void> updateVisibleRange(final ListeningExecutorService modelExecutor,
+                                                     final Object view,
+                                                     final int firstVisibleIndex,
+                                                     final int visibleCount) {
+        checkNotNull(modelExecutor);
+        checkNotNull(view);
+        checkArgument(firstVisibleIndex >= 0 && visibleCount >= 0);
+
+        return modelExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                final Optional<ViewState> optionalViewState = BinderImpl.this.registry.getViewState(view);
+                if (!optionalViewState.isPresent()) {
+                    return null;
+                }
+                final Optional<ObservableCollectionBinding> optionalObservableCollectionBinding = optionalViewState
+                        .get().getObservableCollectionBinding();
+                if (optionalObservableCollectionBinding.isPresent()) {
+                    optionalObservableCollectionBinding.get().updateVisibleRange(firstVisibleIndex,
+                            visibleCount);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Undo the binding of a view and its child views, so it can be bound to a
+     * different data context. The last property slot arguments are kept as
+     * they still apply to the view. Installed event signal filters are
+     * replaced when the view is bound again.
+     */
+    protected void unbindView(final Object view) {
+        checkNotNull(view);
+
+        if (!this.registry.unregister(view).isPresent()) {
+            // not bound
+            return;
+        }
+        this.dependencyIndex.removeDependents(view);
+        final Optional<ObservableCollectionBinding> optionalObservableCollectionBinding = this.registry
+                .getOrCreateViewState(view).setObservableCollectionBinding(null);
+        if (optionalObservableCollectionBinding.isPresent()) {
+            optionalObservableCollectionBinding.get().dispose();
+        }
+
+        try {
+            for (final ChildViewElement childViewElement : ViewBindingPlan.forViewClass(view.getClass())
+                    .getChildViewElements()) {
+                final Object childView = childViewElement.getChildView(view);
+                if (childView != null) {
+                    unbindView(childView);
+                }
+            }
+        } catch (final InvocationTargetException e) {
+            // TODO explanation
+            LOG.error("",
+                    e);
+        }
+    }
+
     protected void updateBindingImpl(final ListeningExecutorService modelExecutor,
                                      final Object model,
                                      final String propertyName) {
@@ -176,68 +257,46 @@ public class BinderImpl implements Binder {
                                             final Object model,
                                             final String propertyName) {
 
-        final Map<Object, DataContext> dataContextByView = this.dataContextByViewByParentDataContextValue.get(model);
-        if (dataContextByView == null) {
-            return;
-        }
-        for (final Entry<Object, DataContext> dataContextByViewEntry : dataContextByView.entrySet()) {
-
-            final Object view = dataContextByViewEntry.getKey();
-            final DataContext dataContext = dataContextByViewEntry.getValue();
-            final Optional<DataContext> optionalDataContext = Optional.of(dataContext);
-            final Optional<EventSignals> optionalInputSignals = Optional
-                    .fromNullable(this.inputSignalsByView.get(view));
-            final Optional<ObservableCollection> optionalObservableCollection = Optional
-                    .fromNullable(this.observableCollectionByView.get(view));
-            final Optional<PropertySlots> optionalPropertySlots = Optional.fromNullable(this.propertySlotsByView
-                    .get(view));
+        for (final DataContextDependent dataContextDependent : this.dependencyIndex.getDataContextDependents(model,
+                propertyName)) {
+            final Optional<Object> optionalView = dataContextDependent.getView();
+            final Optional<Object> optionalParentDataContext = dataContextDependent.getDataContext();
+            if (!optionalView.isPresent() || !optionalParentDataContext.isPresent()) {
+                continue;
+            }
 
-            if (dataContext.value().startsWith(propertyName)) {
+            final Object view = optionalView.get();
+            final Optional<DataContext> optionalDataContext = Optional.of(dataContextDependent
+                    .getDataContextAnnotation());
+            final ViewState viewState = this.registry.getOrCreateViewState(view);
 
-                bindViewElement(modelExecutor,
-                        model,
-                        view,
-                        optionalDataContext,
-                        optionalInputSignals,
-                        optionalObservableCollection,
-                        optionalPropertySlots);
-            }
+            bindViewElement(modelExecutor,
+                    optionalParentDataContext.get(),
+                    view,
+                    optionalDataContext,
+                    viewState.getEventSignals(),
+                    viewState.getObservableCollection(),
+                    viewState.getPropertySlots());
         }
     }
 
     protected void updateProperties(final Object model,
                                     final String propertyName) {
 
-        try {
-            final Optional<Method> optionalGetter = findGetter(model.getClass(),
-                    propertyName);
-            if (!optionalGetter.isPresent()) {
-                return;
-            }
-            final Object propertyValue = optionalGetter.get().invoke(model);
-            final Set<Object> views = this.viewsByDataContextValue.get(model);
-            if (views == null) {
-                return;
-            }
-            for (final Object view : views) {
-                final PropertySlots propertySlots = this.propertySlotsByView.get(view);
-                if (propertySlots == null) {
-                    continue;
-                }
-                for (final PropertySlot propertySlot : propertySlots.value()) {
-                    final String propertySlotPropertyName = propertySlot.propertyName();
-                    if (propertySlotPropertyName.equals(propertyName)) {
-                        invokePropertySlot(view,
-                                propertySlot,
-                                propertyValue);
-                    }
-                }
+        for (final PropertySlotDependent propertySlotDependent : this.dependencyIndex.getPropertySlotDependents(model,
+                propertyName)) {
+            final Optional<Object> optionalView = propertySlotDependent.getView();
+            final Optional<Object> optionalDataContext = propertySlotDependent.getDataContext();
+            if (!optionalView.isPresent() || !optionalDataContext.isPresent()) {
+                continue;
             }
 
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | ExecutionException e) {
-            // TODO explanation
-            LOG.error("",
-                    e);
+            // the property can be somewhere on the data context path of the
+            // property slot, so resolve it again from the data context of the
+            // view.
+            bindPropertySlot(optionalDataContext.get(),
+                    optionalView.get(),
+                    propertySlotDependent.getPropertySlotBinding());
         }
     }
 
@@ -251,18 +310,21 @@ public class BinderImpl implements Binder {
         checkNotNull(inheritedDataContext);
         checkNotNull(view);
 
-        final Class<?> viewClass = view.getClass();
+        final ViewBindingPlan viewBindingPlan = ViewBindingPlan.forViewClass(view.getClass());
+
+        // the view is (re)bound, forget on what it depended before.
+        this.dependencyIndex.removeDependents(view);
 
         // check for class level annotations if field level annotations are
         // absent
-        final Optional<DataContext> optionalDataContext = optionalFieldLevelDataContext.or(Optional
-                .<DataContext>fromNullable(viewClass.getAnnotation(DataContext.class)));
-        final Optional<EventSignals> optionalEventSignals = optionalFieldLevelEventSignals.or(Optional
-                .<EventSignals>fromNullable(viewClass.getAnnotation(EventSignals.class)));
+        final Optional<DataContext> optionalDataContext = optionalFieldLevelDataContext.or(viewBindingPlan
+                .getDataContext());
+        final Optional<EventSignals> optionalEventSignals = optionalFieldLevelEventSignals.or(viewBindingPlan
+                .getEventSignals());
         final Optional<ObservableCollection> optionalObservableCollection = optionalFieldLevelObservableCollection
-                .or(Optional.<ObservableCollection>fromNullable(viewClass.getAnnotation(ObservableCollection.class)));
-        final Optional<PropertySlots> optionalPropertySlots = optionalFieldLevelPropertySlots.or(Optional
-                .<PropertySlots>fromNullable(viewClass.getAnnotation(PropertySlots.class)));
+                .or(viewBindingPlan.getObservableCollection());
+        final Optional<PropertySlots> optionalPropertySlots = optionalFieldLevelPropertySlots.or(viewBindingPlan
+                .getPropertySlots());
 
         Object dataContext = inheritedDataContext;
         if (optionalDataContext.isPresent()) {
@@ -286,6 +348,12 @@ public class BinderImpl implements Binder {
 
         registerBinding(dataContext,
                 view);
+        // remember the annotations the view was bound with, so it can be bound
+        // again with the same annotations when its data context changes.
+        final ViewState viewState = this.registry.getOrCreateViewState(view);
+        viewState.setEventSignals(optionalEventSignals);
+        viewState.setObservableCollection(optionalObservableCollection);
+        viewState.setPropertySlots(optionalPropertySlots);
 
         if (optionalEventSignals.isPresent()) {
             final EventSignal[] eventSignals = optionalEventSignals.get().value();
@@ -312,7 +380,8 @@ public class BinderImpl implements Binder {
 
         bindChildViewElements(modelExecutor,
                 dataContext,
-                view);
+                view,
+                viewBindingPlan);
     }
 
     protected void bindObservableCollection(final ListeningExecutorService modelExecutor,
@@ -326,13 +395,14 @@ public class BinderImpl implements Binder {
         try {
             final String collectionProperty = observableCollection.value();
 
-            final Optional<Method> collectionGetter = findGetter(dataContext.getClass(),
+            final Optional<MethodHandle> collectionGetter = findGetter(dataContext.getClass(),
                     collectionProperty);
             if (!collectionGetter.isPresent()) {
                 return;
             }
 
-            final Object collection = collectionGetter.get().invoke(dataContext);
+            final Object collection = ViewBindingPlan.invokeGetter(collectionGetter.get(),
+                    dataContext);
 
             checkArgument(collection instanceof EventList,
                     format("Observable collection must be bound to a property of type %s @ dataContext: %s, view: %s, observable collection: %s",
@@ -341,157 +411,31 @@ public class BinderImpl implements Binder {
                             view,
                             observableCollection));
 
-            final EventList<?> contextCollection = (EventList<?>) collection;
-            final Class<?> childViewClass = observableCollection.view();
-
-            try {
-                contextCollection.getReadWriteLock().readLock().lock();
-
-                for (int i = 0; i < contextCollection.size(); i++) {
-                    final Object childViewDataContext = contextCollection.get(i);
-                    final ListenableFuture<?> futureChildView = this.childViewDelegate.newView(view,
-                            childViewClass,
-                            i);
-                    addCallback(futureChildView,
-                            new FutureCallback<Object>() {
-                                @Override
-                                public void onSuccess(final Object childView) {
-                                    bindImpl(modelExecutor,
-                                            childViewDataContext,
-                                            childView);
-
-                                }
-
-                                @Override
-                                public void onFailure(final Throwable t) {
-                                    LOG.error("Error while creating new child view.",
-                                            t);
-                                }
-                            },
-                            modelExecutor);
-                }
-
-                contextCollection.addListEventListener(new ListEventListener<Object>() {
-
-                    // We use a shadow list because glazedlists does not
-                    // give us the deleted object...
-                    private final List<Object> shadowChildDataContextList = new ArrayList<Object>(contextCollection);
-
-                    @Override
-                    public void listChanged(final ListEvent<Object> listChanges) {
-                        handleListChanged(modelExecutor,
-                                view,
-                                childViewClass,
-                                this.shadowChildDataContextList,
-                                listChanges);
-                    }
-                });
+            @SuppressWarnings("unchecked")
+            final EventList<Object> contextCollection = (EventList<Object>) collection;
 
-            } finally {
-                contextCollection.getReadWriteLock().readLock().unlock();
+            // the view might be bound again, to a new data context.
+            final ObservableCollectionBinding observableCollectionBinding = new ObservableCollectionBinding(this,
+                    modelExecutor,
+                    this.childViewDelegate,
+                    this.childViewPool,
+                    view,
+                    contextCollection,
+                    observableCollection);
+            final Optional<ObservableCollectionBinding> optionalOldObservableCollectionBinding = this.registry
+                    .getOrCreateViewState(view).setObservableCollectionBinding(observableCollectionBinding);
+            if (optionalOldObservableCollectionBinding.isPresent()) {
+                optionalOldObservableCollectionBinding.get().dispose();
             }
+            observableCollectionBinding.bind();
 
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | ExecutionException e) {
+        } catch (IllegalArgumentException | InvocationTargetException | ExecutionException e) {
             // TODO explanation
             LOG.error("",
                     e);
         }
     }
 
-    protected void handleListChanged(final ListeningExecutorService modelExecutor,
-                                     final Object view,
-                                     final Class<?> childViewClass,
-                                     final List<Object> shadowChildDataContextList,
-                                     final ListEvent<Object> listChanges) {
-        while (listChanges.next()) {
-            final int sourceIndex = listChanges.getIndex();
-            final int changeType = listChanges.getType();
-            final List<Object> changeList = listChanges.getSourceList();
-
-            switch (changeType) {
-                case ListEvent.DELETE: {
-                    final Object removedObject = shadowChildDataContextList.remove(sourceIndex);
-                    checkNotNull(removedObject);
-
-                    final Set<Object> removedChildViews = BinderImpl.this.viewsByDataContextValue.get(removedObject);
-                    for (final Object removedChildView : removedChildViews) {
-                        BinderImpl.this.childViewDelegate.destroyView(view,
-                                removedChildView,
-                                sourceIndex);
-                    }
-
-                    break;
-                }
-                case ListEvent.INSERT: {
-                    final Object childViewDataContext = changeList.get(sourceIndex);
-                    checkNotNull(childViewDataContext);
-
-                    shadowChildDataContextList.add(sourceIndex,
-                            childViewDataContext);
-
-                    final ListenableFuture<?> futureChildView = this.childViewDelegate.newView(view,
-                            childViewClass,
-                            sourceIndex);
-                    addCallback(futureChildView,
-                            new FutureCallback<Object>() {
-                                @Override
-                                public void onSuccess(final Object childView) {
-                                    bindImpl(modelExecutor,
-                                            childViewDataContext,
-                                            childView);
-
-                                }
-
-                                @Override
-                                public void onFailure(final Throwable t) {
-                                    LOG.error("Error while creating new child view.",
-                                            t);
-                                }
-                            },
-                            modelExecutor);
-                    break;
-                }
-                case ListEvent.UPDATE: {
-                    if (listChanges.isReordering()) {
-                        final int[] reorderings = listChanges.getReorderMap();
-                        for (int i = 0; i < reorderings.length; i++) {
-                            final int newPosition = reorderings[i];
-                            final Object childViewDataContext = changeList.get(sourceIndex);
-
-                            shadowChildDataContextList.clear();
-                            shadowChildDataContextList.add(newPosition,
-                                    childViewDataContext);
-
-                            final Set<Object> changedChildViews = BinderImpl.this.viewsByDataContextValue
-                                    .get(childViewDataContext);
-                            for (final Object changedChildView : changedChildViews) {
-                                BinderImpl.this.childViewDelegate.updateChildViewPosition(view,
-                                        changedChildView,
-                                        i,
-                                        newPosition);
-                            }
-                        }
-                    } else {
-                        final Object newChildViewDataContext = changeList.get(sourceIndex);
-                        final Object oldChildViewDataContext = shadowChildDataContextList
-                                .set(sourceIndex,
-                                        newChildViewDataContext);
-                        checkNotNull(oldChildViewDataContext);
-                        checkNotNull(newChildViewDataContext);
-
-                        final Object childView = BinderImpl.this.viewsByDataContextValue.get(oldChildViewDataContext);
-
-                        bindImpl(modelExecutor,
-                                newChildViewDataContext,
-                                childView);
-                    }
-
-                    break;
-                }
-            }
-        }
-    }
-
     protected void bindEventSignals(final ListeningExecutorService modelExecutor,
                                     final Object dataContext,
                                     final Object view,
@@ -500,41 +444,61 @@ public class BinderImpl implements Binder {
         checkNotNull(view);
         checkNotNull(eventSignals);
 
-        for (final EventSignal eventSignal : eventSignals) {
-            final Class<? extends EventSignalFilter> eventSignalFilterType = eventSignal.filter();
-            final String inputSlotName = eventSignal.name();
+        final ViewState viewState = this.registry.getOrCreateViewState(view);
+        final Map<EventSignal, SignalImpl> oldSignals = new HashMap<>(viewState.getInstalledSignals());
 
-            // FIXME cache filter & uninstall any previous filter installments
-            final EventSignalFilter eventSignalFilter = this.injector.getInstance(eventSignalFilterType);
+        for (final EventSignal eventSignal : eventSignals) {
+            // the view is bound again, eg a reused child view, possibly with
+            // an other model executor. Replace the filter installed by the
+            // previous binding instead of stacking a new one on top of it.
+            final SignalImpl oldSignal = oldSignals.remove(eventSignal);
+            final EventSignalFilter eventSignalFilter = getEventSignalFilter(viewState,
+                    eventSignal.filter());
+            if (oldSignal != null) {
+                eventSignalFilter.uninstallFilter(view,
+                        oldSignal);
+            }
+            final SignalImpl signal = new SignalImpl(modelExecutor,
+                    view,
+                    this.registry,
+                    eventSignal);
+            viewState.putInstalledSignal(eventSignal,
+                    signal);
             eventSignalFilter.installFilter(view,
-                    new SignalImpl(modelExecutor,
-                            view,
-                            this.dataContextValueByView,
-                            inputSlotName));
+                    signal);
+        }
 
+        // event signals the view is no longer bound with.
+        for (final Map.Entry<EventSignal, SignalImpl> oldSignal : oldSignals.entrySet()) {
+            viewState.removeInstalledSignal(oldSignal.getKey());
+            getEventSignalFilter(viewState,
+                    oldSignal.getKey().filter()).uninstallFilter(view,
+                    oldSignal.getValue());
         }
     }
 
+    /**
+     * The filter of the given type of a view, created once and shared by all
+     * event signals of that type on the view.
+     */
+    private EventSignalFilter getEventSignalFilter(final ViewState viewState,
+                                                   final Class<? extends EventSignalFilter> eventSignalFilterType) {
+        final Optional<EventSignalFilter> optionalEventSignalFilter = viewState
+                .getEventSignalFilter(eventSignalFilterType);
+        if (optionalEventSignalFilter.isPresent()) {
+            return optionalEventSignalFilter.get();
+        }
+        return viewState.putEventSignalFilter(eventSignalFilterType,
+                this.injector.getInstance(eventSignalFilterType));
+    }
+
     protected void registerBinding(final Object dataContext,
                                    final Object view) {
         checkNotNull(dataContext);
         checkNotNull(view);
 
-        final Object oldDataContext = this.dataContextValueByView.put(view,
+        this.registry.register(view,
                 dataContext);
-        if (oldDataContext != null) {
-            final Set<Object> oldDataContextViews = this.viewsByDataContextValue.get(oldDataContext);
-            if (oldDataContextViews != null) {
-                oldDataContextViews.remove(view);
-            }
-        }
-        Set<Object> dataContextViews = this.viewsByDataContextValue.get(dataContext);
-        if (dataContextViews == null) {
-            dataContextViews = Sets.newSetFromMap(new WeakHashMap<Object, Boolean>());
-            this.viewsByDataContextValue.put(dataContext,
-                    dataContextViews);
-        }
-        dataContextViews.add(view);
     }
 
     protected void bindPropertySlots(final Object dataContext,
@@ -544,56 +508,55 @@ public class BinderImpl implements Binder {
         checkNotNull(view);
         checkNotNull(propertySlots);
 
-        this.propertySlotsByView.put(view,
-                propertySlots);
-        for (final PropertySlot propertySlot : propertySlots.value()) {
+        for (final PropertySlotBinding propertySlotBinding : ViewBindingPlan.forViewClass(view.getClass())
+                .getPropertySlotBindings(propertySlots)) {
             bindPropertySlot(dataContext,
                     view,
-                    propertySlot);
+                    propertySlotBinding);
         }
     }
 
     protected void bindPropertySlot(final Object dataContext,
                                     final Object view,
-                                    final PropertySlot propertySlot) {
+                                    final PropertySlotBinding propertySlotBinding) {
         checkNotNull(dataContext);
         checkNotNull(view);
-        checkNotNull(propertySlot);
+        checkNotNull(propertySlotBinding);
 
         try {
-            final String propertySlotDataContext = propertySlot.dataContext();
-            final Object propertyDataContext;
-            if (propertySlotDataContext.isEmpty()) {
-                propertyDataContext = dataContext;
-            } else {
-                final Optional<Object> optionalRelativeDataContext = getDataContextValue(dataContext,
-                        propertySlotDataContext);
-                if (optionalRelativeDataContext.isPresent()) {
-                    propertyDataContext = optionalRelativeDataContext.get();
-                } else {
-                    return;
-                }
+            final List<String> propertySlotDataContext = propertySlotBinding.getDataContextPath();
+            final List<Object> dataContextPathValues = getDataContextPathValues(dataContext,
+                    propertySlotDataContext);
+            for (int i = 0; i < dataContextPathValues.size() && i < propertySlotDataContext.size(); i++) {
+                this.dependencyIndex.addPropertySlotDependent(dataContextPathValues.get(i),
+                        propertySlotDataContext.get(i),
+                        view,
+                        dataContext,
+                        propertySlotBinding);
+            }
+            if (dataContextPathValues.size() <= propertySlotDataContext.size()) {
+                return;
             }
-            final String propertyName = propertySlot.propertyName();
-            final Optional<Method> optionalGetter = findGetter(propertyDataContext.getClass(),
+            final Object propertyDataContext = dataContextPathValues.get(propertySlotDataContext.size());
+            final String propertyName = propertySlotBinding.getPropertyName();
+            this.dependencyIndex.addPropertySlotDependent(propertyDataContext,
+                    propertyName,
+                    view,
+                    dataContext,
+                    propertySlotBinding);
+
+            final Optional<MethodHandle> optionalGetter = findGetter(propertyDataContext.getClass(),
                     propertyName);
             if (optionalGetter.isPresent()) {
-                final Method getter = optionalGetter.get();
-
-                // workaround for bug (4071957) submitted in
-                // 1997(!) and still not fixed by sun/oracle.
-                if (propertyDataContext.getClass().isAnonymousClass()) {
-                    getter.setAccessible(true);
-                }
-
-                final Object propertyInstance = optionalGetter.get().invoke(propertyDataContext);
+                final Object propertyInstance = ViewBindingPlan.invokeGetter(optionalGetter.get(),
+                        propertyDataContext);
 
                 invokePropertySlot(view,
-                        propertySlot,
+                        propertySlotBinding,
                         propertyInstance);
 
             }
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | ExecutionException e) {
+        } catch (IllegalArgumentException | InvocationTargetException | ExecutionException e) {
             // TODO explanation
             LOG.error("",
                     e);
@@ -601,31 +564,70 @@ public class BinderImpl implements Binder {
     }
 
     protected void invokePropertySlot(final Object view,
-                                      final PropertySlot propertySlot,
+                                      final PropertySlotBinding propertySlotBinding,
                                       final Object propertyValue) {
         checkNotNull(view);
-        checkNotNull(propertySlot);
+        checkNotNull(propertySlotBinding);
         checkNotNull(propertyValue);
 
-        try {
-            final String viewMethodName = propertySlot.methodName();
-            final Class<?>[] viewMethodArgumentTypes = propertySlot.argumentTypes();
-            final Method targetViewMethod = view.getClass().getMethod(viewMethodName,
-                    viewMethodArgumentTypes);
-            final Class<? extends PropertyAdapter<?>> propertyAdapterType = propertySlot.adapter();
-            @SuppressWarnings("rawtypes")
-            final PropertyAdapter propertyAdapter = propertyAdapterType.newInstance();
-            @SuppressWarnings("unchecked")
-            final Object argument = propertyAdapter.adapt(propertyValue);
+        final Object argument = propertySlotBinding.adapt(propertyValue);
+        if (propertySlotBinding.isMemoized() && !updateLastArgument(view,
+                propertySlotBinding,
+                argument)) {
+            // the view already shows this value.
+            this.suppressedPropertySlotInvocations.incrementAndGet();
+            return;
+        }
 
-            this.propertySlotDelegate.invoke(view,
-                    targetViewMethod,
-                    argument);
-        } catch (final NoSuchMethodException | SecurityException | InstantiationException | IllegalAccessException e) {
-            // TODO explanation
-            LOG.error("",
-                    e);
+        this.propertySlotInvocations.incrementAndGet();
+        this.propertySlotDelegate.invoke(view,
+                propertySlotBinding.getViewMethod(),
+                argument);
+    }
+
+    /**
+     * Remember the argument of a property slot of a view.
+     *
+     * @return false if the argument is equal to the last argument of the
+     *         property slot, true otherwise.
+     */
+    protected boolean updateLastArgument(final Object view,
+                                         final PropertySlotBinding propertySlotBinding,
+                                         final Object argument) {
+        final Optional<Object> lastArgument = this.registry.getOrCreateViewState(view)
+                .putLastArgument(propertySlotBinding,
+                        Optional.fromNullable(argument));
+        return (lastArgument == null) || !Objects.deepEquals(lastArgument.orNull(),
+                argument);
+    }
+
+    /**
+     * The number of property slot invocations that were passed on to the
+     * {@link PropertySlotInvocatorDelegate}.
+     */
+    public long getPropertySlotInvocationCount() {
+        return this.propertySlotInvocations.get();
+    }
+
+    /**
+     * The number of property slot invocations that were skipped because the
+     * view was last invoked with an equal value.
+     *
+     * @see PropertySlot#memoize()
+     */
+    public long getSuppressedPropertySlotInvocationCount() {
+        return this.suppressedPropertySlotInvocations.get();
+    }
+
+    /**
+     * The number of views with binding state, after the state of collected
+     * views is removed.
+     */
+    int getViewCount() {
+        while (this.registry.drainCollectedKeys()) {
+            // keep draining until the queue is empty.
         }
+        return this.registry.getViewCount();
     }
 
     protected Optional<Object> getDataContextValueForView(final Object parentDataContextValue,
@@ -635,37 +637,35 @@ public class BinderImpl implements Binder {
         checkNotNull(view);
         checkNotNull(dataContext);
 
-        Map<Object, DataContext> dataContextByView = this.dataContextByViewByParentDataContextValue
-                .get(parentDataContextValue);
-        if (dataContextByView == null) {
-            dataContextByView = new WeakHashMap<>();
-            this.dataContextByViewByParentDataContextValue.put(parentDataContextValue,
-                    dataContextByView);
-        }
-        dataContextByView.put(view,
-                dataContext);
-
-        final String propertyChain = dataContext.value();
-        return getDataContextValue(parentDataContextValue,
+        final List<String> propertyChain = ViewBindingPlan.toPropertyNames(dataContext.value());
+        final List<Object> dataContextPathValues = getDataContextPathValues(parentDataContextValue,
                 propertyChain);
+        for (int i = 0; i < dataContextPathValues.size() && i < propertyChain.size(); i++) {
+            // the part of the path that is read from this value.
+            this.dependencyIndex.addDataContextDependent(dataContextPathValues.get(i),
+                    PROPERTY_PATH_JOINER.join(propertyChain.subList(i,
+                            propertyChain.size())),
+                    view,
+                    parentDataContextValue,
+                    dataContext);
+        }
+        if (dataContextPathValues.size() <= propertyChain.size()) {
+            return Optional.absent();
+        }
+        return Optional.of(dataContextPathValues.get(propertyChain.size()));
     }
 
     protected void bindChildViewElements(final ListeningExecutorService modelExecutor,
                                          final Object inheritedModel,
-                                         final Object view) {
+                                         final Object view,
+                                         final ViewBindingPlan viewBindingPlan) {
         checkNotNull(inheritedModel);
         checkNotNull(view);
 
         try {
+            for (final ChildViewElement childViewElement : viewBindingPlan.getChildViewElements()) {
 
-            final Class<?> viewClass = view.getClass();
-
-            final Field[] childViewElements = getDeclaredFields(viewClass);
-
-            for (final Field childViewElement : childViewElements) {
-
-                childViewElement.setAccessible(true);
-                final Object childView = childViewElement.get(view);
+                final Object childView = childViewElement.getChildView(view);
 
                 // filter out null values
                 if (childView == null) {
@@ -673,100 +673,92 @@ public class BinderImpl implements Binder {
                 }
 
                 // recursion safety
-                if (this.dataContextValueByView.containsKey(childView)) {
+                if (this.registry.getDataContext(childView).isPresent()) {
                     continue;
                 }
 
-                final Optional<DataContext> optionalFieldDataContext = Optional
-                        .<DataContext>fromNullable(childViewElement.getAnnotation(DataContext.class));
-                final Optional<EventSignals> optionalFieldInputSignals = Optional
-                        .<EventSignals>fromNullable(childViewElement.getAnnotation(EventSignals.class));
-                final Optional<ObservableCollection> optionalFieldObservableCollection = Optional
-                        .<ObservableCollection>fromNullable(childViewElement.getAnnotation(ObservableCollection.class));
-                final Optional<PropertySlots> optionalFieldPropertySlots = Optional
-                        .<PropertySlots>fromNullable(childViewElement.getAnnotation(PropertySlots.class));
-
                 bindViewElement(modelExecutor,
                         inheritedModel,
                         childView,
-                        optionalFieldDataContext,
-                        optionalFieldInputSignals,
-                        optionalFieldObservableCollection,
-                        optionalFieldPropertySlots);
+                        childViewElement.getDataContext(),
+                        childViewElement.getEventSignals(),
+                        childViewElement.getObservableCollection(),
+                        childViewElement.getPropertySlots());
 
             }
-        } catch (IllegalArgumentException | IllegalAccessException | ExecutionException e) {
+        } catch (final InvocationTargetException e) {
             // TODO explanation
             LOG.error("",
                     e);
         }
     }
 
-    protected Iterable<String> toPropertyNames(final String subModelPath) {
-        checkNotNull(subModelPath);
-
-        return Splitter.on('.').trimResults().omitEmptyStrings().split(subModelPath);
+    protected Optional<Object> getDataContextValue(final Object model,
+                                                   final List<String> propertyNames) {
+        final List<Object> dataContextPathValues = getDataContextPathValues(model,
+                propertyNames);
+        if (dataContextPathValues.size() <= propertyNames.size()) {
+            return Optional.absent();
+        }
+        return Optional.of(dataContextPathValues.get(propertyNames.size()));
     }
 
-    protected Optional<Object> getDataContextValue(final Object model,
-                                                   final String propertyChain) {
+    /**
+     * The given model followed by the value of every property on the given
+     * path, each value read from the one before. The list stops at the first
+     * value that is null or can not be read.
+     */
+    protected List<Object> getDataContextPathValues(final Object model,
+                                                    final List<String> propertyNames) {
         checkNotNull(model);
-        checkNotNull(propertyChain);
-
-        final Iterable<String> propertyNames = toPropertyNames(propertyChain);
+        checkNotNull(propertyNames);
 
+        final List<Object> dataContextPathValues = new ArrayList<>(propertyNames.size() + 1);
+        dataContextPathValues.add(model);
         Object currentModel = model;
         try {
-
             for (final String propertyName : propertyNames) {
-                if (currentModel == null) {
-                    break;
-                }
                 final Class<?> currentModelClass = currentModel.getClass();
-                final Optional<Method> foundMethod = findGetter(currentModelClass,
+                final Optional<MethodHandle> foundMethod = findGetter(currentModelClass,
                         propertyName);
                 if (foundMethod.isPresent()) {
-                    currentModel = foundMethod.get().invoke(currentModel);
+                    currentModel = ViewBindingPlan.invokeGetter(foundMethod.get(),
+                            currentModel);
                 }
+                if (currentModel == null) {
+                    break;
+                }
+                dataContextPathValues.add(currentModel);
             }
-        } catch (final IllegalAccessException | IllegalArgumentException | InvocationTargetException | ExecutionException e) {
+        } catch (final IllegalArgumentException | InvocationTargetException | ExecutionException e) {
             LOG.error(String.format("Can not access getter on %s. Is it a no argument public method?",
                     currentModel),
                     e);
         }
-        return Optional.fromNullable(currentModel);
+        return dataContextPathValues;
     }
 
-    protected Optional<Method> findGetter(final Class<?> modelClass,
-                                          final String propertyName) throws ExecutionException {
+    protected Optional<MethodHandle> findGetter(final Class<?> modelClass,
+                                                final String propertyName) throws ExecutionException {
         checkNotNull(modelClass);
         checkNotNull(propertyName);
         return getGetterMethod(modelClass,
                 propertyName);
     }
 
-    protected Field[] getDeclaredFields(final Class<?> clazz) throws ExecutionException {
-        return DECLARED_FIELDS_CACHE.get(clazz, new Callable<Field[]>() {
-            @Override
-            public Field[] call() {
-                return clazz.getDeclaredFields();
-            }
-        });
-    }
-
-    protected Optional<Method> getGetterMethod(final Class<?> modelClass,
-                                               final String propertyName) throws ExecutionException {
+    protected Optional<MethodHandle> getGetterMethod(final Class<?> modelClass,
+                                                     final String propertyName) throws ExecutionException {
         return GETTER_CACHE.get(modelClass,
-                new Callable<Cache<String, Optional<Method>>>() {
+                new Callable<Cache<String, Optional<MethodHandle>>>() {
                     @Override
-                    public Cache<String, Optional<Method>> call() {
+                    public Cache<String, Optional<MethodHandle>> call() {
 
                         return CacheBuilder.newBuilder().build();
                     }
                 }).get(propertyName,
-                new Callable<Optional<Method>>() {
+                new Callable<Optional<MethodHandle>>() {
                     @Override
-                    public Optional<Method> call() {
+                    public Optional<MethodHandle> call() throws IllegalAccessException {
                         Method foundMethod = null;
                         String getterMethodName = toGetterMethodName(propertyName);
 
@@ -796,7 +788,10 @@ public class BinderImpl implements Binder {
                                     modelClass.getName()),
                                     e1);
                         }
-                        return Optional.fromNullable(foundMethod);
+                        if (foundMethod == null) {
+                            return Optional.absent();
+                        }
+                        return Optional.of(ViewBindingPlan.toGetterHandle(foundMethod));
                     }
                 });
     }
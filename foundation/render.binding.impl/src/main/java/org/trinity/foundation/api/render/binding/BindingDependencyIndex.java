@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.trinity.foundation.api.render.binding.ViewBindingPlan.PropertySlotBinding;
+import org.trinity.foundation.api.render.binding.view.DataContext;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Maps a property of a model instance to the bindings that depend on it: the
+ * property slots that display it and the data contexts that navigate through
+ * it. The index is filled while binding, so a property change only has to
+ * visit its own dependents.
+ * <p>
+ * A data context is registered on each object of its path for the part of the
+ * path that is read from that object. It depends on every property whose name
+ * that part starts with, so a change of {@code otherSubModel} updates a data
+ * context {@code otherSubModel.subSubModel} of the same model.
+ * <p>
+ * Models are compared by identity. Models and views are weakly referenced, a
+ * dependent of a view that was garbage collected is skipped and removed the
+ * next time its property changes.
+ * <p>
+ * Views can be bound from several model executors at once, so access to the
+ * index is synchronized. Dependents are returned as a copy and visited
+ * outside of the lock.
+ */
+@ThreadSafe
+final class BindingDependencyIndex {
+
+    @GuardedBy("this")
+    private final Map<Object, NavigableMap<String, Set<Dependent>>> dependentsByPropertyNameByModel = new MapMaker()
+            .weakKeys().makeMap();
+    @GuardedBy("this")
+    private final Map<Object, List<Set<Dependent>>> dependentSetsByView = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Register a property slot of a view, bound to the given data context,
+     * that depends on a property of a model. The model is either the data
+     * context itself, or an object on the data context path of the property
+     * slot.
+     */
+    void addPropertySlotDependent(final Object model,
+                                  final String propertyName,
+                                  final Object view,
+                                  final Object dataContext,
+                                  final PropertySlotBinding propertySlotBinding) {
+        addDependent(model,
+                propertyName,
+                new PropertySlotDependent(view,
+                        dataContext,
+                        propertySlotBinding));
+    }
+
+    /**
+     * Register the data context of a view, relative to the given parent data
+     * context, that depends on a property path of a model. The model is either
+     * the parent data context itself, or an object on the data context path.
+     * The property path is the part of the data context path that is read from
+     * the model.
+     */
+    void addDataContextDependent(final Object model,
+                                 final String propertyPath,
+                                 final Object view,
+                                 final Object parentDataContext,
+                                 final DataContext dataContext) {
+        addDependent(model,
+                propertyPath,
+                new DataContextDependent(view,
+                        parentDataContext,
+                        dataContext));
+    }
+
+    private synchronized void addDependent(final Object model,
+                              final String propertyName,
+                              final Dependent dependent) {
+        NavigableMap<String, Set<Dependent>> dependentsByPropertyName = this.dependentsByPropertyNameByModel
+                .get(model);
+        if (dependentsByPropertyName == null) {
+            dependentsByPropertyName = new TreeMap<>();
+            this.dependentsByPropertyNameByModel.put(model,
+                    dependentsByPropertyName);
+        }
+        Set<Dependent> dependents = dependentsByPropertyName.get(propertyName);
+        if (dependents == null) {
+            dependents = new LinkedHashSet<>();
+            dependentsByPropertyName.put(propertyName,
+                    dependents);
+        }
+        if (!dependents.add(dependent)) {
+            return;
+        }
+
+        final Optional<Object> view = dependent.getView();
+        List<Set<Dependent>> dependentSets = this.dependentSetsByView.get(view.get());
+        if (dependentSets == null) {
+            dependentSets = new ArrayList<>();
+            this.dependentSetsByView.put(view.get(),
+                    dependentSets);
+        }
+        dependentSets.add(dependents);
+    }
+
+    /**
+     * The property slots that depend on the given property of the given model.
+     * The returned list is a copy, so dependents can be registered while
+     * iterating.
+     */
+    List<PropertySlotDependent> getPropertySlotDependents(final Object model,
+                                                          final String propertyName) {
+        return getDependents(model,
+                propertyName,
+                PropertySlotDependent.class);
+    }
+
+    /**
+     * The data contexts of which the property path, read from the given model,
+     * starts with the given property name. The returned list is a copy, so
+     * dependents can be registered while iterating.
+     */
+    synchronized List<DataContextDependent> getDataContextDependents(final Object model,
+                                                                     final String propertyName) {
+        final NavigableMap<String, Set<Dependent>> dependentsByPropertyName = this.dependentsByPropertyNameByModel
+                .get(model);
+        if (dependentsByPropertyName == null) {
+            return Collections.emptyList();
+        }
+
+        // property paths that start with the property name are sorted right
+        // after it.
+        final Set<DataContextDependent> dataContextDependents = new LinkedHashSet<>();
+        for (final Entry<String, Set<Dependent>> dependentsEntry : dependentsByPropertyName.tailMap(propertyName,
+                true).entrySet()) {
+            if (!dependentsEntry.getKey().startsWith(propertyName)) {
+                break;
+            }
+            collectDependents(dependentsEntry.getValue(),
+                    DataContextDependent.class,
+                    dataContextDependents);
+        }
+        return ImmutableList.copyOf(dataContextDependents);
+    }
+
+    private synchronized <T extends Dependent> List<T> getDependents(final Object model,
+                                                        final String propertyName,
+                                                        final Class<T> dependentType) {
+        final Map<String, Set<Dependent>> dependentsByPropertyName = this.dependentsByPropertyNameByModel.get(model);
+        if (dependentsByPropertyName == null) {
+            return Collections.emptyList();
+        }
+        final Set<Dependent> dependents = dependentsByPropertyName.get(propertyName);
+        if (dependents == null) {
+            return Collections.emptyList();
+        }
+
+        final Set<T> typedDependents = new LinkedHashSet<>();
+        collectDependents(dependents,
+                dependentType,
+                typedDependents);
+        return ImmutableList.copyOf(typedDependents);
+    }
+
+    @GuardedBy("this")
+    private <T extends Dependent> void collectDependents(final Set<Dependent> dependents,
+                                                         final Class<T> dependentType,
+                                                         final Set<T> typedDependents) {
+        for (final Dependent dependent : dependents.toArray(new Dependent[dependents.size()])) {
+            if (!dependent.getView().isPresent() || !dependent.getDataContext().isPresent()) {
+                dependents.remove(dependent);
+            } else if (dependentType.isInstance(dependent)) {
+                typedDependents.add(dependentType.cast(dependent));
+            }
+        }
+    }
+
+    /**
+     * Remove every dependent of the given view, eg because it is about to be
+     * bound again or because it was destroyed.
+     */
+    synchronized void removeDependents(final Object view) {
+        final List<Set<Dependent>> dependentSets = this.dependentSetsByView.remove(view);
+        if (dependentSets == null) {
+            return;
+        }
+        for (final Set<Dependent> dependents : dependentSets) {
+            for (final Dependent dependent : dependents.toArray(new Dependent[dependents.size()])) {
+                final Optional<Object> dependentView = dependent.getView();
+                if (!dependentView.isPresent() || (dependentView.get() == view)) {
+                    dependents.remove(dependent);
+                }
+            }
+        }
+    }
+
+    /**
+     * A binding of a view that depends on a model property.
+     */
+    abstract static class Dependent {
+
+        private final WeakReference<Object> view;
+        private final WeakReference<Object> dataContext;
+        private final int viewHashCode;
+
+        Dependent(final Object view,
+                  final Object dataContext) {
+            this.view = new WeakReference<>(view);
+            this.dataContext = new WeakReference<>(dataContext);
+            this.viewHashCode = System.identityHashCode(view);
+        }
+
+        Optional<Object> getView() {
+            return Optional.fromNullable(this.view.get());
+        }
+
+        /**
+         * The data context the binding is relative to.
+         */
+        Optional<Object> getDataContext() {
+            return Optional.fromNullable(this.dataContext.get());
+        }
+
+        boolean isSameBinding(final Dependent other) {
+            final Object view = this.view.get();
+            return (view != null) && (view == other.view.get()) && (this.dataContext.get() == other.dataContext.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.viewHashCode;
+        }
+    }
+
+    static final class PropertySlotDependent extends Dependent {
+
+        private final PropertySlotBinding propertySlotBinding;
+
+        PropertySlotDependent(final Object view,
+                              final Object dataContext,
+                              final PropertySlotBinding propertySlotBinding) {
+            super(view,
+                    dataContext);
+            this.propertySlotBinding = propertySlotBinding;
+        }
+
+        PropertySlotBinding getPropertySlotBinding() {
+            return this.propertySlotBinding;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return (obj instanceof PropertySlotDependent) && isSameBinding((Dependent) obj)
+                    && (this.propertySlotBinding == ((PropertySlotDependent) obj).propertySlotBinding);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + System.identityHashCode(this.propertySlotBinding);
+        }
+    }
+
+    static final class DataContextDependent extends Dependent {
+
+        private final DataContext dataContextAnnotation;
+
+        DataContextDependent(final Object view,
+                             final Object parentDataContext,
+                             final DataContext dataContextAnnotation) {
+            super(view,
+                    parentDataContext);
+            this.dataContextAnnotation = dataContextAnnotation;
+        }
+
+        DataContext getDataContextAnnotation() {
+            return this.dataContextAnnotation;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return (obj instanceof DataContextDependent) && isSameBinding((Dependent) obj)
+                    && this.dataContextAnnotation.equals(((DataContextDependent) obj).dataContextAnnotation);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + this.dataContextAnnotation.hashCode();
+        }
+    }
+}
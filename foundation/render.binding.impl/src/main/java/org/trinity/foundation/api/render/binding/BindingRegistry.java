@@ -0,0 +1,439 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.trinity.foundation.api.render.binding.ViewBindingPlan.PropertySlotBinding;
+import org.trinity.foundation.api.render.binding.view.EventSignal;
+import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
+import org.trinity.foundation.api.render.binding.view.EventSignals;
+import org.trinity.foundation.api.render.binding.view.ObservableCollection;
+import org.trinity.foundation.api.render.binding.view.PropertySlots;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * The binding state of every bound view, and the views that are bound to
+ * every data context.
+ * <p>
+ * Views and data contexts are compared by identity and weakly referenced.
+ * The entries of collected keys are removed in batches of at most
+ * {@value #DRAIN_BATCH_SIZE} through a reference queue, when a new key is
+ * added. Lookups never clean up and never lock, so views can be bound and
+ * updated from several model executors in parallel. Moving a view from one
+ * data context to another is guarded by a lock that is striped on the
+ * identity of the view. The number of stripes is set by the system property
+ * {@value #CONCURRENCY_LEVEL_PROPERTY}.
+ */
+@ThreadSafe
+final class BindingRegistry {
+
+    static final String CONCURRENCY_LEVEL_PROPERTY = "trinity.binding.concurrencylevel";
+    static final int DRAIN_BATCH_SIZE = 64;
+    private static final int CONCURRENCY_LEVEL = Integer.getInteger(CONCURRENCY_LEVEL_PROPERTY,
+            16);
+
+    private final ReferenceQueue<Object> collectedKeys = new ReferenceQueue<>();
+    private final ConcurrentMap<Object, ViewState> viewStateByView = new ConcurrentHashMap<>(16,
+            0.75f,
+            CONCURRENCY_LEVEL);
+    private final ConcurrentMap<Object, Set<Object>> viewsByDataContext = new ConcurrentHashMap<>(16,
+            0.75f,
+            CONCURRENCY_LEVEL);
+    private final Striped<Lock> viewLocks = Striped.lock(CONCURRENCY_LEVEL);
+    private final Lock drainLock = new ReentrantLock();
+
+    /**
+     * The state of the given view, if the view was ever bound.
+     */
+    Optional<ViewState> getViewState(final Object view) {
+        return Optional.fromNullable(this.viewStateByView.get(new LookupKey(view)));
+    }
+
+    /**
+     * The state of the given view. An empty state is registered if the view
+     * was never bound.
+     */
+    ViewState getOrCreateViewState(final Object view) {
+        final ViewState viewState = this.viewStateByView.get(new LookupKey(view));
+        if (viewState != null) {
+            return viewState;
+        }
+
+        drainCollectedKeys();
+        final ViewState newViewState = new ViewState();
+        final ViewState otherViewState = this.viewStateByView.putIfAbsent(new WeakIdentityKey(view,
+                        this.collectedKeys),
+                newViewState);
+        return otherViewState == null ? newViewState : otherViewState;
+    }
+
+    /**
+     * The data context the given view is currently bound to.
+     */
+    Optional<Object> getDataContext(final Object view) {
+        final ViewState viewState = this.viewStateByView.get(new LookupKey(view));
+        if (viewState == null) {
+            return Optional.absent();
+        }
+        return Optional.fromNullable(viewState.dataContext);
+    }
+
+    /**
+     * Bind the given view to the given data context.
+     *
+     * @return the data context the view was bound to before.
+     */
+    Optional<Object> register(final Object view,
+                              final Object dataContext) {
+        final ViewState viewState = getOrCreateViewState(view);
+        final Set<Object> dataContextViews = getOrCreateViews(dataContext);
+
+        final Lock viewLock = getViewLock(view);
+        viewLock.lock();
+        try {
+            final Object oldDataContext = viewState.dataContext;
+            viewState.dataContext = dataContext;
+            if ((oldDataContext != null) && (oldDataContext != dataContext)) {
+                removeView(oldDataContext,
+                        view);
+            }
+            dataContextViews.add(view);
+            return Optional.fromNullable(oldDataContext);
+        } finally {
+            viewLock.unlock();
+        }
+    }
+
+    /**
+     * Unbind the given view from its data context. The rest of its state is
+     * kept.
+     *
+     * @return the data context the view was bound to.
+     */
+    Optional<Object> unregister(final Object view) {
+        final ViewState viewState = this.viewStateByView.get(new LookupKey(view));
+        if (viewState == null) {
+            return Optional.absent();
+        }
+
+        final Lock viewLock = getViewLock(view);
+        viewLock.lock();
+        try {
+            final Object oldDataContext = viewState.dataContext;
+            viewState.dataContext = null;
+            if (oldDataContext != null) {
+                removeView(oldDataContext,
+                        view);
+            }
+            return Optional.fromNullable(oldDataContext);
+        } finally {
+            viewLock.unlock();
+        }
+    }
+
+    /**
+     * The views that are currently bound to the given data context. The
+     * returned set is a copy.
+     */
+    Set<Object> getViews(final Object dataContext) {
+        final Set<Object> views = Sets.newIdentityHashSet();
+        final Set<Object> dataContextViews = this.viewsByDataContext.get(new LookupKey(dataContext));
+        if (dataContextViews != null) {
+            views.addAll(dataContextViews);
+        }
+        return views;
+    }
+
+    /**
+     * The number of registered views, including views that were collected
+     * but are not yet removed.
+     */
+    int getViewCount() {
+        return this.viewStateByView.size();
+    }
+
+    private Set<Object> getOrCreateViews(final Object dataContext) {
+        final Set<Object> dataContextViews = this.viewsByDataContext.get(new LookupKey(dataContext));
+        if (dataContextViews != null) {
+            return dataContextViews;
+        }
+
+        drainCollectedKeys();
+        // an empty set is only removed once its data context is collected, so
+        // a view can never be added to a set that is no longer registered.
+        final Set<Object> newDataContextViews = Collections.newSetFromMap(new MapMaker().weakKeys()
+                .concurrencyLevel(CONCURRENCY_LEVEL).<Object, Boolean> makeMap());
+        final Set<Object> otherDataContextViews = this.viewsByDataContext.putIfAbsent(new WeakIdentityKey(dataContext,
+                        this.collectedKeys),
+                newDataContextViews);
+        return otherDataContextViews == null ? newDataContextViews : otherDataContextViews;
+    }
+
+    private void removeView(final Object dataContext,
+                            final Object view) {
+        final Set<Object> dataContextViews = this.viewsByDataContext.get(new LookupKey(dataContext));
+        if (dataContextViews != null) {
+            dataContextViews.remove(view);
+        }
+    }
+
+    private Lock getViewLock(final Object view) {
+        return this.viewLocks.getAt((System.identityHashCode(view) & Integer.MAX_VALUE) % this.viewLocks.size());
+    }
+
+    /**
+     * Remove the entries of a batch of collected keys. Only one thread drains
+     * at a time, others skip it and leave the rest of the queue to the next
+     * write.
+     *
+     * @return true if a full batch was removed, more keys might be waiting.
+     */
+    boolean drainCollectedKeys() {
+        if (!this.drainLock.tryLock()) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < DRAIN_BATCH_SIZE; i++) {
+                final Reference<?> collectedKey = this.collectedKeys.poll();
+                if (collectedKey == null) {
+                    return false;
+                }
+                // a key is only equal to itself once it's collected, so this
+                // removes it from the one map it was put in.
+                this.viewStateByView.remove(collectedKey);
+                this.viewsByDataContext.remove(collectedKey);
+            }
+            return true;
+        } finally {
+            this.drainLock.unlock();
+        }
+    }
+
+    /**
+     * The binding state of a single view.
+     */
+    @ThreadSafe
+    static final class ViewState {
+
+        // only written while holding the lock of the view.
+        private volatile Object dataContext;
+        private volatile Optional<EventSignals> eventSignals = Optional.absent();
+        private volatile Optional<ObservableCollection> observableCollection = Optional.absent();
+        private volatile Optional<PropertySlots> propertySlots = Optional.absent();
+        private final AtomicReference<ObservableCollectionBinding> observableCollectionBinding =
+                new AtomicReference<>();
+        private final ConcurrentMap<EventSignal, SignalImpl> installedSignalByEventSignal = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Class<? extends EventSignalFilter>, EventSignalFilter> eventSignalFilterByType =
+                new ConcurrentHashMap<>();
+        // views are compared by identity, two equal views are still two
+        // different views, so the last arguments are kept per view state.
+        private final ConcurrentMap<PropertySlotBinding, Optional<Object>> lastArgumentByPropertySlot =
+                new ConcurrentHashMap<>();
+
+        private ViewState() {
+        }
+
+        /**
+         * The event signals the view was last bound with.
+         */
+        Optional<EventSignals> getEventSignals() {
+            return this.eventSignals;
+        }
+
+        void setEventSignals(final Optional<EventSignals> eventSignals) {
+            this.eventSignals = eventSignals;
+        }
+
+        /**
+         * The observable collection the view was last bound with.
+         */
+        Optional<ObservableCollection> getObservableCollection() {
+            return this.observableCollection;
+        }
+
+        void setObservableCollection(final Optional<ObservableCollection> observableCollection) {
+            this.observableCollection = observableCollection;
+        }
+
+        /**
+         * The property slots the view was last bound with.
+         */
+        Optional<PropertySlots> getPropertySlots() {
+            return this.propertySlots;
+        }
+
+        void setPropertySlots(final Optional<PropertySlots> propertySlots) {
+            this.propertySlots = propertySlots;
+        }
+
+        Optional<ObservableCollectionBinding> getObservableCollectionBinding() {
+            return Optional.fromNullable(this.observableCollectionBinding.get());
+        }
+
+        /**
+         * Replace the observable collection binding of the view.
+         *
+         * @return the replaced binding, it should be disposed.
+         */
+        Optional<ObservableCollectionBinding> setObservableCollectionBinding(
+                final ObservableCollectionBinding observableCollectionBinding) {
+            return Optional.fromNullable(this.observableCollectionBinding.getAndSet(observableCollectionBinding));
+        }
+
+        /**
+         * The signals that are installed on the view, by their event signal.
+         * The returned map is a copy.
+         */
+        Map<EventSignal, SignalImpl> getInstalledSignals() {
+            return ImmutableMap.copyOf(this.installedSignalByEventSignal);
+        }
+
+        /**
+         * Mark a signal as installed on the view.
+         *
+         * @return the signal that was installed before for the same event
+         *         signal, it should be uninstalled.
+         */
+        Optional<SignalImpl> putInstalledSignal(final EventSignal eventSignal,
+                                                final SignalImpl signal) {
+            return Optional.fromNullable(this.installedSignalByEventSignal.put(eventSignal,
+                    signal));
+        }
+
+        void removeInstalledSignal(final EventSignal eventSignal) {
+            this.installedSignalByEventSignal.remove(eventSignal);
+        }
+
+        /**
+         * The filter of the given type that is shared by all event signals of
+         * the view.
+         */
+        Optional<EventSignalFilter> getEventSignalFilter(
+                final Class<? extends EventSignalFilter> eventSignalFilterType) {
+            return Optional.fromNullable(this.eventSignalFilterByType.get(eventSignalFilterType));
+        }
+
+        /**
+         * Share a filter of the given type with all event signals of the view,
+         * unless an other thread shared one first.
+         *
+         * @return the shared filter.
+         */
+        EventSignalFilter putEventSignalFilter(final Class<? extends EventSignalFilter> eventSignalFilterType,
+                                               final EventSignalFilter eventSignalFilter) {
+            final EventSignalFilter otherEventSignalFilter = this.eventSignalFilterByType
+                    .putIfAbsent(eventSignalFilterType,
+                            eventSignalFilter);
+            return otherEventSignalFilter == null ? eventSignalFilter : otherEventSignalFilter;
+        }
+
+        /**
+         * Remember the argument of a property slot of the view.
+         *
+         * @return the previous argument of the property slot, or null if the
+         *         property slot was never invoked.
+         */
+        Optional<Object> putLastArgument(final PropertySlotBinding propertySlotBinding,
+                                         final Optional<Object> argument) {
+            return this.lastArgumentByPropertySlot.put(propertySlotBinding,
+                    argument);
+        }
+    }
+
+    /**
+     * Weakly references a key, equal to any other key with the same referent.
+     * Once the referent is collected the key is only equal to itself.
+     */
+    private static final class WeakIdentityKey extends WeakReference<Object> {
+
+        private final int hashCode;
+
+        WeakIdentityKey(final Object referent,
+                        final ReferenceQueue<Object> collectedKeys) {
+            super(referent,
+                    collectedKeys);
+            this.hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            final Object referent = get();
+            if (referent == null) {
+                return false;
+            }
+            if (obj instanceof WeakIdentityKey) {
+                return referent == ((WeakIdentityKey) obj).get();
+            }
+            return (obj instanceof LookupKey) && (referent == ((LookupKey) obj).referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+
+    /**
+     * Strongly references a key for the duration of a lookup, so a lookup does
+     * not have to allocate a {@link WeakReference}.
+     */
+    private static final class LookupKey {
+
+        private final Object referent;
+
+        LookupKey(final Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof WeakIdentityKey) {
+                return this.referent == ((WeakIdentityKey) obj).get();
+            }
+            return (obj instanceof LookupKey) && (this.referent == ((LookupKey) obj).referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.referent);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Optional;
+
+/**
+ * Detached child views of an observable collection, kept per view class so
+ * they can be reused for new elements instead of creating a new view. The
+ * number of views kept per class is bounded by the system property
+ * {@value #POOL_SIZE_PROPERTY}.
+ */
+@ThreadSafe
+final class ChildViewPool {
+
+    static final String POOL_SIZE_PROPERTY = "trinity.binding.childviewpool";
+    private static final int MAX_POOLED_VIEWS_PER_CLASS = Integer.getInteger(POOL_SIZE_PROPERTY,
+            32);
+
+    @GuardedBy("this")
+    private final Map<Class<?>, Deque<Object>> pooledViewsByClass = new HashMap<>();
+
+    /**
+     * Offer a detached child view for reuse.
+     *
+     * @return false if the pool of the view class is full, the view should be
+     *         destroyed.
+     */
+    synchronized boolean offer(final Class<?> childViewClass,
+                               final Object childView) {
+        Deque<Object> pooledViews = this.pooledViewsByClass.get(childViewClass);
+        if (pooledViews == null) {
+            pooledViews = new ArrayDeque<>();
+            this.pooledViewsByClass.put(childViewClass,
+                    pooledViews);
+        }
+        if (pooledViews.size() >= MAX_POOLED_VIEWS_PER_CLASS) {
+            return false;
+        }
+        pooledViews.push(childView);
+        return true;
+    }
+
+    /**
+     * Take a detached child view of the given class.
+     */
+    synchronized Optional<Object> take(final Class<?> childViewClass) {
+        final Deque<Object> pooledViews = this.pooledViewsByClass.get(childViewClass);
+        if (pooledViews == null) {
+            return Optional.absent();
+        }
+        return Optional.fromNullable(pooledViews.poll());
+    }
+}
@@ -0,0 +1,377 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding;
+
+import static com.google.common.util.concurrent.Futures.addCallback;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.render.binding.view.ObservableCollection;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewChange;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.event.ListEvent;
+import ca.odell.glazedlists.event.ListEventListener;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * The child views of a view that is bound to an {@link ObservableCollection}.
+ * Every list event is turned into a single batch of {@link ChildViewChange}s
+ * that is applied by the {@link ChildViewDelegate}. Child views of removed
+ * elements are unbound and handed to a {@link ChildViewPool}, new elements
+ * reuse a pooled view when there is one.
+ * <p>
+ * A virtualized collection only has child views for the elements in its
+ * visible range, child views that leave the range are pooled.
+ * <p>
+ * The view is weakly referenced, the binding is the value of the view in the
+ * {@link BindingRegistry} and must not keep it from being collected. Once the
+ * view is collected the binding stops listening to the collection on its next
+ * event.
+ * <p>
+ * This class is not thread safe, it is used from the model executor and the
+ * thread that changes the collection, which should be the same.
+ */
+@NotThreadSafe
+final class ObservableCollectionBinding implements ListEventListener<Object> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObservableCollectionBinding.class);
+
+    private final BinderImpl binder;
+    private final ListeningExecutorService modelExecutor;
+    private final ChildViewDelegate childViewDelegate;
+    private final ChildViewPool childViewPool;
+    private final WeakReference<Object> view;
+    private final Class<?> childViewClass;
+    private final EventList<Object> collection;
+    private final boolean virtualized;
+    // We keep our own list of elements because glazedlists does not
+    // give us the deleted object...
+    private final List<ChildSlot> childSlots = new ArrayList<>();
+
+    private int firstVisibleIndex;
+    private int visibleCount;
+    private boolean disposed;
+
+    ObservableCollectionBinding(final BinderImpl binder,
+                                final ListeningExecutorService modelExecutor,
+                                final ChildViewDelegate childViewDelegate,
+                                final ChildViewPool childViewPool,
+                                final Object view,
+                                final EventList<Object> collection,
+                                final ObservableCollection observableCollection) {
+        this.binder = binder;
+        this.modelExecutor = modelExecutor;
+        this.childViewDelegate = childViewDelegate;
+        this.childViewPool = childViewPool;
+        this.view = new WeakReference<>(view);
+        this.collection = collection;
+        this.childViewClass = observableCollection.view();
+        this.virtualized = observableCollection.virtualized();
+        this.visibleCount = observableCollection.visibleCount();
+    }
+
+    void bind() {
+        this.collection.getReadWriteLock().readLock().lock();
+        try {
+            for (final Object childDataContext : this.collection) {
+                this.childSlots.add(new ChildSlot(childDataContext));
+            }
+            this.collection.addListEventListener(this);
+
+            final Batch batch = new Batch();
+            reconcile(batch);
+            apply(batch);
+        } finally {
+            this.collection.getReadWriteLock().readLock().unlock();
+        }
+    }
+
+    void updateVisibleRange(final int firstVisibleIndex,
+                            final int visibleCount) {
+        this.firstVisibleIndex = firstVisibleIndex;
+        this.visibleCount = visibleCount;
+        if (!this.virtualized || this.disposed) {
+            return;
+        }
+
+        final Batch batch = new Batch();
+        reconcile(batch);
+        apply(batch);
+    }
+
+    /**
+     * Stop listening to the collection and release all child views.
+     */
+    void dispose() {
+        if (this.disposed) {
+            return;
+        }
+        this.disposed = true;
+        this.collection.removeListEventListener(this);
+
+        final Batch batch = new Batch();
+        for (final ChildSlot childSlot : this.childSlots) {
+            // pending child views are released when they arrive.
+            childSlot.removed = true;
+            release(childSlot,
+                    batch);
+        }
+        this.childSlots.clear();
+        apply(batch);
+    }
+
+    @Override
+    public void listChanged(final ListEvent<Object> listChanges) {
+        if (this.disposed) {
+            return;
+        }
+        if (this.view.get() == null) {
+            // the view was collected without being unbound.
+            this.disposed = true;
+            this.collection.removeListEventListener(this);
+            this.childSlots.clear();
+            return;
+        }
+
+        final Batch batch = new Batch();
+        if (listChanges.isReordering()) {
+            final int[] reorderMap = listChanges.getReorderMap();
+            final List<ChildSlot> oldChildSlots = new ArrayList<>(this.childSlots);
+            for (int newIndex = 0; newIndex < reorderMap.length; newIndex++) {
+                this.childSlots.set(newIndex,
+                        oldChildSlots.get(reorderMap[newIndex]));
+            }
+        } else {
+            while (listChanges.next()) {
+                final int index = listChanges.getIndex();
+                switch (listChanges.getType()) {
+                    case ListEvent.DELETE: {
+                        final ChildSlot removedChildSlot = this.childSlots.remove(index);
+                        removedChildSlot.removed = true;
+                        release(removedChildSlot,
+                                batch);
+                        break;
+                    }
+                    case ListEvent.INSERT: {
+                        this.childSlots.add(index,
+                                new ChildSlot(listChanges.getSourceList().get(index)));
+                        break;
+                    }
+                    case ListEvent.UPDATE: {
+                        final ChildSlot updatedChildSlot = this.childSlots.get(index);
+                        final Object newChildDataContext = listChanges.getSourceList().get(index);
+                        if (updatedChildSlot.dataContext != newChildDataContext) {
+                            updatedChildSlot.dataContext = newChildDataContext;
+                            if (updatedChildSlot.childView != null) {
+                                this.binder.unbindView(updatedChildSlot.childView);
+                                batch.boundChildSlots.add(updatedChildSlot);
+                            }
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        reconcile(batch);
+        apply(batch);
+    }
+
+    /**
+     * Make sure exactly the visible elements have a child view, at the right
+     * position.
+     */
+    private void reconcile(final Batch batch) {
+        final int size = this.childSlots.size();
+        final int first = this.virtualized ? Math.min(this.firstVisibleIndex,
+                size) : 0;
+        final int end = this.virtualized ? Math.min(size,
+                first + this.visibleCount) : size;
+
+        for (int i = 0; i < size; i++) {
+            final ChildSlot childSlot = this.childSlots.get(i);
+            if ((i < first) || (i >= end)) {
+                release(childSlot,
+                        batch);
+                continue;
+            }
+
+            final int position = i - first;
+            if (childSlot.childView != null) {
+                if (childSlot.position != position) {
+                    batch.changes.add(ChildViewChange.move(childSlot.childView,
+                            childSlot.position,
+                            position));
+                }
+            } else if (!childSlot.pending) {
+                final Optional<Object> pooledChildView = this.childViewPool.take(this.childViewClass);
+                if (pooledChildView.isPresent()) {
+                    childSlot.childView = pooledChildView.get();
+                    batch.changes.add(ChildViewChange.attach(childSlot.childView,
+                            position));
+                    batch.boundChildSlots.add(childSlot);
+                } else {
+                    childSlot.pending = true;
+                    batch.changes.add(ChildViewChange.create(position));
+                    batch.createdChildSlots.add(childSlot);
+                }
+            }
+            childSlot.position = position;
+        }
+    }
+
+    /**
+     * Unbind the child view of the slot, if it has one, and detach it from the
+     * parent view.
+     */
+    private void release(final ChildSlot childSlot,
+                         final Batch batch) {
+        if (childSlot.childView == null) {
+            return;
+        }
+        final Object childView = childSlot.childView;
+        childSlot.childView = null;
+        this.binder.unbindView(childView);
+        if (this.childViewPool.offer(this.childViewClass,
+                childView)) {
+            batch.changes.add(ChildViewChange.detach(childView,
+                    childSlot.position));
+        } else {
+            batch.changes.add(ChildViewChange.destroy(childView,
+                    childSlot.position));
+        }
+        childSlot.position = -1;
+    }
+
+    private void apply(final Batch batch) {
+        final Object view = this.view.get();
+        if (view == null) {
+            // the view was collected, there is nothing left to show the
+            // children on.
+            return;
+        }
+        if (batch.changes.isEmpty()) {
+            for (final ChildSlot boundChildSlot : batch.boundChildSlots) {
+                bindChildSlot(boundChildSlot);
+            }
+            return;
+        }
+
+        final ListenableFuture<? extends List<?>> createdChildViews = this.childViewDelegate
+                .applyChanges(view,
+                        this.childViewClass,
+                        batch.changes);
+        for (final ChildSlot boundChildSlot : batch.boundChildSlots) {
+            bindChildSlot(boundChildSlot);
+        }
+        if (batch.createdChildSlots.isEmpty()) {
+            return;
+        }
+
+        final List<ChildSlot> createdChildSlots = batch.createdChildSlots;
+        addCallback(createdChildViews,
+                new FutureCallback<List<?>>() {
+                    @Override
+                    public void onSuccess(final List<?> childViews) {
+                        onChildViewsCreated(createdChildSlots,
+                                childViews);
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable t) {
+                        LOG.error("Error while creating new child views.",
+                                t);
+                        for (final ChildSlot createdChildSlot : createdChildSlots) {
+                            createdChildSlot.pending = false;
+                        }
+                    }
+                },
+                this.modelExecutor);
+    }
+
+    private void onChildViewsCreated(final List<ChildSlot> createdChildSlots,
+                                     final List<?> childViews) {
+        final Batch batch = new Batch();
+        for (int i = 0; i < createdChildSlots.size(); i++) {
+            final ChildSlot createdChildSlot = createdChildSlots.get(i);
+            createdChildSlot.pending = false;
+            createdChildSlot.childView = childViews.get(i);
+            if (createdChildSlot.removed || this.disposed) {
+                release(createdChildSlot,
+                        batch);
+            } else {
+                bindChildSlot(createdChildSlot);
+            }
+        }
+        if (!this.disposed) {
+            // the visible range might have changed while the views were
+            // created.
+            reconcile(batch);
+        }
+        apply(batch);
+    }
+
+    private void bindChildSlot(final ChildSlot childSlot) {
+        if (childSlot.childView == null) {
+            return;
+        }
+        this.binder.bindImpl(this.modelExecutor,
+                childSlot.dataContext,
+                childSlot.childView);
+    }
+
+    /**
+     * An element of the collection and its child view, if it has one.
+     */
+    private static final class ChildSlot {
+        private Object dataContext;
+        private Object childView;
+        private int position = -1;
+        // a child view is being created for this slot.
+        private boolean pending;
+        // the element was removed from the collection.
+        private boolean removed;
+
+        ChildSlot(final Object dataContext) {
+            this.dataContext = dataContext;
+        }
+    }
+
+    /**
+     * The changes that result from a single list event.
+     */
+    private static final class Batch {
+        private final List<ChildViewChange> changes = new ArrayList<>();
+        private final List<ChildSlot> createdChildSlots = new ArrayList<>();
+        private final List<ChildSlot> boundChildSlots = new ArrayList<>();
+    }
+}
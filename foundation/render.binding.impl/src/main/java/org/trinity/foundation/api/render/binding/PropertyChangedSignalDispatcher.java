@@ -21,13 +21,30 @@
 package org.trinity.foundation.api.render.binding;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 import org.trinity.foundation.api.render.binding.model.PropertyChanged;
 import org.trinity.foundation.api.render.binding.view.PropertySlot;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Key;
@@ -41,14 +58,54 @@ import com.google.inject.Key;
  * {@code PropertySlot} will be invoked. Invoking the {@code PropertySlot} is
  * done through an underlying {@link ViewSlotHandler} implementation.
  * <p>
+ * Changed properties are not dispatched right away. They are collected per
+ * model and flushed at most once per frame, see
+ * {@value #FRAME_INTERVAL_PROPERTY}. A property that changes several times
+ * within a frame is only updated once, with the value it has at the time of
+ * the flush.
+ * <p>
  * This class is used by Google Guice AOP.
  ***************************************
  */
+@ThreadSafe
 public class PropertyChangedSignalDispatcher implements MethodInterceptor {
 
+	public static final String FRAME_INTERVAL_PROPERTY = "trinity.binding.frameinterval";
+	// ~60 frames per second
+	private static final long FRAME_INTERVAL_MILLIS = Long.getLong(	FRAME_INTERVAL_PROPERTY,
+																	16);
+
+	private final ScheduledExecutorService frameExecutor = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+					.setNameFormat("property-changed-flush-%d").build());
+	private final Cache<Class<? extends Annotation>, ListeningExecutorService> modelExecutors = CacheBuilder
+			.newBuilder().build();
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	private final Object dirtyModelsLock = new Object();
+	// models can override equals, we want to know about every instance.
+	@GuardedBy("dirtyModelsLock")
+	private Map<Object, DirtyModel> dirtyModels = new IdentityHashMap<>();
+	@GuardedBy("dirtyModelsLock")
+	private boolean flushScheduled;
+
+	private final long frameIntervalMillis;
 	private Binder binder;
 	private Injector injector;
 
+	public PropertyChangedSignalDispatcher() {
+		this(FRAME_INTERVAL_MILLIS);
+	}
+
+	PropertyChangedSignalDispatcher(final long frameIntervalMillis) {
+		this.frameIntervalMillis = frameIntervalMillis;
+	}
+
 	@Override
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
 		final Object invocationResult = invocation.proceed();
@@ -56,21 +113,59 @@ public class PropertyChangedSignalDispatcher implements MethodInterceptor {
 		final Object changedModel = invocation.getThis();
 
 		final PropertyChanged changedPropertySignal = invocation.getMethod().getAnnotation(PropertyChanged.class);
-		final Class<? extends Annotation> executor = changedPropertySignal.executor();
-		final ListeningExecutorService modelExecutorInstance = this.injector.getInstance(Key
-				.get(	ListeningExecutorService.class,
-						executor));
+		final ListeningExecutorService modelExecutorInstance = getModelExecutor(changedPropertySignal.executor());
 		final String[] changedPropertyNames = changedPropertySignal.value();
 
-		for (final String propertyName : changedPropertyNames) {
-			this.binder.updateBinding(modelExecutorInstance,
-                    changedModel,
-                    propertyName);
+		synchronized (this.dirtyModelsLock) {
+			DirtyModel dirtyModel = this.dirtyModels.get(changedModel);
+			if (dirtyModel == null) {
+				dirtyModel = new DirtyModel(modelExecutorInstance);
+				this.dirtyModels.put(	changedModel,
+										dirtyModel);
+			}
+			Collections.addAll(	dirtyModel.propertyNames,
+								changedPropertyNames);
+
+			if (!this.flushScheduled) {
+				this.flushScheduled = true;
+				this.frameExecutor.schedule(this.flushTask,
+											this.frameIntervalMillis,
+											TimeUnit.MILLISECONDS);
+			}
 		}
 
 		return invocationResult;
 	}
 
+	private ListeningExecutorService getModelExecutor(final Class<? extends Annotation> executor)
+			throws ExecutionException {
+		return this.modelExecutors.get(	executor,
+										new Callable<ListeningExecutorService>() {
+											@Override
+											public ListeningExecutorService call() {
+												return PropertyChangedSignalDispatcher.this.injector
+														.getInstance(Key.get(	ListeningExecutorService.class,
+																				executor));
+											}
+										});
+	}
+
+	private void flush() {
+		final Map<Object, DirtyModel> flushedModels;
+		synchronized (this.dirtyModelsLock) {
+			flushedModels = this.dirtyModels;
+			this.dirtyModels = new IdentityHashMap<>();
+			this.flushScheduled = false;
+		}
+
+		for (final Entry<Object, DirtyModel> flushedModel : flushedModels.entrySet()) {
+			final DirtyModel dirtyModel = flushedModel.getValue();
+			this.binder.updateBindings(	dirtyModel.modelExecutor,
+										flushedModel.getKey(),
+										dirtyModel.propertyNames);
+		}
+	}
+
 	@Inject
 	void setBinder(final Binder binder) {
 		this.binder = binder;
@@ -80,4 +175,13 @@ public class PropertyChangedSignalDispatcher implements MethodInterceptor {
 	void setInjector(final Injector injector) {
 		this.injector = injector;
 	}
+
+	private static class DirtyModel {
+		private final ListeningExecutorService modelExecutor;
+		private final Set<String> propertyNames = new LinkedHashSet<>();
+
+		DirtyModel(final ListeningExecutorService modelExecutor) {
+			this.modelExecutor = modelExecutor;
+		}
+	}
 }
@@ -17,67 +17,149 @@
  * this program; if not, write to the Free Software Foundation, Inc., 51
  * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
  ******************************************************************************/
-
 package org.trinity.foundation.api.render.binding;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.concurrent.ThreadSafe;
 
-import com.google.common.hash.HashFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.render.binding.view.EventSignal;
 import org.trinity.foundation.api.render.binding.view.delegate.Signal;
 
 import com.google.common.base.Optional;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.hash.HashCode;
-import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
-//TODO documentation
+/**
+ * Invokes the model method of an {@link EventSignal} on the data context of a
+ * view. The method is resolved to a {@link MethodHandle} once per data context
+ * class and kept on the signal, so firing does not have to look it up again.
+ * <p>
+ * If the event signal is throttled, fires that arrive within the throttle
+ * interval of the previous invocation are coalesced into one invocation at
+ * the end of the interval.
+ * <p>
+ * A signal is kept in the {@link BindingRegistry} state of its own view, so
+ * the view is weakly referenced. A signal of a collected view does nothing.
+ */
+@ThreadSafe
 public class SignalImpl implements Signal {
 
     private static final Logger LOG = LoggerFactory.getLogger(SignalImpl.class);
-    private static final Cache<HashCode, Optional<Method>> EVENT_SLOTS_BY_HASH = CacheBuilder.newBuilder().concurrencyLevel(1)
-            .build();
-    private static final HashFunction HASH_FUNCTION = Hashing.goodFastHash(16);
+    private static final MethodType SLOT_TYPE = MethodType.methodType(void.class,
+            Object.class);
+    private static final Cache<Class<?>, Cache<String, Optional<MethodHandle>>> EVENT_SLOTS_BY_CLASS = CacheBuilder
+            .newBuilder().build();
+    private static final ScheduledExecutorService THROTTLE_EXECUTOR = Executors
+            .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                    .setNameFormat("signal-throttle-%d").build());
+
     private final ListeningExecutorService modelExecutor;
-    private final Object view;
-    private final Map<Object, Object> dataContextValueByView;
+    private final WeakReference<Object> view;
+    private final BindingRegistry registry;
     private final String inputSlotName;
+    private final long throttleNanos;
+    // the slot of the data context class the signal was last fired on.
+    private final AtomicReference<ResolvedSlot> resolvedSlot = new AtomicReference<>();
+    private final AtomicLong lastFireNanos;
+    private final AtomicReference<SettableFuture<Void>> pendingFire = new AtomicReference<>();
+    private final Callable<Void> invokeSlot = new Callable<Void>() {
+        @Override
+        public Void call() throws InvocationTargetException, ExecutionException {
+            final Object view = SignalImpl.this.view.get();
+            if (view == null) {
+                return null;
+            }
+            final Optional<Object> optionalViewModel = SignalImpl.this.registry.getDataContext(view);
+            if (!optionalViewModel.isPresent()) {
+                // the view is not bound (anymore).
+                return null;
+            }
+            final Object viewModel = optionalViewModel.get();
+            final Optional<MethodHandle> optionalInputSlot = getSlot(viewModel.getClass());
+            if (optionalInputSlot.isPresent()) {
+                try {
+                    optionalInputSlot.get().invokeExact(viewModel);
+                } catch (final Throwable e) {
+                    throw new InvocationTargetException(e);
+                }
+            }
+            return null;
+        }
+    };
+    private final Runnable firePending = new Runnable() {
+        @Override
+        public void run() {
+            SignalImpl.this.lastFireNanos.set(System.nanoTime());
+            final SettableFuture<Void> pendingFuture = SignalImpl.this.pendingFire.getAndSet(null);
+            Futures.addCallback(submit(),
+                    new FutureCallback<Void>() {
+                        @Override
+                        public void onSuccess(final Void result) {
+                            pendingFuture.set(result);
+                        }
+
+                        @Override
+                        public void onFailure(final Throwable t) {
+                            pendingFuture.setException(t);
+                        }
+                    });
+        }
+    };
 
     SignalImpl(final ListeningExecutorService modelExecutor,
                final Object view,
-               final Map<Object, Object> dataContextValueByView,
-               final String inputSlotName) {
+               final BindingRegistry registry,
+               final EventSignal eventSignal) {
         this.modelExecutor = modelExecutor;
-        this.view = view;
-        this.dataContextValueByView = dataContextValueByView;
-        this.inputSlotName = inputSlotName;
+        this.view = new WeakReference<>(view);
+        this.registry = registry;
+        this.inputSlotName = eventSignal.name();
+        this.throttleNanos = TimeUnit.MILLISECONDS.toNanos(eventSignal.throttle());
+        // the first fire is never throttled.
+        this.lastFireNanos = new AtomicLong(System.nanoTime() - this.throttleNanos);
     }
 
-    private static Optional<Method> findSlot(final Class<?> modelClass,
-                                             final String methodName) throws ExecutionException {
-
-        final HashCode hashCode = HASH_FUNCTION.newHasher().putInt(modelClass.hashCode())
-                .putString(methodName).hash();
-
-        return EVENT_SLOTS_BY_HASH.get(hashCode,
-                new Callable<Optional<Method>>() {
+    private static Optional<MethodHandle> findSlot(final Class<?> modelClass,
+                                                   final String methodName) throws ExecutionException {
+        return EVENT_SLOTS_BY_CLASS.get(modelClass,
+                new Callable<Cache<String, Optional<MethodHandle>>>() {
                     @Override
-                    public Optional<Method> call() {
-                        return getSlot(modelClass,
+                    public Cache<String, Optional<MethodHandle>> call() {
+                        return CacheBuilder.newBuilder().build();
+                    }
+                }).get(methodName,
+                new Callable<Optional<MethodHandle>>() {
+                    @Override
+                    public Optional<MethodHandle> call() throws IllegalAccessException {
+                        return toSlotHandle(modelClass,
                                 methodName);
                     }
                 });
     }
 
-    private static Optional<Method> getSlot(final Class<?> modelClass,
-                                            final String methodName) {
+    private static Optional<MethodHandle> toSlotHandle(final Class<?> modelClass,
+                                                       final String methodName) throws IllegalAccessException {
         Method inputSlot = null;
         try {
             inputSlot = modelClass.getMethod(methodName);
@@ -89,24 +171,74 @@ public class SignalImpl implements Signal {
             LOG.warn("No input slot found for class=" + modelClass + " with slotname=" + methodName,
                     e);
         }
-        return Optional.fromNullable(inputSlot);
+        if (inputSlot == null) {
+            return Optional.absent();
+        }
+        // public methods of a non public class are not accessible otherwise.
+        inputSlot.setAccessible(true);
+        return Optional.of(MethodHandles.lookup().unreflect(inputSlot).asType(SLOT_TYPE));
+    }
+
+    private Optional<MethodHandle> getSlot(final Class<?> modelClass) throws ExecutionException {
+        final ResolvedSlot resolvedSlot = this.resolvedSlot.get();
+        if ((resolvedSlot != null) && (resolvedSlot.modelClass == modelClass)) {
+            return resolvedSlot.slot;
+        }
+        final Optional<MethodHandle> slot = findSlot(modelClass,
+                this.inputSlotName);
+        this.resolvedSlot.set(new ResolvedSlot(modelClass,
+                slot));
+        return slot;
     }
 
     @Override
     public ListenableFuture<Void> fire() {
-        return modelExecutor.submit(new Callable<Void>() {
-            @Override
-            public Void call() throws Exception {
-                final Object viewModel = dataContextValueByView.get(view);
-                final Optional<Method> optionalInputSlot = findSlot(viewModel.getClass(),
-                        inputSlotName);
-                if (optionalInputSlot.isPresent()) {
-                    final Method method = optionalInputSlot.get();
-                    method.setAccessible(true);
-                    method.invoke(viewModel);
+        if (this.throttleNanos == 0) {
+            return submit();
+        }
+
+        while (true) {
+            final SettableFuture<Void> pendingFuture = this.pendingFire.get();
+            if (pendingFuture != null) {
+                // coalesced into the fire at the end of the interval.
+                return pendingFuture;
+            }
+
+            final long lastFireNanos = this.lastFireNanos.get();
+            final long now = System.nanoTime();
+            final long remainingNanos = (lastFireNanos + this.throttleNanos) - now;
+            if (remainingNanos <= 0) {
+                if (this.lastFireNanos.compareAndSet(lastFireNanos,
+                        now)) {
+                    return submit();
                 }
-                return null;
+                continue;
+            }
+
+            final SettableFuture<Void> newPendingFuture = SettableFuture.create();
+            if (this.pendingFire.compareAndSet(null,
+                    newPendingFuture)) {
+                THROTTLE_EXECUTOR.schedule(this.firePending,
+                        remainingNanos,
+                        TimeUnit.NANOSECONDS);
+                return newPendingFuture;
             }
-        });
+        }
+    }
+
+    private ListenableFuture<Void> submit() {
+        return this.modelExecutor.submit(this.invokeSlot);
+    }
+
+    private static final class ResolvedSlot {
+
+        private final Class<?> modelClass;
+        private final Optional<MethodHandle> slot;
+
+        ResolvedSlot(final Class<?> modelClass,
+                     final Optional<MethodHandle> slot) {
+            this.modelClass = modelClass;
+            this.slot = slot;
+        }
     }
 }
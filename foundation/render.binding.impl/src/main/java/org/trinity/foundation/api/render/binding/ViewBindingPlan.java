@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.render.binding.view.DataContext;
+import org.trinity.foundation.api.render.binding.view.EventSignals;
+import org.trinity.foundation.api.render.binding.view.ObservableCollection;
+import org.trinity.foundation.api.render.binding.view.PropertyAdapter;
+import org.trinity.foundation.api.render.binding.view.PropertySlot;
+import org.trinity.foundation.api.render.binding.view.PropertySlots;
+import org.trinity.foundation.api.render.binding.view.ViewBinding;
+import org.trinity.foundation.api.render.binding.view.ViewBindings;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * The binding annotations of a view class, resolved once so binding a view
+ * does not need any reflective lookups. A plan holds the class level binding
+ * annotations, an accessor for every declared field together with its field
+ * level binding annotations, and the resolved {@link PropertySlot}s for every
+ * {@link PropertySlots} that was applied to a view of this class.
+ * <p>
+ * Fields are read through the {@link ViewBinding} that was generated for the
+ * view class when there is one, and through a {@link MethodHandle} otherwise.
+ */
+@ThreadSafe
+final class ViewBindingPlan {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ViewBindingPlan.class);
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class,
+            Object.class);
+    private static final Cache<Class<?>, ViewBindingPlan> PLANS_BY_VIEW_CLASS = CacheBuilder.newBuilder()
+            .weakKeys().build();
+    private static final Cache<Class<?>, PropertyAdapter<?>> PROPERTY_ADAPTERS = CacheBuilder.newBuilder()
+            .weakKeys().build();
+    private static final Cache<String, List<String>> PROPERTY_NAMES_BY_PATH = CacheBuilder.newBuilder().build();
+    private static final Splitter PROPERTY_PATH_SPLITTER = Splitter.on('.').trimResults().omitEmptyStrings();
+
+    private final Class<?> viewClass;
+    private final Optional<DataContext> dataContext;
+    private final Optional<EventSignals> eventSignals;
+    private final Optional<ObservableCollection> observableCollection;
+    private final Optional<PropertySlots> propertySlots;
+    private final List<ChildViewElement> childViewElements;
+    // property slots can be declared on the field holding a view, so we
+    // resolve them for every property slots instance we encounter.
+    private final Cache<PropertySlots, List<PropertySlotBinding>> propertySlotBindings = CacheBuilder.newBuilder()
+            .build();
+
+    private ViewBindingPlan(final Class<?> viewClass) throws IllegalAccessException {
+        this.viewClass = viewClass;
+        this.dataContext = Optional.fromNullable(viewClass.getAnnotation(DataContext.class));
+        this.eventSignals = Optional.fromNullable(viewClass.getAnnotation(EventSignals.class));
+        this.observableCollection = Optional.fromNullable(viewClass.getAnnotation(ObservableCollection.class));
+        this.propertySlots = Optional.fromNullable(viewClass.getAnnotation(PropertySlots.class));
+
+        final Optional<ViewBinding> viewBinding = ViewBindings.find(viewClass);
+        final ImmutableList.Builder<ChildViewElement> childViewElements = ImmutableList.builder();
+        for (final Field field : viewClass.getDeclaredFields()) {
+            childViewElements.add(new ChildViewElement(field,
+                    viewBinding));
+        }
+        this.childViewElements = childViewElements.build();
+    }
+
+    static ViewBindingPlan forViewClass(final Class<?> viewClass) {
+        try {
+            return PLANS_BY_VIEW_CLASS.get(viewClass,
+                    new Callable<ViewBindingPlan>() {
+                        @Override
+                        public ViewBindingPlan call() throws IllegalAccessException {
+                            return new ViewBindingPlan(viewClass);
+                        }
+                    });
+        } catch (final ExecutionException e) {
+            throw new IllegalArgumentException(String.format("Can not access the fields of view class %s.",
+                    viewClass.getName()),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * The property names of a '.' separated property path. The result is
+     * cached as the same few paths are split over and over again.
+     */
+    static List<String> toPropertyNames(final String propertyPath) {
+        final List<String> propertyNames = PROPERTY_NAMES_BY_PATH.getIfPresent(propertyPath);
+        if (propertyNames != null) {
+            return propertyNames;
+        }
+        final List<String> splitPropertyNames = ImmutableList.copyOf(PROPERTY_PATH_SPLITTER.split(propertyPath));
+        PROPERTY_NAMES_BY_PATH.put(propertyPath,
+                splitPropertyNames);
+        return splitPropertyNames;
+    }
+
+    /**
+     * Convert a getter to a {@link MethodHandle} of type
+     * {@code (Object)Object}.
+     */
+    static MethodHandle toGetterHandle(final Method getter) throws IllegalAccessException {
+        // workaround for bug (4071957) submitted in
+        // 1997(!) and still not fixed by sun/oracle.
+        getter.setAccessible(true);
+        return MethodHandles.lookup().unreflect(getter).asType(GETTER_TYPE);
+    }
+
+    /**
+     * Invoke a getter created by {@link #toGetterHandle(Method)}. Exceptions
+     * thrown by the getter are wrapped, like a reflective invocation does.
+     */
+    static Object invokeGetter(final MethodHandle getter,
+                               final Object target) throws InvocationTargetException {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (final Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private static PropertyAdapter<?> getPropertyAdapter(final Class<? extends PropertyAdapter<?>> propertyAdapterType)
+            throws ExecutionException {
+        return PROPERTY_ADAPTERS.get(propertyAdapterType,
+                new Callable<PropertyAdapter<?>>() {
+                    @Override
+                    public PropertyAdapter<?> call() throws InstantiationException, IllegalAccessException {
+                        return propertyAdapterType.newInstance();
+                    }
+                });
+    }
+
+    Class<?> getViewClass() {
+        return this.viewClass;
+    }
+
+    Optional<DataContext> getDataContext() {
+        return this.dataContext;
+    }
+
+    Optional<EventSignals> getEventSignals() {
+        return this.eventSignals;
+    }
+
+    Optional<ObservableCollection> getObservableCollection() {
+        return this.observableCollection;
+    }
+
+    Optional<PropertySlots> getPropertySlots() {
+        return this.propertySlots;
+    }
+
+    List<ChildViewElement> getChildViewElements() {
+        return this.childViewElements;
+    }
+
+    /**
+     * The resolved property slots of a view of this plan's class. Property
+     * slots whose view method or adapter can not be resolved are left out.
+     */
+    List<PropertySlotBinding> getPropertySlotBindings(final PropertySlots propertySlots) {
+        try {
+            return this.propertySlotBindings.get(propertySlots,
+                    new Callable<List<PropertySlotBinding>>() {
+                        @Override
+                        public List<PropertySlotBinding> call() {
+                            return resolvePropertySlots(propertySlots);
+                        }
+                    });
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<PropertySlotBinding> resolvePropertySlots(final PropertySlots propertySlots) {
+        final ImmutableList.Builder<PropertySlotBinding> propertySlotBindings = ImmutableList.builder();
+        for (final PropertySlot propertySlot : propertySlots.value()) {
+            try {
+                final Method viewMethod = this.viewClass.getMethod(propertySlot.methodName(),
+                        propertySlot.argumentTypes());
+                final PropertyAdapter<?> propertyAdapter = getPropertyAdapter(propertySlot.adapter());
+                propertySlotBindings.add(new PropertySlotBinding(propertySlot,
+                        viewMethod,
+                        propertyAdapter));
+            } catch (final NoSuchMethodException | SecurityException | ExecutionException e) {
+                // TODO explanation
+                LOG.error("",
+                        e);
+            }
+        }
+        return propertySlotBindings.build();
+    }
+
+    /**
+     * A declared field of a view, that can hold a child view.
+     */
+    @ThreadSafe
+    static final class ChildViewElement {
+
+        private final MethodHandle getter;
+        private final Optional<ViewBinding.FieldReader> fieldReader;
+        private final Optional<DataContext> dataContext;
+        private final Optional<EventSignals> eventSignals;
+        private final Optional<ObservableCollection> observableCollection;
+        private final Optional<PropertySlots> propertySlots;
+
+        private ChildViewElement(final Field field,
+                                 final Optional<ViewBinding> viewBinding) throws IllegalAccessException {
+            // private fields are not read by the generated binding.
+            this.fieldReader = viewBinding.isPresent() ? viewBinding.get().getFieldReader(field.getName())
+                    : Optional.<ViewBinding.FieldReader> absent();
+            field.setAccessible(true);
+            MethodHandle fieldGetter = MethodHandles.lookup().unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                fieldGetter = MethodHandles.dropArguments(fieldGetter,
+                        0,
+                        Object.class);
+            }
+            this.getter = fieldGetter.asType(GETTER_TYPE);
+            this.dataContext = Optional.fromNullable(field.getAnnotation(DataContext.class));
+            this.eventSignals = Optional.fromNullable(field.getAnnotation(EventSignals.class));
+            this.observableCollection = Optional.fromNullable(field.getAnnotation(ObservableCollection.class));
+            this.propertySlots = Optional.fromNullable(field.getAnnotation(PropertySlots.class));
+        }
+
+        Object getChildView(final Object view) throws InvocationTargetException {
+            if (this.fieldReader.isPresent()) {
+                return this.fieldReader.get().read(view);
+            }
+            return invokeGetter(this.getter,
+                    view);
+        }
+
+        Optional<DataContext> getDataContext() {
+            return this.dataContext;
+        }
+
+        Optional<EventSignals> getEventSignals() {
+            return this.eventSignals;
+        }
+
+        Optional<ObservableCollection> getObservableCollection() {
+            return this.observableCollection;
+        }
+
+        Optional<PropertySlots> getPropertySlots() {
+            return this.propertySlots;
+        }
+    }
+
+    /**
+     * A {@link PropertySlot} with its view method and adapter resolved and its
+     * data context path split.
+     */
+    @ThreadSafe
+    static final class PropertySlotBinding {
+
+        private final PropertySlot propertySlot;
+        private final List<String> dataContextPath;
+        private final Method viewMethod;
+        private final PropertyAdapter<?> propertyAdapter;
+
+        private PropertySlotBinding(final PropertySlot propertySlot,
+                                    final Method viewMethod,
+                                    final PropertyAdapter<?> propertyAdapter) {
+            this.propertySlot = propertySlot;
+            this.dataContextPath = toPropertyNames(propertySlot.dataContext());
+            this.viewMethod = viewMethod;
+            this.propertyAdapter = propertyAdapter;
+        }
+
+        PropertySlot getPropertySlot() {
+            return this.propertySlot;
+        }
+
+        String getPropertyName() {
+            return this.propertySlot.propertyName();
+        }
+
+        List<String> getDataContextPath() {
+            return this.dataContextPath;
+        }
+
+        Method getViewMethod() {
+            return this.viewMethod;
+        }
+
+        boolean isMemoized() {
+            return this.propertySlot.memoize();
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Object adapt(final Object propertyValue) {
+            return ((PropertyAdapter) this.propertyAdapter).adapt(propertyValue);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.api.render.binding;
+
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import org.trinity.foundation.api.render.binding.view.DataContext;
+import org.trinity.foundation.api.render.binding.view.EventSignals;
+import org.trinity.foundation.api.render.binding.view.ObservableCollection;
+import org.trinity.foundation.api.render.binding.view.PropertySlot;
+import org.trinity.foundation.api.render.binding.view.PropertySlots;
+import org.trinity.foundation.api.render.binding.view.ViewBinding;
+import org.trinity.foundation.api.render.binding.view.ViewBindings;
+
+import com.google.common.base.Optional;
+
+/**
+ * Generates a {@link ViewBinding} for every view class that carries binding
+ * annotations, either on the class itself or on one of its fields. The
+ * generated binding has a typed accessor for every field of the view class
+ * and for every method of its class level {@link PropertySlot}s, that reads
+ * the field or invokes the method directly. Fields and methods that
+ * are not visible from the package of the view class are left to the
+ * reflection based binding.
+ * <p>
+ * The processor is registered as a service, so it runs for every module that
+ * has this module on its compile classpath.
+ */
+@SupportedAnnotationTypes({ "org.trinity.foundation.api.render.binding.view.DataContext",
+        "org.trinity.foundation.api.render.binding.view.EventSignals",
+        "org.trinity.foundation.api.render.binding.view.ObservableCollection",
+        "org.trinity.foundation.api.render.binding.view.PropertySlots" })
+public class ViewBindingProcessor extends AbstractProcessor {
+
+    private static final List<Class<? extends Annotation>> BINDING_ANNOTATIONS = Arrays
+            .<Class<? extends Annotation>> asList(DataContext.class,
+                                                  EventSignals.class,
+                                                  ObservableCollection.class,
+                                                  PropertySlots.class);
+
+    private static final String VIEW_BINDING = ViewBinding.class.getCanonicalName();
+    private static final String FIELD_READER = ViewBinding.FieldReader.class.getCanonicalName();
+    private static final String METHOD_INVOKER = ViewBinding.MethodInvoker.class.getCanonicalName();
+    private static final String OPTIONAL = Optional.class.getName();
+    private static final List<String> GENERATED_ANNOTATIONS = Arrays.asList("javax.annotation.processing.Generated",
+                                                                          "javax.annotation.Generated");
+
+    private final Set<String> generatedViewBindings = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+                           final RoundEnvironment roundEnv) {
+        final Set<TypeElement> viewTypes = new LinkedHashSet<>();
+        for (final Class<? extends Annotation> bindingAnnotation : BINDING_ANNOTATIONS) {
+            for (final Element annotatedElement : roundEnv.getElementsAnnotatedWith(bindingAnnotation)) {
+                final Element viewType = annotatedElement.getKind() == ElementKind.FIELD ? annotatedElement
+                        .getEnclosingElement() : annotatedElement;
+                if (viewType instanceof TypeElement) {
+                    viewTypes.add((TypeElement) viewType);
+                }
+            }
+        }
+
+        for (final TypeElement viewType : viewTypes) {
+            if (isAccessibleFromPackage(viewType)
+                    && this.generatedViewBindings.add(viewType.getQualifiedName().toString())) {
+                try {
+                    generateViewBinding(viewType);
+                } catch (final IOException e) {
+                    this.processingEnv.getMessager().printMessage(Kind.ERROR,
+                            "Can not generate view binding: " + e.getMessage(),
+                            viewType);
+                }
+            }
+        }
+        // other processors may be interested in the binding annotations too.
+        return false;
+    }
+
+    private boolean isAccessibleFromPackage(final TypeElement viewType) {
+        Element element = viewType;
+        while (element instanceof TypeElement) {
+            final TypeElement typeElement = (TypeElement) element;
+            if (typeElement.getModifiers().contains(PRIVATE)
+                    || (typeElement.getNestingKind() == NestingKind.ANONYMOUS)
+                    || (typeElement.getNestingKind() == NestingKind.LOCAL)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private void generateViewBinding(final TypeElement viewType) throws IOException {
+        final PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(viewType);
+        final String packageName = packageElement.getQualifiedName().toString();
+        final String binaryName = this.processingEnv.getElementUtils().getBinaryName(viewType).toString();
+        final String viewBindingSimpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName
+                .length() + 1)) + ViewBindings.VIEW_BINDING_SUFFIX;
+        final String viewTypeName = this.processingEnv.getTypeUtils().erasure(viewType.asType()).toString();
+
+        final List<VariableElement> fields = findReadableFields(viewType);
+        final Map<String, ExecutableElement> methodsByKey = findPropertySlotMethods(viewType,
+                packageElement);
+
+        final JavaFileObject sourceFile = this.processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? viewBindingSimpleName
+                : packageName + "." + viewBindingSimpleName,
+                viewType);
+        try (final PrintWriter out = new PrintWriter(sourceFile.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            final Optional<String> generatedAnnotation = findGeneratedAnnotation();
+            if (generatedAnnotation.isPresent()) {
+                out.println("@" + generatedAnnotation.get() + "(\"" + ViewBindingProcessor.class.getName() + "\")");
+            }
+            out.println("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })");
+            out.println("public final class " + viewBindingSimpleName + " implements " + VIEW_BINDING + " {");
+            out.println();
+
+            final List<String> fieldReaders = new ArrayList<>();
+            for (final VariableElement field : fields) {
+                final String fieldReader = "FIELD_READER_" + fieldReaders.size();
+                fieldReaders.add(fieldReader);
+                out.println("\tprivate static final " + FIELD_READER + " " + fieldReader + " = new " + FIELD_READER
+                        + "() {");
+                out.println("\t\t@Override");
+                out.println("\t\tpublic Object read(final Object view) {");
+                if (field.getModifiers().contains(STATIC)) {
+                    out.println("\t\t\treturn " + viewTypeName + "." + field.getSimpleName() + ";");
+                } else {
+                    out.println("\t\t\treturn ((" + viewTypeName + ") view)." + field.getSimpleName() + ";");
+                }
+                out.println("\t\t}");
+                out.println("\t};");
+            }
+            final List<String> methodInvokers = new ArrayList<>();
+            for (final ExecutableElement method : methodsByKey.values()) {
+                final String methodInvoker = "METHOD_INVOKER_" + methodInvokers.size();
+                methodInvokers.add(methodInvoker);
+                out.println("\tprivate static final " + METHOD_INVOKER + " " + methodInvoker + " = new "
+                        + METHOD_INVOKER + "() {");
+                out.println("\t\t@Override");
+                out.println("\t\tpublic void invoke(final Object view, final Object argument) {");
+                out.println("\t\t\t((" + viewTypeName + ") view)." + method.getSimpleName() + "(("
+                        + toArgumentTypeName(method.getParameters().get(0).asType()) + ") argument);");
+                out.println("\t\t}");
+                out.println("\t};");
+            }
+            out.println();
+
+            // the accessors are looked up once per view class, by the binding
+            // plan.
+            out.println("\t@Override");
+            out.println("\tpublic " + OPTIONAL + "<" + FIELD_READER + "> getFieldReader(final String fieldName) {");
+            out.println("\t\tswitch (fieldName) {");
+            for (int i = 0; i < fields.size(); i++) {
+                out.println("\t\tcase \"" + fields.get(i).getSimpleName() + "\":");
+                out.println("\t\t\treturn " + OPTIONAL + ".of(" + fieldReaders.get(i) + ");");
+            }
+            out.println("\t\tdefault:");
+            out.println("\t\t\treturn " + OPTIONAL + ".absent();");
+            out.println("\t\t}");
+            out.println("\t}");
+            out.println();
+
+            out.println("\t@Override");
+            out.println("\tpublic " + OPTIONAL + "<" + METHOD_INVOKER + "> getMethodInvoker(final String methodKey) {");
+            out.println("\t\tswitch (methodKey) {");
+            int methodIndex = 0;
+            for (final String methodKey : methodsByKey.keySet()) {
+                out.println("\t\tcase \"" + methodKey + "\":");
+                out.println("\t\t\treturn " + OPTIONAL + ".of(" + methodInvokers.get(methodIndex++) + ");");
+            }
+            out.println("\t\tdefault:");
+            out.println("\t\t\treturn " + OPTIONAL + ".absent();");
+            out.println("\t\t}");
+            out.println("\t}");
+            out.println("}");
+        }
+    }
+
+    /**
+     * The Generated annotation that is available to the compiled code. It
+     * moved to javax.annotation.processing in Java 9, the old one is gone
+     * from the JDK since Java 11.
+     */
+    private Optional<String> findGeneratedAnnotation() {
+        for (final String generatedAnnotation : GENERATED_ANNOTATIONS) {
+            if (this.processingEnv.getElementUtils().getTypeElement(generatedAnnotation) != null) {
+                return Optional.of(generatedAnnotation);
+            }
+        }
+        return Optional.absent();
+    }
+
+    private List<VariableElement> findReadableFields(final TypeElement viewType) {
+        final List<VariableElement> fields = ElementFilter.fieldsIn(viewType.getEnclosedElements());
+        for (final VariableElement field : fields.toArray(new VariableElement[fields.size()])) {
+            if (field.getModifiers().contains(PRIVATE)) {
+                fields.remove(field);
+            }
+        }
+        return fields;
+    }
+
+    private Map<String, ExecutableElement> findPropertySlotMethods(final TypeElement viewType,
+                                                                   final PackageElement packageElement) {
+        final Map<String, ExecutableElement> methodsByKey = new LinkedHashMap<>();
+        final Optional<AnnotationMirror> propertySlots = findAnnotation(viewType,
+                PropertySlots.class);
+        if (!propertySlots.isPresent()) {
+            return methodsByKey;
+        }
+
+        final List<ExecutableElement> methods = ElementFilter.methodsIn(this.processingEnv.getElementUtils()
+                .getAllMembers(viewType));
+        for (final AnnotationValue propertySlotValue : getListValue(propertySlots.get(),
+                "value")) {
+            final AnnotationMirror propertySlot = (AnnotationMirror) propertySlotValue.getValue();
+            final String methodName = (String) getValue(propertySlot,
+                    "methodName").getValue();
+            final List<? extends AnnotationValue> argumentTypes = getListValue(propertySlot,
+                    "argumentTypes");
+            if (argumentTypes.size() != 1) {
+                continue;
+            }
+            final TypeMirror argumentType = this.processingEnv.getTypeUtils().erasure((TypeMirror) argumentTypes
+                    .get(0).getValue());
+
+            for (final ExecutableElement method : methods) {
+                if (method.getSimpleName().contentEquals(methodName)
+                        && (method.getParameters().size() == 1)
+                        && this.processingEnv.getTypeUtils().isSameType(this.processingEnv.getTypeUtils()
+                                .erasure(method.getParameters().get(0).asType()),
+                                argumentType) && isAccessible(method,
+                                packageElement)) {
+                    final Optional<String> methodKey = toMethodKey(method);
+                    if (methodKey.isPresent()) {
+                        methodsByKey.put(methodKey.get(),
+                                method);
+                    }
+                    break;
+                }
+            }
+        }
+        return methodsByKey;
+    }
+
+    private boolean isAccessible(final ExecutableElement method,
+                                 final PackageElement packageElement) {
+        if (method.getModifiers().contains(PUBLIC)) {
+            return true;
+        }
+        return !method.getModifiers().contains(PRIVATE)
+                && this.processingEnv.getElementUtils().getPackageOf(method).equals(packageElement);
+    }
+
+    /**
+     * The method key as created by {@link ViewBindings#toMethodKey(java.lang.reflect.Method)}.
+     */
+    private Optional<String> toMethodKey(final ExecutableElement method) {
+        final TypeMirror parameterType = this.processingEnv.getTypeUtils().erasure(method.getParameters().get(0)
+                .asType());
+        final String parameterTypeName;
+        if (parameterType.getKind().isPrimitive()) {
+            parameterTypeName = parameterType.toString();
+        } else if (parameterType.getKind() == TypeKind.DECLARED) {
+            parameterTypeName = this.processingEnv.getElementUtils()
+                    .getBinaryName((TypeElement) ((DeclaredType) parameterType).asElement()).toString();
+        } else {
+            // arrays and type variables are left to reflection.
+            return Optional.absent();
+        }
+        return Optional.of(method.getSimpleName() + "(" + parameterTypeName + ")");
+    }
+
+    private String toArgumentTypeName(final TypeMirror parameterType) {
+        final TypeMirror erasedParameterType = this.processingEnv.getTypeUtils().erasure(parameterType);
+        if (erasedParameterType.getKind().isPrimitive()) {
+            return this.processingEnv.getTypeUtils().boxedClass(this.processingEnv.getTypeUtils()
+                    .getPrimitiveType(erasedParameterType.getKind())).getQualifiedName().toString();
+        }
+        return erasedParameterType.toString();
+    }
+
+    private Optional<AnnotationMirror> findAnnotation(final Element element,
+                                                      final Class<?> annotationType) {
+        for (final AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(annotationType.getName())) {
+                return Optional.of(annotationMirror);
+            }
+        }
+        return Optional.absent();
+    }
+
+    private AnnotationValue getValue(final AnnotationMirror annotationMirror,
+                                     final String name) {
+        for (final Entry<? extends ExecutableElement, ? extends AnnotationValue> value : this.processingEnv
+                .getElementUtils().getElementValuesWithDefaults(annotationMirror).entrySet()) {
+            if (value.getKey().getSimpleName().contentEquals(name)) {
+                return value.getValue();
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<? extends AnnotationValue> getListValue(final AnnotationMirror annotationMirror,
+                                                         final String name) {
+        final Object value = getValue(annotationMirror,
+                name).getValue();
+        if (value instanceof List) {
+            return (List<? extends AnnotationValue>) value;
+        }
+        // a single value without braces.
+        return Collections.singletonList(getValue(annotationMirror,
+                name));
+    }
+}
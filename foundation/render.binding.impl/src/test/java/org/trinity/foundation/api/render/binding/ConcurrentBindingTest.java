@@ -0,0 +1,130 @@
+package org.trinity.foundation.api.render.binding;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
+import org.trinity.foundation.api.render.binding.view.delegate.PropertySlotInvocatorDelegate;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Injector;
+
+public class ConcurrentBindingTest {
+
+	private static final int EXECUTORS = 4;
+	private static final int VIEWS_PER_EXECUTOR = 250;
+
+	@Test
+	public void testBindFromSeveralExecutors() throws NoSuchMethodException, InterruptedException,
+			ExecutionException, TimeoutException {
+		// given
+		final Method handleBooleanProperty = SubView.class.getMethod(	"handleBooleanProperty",
+																		boolean.class);
+		final ConcurrentMap<Object, Object> lastBooleanArgumentByView = new MapMaker().weakKeys().makeMap();
+		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = new PropertySlotInvocatorDelegate() {
+			@Override
+			public ListenableFuture<Void> invoke(	final Object view,
+													final Method viewMethod,
+													final Object argument) {
+				if (viewMethod.equals(handleBooleanProperty)) {
+					lastBooleanArgumentByView.put(	view,
+													argument);
+				}
+				return Futures.immediateFuture(null);
+			}
+		};
+		final Injector injector = mock(Injector.class);
+		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
+		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
+
+		// the number of invocations of a single model and view, bound and
+		// updated on one thread.
+		final BinderImpl referenceBinder = new BinderImpl(	injector,
+															propertySlotInvocatorDelegate,
+															new DummyChildViewDelegate());
+		bindAndUpdate(	referenceBinder,
+						MoreExecutors.sameThreadExecutor(),
+						new Model(),
+						new View());
+		final long invocationsPerView = referenceBinder.getPropertySlotInvocationCount();
+
+		final BinderImpl binder = new BinderImpl(	injector,
+													propertySlotInvocatorDelegate,
+													new DummyChildViewDelegate());
+		final List<ListeningExecutorService> modelExecutors = new ArrayList<ListeningExecutorService>();
+		for (int i = 0; i < EXECUTORS; i++) {
+			modelExecutors.add(MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor()));
+		}
+
+		try {
+			// when
+			final List<Model> models = new ArrayList<Model>();
+			final List<View> views = new ArrayList<View>();
+			final List<ListenableFuture<Void>> bindings = new ArrayList<ListenableFuture<Void>>();
+			for (int i = 0; i < VIEWS_PER_EXECUTOR; i++) {
+				for (final ListeningExecutorService modelExecutor : modelExecutors) {
+					final Model model = new Model();
+					final View view = new View();
+					models.add(model);
+					views.add(view);
+					bindings.add(binder.bind(	modelExecutor,
+												model,
+												view));
+				}
+			}
+			Futures.allAsList(bindings).get(30,
+											TimeUnit.SECONDS);
+
+			final List<ListenableFuture<Void>> updates = new ArrayList<ListenableFuture<Void>>();
+			for (int i = 0; i < models.size(); i++) {
+				final Model model = models.get(i);
+				model.getDummySubModel().setBooleanProperty(true);
+				updates.add(binder.updateBinding(	modelExecutors.get(i % EXECUTORS),
+													model.getDummySubModel(),
+													"booleanProperty"));
+			}
+			Futures.allAsList(updates).get(	30,
+											TimeUnit.SECONDS);
+
+			// then
+			for (final View view : views) {
+				assertEquals(	Boolean.TRUE,
+								lastBooleanArgumentByView.get(view.getKeyInputSubView()));
+			}
+			assertEquals(	invocationsPerView * views.size(),
+							binder.getPropertySlotInvocationCount());
+		} finally {
+			for (final ListeningExecutorService modelExecutor : modelExecutors) {
+				modelExecutor.shutdownNow();
+			}
+		}
+	}
+
+	private void bindAndUpdate(	final Binder binder,
+								final ListeningExecutorService modelExecutor,
+								final Model model,
+								final View view) {
+		binder.bind(modelExecutor,
+					model,
+					view);
+		model.getDummySubModel().setBooleanProperty(true);
+		binder.updateBinding(	modelExecutor,
+								model.getDummySubModel(),
+								"booleanProperty");
+	}
+}
@@ -3,6 +3,8 @@ package org.trinity.foundation.api.render.binding;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,7 +17,6 @@ import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
 import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
 import org.trinity.foundation.api.render.binding.view.delegate.PropertySlotInvocatorDelegate;
 
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Injector;
 
@@ -29,13 +30,7 @@ public class DataContextTest {
 
 		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
 
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final ListenableFuture<CollectionElementView> viewFuture = mock(ListenableFuture.class);
-		when(viewFuture.get()).thenReturn(new CollectionElementView());
-
-		when(childViewDelegate.newView(	view,
-										CollectionElementView.class,
-										0)).thenReturn(viewFuture);
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
 
 		final Injector injector = mock(Injector.class);
 		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
@@ -51,8 +46,9 @@ public class DataContextTest {
 								model,
 								"otherSubModel");
 
+		// once for bind, the bind update does not change the value
 		verify(	propertySlotInvocatorDelegate,
-				times(2)).invoke(	view.getMouseInputSubView(),
+				times(1)).invoke(	view.getMouseInputSubView(),
 									SubView.class.getMethod("handleStringProperty",
 															String.class),
 									"false");
@@ -64,6 +60,102 @@ public class DataContextTest {
 		verify(	eventSignalFilter,
 				times(2)).installFilter(eq(view.getMouseInputSubView()),
 										any(Signal.class));
+		// the bind update replaces the filter installed by the bind
+		verify(	eventSignalFilter,
+				times(1)).uninstallFilter(	eq(view.getMouseInputSubView()),
+											any(Signal.class));
+
+	}
+
+	@Test
+	public void testDataContextNestedPathUpdate() throws ExecutionException {
+		final Model model = new Model();
+		final View view = new View();
+
+		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
+
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+
+		final Injector injector = mock(Injector.class);
+		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
+		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
+
+		final Binder binder = new BinderImpl(	injector,
+												propertySlotInvocatorDelegate,
+												childViewDelegate);
+		binder.bind(MoreExecutors.sameThreadExecutor(),
+					model,
+					view);
+		reset(eventSignalFilter);
+
+		// not on the data context path of any view
+		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
+								model.getDummySubModel(),
+								"subSubModel");
+		verify(	eventSignalFilter,
+				never()).installFilter(	any(),
+										any(Signal.class));
+
+		// the second part of the data context path of the mouse input view
+		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
+								model.getOtherSubModel(),
+								"subSubModel");
+		verify(	eventSignalFilter,
+				times(1)).installFilter(eq(view.getMouseInputSubView()),
+										any(Signal.class));
+		verify(	eventSignalFilter,
+				never()).installFilter(	eq(view.getKeyInputSubView()),
+										any(Signal.class));
+	}
+
+	@Test
+	public void testDataContextRebindRemovesStaleDependents() throws ExecutionException, NoSuchMethodException,
+			SecurityException {
+		final Model model = new Model();
+		final View view = new View();
+
+		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
+
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+
+		final Injector injector = mock(Injector.class);
+		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
+		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
+
+		final Binder binder = new BinderImpl(	injector,
+												propertySlotInvocatorDelegate,
+												childViewDelegate);
+		binder.bind(MoreExecutors.sameThreadExecutor(),
+					model,
+					view);
+
+		// the mouse input view is bound again to a new value on its data
+		// context path
+		final DummySubSubModel staleSubSubModel = model.getOtherSubModel().getSubSubModel();
+		final DummySubSubModel subSubModel = new DummySubSubModel();
+		model.getOtherSubModel().setDummySubSubModel(subSubModel);
+		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
+								model.getOtherSubModel(),
+								"subSubModel");
 
+		staleSubSubModel.setBooleanProperty(true);
+		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
+								staleSubSubModel,
+								"booleanProperty");
+		verify(	propertySlotInvocatorDelegate,
+				never()).invoke(view.getMouseInputSubView(),
+								SubView.class.getMethod("handleStringProperty",
+														String.class),
+								"true");
+
+		subSubModel.setBooleanProperty(true);
+		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
+								subSubModel,
+								"booleanProperty");
+		verify(	propertySlotInvocatorDelegate,
+				times(1)).invoke(	view.getMouseInputSubView(),
+									SubView.class.getMethod("handleStringProperty",
+															String.class),
+									"true");
 	}
 }
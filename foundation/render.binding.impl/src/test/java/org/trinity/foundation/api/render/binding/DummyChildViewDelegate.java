@@ -0,0 +1,69 @@
+package org.trinity.foundation.api.render.binding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewChange;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class DummyChildViewDelegate implements ChildViewDelegate {
+
+	private final List<List<ChildViewChange>> batches = Collections
+			.synchronizedList(new ArrayList<List<ChildViewChange>>());
+
+	public List<List<ChildViewChange>> getBatches() {
+		return this.batches;
+	}
+
+	public List<ChildViewChange> getLastBatch() {
+		return this.batches.get(this.batches.size() - 1);
+	}
+
+	@Override
+	public <T> ListenableFuture<T> newView(	final Object parentView,
+											final Class<T> childViewType,
+											final int position) {
+		return Futures.immediateFuture(newInstance(childViewType));
+	}
+
+	@Override
+	public ListenableFuture<Void> destroyView(	final Object parentView,
+												final Object deletedChildView,
+												final int deletedPosition) {
+		return Futures.immediateFuture(null);
+	}
+
+	@Override
+	public ListenableFuture<Void> updateChildViewPosition(	final Object parentView,
+															final Object childView,
+															final int oldPosition,
+															final int newPosition) {
+		return Futures.immediateFuture(null);
+	}
+
+	@Override
+	public <T> ListenableFuture<List<T>> applyChanges(	final Object parentView,
+														final Class<T> childViewType,
+														final List<ChildViewChange> changes) {
+		this.batches.add(new ArrayList<ChildViewChange>(changes));
+		final List<T> createdChildViews = new ArrayList<T>();
+		for (final ChildViewChange change : changes) {
+			if (change.getType() == ChildViewChange.Type.CREATE) {
+				createdChildViews.add(newInstance(childViewType));
+			}
+		}
+		return Futures.immediateFuture(createdChildViews);
+	}
+
+	private <T> T newInstance(final Class<T> childViewType) {
+		try {
+			return childViewType.newInstance();
+		} catch (final InstantiationException | IllegalAccessException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+}
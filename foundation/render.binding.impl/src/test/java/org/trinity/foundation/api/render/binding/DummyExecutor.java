@@ -20,5 +20,12 @@
 
 package org.trinity.foundation.api.render.binding;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import com.google.inject.BindingAnnotation;
+
+@BindingAnnotation
+@Retention(RetentionPolicy.RUNTIME)
 public @interface DummyExecutor {
 }
@@ -10,6 +10,7 @@ public class DummySubModel implements AsyncListenable {
 	private DummySubSubModel dummySubSubModel = new DummySubSubModel();
 
 	private boolean booleanProperty;
+	private int keyCount;
 
 	@PropertyChanged(value="booleanProperty",executor = DummyExecutor.class)
 	public void setBooleanProperty(final boolean booleanProperty) {
@@ -25,7 +26,11 @@ public class DummySubModel implements AsyncListenable {
 	}
 
 	public void onKey() {
+		this.keyCount++;
+	}
 
+	public int getKeyCount() {
+		return this.keyCount;
 	}
 
 	@PropertyChanged(value="dummySubSubModel",executor = DummyExecutor.class)
@@ -1,5 +1,6 @@
 package org.trinity.foundation.api.render.binding;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -8,8 +9,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.trinity.foundation.api.render.binding.view.delegate.Signal;
 import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
 import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
@@ -27,12 +31,7 @@ public class InputSlotBindingTest {
 		final View view = new View();
 
 		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final ListenableFuture<CollectionElementView> viewFuture = mock(ListenableFuture.class);
-		when(viewFuture.get()).thenReturn(new CollectionElementView());
-		when(childViewDelegate.newView(	view,
-										CollectionElementView.class,
-										0)).thenReturn(viewFuture);
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
 
 		final Injector injector = mock(Injector.class);
 		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
@@ -56,12 +55,7 @@ public class InputSlotBindingTest {
 		final View view = new View();
 
 		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final ListenableFuture<CollectionElementView> viewFuture = mock(ListenableFuture.class);
-		when(viewFuture.get()).thenReturn(new CollectionElementView());
-		when(childViewDelegate.newView(	view,
-										CollectionElementView.class,
-										0)).thenReturn(viewFuture);
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
 		final Injector injector = mock(Injector.class);
 		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
 		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
@@ -84,5 +78,48 @@ public class InputSlotBindingTest {
 		verify(	eventSignalFilter,
 				times(2)).installFilter(eq(view.getMouseInputSubView()),
 										any(Signal.class));
+		// the bind update replaces the filter installed by the bind
+		verify(	eventSignalFilter,
+				times(1)).uninstallFilter(	eq(view.getMouseInputSubView()),
+											any(Signal.class));
+	}
+
+	@Test
+	public void testThrottledSignal() throws ExecutionException, InterruptedException, TimeoutException {
+		// given
+		final Model model = new Model();
+		final View view = new View();
+
+		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+		final Injector injector = mock(Injector.class);
+		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
+		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
+
+		final Binder binder = new BinderImpl(	injector,
+												propertySlotInvocatorDelegate,
+												childViewDelegate);
+		binder.bind(MoreExecutors.sameThreadExecutor(),
+					model,
+					view);
+		final ArgumentCaptor<Signal> signalCaptor = ArgumentCaptor.forClass(Signal.class);
+		verify(eventSignalFilter).installFilter(eq(view.getKeyInputSubView()),
+												signalCaptor.capture());
+		final Signal signal = signalCaptor.getValue();
+
+		// when
+		signal.fire().get();
+		ListenableFuture<Void> coalescedFire = null;
+		for (int i = 0; i < 10; i++) {
+			coalescedFire = signal.fire();
+		}
+		coalescedFire.get(	5,
+							TimeUnit.SECONDS);
+
+		// then
+		// once for the first fire, once for all fires within the throttle
+		// interval that follows it.
+		assertEquals(	2,
+						model.getDummySubModel().getKeyCount());
 	}
 }
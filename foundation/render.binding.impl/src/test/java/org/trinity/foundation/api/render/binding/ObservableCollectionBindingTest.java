@@ -1,16 +1,23 @@
 package org.trinity.foundation.api.render.binding;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import org.junit.Test;
 import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
-import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewChange;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewChange.Type;
 import org.trinity.foundation.api.render.binding.view.delegate.PropertySlotInvocatorDelegate;
+import org.trinity.foundation.api.render.binding.view.delegate.Signal;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -19,147 +26,215 @@ import com.google.inject.Injector;
 
 public class ObservableCollectionBindingTest {
 
-	@Test
-	public void testBinding() throws ExecutionException, InterruptedException {
-		final Model model = new Model();
-		final View view = new View();
-
+	private Binder newBinder(final DummyChildViewDelegate childViewDelegate) {
 		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-
-		final ListenableFuture<CollectionElementView> viewFuture = Futures.immediateFuture(new CollectionElementView());
-		when(childViewDelegate.newView(	view,
-										CollectionElementView.class,
-										0)).thenReturn(viewFuture);
-
 		final Injector injector = mock(Injector.class);
 		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
 		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
 
-		final Binder binder = new BinderImpl(	injector,
-												propertySlotInvocatorDelegate,
-												childViewDelegate);
-		binder.bind(MoreExecutors.sameThreadExecutor(),
-					model,
-					view);
+		return new BinderImpl(	injector,
+								propertySlotInvocatorDelegate,
+								childViewDelegate);
+	}
 
-		verify(	childViewDelegate,
-				times(1)).newView(	view,
-									CollectionElementView.class,
-									0);
+	private static void assertChange(	final ChildViewChange change,
+										final Type type,
+										final int position) {
+		assertEquals(	type,
+						change.getType());
+		assertEquals(	position,
+						change.getPosition());
 	}
 
 	@Test
-	public void testInsert() throws ExecutionException, InterruptedException {
+	public void testBinding() throws ExecutionException, InterruptedException {
 		final Model model = new Model();
 		final View view = new View();
+		final DummyChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+
+		newBinder(childViewDelegate).bind(	MoreExecutors.sameThreadExecutor(),
+											model,
+											view);
+
+		assertEquals(	1,
+						childViewDelegate.getBatches().size());
+		assertEquals(	1,
+						childViewDelegate.getLastBatch().size());
+		assertChange(	childViewDelegate.getLastBatch().get(0),
+						Type.CREATE,
+						0);
+	}
 
-		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final ListenableFuture<CollectionElementView> viewFuture = Futures.immediateFuture(new CollectionElementView());
-
-		when(childViewDelegate.<CollectionElementView> newView(	view,
-																CollectionElementView.class,
-																0)).thenReturn(viewFuture);
-		when(childViewDelegate.<CollectionElementView> newView(	view,
-																CollectionElementView.class,
-																1)).thenReturn(viewFuture);
-
-		final Injector injector = mock(Injector.class);
-		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
-		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
-
-		final Binder binder = new BinderImpl(	injector,
-												propertySlotInvocatorDelegate,
-												childViewDelegate);
-		binder.bind(MoreExecutors.sameThreadExecutor(),
-					model,
-					view);
-
-		final DummySubModel childDummySubModel = new DummySubModel();
+	@Test
+	public void testInsert() throws ExecutionException, InterruptedException {
+		final Model model = new Model();
+		final View view = new View();
+		final DummyChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+
+		newBinder(childViewDelegate).bind(	MoreExecutors.sameThreadExecutor(),
+											model,
+											view);
+		model.getDummySubModels().add(new DummySubModel());
+
+		assertEquals(	2,
+						childViewDelegate.getBatches().size());
+		assertEquals(	1,
+						childViewDelegate.getLastBatch().size());
+		assertChange(	childViewDelegate.getLastBatch().get(0),
+						Type.CREATE,
+						1);
+	}
 
-		model.getDummySubModels().add(childDummySubModel);
+	@Test
+	public void testDeleteAndReuse() throws ExecutionException, InterruptedException {
+		final Model model = new Model();
+		final View view = new View();
+		final DummyChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
 
-		verify(	childViewDelegate,
-				times(1)).newView(	view,
-															CollectionElementView.class,
-															0);
-		verify(	childViewDelegate,
-				times(1)).newView(	view,
-															CollectionElementView.class,
-															1);
+		newBinder(childViewDelegate).bind(	MoreExecutors.sameThreadExecutor(),
+											model,
+											view);
 
+		model.getDummySubModels().remove(0);
+		final ChildViewChange detach = childViewDelegate.getLastBatch().get(0);
+		assertChange(	detach,
+						Type.DETACH,
+						0);
+
+		// the detached view is reused instead of creating a new one
+		model.getDummySubModels().add(new DummySubModel());
+		final ChildViewChange attach = childViewDelegate.getLastBatch().get(0);
+		assertChange(	attach,
+						Type.ATTACH,
+						0);
+		assertSame(	detach.getChildView().get(),
+					attach.getChildView().get());
 	}
 
 	@Test
-	public void testDelete() throws ExecutionException, InterruptedException {
+	public void testReorder() throws ExecutionException, InterruptedException {
 		final Model model = new Model();
 		final View view = new View();
+		final DummyChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
 
-		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final CollectionElementView collectionElementView = new CollectionElementView();
+		newBinder(childViewDelegate).bind(	MoreExecutors.sameThreadExecutor(),
+											model,
+											view);
 
-		final ListenableFuture<CollectionElementView> viewFuture = Futures.immediateFuture(collectionElementView);
+		final DummySubModel childDummySubModel0 = new DummySubModel();
+		final DummySubModel childDummySubModel1 = new DummySubModel();
 
-		when(childViewDelegate.<CollectionElementView> newView(	view,
-																CollectionElementView.class,
-																0)).thenReturn(viewFuture);
+		model.getDummySubModels().add(childDummySubModel0);
+		final int batches = childViewDelegate.getBatches().size();
+		model.getDummySubModels().set(	1,
+										childDummySubModel1);
 
-		final Injector injector = mock(Injector.class);
-		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
-		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
+		// the existing child view is bound to the new element.
+		assertEquals(	batches,
+						childViewDelegate.getBatches().size());
+	}
+
+	@Test
+	public void testVirtualized() throws ExecutionException, InterruptedException {
+		final Model model = new Model();
+		model.getDummySubModels().add(new DummySubModel());
+		model.getDummySubModels().add(new DummySubModel());
+		final VirtualizedView view = new VirtualizedView();
+		final DummyChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+		final Binder binder = newBinder(childViewDelegate);
 
-		final Binder binder = new BinderImpl(	injector,
-												propertySlotInvocatorDelegate,
-												childViewDelegate);
 		binder.bind(MoreExecutors.sameThreadExecutor(),
 					model,
 					view);
-
-		model.getDummySubModels().remove(0);
-		verify(	childViewDelegate,
-				times(1)).destroyView(	view,
-										collectionElementView,
-										0);
+		// only one element is visible
+		assertEquals(	1,
+						childViewDelegate.getLastBatch().size());
+		assertChange(	childViewDelegate.getLastBatch().get(0),
+						Type.CREATE,
+						0);
+
+		binder.updateVisibleRange(	MoreExecutors.sameThreadExecutor(),
+									view,
+									2,
+									1);
+		// the view of the first element is reused for the third.
+		final List<ChildViewChange> changes = childViewDelegate.getLastBatch();
+		assertEquals(	2,
+						changes.size());
+		assertChange(	changes.get(0),
+						Type.DETACH,
+						0);
+		assertChange(	changes.get(1),
+						Type.ATTACH,
+						0);
+		assertSame(	changes.get(0).getChildView().get(),
+					changes.get(1).getChildView().get());
 	}
 
 	@Test
-	public void testReorder() throws ExecutionException, InterruptedException {
-		final Model model = new Model();
-		final View view = new View();
-
-		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final ListenableFuture<CollectionElementView> viewFuture = Futures.immediateFuture(new CollectionElementView());
-
-		when(childViewDelegate.<CollectionElementView> newView(	view,
-																CollectionElementView.class,
-																0)).thenReturn(viewFuture);
-		when(childViewDelegate.<CollectionElementView> newView(	view,
-																CollectionElementView.class,
-																1)).thenReturn(viewFuture);
-		when(childViewDelegate.<CollectionElementView> newView(	view,
-																CollectionElementView.class,
-																2)).thenReturn(viewFuture);
-
+	public void testCollectedView() throws InterruptedException {
+		// given
+		// delegates that don't remember the views they are called with.
+		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = new PropertySlotInvocatorDelegate() {
+			@Override
+			public ListenableFuture<Void> invoke(	final Object view,
+													final Method viewMethod,
+													final Object argument) {
+				return Futures.immediateFuture(null);
+			}
+		};
+		final EventSignalFilter eventSignalFilter = new EventSignalFilter() {
+			@Override
+			public void installFilter(	final Object view,
+										final Signal signal) {
+			}
+
+			@Override
+			public void uninstallFilter(final Object view,
+										final Signal signal) {
+			}
+		};
 		final Injector injector = mock(Injector.class);
-		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
 		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
+		final DummyChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+		final BinderImpl binder = new BinderImpl(	injector,
+													propertySlotInvocatorDelegate,
+													childViewDelegate);
+		final Model model = new Model();
+		View view = new View();
+		final WeakReference<View> collectedView = new WeakReference<View>(view);
 
-		final Binder binder = new BinderImpl(	injector,
-												propertySlotInvocatorDelegate,
-												childViewDelegate);
+		// when
 		binder.bind(MoreExecutors.sameThreadExecutor(),
 					model,
 					view);
-
-		final DummySubModel childDummySubModel0 = new DummySubModel();
-		final DummySubModel childDummySubModel1 = new DummySubModel();
-
-		model.getDummySubModels().add(childDummySubModel0);
-		model.getDummySubModels().set(	1,
-										childDummySubModel1);
-
+		assertTrue(binder.getViewCount() > 0);
+		view = null;
+		for (int i = 0; (i < 50) && (collectedView.get() != null); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		// then
+		// the model outlives the view, but does not keep it from being
+		// collected.
+		assertNull(collectedView.get());
+
+		// when
+		final int batches = childViewDelegate.getBatches().size();
+		model.getDummySubModels().add(new DummySubModel());
+		// the collection binding of the view lets go of its child views on
+		// the first list event after the view was collected.
+		for (int i = 0; (i < 50) && (binder.getViewCount() != 0); i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		// then
+		// neither do the signals of the view, its sub views or child views.
+		assertEquals(	batches,
+						childViewDelegate.getBatches().size());
+		assertEquals(	0,
+						binder.getViewCount());
 	}
 }
@@ -1,5 +1,6 @@
 package org.trinity.foundation.api.render.binding;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -12,7 +13,6 @@ import org.trinity.foundation.api.render.binding.view.EventSignalFilter;
 import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
 import org.trinity.foundation.api.render.binding.view.delegate.PropertySlotInvocatorDelegate;
 
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Injector;
 
@@ -25,12 +25,7 @@ public class PropertyBindingTest {
 		final View view = new View();
 
 		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final ListenableFuture<CollectionElementView> viewFuture = mock(ListenableFuture.class);
-		when(viewFuture.get()).thenReturn(new CollectionElementView());
-		when(childViewDelegate.newView(	view,
-										CollectionElementView.class,
-										0)).thenReturn(viewFuture);
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
 		final Injector injector = mock(Injector.class);
 		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
 		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
@@ -41,6 +36,9 @@ public class PropertyBindingTest {
 		binder.bind(MoreExecutors.sameThreadExecutor(),
 					model,
 					view);
+		final DummySubModel newDummySubModel = new DummySubModel();
+		newDummySubModel.setBooleanProperty(true);
+		model.setDummySubModel(newDummySubModel);
 		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
 								model,
 								"dummySubModel");
@@ -52,12 +50,18 @@ public class PropertyBindingTest {
 									SubView.class.getMethod("handleStringProperty",
 															String.class),
 									"false");
-		// once for binding init, once for datacontext value update
+		// once for binding init
 		verify(	propertySlotInvocatorDelegate,
-				times(2)).invoke(	view.getKeyInputSubView(),
+				times(1)).invoke(	view.getKeyInputSubView(),
 									SubView.class.getMethod("handleBooleanProperty",
 															boolean.class),
 									false);
+		// once for datacontext value update
+		verify(	propertySlotInvocatorDelegate,
+				times(1)).invoke(	view.getKeyInputSubView(),
+									SubView.class.getMethod("handleBooleanProperty",
+															boolean.class),
+									true);
 		// once for binding init
 		verify(	propertySlotInvocatorDelegate,
 				times(1)).invoke(	view,
@@ -74,12 +78,7 @@ public class PropertyBindingTest {
 		final View view = new View();
 
 		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
-		final ChildViewDelegate childViewDelegate = mock(ChildViewDelegate.class);
-		final ListenableFuture<CollectionElementView> viewFuture = mock(ListenableFuture.class);
-		when(viewFuture.get()).thenReturn(new CollectionElementView());
-		when(childViewDelegate.newView(	view,
-										CollectionElementView.class,
-										0)).thenReturn(viewFuture);
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
 		final Injector injector = mock(Injector.class);
 		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
 		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
@@ -92,26 +91,38 @@ public class PropertyBindingTest {
 		binder.bind(MoreExecutors.sameThreadExecutor(),
 					model,
 					view);
+		model.getOtherSubModel().getSubSubModel().setBooleanProperty(true);
 		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
 								model.getOtherSubModel().getSubSubModel(),
 								"booleanProperty");
+		model.getDummySubModel().setBooleanProperty(true);
 		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
 								model.getDummySubModel(),
 								"booleanProperty");
 
 		// then
-		// once for binding init, once for property udpdate
+		// the initial value on binding init, the new value on property update
 		verify(	propertySlotInvocatorDelegate,
-				times(2)).invoke(	view.getMouseInputSubView(),
+				times(1)).invoke(	view.getMouseInputSubView(),
 									SubView.class.getMethod("handleStringProperty",
 															String.class),
 									"false");
-		// once for binding init, once for property update
 		verify(	propertySlotInvocatorDelegate,
-				times(2)).invoke(	view.getKeyInputSubView(),
+				times(1)).invoke(	view.getMouseInputSubView(),
+									SubView.class.getMethod("handleStringProperty",
+															String.class),
+									"true");
+		// the initial value on binding init, the new value on property update
+		verify(	propertySlotInvocatorDelegate,
+				times(1)).invoke(	view.getKeyInputSubView(),
 									SubView.class.getMethod("handleBooleanProperty",
 															boolean.class),
 									false);
+		verify(	propertySlotInvocatorDelegate,
+				times(1)).invoke(	view.getKeyInputSubView(),
+									SubView.class.getMethod("handleBooleanProperty",
+															boolean.class),
+									true);
 		// once for binding init
 		verify(	propertySlotInvocatorDelegate,
 				times(1)).invoke(	view,
@@ -119,4 +130,43 @@ public class PropertyBindingTest {
 															String.class),
 									model.getClass().getName());
 	}
+
+	@Test
+	public void testUnchangedPropertySuppressed() throws ExecutionException, NoSuchMethodException,
+			SecurityException, InterruptedException {
+		// given
+		final Model model = new Model();
+		final View view = new View();
+
+		final PropertySlotInvocatorDelegate propertySlotInvocatorDelegate = mock(PropertySlotInvocatorDelegate.class);
+		final ChildViewDelegate childViewDelegate = new DummyChildViewDelegate();
+		final Injector injector = mock(Injector.class);
+		final EventSignalFilter eventSignalFilter = mock(EventSignalFilter.class);
+		when(injector.getInstance(EventSignalFilter.class)).thenReturn(eventSignalFilter);
+
+		final BinderImpl binder = new BinderImpl(	injector,
+													propertySlotInvocatorDelegate,
+													childViewDelegate);
+
+		// when
+		binder.bind(MoreExecutors.sameThreadExecutor(),
+					model,
+					view);
+		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
+								model.getDummySubModel(),
+								"booleanProperty");
+		binder.updateBinding(	MoreExecutors.sameThreadExecutor(),
+								model.getDummySubModel(),
+								"booleanProperty");
+
+		// then
+		// once for binding init, the updates did not change the value
+		verify(	propertySlotInvocatorDelegate,
+				times(1)).invoke(	view.getKeyInputSubView(),
+									SubView.class.getMethod("handleBooleanProperty",
+															boolean.class),
+									false);
+		assertEquals(	2,
+						binder.getSuppressedPropertySlotInvocationCount());
+	}
 }
@@ -0,0 +1,51 @@
+package org.trinity.foundation.api.render.binding;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+public class PropertyChangedSignalDispatcherTest {
+
+	@Test
+	public void testCoalescePropertyChanges() throws Throwable {
+		final DummySubModel model = new DummySubModel();
+		final ListeningExecutorService modelExecutor = MoreExecutors.sameThreadExecutor();
+
+		final Binder binder = mock(Binder.class);
+		final Injector injector = mock(Injector.class);
+		when(injector.getInstance(Matchers.<Key<ListeningExecutorService>> any())).thenReturn(modelExecutor);
+
+		final MethodInvocation methodInvocation = mock(MethodInvocation.class);
+		when(methodInvocation.getThis()).thenReturn(model);
+		when(methodInvocation.getMethod()).thenReturn(DummySubModel.class.getMethod(	"setBooleanProperty",
+																						boolean.class));
+
+		final PropertyChangedSignalDispatcher propertyChangedSignalDispatcher = new PropertyChangedSignalDispatcher(500);
+		propertyChangedSignalDispatcher.setBinder(binder);
+		propertyChangedSignalDispatcher.setInjector(injector);
+
+		for (int i = 0; i < 100; i++) {
+			propertyChangedSignalDispatcher.invoke(methodInvocation);
+		}
+
+		// all changes end up in a single update.
+		verify(	binder,
+				timeout(2000).times(1)).updateBindings(	modelExecutor,
+														model,
+														Collections.singleton("booleanProperty"));
+		verifyNoMoreInteractions(binder);
+	}
+}
@@ -15,7 +15,7 @@ public class View {
 	@DataContext("otherSubModel.subSubModel")
 	@PropertySlots(@PropertySlot(propertyName = "booleanProperty", methodName = "handleStringProperty", argumentTypes = String.class, adapter = BooleanToStringAdapter.class))
 	private SubView mouseInputSubView = new SubView();
-	@EventSignals(@EventSignal(name = "onKey", filter = EventSignalFilter.class))
+	@EventSignals(@EventSignal(name = "onKey", filter = EventSignalFilter.class, throttle = 500))
 	private SubView keyInputSubView = new SubView();
 	private String className;
 
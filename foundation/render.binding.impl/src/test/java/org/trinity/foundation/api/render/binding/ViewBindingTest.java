@@ -0,0 +1,43 @@
+package org.trinity.foundation.api.render.binding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.trinity.foundation.api.render.binding.view.ViewBinding;
+import org.trinity.foundation.api.render.binding.view.ViewBinding.MethodInvoker;
+import org.trinity.foundation.api.render.binding.view.ViewBindings;
+
+import com.google.common.base.Optional;
+
+public class ViewBindingTest {
+
+	@Before
+	public void assumeGeneratedBindings() {
+		assumeTrue(Boolean.parseBoolean(System.getProperty(	ViewBindings.GENERATED_BINDINGS_PROPERTY,
+															"true")));
+	}
+
+	@Test
+	public void testGeneratedPropertySlot() throws NoSuchMethodException, SecurityException {
+		final View view = new View();
+
+		final Optional<ViewBinding> viewBinding = ViewBindings.find(View.class);
+		assertTrue(viewBinding.isPresent());
+
+		final Optional<MethodInvoker> methodInvoker = viewBinding.get()
+				.getMethodInvoker(ViewBindings.toMethodKey(View.class.getMethod("setClassName",
+																				String.class)));
+		assertTrue(methodInvoker.isPresent());
+		methodInvoker.get().invoke(	view,
+									"foo");
+		assertEquals(	"foo",
+						view.getClassName());
+
+		// private fields are left to reflection
+		assertFalse(viewBinding.get().getFieldReader("mouseInputSubView").isPresent());
+	}
+}
@@ -0,0 +1,7 @@
+package org.trinity.foundation.api.render.binding;
+
+import org.trinity.foundation.api.render.binding.view.ObservableCollection;
+
+@ObservableCollection(value = "dummySubModels", view = CollectionElementView.class, virtualized = true, visibleCount = 1)
+public class VirtualizedView {
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.render.qt.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.trolltech.qt.gui.QApplication;
+
+/***************************************
+ * Executes render work on the Qt thread in frames, instead of posting every
+ * task to the Qt event loop separately. A frame starts at most once per tick,
+ * set by the system property {@value #FRAME_RATE_PROPERTY} in frames per
+ * second. A frame executes queued tasks, highest {@link RenderTaskPriority}
+ * first, until its time budget of {@value #FRAME_BUDGET_PROPERTY}
+ * milliseconds is used up. Remaining tasks are left for the next frame, so Qt
+ * can handle its own paint and input events in between.
+ * <p>
+ * The work time and queue depth of every frame and the latency of every task
+ * are recorded, see {@link #getStatistics()}.
+ ***************************************
+ */
+@Bind
+@Singleton
+@ThreadSafe
+public class RenderFrameScheduler {
+
+	static final String FRAME_RATE_PROPERTY = "trinity.render.framerate";
+	static final String FRAME_BUDGET_PROPERTY = "trinity.render.framebudget";
+
+	private static final Logger LOG = LoggerFactory.getLogger(RenderFrameScheduler.class);
+	private static final int FRAME_RATE = Integer.getInteger(	FRAME_RATE_PROPERTY,
+																60);
+	private static final long FRAME_BUDGET_MILLIS = Long.getLong(	FRAME_BUDGET_PROPERTY,
+																	8);
+	private static final ScheduledExecutorService TICK_EXECUTOR = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+					.setNameFormat("render-frame-tick-%d").build());
+
+	private final Executor renderThreadExecutor;
+	private final long frameIntervalNanos;
+	private final long frameBudgetNanos;
+	private final Map<RenderTaskPriority, Queue<RenderTask>> queuedTasksByPriority = new EnumMap<>(
+			RenderTaskPriority.class);
+	private final AtomicInteger queueDepth = new AtomicInteger();
+	private final AtomicBoolean frameScheduled = new AtomicBoolean();
+	private volatile long lastFrameStartNanos;
+
+	private final Runnable frameTask = new Runnable() {
+		@Override
+		public void run() {
+			executeFrame();
+		}
+	};
+	private final Runnable postFrameTask = new Runnable() {
+		@Override
+		public void run() {
+			RenderFrameScheduler.this.renderThreadExecutor.execute(RenderFrameScheduler.this.frameTask);
+		}
+	};
+
+	private final Object statisticsLock = new Object();
+	@GuardedBy("statisticsLock")
+	private long frameCount;
+	@GuardedBy("statisticsLock")
+	private long totalWorkNanos;
+	@GuardedBy("statisticsLock")
+	private long maxWorkNanos;
+	@GuardedBy("statisticsLock")
+	private int lastQueueDepth;
+	@GuardedBy("statisticsLock")
+	private int maxQueueDepth;
+	@GuardedBy("statisticsLock")
+	private long taskCount;
+	@GuardedBy("statisticsLock")
+	private long totalLatencyNanos;
+	@GuardedBy("statisticsLock")
+	private long maxLatencyNanos;
+
+	@Inject
+	RenderFrameScheduler() {
+		this(	new Executor() {
+					@Override
+					public void execute(final Runnable command) {
+						QApplication.invokeLater(command);
+					}
+				},
+				TimeUnit.SECONDS.toNanos(1) / FRAME_RATE,
+				TimeUnit.MILLISECONDS.toNanos(FRAME_BUDGET_MILLIS));
+	}
+
+	RenderFrameScheduler(	final Executor renderThreadExecutor,
+							final long frameIntervalNanos,
+							final long frameBudgetNanos) {
+		checkArgument(frameIntervalNanos > 0 && frameBudgetNanos > 0);
+
+		this.renderThreadExecutor = renderThreadExecutor;
+		this.frameIntervalNanos = frameIntervalNanos;
+		this.frameBudgetNanos = frameBudgetNanos;
+		for (final RenderTaskPriority priority : RenderTaskPriority.values()) {
+			this.queuedTasksByPriority.put(	priority,
+											new ConcurrentLinkedQueue<RenderTask>());
+		}
+		this.lastFrameStartNanos = System.nanoTime() - frameIntervalNanos;
+	}
+
+	/***************************************
+	 * Execute a task on the Qt thread in one of the next frames.
+	 *
+	 * @param priority
+	 *            The priority of the task.
+	 * @param task
+	 *            The work to execute.
+	 ***************************************
+	 */
+	public void submit(	final RenderTaskPriority priority,
+						final Runnable task) {
+		submit(	priority,
+				task,
+				System.nanoTime());
+	}
+
+	/***************************************
+	 * Execute a task on the Qt thread in one of the next frames.
+	 *
+	 * @param priority
+	 *            The priority of the task.
+	 * @param task
+	 *            The work to execute.
+	 * @param originNanos
+	 *            The {@link System#nanoTime()} of the model change that caused
+	 *            the task, used to measure the latency of the task.
+	 ***************************************
+	 */
+	public void submit(	final RenderTaskPriority priority,
+						final Runnable task,
+						final long originNanos) {
+		checkNotNull(priority);
+		checkNotNull(task);
+
+		this.queuedTasksByPriority.get(priority).add(new RenderTask(task,
+																	originNanos));
+		this.queueDepth.incrementAndGet();
+		scheduleFrame();
+	}
+
+	/***************************************
+	 * The statistics of all frames executed so far.
+	 *
+	 * @return a {@link RenderFrameStatistics} snapshot.
+	 ***************************************
+	 */
+	public RenderFrameStatistics getStatistics() {
+		synchronized (this.statisticsLock) {
+			return new RenderFrameStatistics(	this.frameCount,
+												this.totalWorkNanos,
+												this.maxWorkNanos,
+												this.lastQueueDepth,
+												this.maxQueueDepth,
+												this.taskCount,
+												this.totalLatencyNanos,
+												this.maxLatencyNanos);
+		}
+	}
+
+	private void scheduleFrame() {
+		if (!this.frameScheduled.compareAndSet(	false,
+												true)) {
+			// the next frame will pick up the task.
+			return;
+		}
+		final long delayNanos = (this.lastFrameStartNanos + this.frameIntervalNanos) - System.nanoTime();
+		if (delayNanos <= 0) {
+			this.postFrameTask.run();
+		} else {
+			TICK_EXECUTOR.schedule(	this.postFrameTask,
+									delayNanos,
+									TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void executeFrame() {
+		final long frameStartNanos = System.nanoTime();
+		this.lastFrameStartNanos = frameStartNanos;
+		final int frameQueueDepth = this.queueDepth.get();
+
+		long frameTaskCount = 0;
+		long frameLatencyNanos = 0;
+		long frameMaxLatencyNanos = 0;
+		long nowNanos = frameStartNanos;
+		RenderTask task;
+		// at least one task is executed every frame, however long it takes.
+		while (((nowNanos - frameStartNanos) < this.frameBudgetNanos) && ((task = pollTask()) != null)) {
+			this.queueDepth.decrementAndGet();
+			try {
+				task.task.run();
+			} catch (final Throwable e) {
+				// one broken task should not keep the rest of the frame from
+				// being executed.
+				LOG.error(	"Error while executing render task=" + task.task,
+							e);
+			}
+			nowNanos = System.nanoTime();
+			final long latencyNanos = nowNanos - task.originNanos;
+			frameTaskCount++;
+			frameLatencyNanos += latencyNanos;
+			frameMaxLatencyNanos = Math.max(frameMaxLatencyNanos,
+											latencyNanos);
+		}
+		final long workNanos = nowNanos - frameStartNanos;
+
+		synchronized (this.statisticsLock) {
+			this.frameCount++;
+			this.totalWorkNanos += workNanos;
+			this.maxWorkNanos = Math.max(	this.maxWorkNanos,
+											workNanos);
+			this.lastQueueDepth = frameQueueDepth;
+			this.maxQueueDepth = Math.max(	this.maxQueueDepth,
+											frameQueueDepth);
+			this.taskCount += frameTaskCount;
+			this.totalLatencyNanos += frameLatencyNanos;
+			this.maxLatencyNanos = Math.max(this.maxLatencyNanos,
+											frameMaxLatencyNanos);
+		}
+
+		this.frameScheduled.set(false);
+		final int remainingTasks = this.queueDepth.get();
+		if (remainingTasks > 0) {
+			LOG.debug(	"Frame budget used up after {} tasks in {}ns, {} tasks left for the next frame.",
+						frameTaskCount,
+						workNanos,
+						remainingTasks);
+			scheduleFrame();
+		}
+	}
+
+	private RenderTask pollTask() {
+		for (final RenderTaskPriority priority : RenderTaskPriority.values()) {
+			final RenderTask task = this.queuedTasksByPriority.get(priority).poll();
+			if (task != null) {
+				return task;
+			}
+		}
+		return null;
+	}
+
+	private static final class RenderTask {
+
+		private final Runnable task;
+		private final long originNanos;
+
+		RenderTask(	final Runnable task,
+					final long originNanos) {
+			this.task = task;
+			this.originNanos = originNanos;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.render.qt.impl;
+
+import javax.annotation.concurrent.Immutable;
+
+/***************************************
+ * A snapshot of the statistics of the frames executed by a
+ * {@link RenderFrameScheduler}. All durations are in nanoseconds.
+ ***************************************
+ */
+@Immutable
+public final class RenderFrameStatistics {
+
+	private final long frameCount;
+	private final long totalWorkNanos;
+	private final long maxWorkNanos;
+	private final int lastQueueDepth;
+	private final int maxQueueDepth;
+	private final long taskCount;
+	private final long totalLatencyNanos;
+	private final long maxLatencyNanos;
+
+	RenderFrameStatistics(	final long frameCount,
+							final long totalWorkNanos,
+							final long maxWorkNanos,
+							final int lastQueueDepth,
+							final int maxQueueDepth,
+							final long taskCount,
+							final long totalLatencyNanos,
+							final long maxLatencyNanos) {
+		this.frameCount = frameCount;
+		this.totalWorkNanos = totalWorkNanos;
+		this.maxWorkNanos = maxWorkNanos;
+		this.lastQueueDepth = lastQueueDepth;
+		this.maxQueueDepth = maxQueueDepth;
+		this.taskCount = taskCount;
+		this.totalLatencyNanos = totalLatencyNanos;
+		this.maxLatencyNanos = maxLatencyNanos;
+	}
+
+	public long getFrameCount() {
+		return this.frameCount;
+	}
+
+	/***************************************
+	 * The average time spent executing work in a frame.
+	 ***************************************
+	 */
+	public long getAverageWorkNanos() {
+		return this.frameCount == 0 ? 0 : this.totalWorkNanos / this.frameCount;
+	}
+
+	public long getMaxWorkNanos() {
+		return this.maxWorkNanos;
+	}
+
+	/***************************************
+	 * The number of queued tasks at the start of the last frame.
+	 ***************************************
+	 */
+	public int getLastQueueDepth() {
+		return this.lastQueueDepth;
+	}
+
+	public int getMaxQueueDepth() {
+		return this.maxQueueDepth;
+	}
+
+	public long getTaskCount() {
+		return this.taskCount;
+	}
+
+	/***************************************
+	 * The average time between the model change that caused a task, and the
+	 * end of its execution on the render thread.
+	 ***************************************
+	 */
+	public long getAverageLatencyNanos() {
+		return this.taskCount == 0 ? 0 : this.totalLatencyNanos / this.taskCount;
+	}
+
+	public long getMaxLatencyNanos() {
+		return this.maxLatencyNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(	"frames=%d, avg work=%dus, max work=%dus, last depth=%d, max depth=%d, tasks=%d, "
+										+ "avg latency=%dus, max latency=%dus",
+								this.frameCount,
+								getAverageWorkNanos() / 1000,
+								this.maxWorkNanos / 1000,
+								this.lastQueueDepth,
+								this.maxQueueDepth,
+								this.taskCount,
+								getAverageLatencyNanos() / 1000,
+								this.maxLatencyNanos / 1000);
+	}
+}
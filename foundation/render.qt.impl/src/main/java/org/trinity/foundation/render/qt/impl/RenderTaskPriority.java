@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.render.qt.impl;
+
+/***************************************
+ * The priority of work submitted to the {@link RenderFrameScheduler}. Work of
+ * a higher priority is always executed before work of a lower priority.
+ ***************************************
+ */
+public enum RenderTaskPriority {
+
+	/***************************************
+	 * Work that reacts to user input, like focus, stacking and geometry
+	 * changes.
+	 ***************************************
+	 */
+	INPUT,
+	/***************************************
+	 * Creation, reuse and destruction of views.
+	 ***************************************
+	 */
+	VIEW_STRUCTURE,
+	/***************************************
+	 * Cosmetic updates of view properties.
+	 ***************************************
+	 */
+	PROPERTY
+}
@@ -23,17 +23,21 @@ package org.trinity.foundation.render.qt.impl.binding.view.delegate;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import org.apache.onami.autobind.annotations.Bind;
+import org.trinity.foundation.api.render.binding.view.delegate.ChildViewChange;
 import org.trinity.foundation.api.render.binding.view.delegate.ChildViewDelegate;
+import org.trinity.foundation.render.qt.impl.RenderFrameScheduler;
+import org.trinity.foundation.render.qt.impl.RenderTaskPriority;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Singleton;
-import com.trolltech.qt.gui.QApplication;
 import com.trolltech.qt.gui.QWidget;
 
 @Bind
@@ -41,10 +45,13 @@ import com.trolltech.qt.gui.QWidget;
 public class ChildViewDelegateImpl implements ChildViewDelegate {
 
     private final Injector injector;
+    private final RenderFrameScheduler renderFrameScheduler;
 
     @Inject
-    ChildViewDelegateImpl(final Injector injector) {
+    ChildViewDelegateImpl(final Injector injector,
+                          final RenderFrameScheduler renderFrameScheduler) {
         this.injector = injector;
+        this.renderFrameScheduler = renderFrameScheduler;
     }
 
     @SuppressWarnings("unchecked")
@@ -71,7 +78,8 @@ public class ChildViewDelegateImpl implements ChildViewDelegate {
             }
         });
 
-        QApplication.invokeLater(newViewTask);
+        this.renderFrameScheduler.submit(RenderTaskPriority.VIEW_STRUCTURE,
+                newViewTask);
 
         return newViewTask;
     }
@@ -96,7 +104,8 @@ public class ChildViewDelegateImpl implements ChildViewDelegate {
             }
         });
 
-        QApplication.invokeLater(destroyTask);
+        this.renderFrameScheduler.submit(RenderTaskPriority.VIEW_STRUCTURE,
+                destroyTask);
         return destroyTask;
     }
 
@@ -122,8 +131,69 @@ public class ChildViewDelegateImpl implements ChildViewDelegate {
             }
         });
 
-        QApplication.invokeLater(updateChildViewPosTask);
+        this.renderFrameScheduler.submit(RenderTaskPriority.VIEW_STRUCTURE,
+                updateChildViewPosTask);
         return updateChildViewPosTask;
 
     }
+
+    @Override
+    public <T> ListenableFuture<List<T>> applyChanges(final Object parentView,
+                                                      final Class<T> childViewType,
+                                                      final List<ChildViewChange> changes) {
+        checkArgument(parentView instanceof QWidget,
+                format("Expected parent view should be of type %s",
+                        QWidget.class.getName()));
+        checkArgument(QWidget.class.isAssignableFrom(childViewType),
+                format("Expected child view should be of type %s",
+                        QWidget.class.getName()));
+
+        final ListenableFutureTask<List<T>> applyChangesTask = ListenableFutureTask.create(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                final QWidget parentViewInstance = (QWidget) parentView;
+                final List<T> createdChildViews = new ArrayList<>();
+
+                for (final ChildViewChange change : changes) {
+                    switch (change.getType()) {
+                        case CREATE: {
+                            final T childView = ChildViewDelegateImpl.this.injector.getInstance(childViewType);
+                            ((QWidget) childView).setParent(parentViewInstance);
+                            createdChildViews.add(childView);
+                            break;
+                        }
+                        case ATTACH: {
+                            final QWidget childViewInstance = (QWidget) change.getChildView().get();
+                            childViewInstance.setParent(parentViewInstance);
+                            childViewInstance.show();
+                            break;
+                        }
+                        case DETACH: {
+                            // keep the widget alive so it can be attached
+                            // again.
+                            final QWidget childViewInstance = (QWidget) change.getChildView().get();
+                            childViewInstance.hide();
+                            childViewInstance.setParent(null);
+                            break;
+                        }
+                        case DESTROY: {
+                            ((QWidget) change.getChildView().get()).close();
+                            break;
+                        }
+                        case MOVE: {
+                            // FIXME only layouts have a notion of order in qt.
+                            // How to notify the layout the order of a child?
+                            break;
+                        }
+                    }
+                }
+                return createdChildViews;
+            }
+        });
+
+        // all changes are applied in a single render task.
+        this.renderFrameScheduler.submit(RenderTaskPriority.VIEW_STRUCTURE,
+                applyChangesTask);
+        return applyChangesTask;
+    }
 }
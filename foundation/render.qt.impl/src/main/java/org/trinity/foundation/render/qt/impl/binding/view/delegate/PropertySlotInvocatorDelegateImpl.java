@@ -20,38 +20,211 @@
 
 package org.trinity.foundation.render.qt.impl.binding.view.delegate;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.concurrent.GuardedBy;
 
 import org.apache.onami.autobind.annotations.Bind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.render.binding.view.ViewBinding;
+import org.trinity.foundation.api.render.binding.view.ViewBinding.MethodInvoker;
+import org.trinity.foundation.api.render.binding.view.ViewBindings;
 import org.trinity.foundation.api.render.binding.view.delegate.PropertySlotInvocatorDelegate;
+import org.trinity.foundation.render.qt.impl.RenderFrameScheduler;
+import org.trinity.foundation.render.qt.impl.RenderTaskPriority;
 
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.trolltech.qt.gui.QApplication;
 
+/***************************************
+ * Invokes view methods on the Qt thread. Invocations are batched: all
+ * invocations that arrive before the Qt thread gets to them are executed in a
+ * single {@link RenderTaskPriority#PROPERTY} task of the
+ * {@link RenderFrameScheduler}. When the same view method is invoked more than once in a
+ * batch, only the last argument is used.
+ ***************************************
+ */
 @Bind
 @Singleton
 public class PropertySlotInvocatorDelegateImpl implements PropertySlotInvocatorDelegate {
 
-	PropertySlotInvocatorDelegateImpl() {
+	private static final Logger LOG = LoggerFactory.getLogger(PropertySlotInvocatorDelegateImpl.class);
+	private static final MethodType SLOT_TYPE = MethodType.methodType(	void.class,
+																		Object.class,
+																		Object.class);
+	// view methods are resolved once by the binder, so the same few method
+	// instances are passed in over and over again.
+	private final Cache<Method, MethodHandle> slotHandles = CacheBuilder.newBuilder().build();
+	// the generated invoker of a method is specific to the view class it was
+	// generated for.
+	private final Cache<Class<?>, Cache<Method, Optional<MethodInvoker>>> methodInvokersByViewClass = CacheBuilder
+			.newBuilder().weakKeys().build();
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	private final Object batchLock = new Object();
+	@GuardedBy("batchLock")
+	private Map<SlotInvocationKey, Object> argumentsBySlot = new LinkedHashMap<>();
+	@GuardedBy("batchLock")
+	private SettableFuture<Void> batchFuture;
+	private final RenderFrameScheduler renderFrameScheduler;
+
+	@Inject
+	PropertySlotInvocatorDelegateImpl(final RenderFrameScheduler renderFrameScheduler) {
+		this.renderFrameScheduler = renderFrameScheduler;
 	}
 
 	@Override
 	public ListenableFuture<Void> invoke(	final Object view,
 											final Method viewMethod,
 											final Object argument) {
-		final ListenableFutureTask<Void> invokeTask = ListenableFutureTask.create(new Callable<Void>() {
-			@Override
-			public Void call() throws Exception {
-				viewMethod.invoke(	view,
-									argument);
-				return null;
+		synchronized (this.batchLock) {
+			// only the last argument of a slot in a batch is of interest.
+			this.argumentsBySlot.put(	new SlotInvocationKey(	view,
+																viewMethod),
+										argument);
+			if (this.batchFuture == null) {
+				this.batchFuture = SettableFuture.create();
+				// the first invocation of a batch is the oldest model change
+				// waiting to be painted.
+				this.renderFrameScheduler.submit(	RenderTaskPriority.PROPERTY,
+													this.flushTask,
+													System.nanoTime());
 			}
-		});
+			return this.batchFuture;
+		}
+	}
+
+	private void flush() {
+		final Map<SlotInvocationKey, Object> flushedArgumentsBySlot;
+		final SettableFuture<Void> flushedBatchFuture;
+		synchronized (this.batchLock) {
+			flushedArgumentsBySlot = this.argumentsBySlot;
+			flushedBatchFuture = this.batchFuture;
+			this.argumentsBySlot = new LinkedHashMap<>();
+			this.batchFuture = null;
+		}
 
-		QApplication.invokeLater(invokeTask);
-		return invokeTask;
+		Throwable firstError = null;
+		for (final Entry<SlotInvocationKey, Object> flushedArgumentBySlot : flushedArgumentsBySlot.entrySet()) {
+			final SlotInvocationKey slot = flushedArgumentBySlot.getKey();
+			try {
+				invokeSlot(	slot.view,
+							slot.viewMethod,
+							flushedArgumentBySlot.getValue());
+			} catch (final Throwable e) {
+				// one broken slot should not keep the other views from being
+				// updated.
+				LOG.error(	"Error while invoking view method=" + slot.viewMethod + " of view=" + slot.view,
+							e);
+				if (firstError == null) {
+					firstError = e;
+				}
+			}
+		}
+
+		if (firstError == null) {
+			flushedBatchFuture.set(null);
+		} else {
+			flushedBatchFuture.setException(firstError);
+		}
+	}
+
+	private void invokeSlot(final Object view,
+							final Method viewMethod,
+							final Object argument) throws Throwable {
+		// prefer the generated binding of the view, if it can invoke
+		// the method.
+		final Optional<MethodInvoker> methodInvoker = getMethodInvoker(	view.getClass(),
+																		viewMethod);
+		if (methodInvoker.isPresent()) {
+			methodInvoker.get().invoke(	view,
+										argument);
+			return;
+		}
+
+		final MethodHandle slotHandle = getSlotHandle(viewMethod);
+		slotHandle.invokeExact(	view,
+								argument);
+	}
+
+	private Optional<MethodInvoker> getMethodInvoker(	final Class<?> viewClass,
+														final Method viewMethod) throws ExecutionException {
+		final Cache<Method, Optional<MethodInvoker>> methodInvokers = this.methodInvokersByViewClass
+				.get(	viewClass,
+						new Callable<Cache<Method, Optional<MethodInvoker>>>() {
+							@Override
+							public Cache<Method, Optional<MethodInvoker>> call() {
+								return CacheBuilder.newBuilder().build();
+							}
+						});
+		return methodInvokers.get(	viewMethod,
+									new Callable<Optional<MethodInvoker>>() {
+										@Override
+										public Optional<MethodInvoker> call() {
+											final Optional<ViewBinding> viewBinding = ViewBindings.find(viewClass);
+											if (!viewBinding.isPresent()) {
+												return Optional.absent();
+											}
+											return viewBinding.get().getMethodInvoker(ViewBindings.toMethodKey(viewMethod));
+										}
+									});
+	}
+
+	private MethodHandle getSlotHandle(final Method viewMethod) throws ExecutionException {
+		return this.slotHandles.get(viewMethod,
+									new Callable<MethodHandle>() {
+										@Override
+										public MethodHandle call() throws IllegalAccessException {
+											viewMethod.setAccessible(true);
+											return MethodHandles.lookup().unreflect(viewMethod).asType(SLOT_TYPE);
+										}
+									});
+	}
+
+	private static final class SlotInvocationKey {
+
+		private final Object view;
+		private final Method viewMethod;
+
+		SlotInvocationKey(	final Object view,
+							final Method viewMethod) {
+			this.view = view;
+			this.viewMethod = viewMethod;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(this.view) + this.viewMethod.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof SlotInvocationKey)) {
+				return false;
+			}
+			final SlotInvocationKey other = (SlotInvocationKey) obj;
+			// views are compared by identity, two equal views are still two
+			// different widgets.
+			return (this.view == other.view) && this.viewMethod.equals(other.viewMethod);
+		}
 	}
 }
@@ -22,10 +22,14 @@ package org.trinity.foundation.render.qt.impl.painter;
 import org.apache.onami.autobind.annotations.GuiceModule;
 import org.trinity.foundation.api.render.Painter;
 import org.trinity.foundation.api.render.PainterFactory;
+import org.trinity.foundation.render.qt.impl.RenderFrameScheduler;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.trolltech.qt.core.QObject;
+import com.trolltech.qt.gui.QWidget;
 
 @Deprecated
 @GuiceModule
@@ -38,4 +42,39 @@ class Module extends AbstractModule {
 		install(new FactoryModuleBuilder().implement(	QObject.class,
 														ViewEventTracker.class).build(ViewEventTrackerFactory.class));
 	}
-}
\ No newline at end of file
+
+	@Provides
+	@Singleton
+	RenderCommandQueue<QWidget> provideRenderCommandQueue(final RenderFrameScheduler renderFrameScheduler) {
+		return new RenderCommandQueue<QWidget>(	renderFrameScheduler,
+												new RenderCommandQueue.WidgetGeometry<QWidget>() {
+													@Override
+													public void move(	final QWidget widget,
+																		final int x,
+																		final int y) {
+														widget.move(x,
+																	y);
+													}
+
+													@Override
+													public void resize(	final QWidget widget,
+																		final int width,
+																		final int height) {
+														widget.resize(	width,
+																		height);
+													}
+
+													@Override
+													public void setGeometry(final QWidget widget,
+																			final int x,
+																			final int y,
+																			final int width,
+																			final int height) {
+														widget.setGeometry(	x,
+																			y,
+																			width,
+																			height);
+													}
+												});
+	}
+}
@@ -35,14 +35,18 @@ import org.trinity.foundation.api.shared.AsyncListenable;
 import org.trinity.foundation.render.qt.impl.RenderDisplaySurfaceHandle;
 
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 import com.trolltech.qt.core.QObject;
-import com.trolltech.qt.gui.QApplication;
 import com.trolltech.qt.gui.QWidget;
 
+/***************************************
+ * Paints the view of a model. Every operation is recorded in the
+ * {@link RenderCommandQueue}, which executes all recorded operations in a
+ * single Qt task.
+ ***************************************
+ */
 @Deprecated
 @ThreadSafe
 public class PainterImpl implements Painter {
@@ -54,11 +58,13 @@ public class PainterImpl implements Painter {
 	private final ViewDiscovery viewDiscovery = new ViewDiscovery();
 	private final DisplaySurfaceFactory displaySurfaceFactory;
 	private final ViewEventTrackerFactory eventTrackerFactory;
+	private final RenderCommandQueue<QWidget> renderCommandQueue;
 
 	@AssistedInject
 	PainterImpl(final DisplaySurfaceFactory displaySurfaceFactory,
 				final ViewEventTrackerFactory eventTrackerFactory,
 				final Binder binder,
+				final RenderCommandQueue<QWidget> renderCommandQueue,
 				@Assisted final ListeningExecutorService modelExecutor,
 				@Assisted final AsyncListenable model) {
 		this.binder = binder;
@@ -66,102 +72,72 @@ public class PainterImpl implements Painter {
 		this.model = model;
 		this.displaySurfaceFactory = displaySurfaceFactory;
 		this.eventTrackerFactory = eventTrackerFactory;
+		this.renderCommandQueue = renderCommandQueue;
 	}
 
 	@Override
 	public ListenableFuture<Void> destroy() {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] close.",
-							view);
-				view.close();
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.enqueue(	view,
+												new Runnable() {
+													@Override
+													public void run() {
+														LOG.debug(	"[view={}] close.",
+																	view);
+														view.close();
+													}
+												});
 	}
 
 	@Override
 	public ListenableFuture<Void> setInputFocus() {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] set input focus.",
-							view);
-				view.setFocus();
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.enqueue(	view,
+												new Runnable() {
+													@Override
+													public void run() {
+														LOG.debug(	"[view={}] set input focus.",
+																	view);
+														view.setFocus();
+													}
+												});
 	}
 
 	@Override
 	public ListenableFuture<Void> lower() {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] lower.",
-							view);
-				view.lower();
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.enqueue(	view,
+												new Runnable() {
+													@Override
+													public void run() {
+														LOG.debug(	"[view={}] lower.",
+																	view);
+														view.lower();
+													}
+												});
 	}
 
 	@Override
 	public ListenableFuture<Void> show() {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] show.",
-							view);
-				view.show();
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.enqueue(	view,
+												new Runnable() {
+													@Override
+													public void run() {
+														LOG.debug(	"[view={}] show.",
+																	view);
+														view.show();
+													}
+												});
 	}
 
 	@Override
 	public ListenableFuture<Void> move(	final int x,
 										final int y) {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] move x={}, y={}.",
-							view,
-							x,
-							y);
-				view.move(	x,
-							y);
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.move(view,
+											x,
+											y);
 	}
 
 	@Override
@@ -170,44 +146,25 @@ public class PainterImpl implements Painter {
 												final int width,
 												final int height) {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] move resize x={}, y={}, width={}, height={}.",
-							view,
-							x,
-							y,
-							width,
-							height);
-				view.setGeometry(	x,
-									y,
-									width,
-									height);
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.moveResize(	view,
+													x,
+													y,
+													width,
+													height);
 	}
 
 	@Override
 	public ListenableFuture<Void> raise() {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] raise.",
-							view);
-				view.raise();
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.enqueue(	view,
+												new Runnable() {
+													@Override
+													public void run() {
+														LOG.debug(	"[view={}] raise.",
+																	view);
+														view.raise();
+													}
+												});
 	}
 
 	@Override
@@ -216,103 +173,74 @@ public class PainterImpl implements Painter {
 											final int y) {
 		final QWidget parentView = this.viewDiscovery.lookupView(parent);
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] set parent parentView={}, x={}, y={}.",
-							view,
-							parentView,
-							x,
-							y);
-				view.setParent(parentView);
-				view.move(	x,
-							y);
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		this.renderCommandQueue.enqueue(view,
+										new Runnable() {
+											@Override
+											public void run() {
+												LOG.debug(	"[view={}] set parent parentView={}.",
+															view,
+															parentView);
+												view.setParent(parentView);
+											}
+										});
+		// recorded after the parent change, so it's also applied after it.
+		return this.renderCommandQueue.move(view,
+											x,
+											y);
 	}
 
 	@Override
 	public ListenableFuture<Void> resize(	final int width,
 											final int height) {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] resize width={}, height={}.",
-							view,
-							width,
-							height);
-				view.resize(width,
-							height);
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.resize(	view,
+												width,
+												height);
 	}
 
 	@Override
 	public ListenableFuture<Void> hide() {
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<Void> callable = new Callable<Void>() {
-			@Override
-			public Void call() {
-				LOG.debug(	"[view={}] hide.",
-							view);
-				view.hide();
-				return null;
-			}
-		};
-
-		final ListenableFutureTask<Void> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.enqueue(	view,
+												new Runnable() {
+													@Override
+													public void run() {
+														LOG.debug(	"[view={}] hide.",
+																	view);
+														view.hide();
+													}
+												});
 	}
 
 	@Override
 	public ListenableFuture<Void> bindView() {
-
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Runnable viewBindingRoutine = new Runnable() {
-			@Override
-			public void run() {
-				final QObject eventTracker = PainterImpl.this.eventTrackerFactory
-						.createQJEventTracker(	PainterImpl.this.model,
-												view);
-				view.installEventFilter(eventTracker);
-				PainterImpl.this.binder.bind(	PainterImpl.this.modelExecutor,
-												PainterImpl.this.model,
-												view);
-
-			}
-		};
-		final ListenableFutureTask<Void> bindViewFuture = ListenableFutureTask.create(	viewBindingRoutine,
-																						null);
-		QApplication.invokeLater(viewBindingRoutine);
-		return bindViewFuture;
+		return this.renderCommandQueue.enqueue(	view,
+												new Runnable() {
+													@Override
+													public void run() {
+														final QObject eventTracker = PainterImpl.this.eventTrackerFactory
+																.createQJEventTracker(	PainterImpl.this.model,
+																						view);
+														view.installEventFilter(eventTracker);
+														PainterImpl.this.binder.bind(	PainterImpl.this.modelExecutor,
+																						PainterImpl.this.model,
+																						view);
+													}
+												});
 	}
 
 	@Override
 	public ListenableFuture<DisplaySurface> getDislaySurface() {
-
 		final QWidget view = this.viewDiscovery.lookupView(this.model);
-		final Callable<DisplaySurface> callable = new Callable<DisplaySurface>() {
-			@Override
-			public DisplaySurface call() {
-				final DisplaySurfaceHandle displaySurfaceHandle = new RenderDisplaySurfaceHandle(view);
-				return PainterImpl.this.displaySurfaceFactory.createDisplaySurface(displaySurfaceHandle);
-			}
-		};
-
-		final ListenableFutureTask<DisplaySurface> futureTask = ListenableFutureTask.create(callable);
-		QApplication.invokeLater(futureTask);
-		return futureTask;
+		return this.renderCommandQueue.submit(	view,
+												new Callable<DisplaySurface>() {
+													@Override
+													public DisplaySurface call() {
+														final DisplaySurfaceHandle displaySurfaceHandle = new RenderDisplaySurfaceHandle(view);
+														return PainterImpl.this.displaySurfaceFactory
+																.createDisplaySurface(displaySurfaceHandle);
+													}
+												});
 	}
 }
@@ -0,0 +1,321 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.foundation.render.qt.impl.painter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trinity.foundation.render.qt.impl.RenderFrameScheduler;
+import org.trinity.foundation.render.qt.impl.RenderTaskPriority;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.SettableFuture;
+
+/***************************************
+ * Records painter commands and executes them on the Qt thread. All commands
+ * that arrive before the Qt thread gets to them are executed in a single
+ * {@link RenderTaskPriority#INPUT} task of the {@link RenderFrameScheduler},
+ * in the order they were recorded.
+ * <p>
+ * Consecutive geometry commands of the same widget are coalesced into a
+ * single move, resize or set geometry. Any other command of the widget ends
+ * the coalescing, so geometry that is recorded after it is also applied after
+ * it.
+ * <p>
+ * Widgets are applied their geometry through a {@link WidgetGeometry}, so
+ * coalescing does not depend on the widget toolkit.
+ *
+ * @param <W>
+ *            The type of widget.
+ ***************************************
+ */
+@ThreadSafe
+class RenderCommandQueue<W> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RenderCommandQueue.class);
+
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
+	private final Object queueLock = new Object();
+	@GuardedBy("queueLock")
+	private List<Runnable> commands = new ArrayList<>();
+	// widgets are compared by identity, two equal widgets are still two
+	// different widgets.
+	@GuardedBy("queueLock")
+	private final Map<W, GeometryCommand<W>> geometryCommandByWidget = new IdentityHashMap<>();
+	@GuardedBy("queueLock")
+	private SettableFuture<Void> batchFuture;
+	private final RenderFrameScheduler renderFrameScheduler;
+	private final WidgetGeometry<W> widgetGeometry;
+
+	RenderCommandQueue(	final RenderFrameScheduler renderFrameScheduler,
+						final WidgetGeometry<W> widgetGeometry) {
+		this.renderFrameScheduler = renderFrameScheduler;
+		this.widgetGeometry = widgetGeometry;
+	}
+
+	ListenableFuture<Void> move(final W widget,
+								final int x,
+								final int y) {
+		synchronized (this.queueLock) {
+			getGeometryCommand(widget).move(x,
+											y);
+			return scheduleDrain();
+		}
+	}
+
+	ListenableFuture<Void> resize(	final W widget,
+									final int width,
+									final int height) {
+		synchronized (this.queueLock) {
+			getGeometryCommand(widget).resize(	width,
+												height);
+			return scheduleDrain();
+		}
+	}
+
+	ListenableFuture<Void> moveResize(	final W widget,
+										final int x,
+										final int y,
+										final int width,
+										final int height) {
+		synchronized (this.queueLock) {
+			final GeometryCommand<W> geometryCommand = getGeometryCommand(widget);
+			geometryCommand.move(	x,
+									y);
+			geometryCommand.resize(	width,
+									height);
+			return scheduleDrain();
+		}
+	}
+
+	/***************************************
+	 * Record a command that is not a geometry command.
+	 *
+	 * @param widget
+	 *            The widget the command acts on.
+	 * @param command
+	 *            The command to execute on the Qt thread.
+	 * @return A future that completes when the batch of the command is
+	 *         executed.
+	 ***************************************
+	 */
+	ListenableFuture<Void> enqueue(	final W widget,
+									final Runnable command) {
+		synchronized (this.queueLock) {
+			// geometry recorded after this command must not be applied before
+			// it.
+			this.geometryCommandByWidget.remove(widget);
+			this.commands.add(command);
+			return scheduleDrain();
+		}
+	}
+
+	/***************************************
+	 * Record a command that is not a geometry command and that has a result.
+	 *
+	 * @param widget
+	 *            The widget the command acts on.
+	 * @param command
+	 *            The command to execute on the Qt thread.
+	 * @return A future that completes with the result of the command.
+	 ***************************************
+	 */
+	<T> ListenableFuture<T> submit(	final W widget,
+									final Callable<T> command) {
+		final ListenableFutureTask<T> commandTask = ListenableFutureTask.create(command);
+		enqueue(widget,
+				commandTask);
+		return commandTask;
+	}
+
+	@GuardedBy("queueLock")
+	private GeometryCommand<W> getGeometryCommand(final W widget) {
+		GeometryCommand<W> geometryCommand = this.geometryCommandByWidget.get(widget);
+		if (geometryCommand == null) {
+			geometryCommand = new GeometryCommand<W>(	this.widgetGeometry,
+														widget);
+			this.geometryCommandByWidget.put(	widget,
+												geometryCommand);
+			this.commands.add(geometryCommand);
+		}
+		return geometryCommand;
+	}
+
+	@GuardedBy("queueLock")
+	private ListenableFuture<Void> scheduleDrain() {
+		if (this.batchFuture == null) {
+			this.batchFuture = SettableFuture.create();
+			// painter commands are mostly the result of user input, eg moving
+			// or focusing a window.
+			this.renderFrameScheduler.submit(	RenderTaskPriority.INPUT,
+												this.drainTask);
+		}
+		return this.batchFuture;
+	}
+
+	private void drain() {
+		final List<Runnable> drainedCommands;
+		final SettableFuture<Void> drainedBatchFuture;
+		synchronized (this.queueLock) {
+			drainedCommands = this.commands;
+			drainedBatchFuture = this.batchFuture;
+			this.commands = new ArrayList<>();
+			this.geometryCommandByWidget.clear();
+			this.batchFuture = null;
+		}
+
+		Throwable firstError = null;
+		for (final Runnable command : drainedCommands) {
+			try {
+				command.run();
+			} catch (final Throwable e) {
+				// one broken widget should not keep the other widgets from
+				// being painted.
+				LOG.error(	"Error while executing render command=" + command,
+							e);
+				if (firstError == null) {
+					firstError = e;
+				}
+			}
+		}
+
+		if (firstError == null) {
+			drainedBatchFuture.set(null);
+		} else {
+			drainedBatchFuture.setException(firstError);
+		}
+	}
+
+	/***************************************
+	 * Applies geometry to a widget. Only called on the Qt thread.
+	 *
+	 * @param <W>
+	 *            The type of widget.
+	 ***************************************
+	 */
+	interface WidgetGeometry<W> {
+
+		void move(	W widget,
+					int x,
+					int y);
+
+		void resize(W widget,
+					int width,
+					int height);
+
+		void setGeometry(	W widget,
+							int x,
+							int y,
+							int width,
+							int height);
+	}
+
+	/***************************************
+	 * The coalesced geometry of a widget. Only modified while holding the
+	 * queue lock, and only executed after it was drained from the queue.
+	 ***************************************
+	 */
+	@NotThreadSafe
+	private static final class GeometryCommand<W> implements Runnable {
+
+		private final WidgetGeometry<W> widgetGeometry;
+		private final W widget;
+		private boolean moved;
+		private int x;
+		private int y;
+		private boolean resized;
+		private int width;
+		private int height;
+
+		GeometryCommand(final WidgetGeometry<W> widgetGeometry,
+						final W widget) {
+			this.widgetGeometry = widgetGeometry;
+			this.widget = widget;
+		}
+
+		void move(	final int x,
+					final int y) {
+			this.moved = true;
+			this.x = x;
+			this.y = y;
+		}
+
+		void resize(final int width,
+					final int height) {
+			this.resized = true;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public void run() {
+			if (this.moved && this.resized) {
+				LOG.debug(	"[view={}] move resize x={}, y={}, width={}, height={}.",
+							this.widget,
+							this.x,
+							this.y,
+							this.width,
+							this.height);
+				this.widgetGeometry.setGeometry(this.widget,
+												this.x,
+												this.y,
+												this.width,
+												this.height);
+			} else if (this.moved) {
+				LOG.debug(	"[view={}] move x={}, y={}.",
+							this.widget,
+							this.x,
+							this.y);
+				this.widgetGeometry.move(	this.widget,
+											this.x,
+											this.y);
+			} else if (this.resized) {
+				LOG.debug(	"[view={}] resize width={}, height={}.",
+							this.widget,
+							this.width,
+							this.height);
+				this.widgetGeometry.resize(	this.widget,
+											this.width,
+											this.height);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "geometry of " + this.widget;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package org.trinity.foundation.render.qt.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RenderFrameSchedulerTest {
+
+	private final BlockingQueue<Runnable> frames = new LinkedBlockingQueue<Runnable>();
+	private final Executor renderThreadExecutor = new Executor() {
+		@Override
+		public void execute(final Runnable command) {
+			RenderFrameSchedulerTest.this.frames.add(command);
+		}
+	};
+
+	@Test
+	public void testPriority() throws InterruptedException {
+		// given
+		final RenderFrameScheduler renderFrameScheduler = new RenderFrameScheduler(	this.renderThreadExecutor,
+																					TimeUnit.MILLISECONDS.toNanos(1),
+																					TimeUnit.SECONDS.toNanos(1));
+		final List<String> executedTasks = new ArrayList<String>();
+
+		// when
+		renderFrameScheduler.submit(RenderTaskPriority.PROPERTY,
+									newTask(executedTasks,
+											"property"));
+		renderFrameScheduler.submit(RenderTaskPriority.INPUT,
+									newTask(executedTasks,
+											"input"));
+		renderFrameScheduler.submit(RenderTaskPriority.VIEW_STRUCTURE,
+									newTask(executedTasks,
+											"view structure"));
+		this.frames.poll(	1,
+							TimeUnit.SECONDS).run();
+
+		// then
+		// all tasks fit in a single frame, input first.
+		assertEquals(	Arrays.asList(	"input",
+										"view structure",
+										"property"),
+						executedTasks);
+		assertEquals(	1,
+						renderFrameScheduler.getStatistics().getFrameCount());
+		assertEquals(	3,
+						renderFrameScheduler.getStatistics().getLastQueueDepth());
+	}
+
+	@Test
+	public void testFrameBudget() throws InterruptedException {
+		// given
+		// a budget so small only a single task fits in a frame.
+		final RenderFrameScheduler renderFrameScheduler = new RenderFrameScheduler(	this.renderThreadExecutor,
+																					TimeUnit.MILLISECONDS.toNanos(1),
+																					1);
+		final List<String> executedTasks = new ArrayList<String>();
+
+		// when
+		for (int i = 0; i < 3; i++) {
+			renderFrameScheduler.submit(RenderTaskPriority.PROPERTY,
+										newTask(executedTasks,
+												"property" + i));
+		}
+		this.frames.poll(	1,
+							TimeUnit.SECONDS).run();
+
+		// then
+		assertEquals(	Arrays.asList("property0"),
+						executedTasks);
+
+		// when
+		this.frames.poll(	1,
+							TimeUnit.SECONDS).run();
+		this.frames.poll(	1,
+							TimeUnit.SECONDS).run();
+
+		// then
+		assertEquals(	Arrays.asList(	"property0",
+										"property1",
+										"property2"),
+						executedTasks);
+		assertNull(this.frames.poll(10,
+									TimeUnit.MILLISECONDS));
+		final RenderFrameStatistics statistics = renderFrameScheduler.getStatistics();
+		assertEquals(	3,
+						statistics.getFrameCount());
+		assertEquals(	3,
+						statistics.getTaskCount());
+		assertEquals(	3,
+						statistics.getMaxQueueDepth());
+		assertEquals(	1,
+						statistics.getLastQueueDepth());
+	}
+
+	private Runnable newTask(	final List<String> executedTasks,
+								final String name) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				executedTasks.add(name);
+			}
+		};
+	}
+}
@@ -0,0 +1,188 @@
+package org.trinity.foundation.render.qt.impl.painter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.trinity.foundation.render.qt.impl.RenderFrameScheduler;
+import org.trinity.foundation.render.qt.impl.RenderTaskPriority;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class RenderCommandQueueTest {
+
+	private final BlockingQueue<Runnable> frames = new LinkedBlockingQueue<Runnable>();
+	private final RenderFrameScheduler renderFrameScheduler = mock(RenderFrameScheduler.class);
+	private final List<String> executedCommands = new ArrayList<String>();
+	private final RenderCommandQueue.WidgetGeometry<String> widgetGeometry = new RenderCommandQueue.WidgetGeometry<String>() {
+		@Override
+		public void move(	final String widget,
+							final int x,
+							final int y) {
+			RenderCommandQueueTest.this.executedCommands.add(widget + " move " + x + "," + y);
+		}
+
+		@Override
+		public void resize(	final String widget,
+							final int width,
+							final int height) {
+			RenderCommandQueueTest.this.executedCommands.add(widget + " resize " + width + "," + height);
+		}
+
+		@Override
+		public void setGeometry(final String widget,
+								final int x,
+								final int y,
+								final int width,
+								final int height) {
+			RenderCommandQueueTest.this.executedCommands.add(widget + " geometry " + x + "," + y + "," + width + ","
+					+ height);
+		}
+	};
+
+	{
+		// the scheduler hands its frame task to the test, which runs it
+		// synchronously.
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(final InvocationOnMock invocation) {
+				RenderCommandQueueTest.this.frames.add((Runnable) invocation.getArguments()[1]);
+				return null;
+			}
+		}).when(this.renderFrameScheduler).submit(	eq(RenderTaskPriority.INPUT),
+													any(Runnable.class));
+	}
+
+	@Test
+	public void testGeometryIsMergedPerWidget() throws InterruptedException {
+		// given
+		final RenderCommandQueue<String> renderCommandQueue = newRenderCommandQueue();
+
+		// when
+		final ListenableFuture<Void> move = renderCommandQueue.move("widget",
+																	1,
+																	2);
+		final ListenableFuture<Void> resize = renderCommandQueue.resize("widget",
+																		3,
+																		4);
+		renderCommandQueue.move("widget",
+								5,
+								6);
+		assertFalse(move.isDone());
+		runFrame();
+
+		// then
+		assertEquals(	Arrays.asList("widget geometry 5,6,3,4"),
+						this.executedCommands);
+		// the whole batch shares one future.
+		assertSame(	move,
+					resize);
+		assertTrue(move.isDone());
+		assertNull(this.frames.poll());
+	}
+
+	@Test
+	public void testOtherCommandEndsCoalescing() throws InterruptedException {
+		// given
+		final RenderCommandQueue<String> renderCommandQueue = newRenderCommandQueue();
+
+		// when
+		renderCommandQueue.move("widget",
+								1,
+								2);
+		renderCommandQueue.enqueue(	"widget",
+									newCommand("widget raise"));
+		renderCommandQueue.move("widget",
+								3,
+								4);
+		runFrame();
+
+		// then
+		assertEquals(	Arrays.asList(	"widget move 1,2",
+										"widget raise",
+										"widget move 3,4"),
+						this.executedCommands);
+	}
+
+	@Test
+	public void testSetParentThenMove() throws InterruptedException {
+		// given
+		final RenderCommandQueue<String> renderCommandQueue = newRenderCommandQueue();
+
+		// when
+		renderCommandQueue.enqueue(	"widget",
+									newCommand("widget set parent"));
+		renderCommandQueue.move("widget",
+								10,
+								20);
+		runFrame();
+
+		// then
+		// the position is relative to the new parent.
+		assertEquals(	Arrays.asList(	"widget set parent",
+										"widget move 10,20"),
+						this.executedCommands);
+	}
+
+	@Test
+	public void testCrossWidgetOrder() throws InterruptedException {
+		// given
+		final RenderCommandQueue<String> renderCommandQueue = newRenderCommandQueue();
+
+		// when
+		renderCommandQueue.move("widget0",
+								1,
+								1);
+		renderCommandQueue.enqueue(	"widget1",
+									newCommand("widget1 show"));
+		renderCommandQueue.resize(	"widget1",
+									2,
+									2);
+		// merged with the first geometry of widget0, so still before widget1.
+		renderCommandQueue.move("widget0",
+								3,
+								3);
+		runFrame();
+
+		// then
+		assertEquals(	Arrays.asList(	"widget0 move 3,3",
+										"widget1 show",
+										"widget1 resize 2,2"),
+						this.executedCommands);
+	}
+
+	private RenderCommandQueue<String> newRenderCommandQueue() {
+		return new RenderCommandQueue<String>(	this.renderFrameScheduler,
+												this.widgetGeometry);
+	}
+
+	private Runnable newCommand(final String name) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				RenderCommandQueueTest.this.executedCommands.add(name);
+			}
+		};
+	}
+
+	private void runFrame() throws InterruptedException {
+		this.frames.poll(	1,
+							TimeUnit.SECONDS).run();
+	}
+}
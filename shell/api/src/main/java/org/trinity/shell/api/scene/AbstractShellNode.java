@@ -27,6 +27,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import org.trinity.foundation.api.display.DisplayBatch;
 import org.trinity.foundation.api.shared.AsyncListenable;
 import org.trinity.foundation.api.shared.AsyncListenableEventBus;
 import org.trinity.foundation.api.shared.Coordinate;
@@ -62,6 +63,7 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 @ExecutionContext(ShellExecutor.class)
 public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 
+	private final ListeningExecutorService shellExecutor;
 	private final AsyncListenableEventBus nodeEventBus;
 	private Coordinate position = new Coordinate(	0,
 													0);
@@ -75,11 +77,31 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	private AbstractShellNodeParent parent;
 	private AbstractShellNodeParent desiredParent;
 	private boolean destroyed;
+	private boolean geometryDeferred;
+	private boolean pendingMove;
+	private boolean pendingResize;
+	private boolean geometryFlushScheduled;
+	// the geometry our delegate is known to have, null if unknown.
+	private Coordinate executedPosition;
+	private Size executedSize;
+	private final Runnable geometryFlush = new Runnable() {
+		@Override
+		public void run() {
+			AbstractShellNode.this.geometryFlushScheduled = false;
+			if (!AbstractShellNode.this.geometryDeferred) {
+				flushDeferredGeometry();
+			}
+		}
+	};
+	private int stackIndex = -1;
+	private long stateVersion;
+	private volatile ShellNodeState state;
 
 	protected AbstractShellNode(@Nullable @ShellRootNode final ShellNodeParent shellRootNode,
 								@Nonnull @ShellScene final AsyncListenable shellScene,
 								@Nonnull @ShellExecutor final ListeningExecutorService shellExecutor) {
 		super(shellExecutor);
+		this.shellExecutor = shellExecutor;
 		this.nodeEventBus = new AsyncListenableEventBus(shellExecutor);
 
 		register(shellScene);
@@ -87,14 +109,52 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 			setParentImpl(shellRootNode);
 			flushParentValue();
 		}
+		publishState();
+	}
+
+	@Override
+	public ShellNodeState snapshot() {
+		return this.state;
+	}
+
+	/**
+	 * ************************************ Publish the current committed state
+	 * of this node so it can be read by {@link #snapshot()}. This is done
+	 * every time a change is committed, before the matching event is posted.
+	 * **************************************
+	 */
+	protected void publishState() {
+		this.state = new ShellNodeState(this.position,
+										this.size,
+										this.visible,
+										this.destroyed,
+										this.parent,
+										this.stackIndex,
+										++this.stateVersion);
+	}
+
+	/**
+	 * Update the index of this node in the stacking order of its parent's
+	 * children. This should only be called by the parent.
+	 *
+	 * @param stackIndex
+	 *            the new index, or -1 if this node is no longer a child of
+	 *            its parent.
+	 */
+	void updateStackIndex(final int stackIndex) {
+		if (this.stackIndex != stackIndex) {
+			this.stackIndex = stackIndex;
+			publishState();
+		}
 	}
 
 	@Override
 	public ShellNodeTransformation toGeoTransformationImpl() {
-		return new ShellNodeTransformation(	getGeometryImpl(),
+		return new ShellNodeTransformation(	getPositionImpl(),
+											getSizeImpl(),
 											getParentImpl(),
-											new ImmutableRectangle(	getDesiredPosition(),
-																	getDesiredSize()),
+											getDesiredPosition(),
+											getDesiredSize(),
 											getDesiredParent());
 	}
 
@@ -171,12 +231,12 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 		// we're in the visible state.
 
 		// recursion safeguard
-		if (getParent() == this) {
+		if (getParentImpl() == this) {
 			return true;
 		}
 
 		// check if our parent is visible.
-		return (getParent() != null) && getParentImpl().isVisibleImpl();
+		return (getParentImpl() != null) && getParentImpl().isVisibleImpl();
 	}
 
 	@Override
@@ -228,7 +288,9 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	/**
 	 * ************************************ Move the current node but the actual
 	 * delegated execution by this node's {@link ShellNodeGeometryDelegate} is
-	 * conditional. This call will affect the node's state.
+	 * conditional. This call will affect the node's state. The delegated
+	 * execution is merged with all other geometry changes of this node made
+	 * during the same shell tick.
 	 *
 	 * @param execute
 	 *            True to execute the process by the this node's
@@ -238,7 +300,10 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	protected void doMove(final boolean execute) {
 		flushPlaceValues();
 		if (execute) {
-			execMove();
+			this.pendingMove = true;
+			scheduleGeometryFlush();
+		} else {
+			this.executedPosition = getPositionImpl();
 		}
 		final ShellNodeMovedEvent geoEvent = new ShellNodeMovedEvent(	this,
 																		toGeoTransformationImpl());
@@ -252,6 +317,7 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	public void execMove() {
 		getShellNodeGeometryDelegate().move(getDesiredPosition());
+		this.executedPosition = getDesiredPosition();
 	}
 
 	/**
@@ -259,6 +325,7 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	public void flushPlaceValues() {
 		this.position = getDesiredPosition();
+		publishState();
 	}
 
 	@Override
@@ -271,7 +338,8 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 * ************************************ Resize the current node but the
 	 * actual delegated execution by this node's
 	 * {@link ShellNodeGeometryDelegate} is conditional. This call will affect
-	 * the node's state.
+	 * the node's state. The delegated execution is merged with all other
+	 * geometry changes of this node made during the same shell tick.
 	 *
 	 * @param execute
 	 *            True to execute the process by the this node's
@@ -281,7 +349,10 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	protected void doResize(final boolean execute) {
 		flushSizeValues();
 		if (execute) {
-			execResize();
+			this.pendingResize = true;
+			scheduleGeometryFlush();
+		} else {
+			this.executedSize = getSizeImpl();
 		}
 		final ShellNodeResizedEvent geoEvent = new ShellNodeResizedEvent(	this,
 																			toGeoTransformationImpl());
@@ -295,6 +366,7 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	public Void execResize() {
 		getShellNodeGeometryDelegate().resize(getDesiredSize());
+		this.executedSize = getDesiredSize();
 		return null;
 	}
 
@@ -303,6 +375,7 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	public Void flushSizeValues() {
 		this.size = getDesiredSize();
+		publishState();
 		return null;
 	}
 
@@ -316,7 +389,8 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 * ************************************ Move and resize the current node but
 	 * the actual delegated execution by this node's
 	 * {@link ShellNodeGeometryDelegate} is conditional. This call will affect
-	 * the node's state.
+	 * the node's state. The delegated execution is merged with all other
+	 * geometry changes of this node made during the same shell tick.
 	 *
 	 * @param execute
 	 *            True to execute the process by the this node's
@@ -326,7 +400,12 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	protected void doMoveResize(final boolean execute) {
 		flushSizePlaceValues();
 		if (execute) {
-			execMoveResize();
+			this.pendingMove = true;
+			this.pendingResize = true;
+			scheduleGeometryFlush();
+		} else {
+			this.executedPosition = getPositionImpl();
+			this.executedSize = getSizeImpl();
 		}
 		final ShellNodeMovedResizedEvent geoEvent = new ShellNodeMovedResizedEvent(	this,
 																					toGeoTransformationImpl());
@@ -341,16 +420,20 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	public Void execMoveResize() {
 		getShellNodeGeometryDelegate().moveResize(	getDesiredPosition(),
 													getDesiredSize());
+		this.executedPosition = getDesiredPosition();
+		this.executedSize = getDesiredSize();
 		return null;
 	}
 
 	/**
 	 * Make both the desired position and the desired dimension, the current
-	 * position and dimension.
+	 * position and dimension. The new geometry is published as a single
+	 * {@link ShellNodeState}.
 	 */
 	public Void flushSizePlaceValues() {
-		flushPlaceValues();
-		flushSizeValues();
+		this.position = getDesiredPosition();
+		this.size = getDesiredSize();
+		publishState();
 		return null;
 	}
 
@@ -373,6 +456,9 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	protected void doDestroy(final boolean execute) {
 		this.destroyed = true;
+		this.pendingMove = false;
+		this.pendingResize = false;
+		publishState();
 		if (execute) {
 			execDestroy();
 		}
@@ -409,6 +495,9 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	protected void doRaise(final boolean execute) {
 		if (execute) {
+			// a raised node is uncovered, so it stops deferring and the
+			// delegate gets the latest geometry before it's raised.
+			setGeometryDeferred(false);
 			execRaise();
 		}
 		getParentImpl().handleChildStacking(this,
@@ -483,6 +572,7 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	protected void doReparent(final boolean execute) {
 		flushParentValue();
+		publishState();
 		if (execute) {
 			execReparent();
 		}
@@ -503,12 +593,100 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	public void execReparent() {
 		getShellNodeGeometryDelegate().reparent(getDesiredParent());
+		// we don't know where the display puts us in our new parent.
+		this.executedPosition = null;
 	}
 
 	private void flushParentValue() {
 		this.parent = (AbstractShellNodeParent) getDesiredParent();
 	}
 
+	/**
+	 * ************************************ Defer the execution of move and
+	 * resize operations by this node's {@link ShellNodeGeometryDelegate}. While
+	 * deferred, the node's state and events are still updated immediately but
+	 * the delegate is only called once, with the latest geometry, when the
+	 * deferral is lifted. This is intended for nodes that are not visible on
+	 * screen, like a node that is fully covered by its siblings.
+	 *
+	 * @param geometryDeferred
+	 *            True to defer geometry execution, false to execute any
+	 *            pending geometry change and stop deferring.
+	 *            **************************************
+	 */
+	public void setGeometryDeferred(final boolean geometryDeferred) {
+		this.geometryDeferred = geometryDeferred;
+		if (!geometryDeferred) {
+			flushDeferredGeometry();
+		}
+	}
+
+	public boolean isGeometryDeferred() {
+		return this.geometryDeferred;
+	}
+
+	/**
+	 * Make sure any pending move or resize is executed when the
+	 * {@link DisplayBatch} that is open around the change is closed, so the
+	 * delegate call is part of the batch. Without a batch it's executed once
+	 * the shell executor is done with the task that is currently running, and
+	 * with any task that was queued before that. Multiple changes made in the
+	 * meantime end up in the same delegate call.
+	 */
+	private void scheduleGeometryFlush() {
+		if (this.geometryDeferred || this.geometryFlushScheduled) {
+			return;
+		}
+		this.geometryFlushScheduled = true;
+		if (!DisplayBatch.addCloseTask(this.geometryFlush)) {
+			this.shellExecutor.submit(this.geometryFlush);
+		}
+	}
+
+	/**
+	 * ************************************ Execute any move or resize that is
+	 * still pending, merged into a single call to this node's
+	 * {@link ShellNodeGeometryDelegate}. This is done automatically when the
+	 * enclosing {@link DisplayBatch} is closed or at the end of each shell
+	 * tick, unless geometry execution is deferred. A position or
+	 * size that the delegate already has is not executed again. This call
+	 * does not affect the node's state. **************************************
+	 */
+	public void flushDeferredGeometry() {
+		final Coordinate position = getPositionImpl();
+		final Size size = getSizeImpl();
+		final boolean move = this.pendingMove && !isExecuted(position);
+		final boolean resize = this.pendingResize && !isExecuted(size);
+		this.pendingMove = false;
+		this.pendingResize = false;
+
+		if (move && resize) {
+			getShellNodeGeometryDelegate().moveResize(	position,
+														size);
+		} else if (move) {
+			getShellNodeGeometryDelegate().move(position);
+		} else if (resize) {
+			getShellNodeGeometryDelegate().resize(size);
+		}
+		if (move) {
+			this.executedPosition = position;
+		}
+		if (resize) {
+			this.executedSize = size;
+		}
+	}
+
+	private boolean isExecuted(final Coordinate position) {
+		final Coordinate executed = this.executedPosition;
+		return (executed != null) && (executed.getX() == position.getX()) && (executed.getY() == position.getY());
+	}
+
+	private boolean isExecuted(final Size size) {
+		final Size executed = this.executedSize;
+		return (executed != null) && (executed.getWidth() == size.getWidth())
+				&& (executed.getHeight() == size.getHeight());
+	}
+
 	@Override
 	public Void cancelPendingMoveImpl() {
 		setPositionImpl(this.position);
@@ -557,7 +735,11 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	protected void doShow(final boolean execute) {
 		this.visible = true;
+		publishState();
 		if (execute) {
+			if (!this.geometryDeferred) {
+				flushDeferredGeometry();
+			}
 			execShow();
 		}
 		final ShellNodeShowedEvent geoEvent = new ShellNodeShowedEvent(	this,
@@ -593,6 +775,7 @@ public abstract class AbstractShellNode extends AbstractAsyncShellNode {
 	 */
 	protected void doHide(final boolean execute) {
 		this.visible = false;
+		publishState();
 		if (execute) {
 			execHide();
 		}
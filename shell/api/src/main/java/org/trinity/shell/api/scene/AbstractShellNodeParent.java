@@ -31,6 +31,7 @@ import javax.annotation.Nullable;
 import org.trinity.foundation.api.shared.AsyncListenable;
 import org.trinity.foundation.api.shared.Coordinate;
 import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.Size;
 import org.trinity.shell.api.bindingkey.ShellExecutor;
 import org.trinity.shell.api.bindingkey.ShellRootNode;
 import org.trinity.shell.api.bindingkey.ShellScene;
@@ -38,8 +39,10 @@ import org.trinity.shell.api.scene.event.ShellNodeChildAddedEvent;
 import org.trinity.shell.api.scene.event.ShellNodeChildLeftEvent;
 import org.trinity.shell.api.scene.event.ShellNodeEvent;
 import org.trinity.shell.api.scene.manager.ShellLayoutManager;
+import org.trinity.shell.api.scene.manager.ShellSceneLayout;
 
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
@@ -51,6 +54,11 @@ public abstract class AbstractShellNodeParent extends AbstractAsyncShellNodePare
 
 	private final LinkedList<AbstractShellNode> children = new LinkedList<>();
 	private Optional<ShellLayoutManager> optionalLayoutManager = Optional.absent();
+	private boolean layoutSuspended;
+	private Optional<ShellSceneLayout> optionalSceneLayout = Optional.absent();
+	private boolean sceneLayoutPending;
+	private boolean sceneLayoutRequested;
+	private final ListeningExecutorService shellExecutor;
 
 	protected AbstractShellNodeParent(	@Nullable @ShellRootNode final ShellNodeParent shellRootNode,
 										@Nonnull @ShellScene final AsyncListenable shellScene,
@@ -58,6 +66,7 @@ public abstract class AbstractShellNodeParent extends AbstractAsyncShellNodePare
 		super(	shellRootNode,
 				shellScene,
 				shellExecutor);
+		this.shellExecutor = shellExecutor;
 	}
 
 	/**
@@ -102,15 +111,32 @@ public abstract class AbstractShellNodeParent extends AbstractAsyncShellNodePare
 
 	@Override
 	protected void doMoveResize(final boolean execute) {
+		final Size oldSize = getSizeImpl();
 		super.doMoveResize(execute);
 		updateChildrenPosition();
-		layout();
+		layoutIfResized(oldSize);
 	}
 
 	@Override
 	protected void doResize(final boolean execute) {
+		final Size oldSize = getSizeImpl();
 		super.doResize(execute);
-		layout();
+		layoutIfResized(oldSize);
+	}
+
+	/**
+	 * Layout the children, unless the size of this node is the same as the
+	 * given old size. Moving a node does not change the relative geometry of
+	 * its children, so there is no need to lay them out again.
+	 *
+	 * @param oldSize
+	 *            the size of this node before it was changed.
+	 */
+	private void layoutIfResized(final Size oldSize) {
+		final Size size = getSizeImpl();
+		if ((size.getWidth() != oldSize.getWidth()) || (size.getHeight() != oldSize.getHeight())) {
+			layoutImpl();
+		}
 	}
 
 	protected void handleChildReparent(@Nonnull final ShellNode child) {
@@ -118,6 +144,7 @@ public abstract class AbstractShellNodeParent extends AbstractAsyncShellNodePare
 
 		final ShellNodeEvent shellNodeEvent;
 		if (this.children.remove(child)) {
+			((AbstractShellNode) child).updateStackIndex(-1);
 			shellNodeEvent = new ShellNodeChildLeftEvent(	this,
 															toGeoTransformationImpl());
 		} else {
@@ -125,6 +152,7 @@ public abstract class AbstractShellNodeParent extends AbstractAsyncShellNodePare
 			shellNodeEvent = new ShellNodeChildAddedEvent(	this,
 															toGeoTransformationImpl());
 		}
+		updateChildrenStackIndex();
 		post(shellNodeEvent);
 	}
 
@@ -138,21 +166,93 @@ public abstract class AbstractShellNodeParent extends AbstractAsyncShellNodePare
 		} else {
 			this.children.addFirst((AbstractShellNode) child);
 		}
+		updateChildrenStackIndex();
 		// TODO fire a specific event?
 	}
 
+	/**
+	 * Let each child know its position in the stacking order so it can be
+	 * published in its {@link ShellNodeState}. Only children whose index
+	 * actually changed publish a new state.
+	 */
+	private void updateChildrenStackIndex() {
+		int stackIndex = 0;
+		for (final AbstractShellNode child : this.children) {
+			child.updateStackIndex(stackIndex++);
+		}
+	}
+
+	/**
+	 * Suspend or resume the layout of this node's children. While suspended,
+	 * {@link #layoutImpl()} has no effect. This is used when the layout of the
+	 * children is computed and committed by someone else, so moving or
+	 * resizing this node doesn't redo that work.
+	 *
+	 * @param layoutSuspended
+	 *            True to suspend, false to resume.
+	 */
+	public void setLayoutSuspended(final boolean layoutSuspended) {
+		this.layoutSuspended = layoutSuspended;
+	}
+
+	/**
+	 * Layout this node and its nested containers with the given
+	 * {@link ShellSceneLayout} instead of with this node's
+	 * {@link ShellLayoutManager} directly. The layout is then computed off the
+	 * shell thread and committed afterwards.
+	 *
+	 * @param sceneLayout
+	 *            A {@link ShellSceneLayout}, or null to layout synchronously
+	 *            with the {@link ShellLayoutManager} again.
+	 */
+	public void setSceneLayout(@Nullable final ShellSceneLayout sceneLayout) {
+		this.optionalSceneLayout = Optional.fromNullable(sceneLayout);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p/>
 	 * This call has no effect if no {@link ShellLayoutManager} is set for this
-	 * node.
+	 * node or if layout is suspended. If a {@link ShellSceneLayout} is set, the
+	 * layout is done by it and this call returns before the layout is
+	 * committed.
 	 */
 	@Override
 	public Void layoutImpl() {
+		if (this.layoutSuspended) {
+			return null;
+		}
 		final Optional<ShellLayoutManager> optionalLayoutManager = getLayoutManagerImpl();
-		if (optionalLayoutManager.isPresent()) {
+		if (!optionalLayoutManager.isPresent()) {
+			return null;
+		}
+		if (this.optionalSceneLayout.isPresent()) {
+			layoutScene(this.optionalSceneLayout.get());
+		} else {
 			optionalLayoutManager.get().layout(this);
 		}
 		return null;
 	}
+
+	private void layoutScene(final ShellSceneLayout sceneLayout) {
+		// a layout that is requested while an other one is being computed
+		// is done once that one is committed, so it sees the latest state.
+		if (this.sceneLayoutPending) {
+			this.sceneLayoutRequested = true;
+			return;
+		}
+		this.sceneLayoutPending = true;
+		final ListenableFuture<Void> layoutFuture = sceneLayout.layout(this);
+		layoutFuture.addListener(	new Runnable() {
+										@Override
+										public void run() {
+											AbstractShellNodeParent.this.sceneLayoutPending = false;
+											if (AbstractShellNodeParent.this.sceneLayoutRequested) {
+												AbstractShellNodeParent.this.sceneLayoutRequested = false;
+												layoutImpl();
+											}
+										}
+									},
+									this.shellExecutor);
+	}
 }
@@ -411,4 +411,15 @@ public interface ShellNode extends DisplayArea, AsyncListenable {
 	 * @return A future {@link ShellNodeTransformation}.
 	 */
 	ListenableFuture<ShellNodeTransformation> toGeoTransformation();
+
+	/***************************************
+	 * The most recently committed state of this node. Unlike the other getters
+	 * of this node, this method does not go through the shell executor. It
+	 * can be called from any thread, never blocks and always returns a
+	 * consistent state.
+	 *
+	 * @return a {@link ShellNodeState}.
+	 ***************************************
+	 */
+	ShellNodeState snapshot();
 }
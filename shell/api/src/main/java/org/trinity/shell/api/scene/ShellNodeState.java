@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.foundation.api.shared.Size;
+
+/***************************************
+ * The committed state of a {@link ShellNode} at a point in time. A new state is
+ * published every time the node commits a change, so all values of a state are
+ * consistent with each other. A state can be read from any thread.
+ *
+ * @see ShellNode#snapshot()
+ ***************************************
+ */
+@Immutable
+public class ShellNodeState {
+
+	private final Coordinate position;
+	private final Size size;
+	private final boolean visible;
+	private final boolean destroyed;
+	@Nullable
+	private final ShellNodeParent parent;
+	private final int stackIndex;
+	private final long version;
+
+	public ShellNodeState(	final Coordinate position,
+							final Size size,
+							final boolean visible,
+							final boolean destroyed,
+							@Nullable final ShellNodeParent parent,
+							final int stackIndex,
+							final long version) {
+		this.position = position;
+		this.size = size;
+		this.visible = visible;
+		this.destroyed = destroyed;
+		this.parent = parent;
+		this.stackIndex = stackIndex;
+		this.version = version;
+	}
+
+	/***************************************
+	 * The shell position of the node, relative to its parent.
+	 *
+	 * @return a {@link Coordinate}.
+	 * @see ShellNode#getPosition()
+	 ***************************************
+	 */
+	public Coordinate getPosition() {
+		return this.position;
+	}
+
+	/***************************************
+	 * The shell size of the node.
+	 *
+	 * @return a {@link Size}.
+	 * @see ShellNode#getSize()
+	 ***************************************
+	 */
+	public Size getSize() {
+		return this.size;
+	}
+
+	/***************************************
+	 * The shell geometry of the node.
+	 *
+	 * @return a {@link Rectangle}.
+	 * @see ShellNode#getGeometry()
+	 ***************************************
+	 */
+	public Rectangle getGeometry() {
+		return new ImmutableRectangle(	this.position,
+										this.size);
+	}
+
+	/***************************************
+	 * Indicates if the node itself is in the visible state. Unlike
+	 * {@link ShellNode#isVisible()}, the visibility of the node's parents is
+	 * not taken into account.
+	 *
+	 * @return true if the node was shown, false if it was hidden.
+	 ***************************************
+	 */
+	public boolean isVisible() {
+		return this.visible;
+	}
+
+	/***************************************
+	 * Indicates if the node was destroyed.
+	 *
+	 * @return true if destroyed, false if not.
+	 * @see ShellNode#isDestroyed()
+	 ***************************************
+	 */
+	public boolean isDestroyed() {
+		return this.destroyed;
+	}
+
+	/***************************************
+	 * The parent of the node.
+	 *
+	 * @return a {@link ShellNodeParent}, null if the node has no parent.
+	 ***************************************
+	 */
+	@Nullable
+	public ShellNodeParent getParent() {
+		return this.parent;
+	}
+
+	/***************************************
+	 * The index of the node in the stacking order of its parent's children.
+	 * Index 0 is the bottom-most child.
+	 *
+	 * @return an index, or -1 if the node is not a child of its parent (yet).
+	 ***************************************
+	 */
+	public int getStackIndex() {
+		return this.stackIndex;
+	}
+
+	/***************************************
+	 * The version of this state. Every state that is published by a node has a
+	 * higher version than the previous one, so two states of the same node can
+	 * be compared to find out which one is the most recent.
+	 *
+	 * @return a version number.
+	 ***************************************
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+}
@@ -21,44 +21,108 @@ package org.trinity.shell.api.scene;
 
 import javax.annotation.concurrent.Immutable;
 
+import org.trinity.foundation.api.shared.Coordinate;
 import org.trinity.foundation.api.shared.ExecutionContext;
 import org.trinity.foundation.api.shared.ImmutableRectangle;
 import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.foundation.api.shared.Size;
 import org.trinity.shell.api.bindingkey.ShellExecutor;
 
 /***************************************
  * A geometric transformation. Current geometric property names end in 0, new
  * ones in 1. A Delta value is the subtraction of the new value with the current
  * value.
+ * <p>
+ * A transformation only holds on to the immutable position and size values it
+ * was created with. The {@link Rectangle}s it exposes are created when they
+ * are first asked for, so creating a transformation for an event that nobody
+ * inspects is cheap.
  ***************************************
  */
 @ExecutionContext(ShellExecutor.class)
 @Immutable
 public class ShellNodeTransformation {
-	private final Rectangle rect0;
-	private final Rectangle rect1;
-	private final Rectangle deltaRect;
+	private final Coordinate position0;
+	private final Size size0;
+	private final Coordinate position1;
+	private final Size size1;
 	private final ShellNodeParent parent0;
 	private final ShellNodeParent parent1;
 
+	// Lazily created. Racing threads can only ever create equal immutable
+	// values so these don't need to be synchronized.
+	private Rectangle rect0;
+	private Rectangle rect1;
+	private Rectangle deltaRect;
+
 	public ShellNodeTransformation(	final Rectangle rect0,
 									final ShellNodeParent parent0,
 									final Rectangle rect1,
 									final ShellNodeParent parent1) {
+		this(	rect0.getPosition(),
+				rect0.getSize(),
+				parent0,
+				rect1.getPosition(),
+				rect1.getSize(),
+				parent1);
 		this.rect0 = rect0;
 		this.rect1 = rect1;
+	}
 
+	public ShellNodeTransformation(	final Coordinate position0,
+									final Size size0,
+									final ShellNodeParent parent0,
+									final Coordinate position1,
+									final Size size1,
+									final ShellNodeParent parent1) {
+		this.position0 = position0;
+		this.size0 = size0;
 		this.parent0 = parent0;
+		this.position1 = position1;
+		this.size1 = size1;
 		this.parent1 = parent1;
+	}
 
-		final int deltaX = rect1.getPosition().getX() - rect0.getPosition().getX();
-		final int deltaY = rect1.getPosition().getY() - rect0.getPosition().getY();
-		final int deltaWidth = rect1.getSize().getWidth() - rect0.getSize().getWidth();
-		final int deltaHeight = rect1.getSize().getWidth() - rect0.getSize().getHeight();
-		this.deltaRect = new ImmutableRectangle(deltaX,
-												deltaY,
-												deltaWidth,
-												deltaHeight);
+	/***************************************
+	 * The current position of the node. Short for
+	 * {@code getRect0().getPosition()}.
+	 *
+	 * @return a {@link Coordinate}
+	 ***************************************
+	 */
+	public Coordinate getPosition0() {
+		return this.position0;
+	}
+
+	/***************************************
+	 * The current size of the node. Short for {@code getRect0().getSize()}.
+	 *
+	 * @return a {@link Size}
+	 ***************************************
+	 */
+	public Size getSize0() {
+		return this.size0;
+	}
+
+	/***************************************
+	 * The desired position of the node. Short for
+	 * {@code getRect1().getPosition()}.
+	 *
+	 * @return a {@link Coordinate}
+	 ***************************************
+	 */
+	public Coordinate getPosition1() {
+		return this.position1;
+	}
+
+	/***************************************
+	 * The desired size of the node. Short for {@code getRect1().getSize()}.
+	 *
+	 * @return a {@link Size}
+	 ***************************************
+	 */
+	public Size getSize1() {
+		return this.size1;
 	}
 
 	/***************************************
@@ -68,7 +132,13 @@ public class ShellNodeTransformation {
 	 ***************************************
 	 */
 	public Rectangle getRect0() {
-		return this.rect0;
+		Rectangle rect0 = this.rect0;
+		if (rect0 == null) {
+			rect0 = new ImmutableRectangle(	this.position0,
+											this.size0);
+			this.rect0 = rect0;
+		}
+		return rect0;
 	}
 
 	/***************************************
@@ -80,7 +150,19 @@ public class ShellNodeTransformation {
 	 ***************************************
 	 */
 	public Rectangle getDeltaRect() {
-		return this.deltaRect;
+		Rectangle deltaRect = this.deltaRect;
+		if (deltaRect == null) {
+			final int deltaX = this.position1.getX() - this.position0.getX();
+			final int deltaY = this.position1.getY() - this.position0.getY();
+			final int deltaWidth = this.size1.getWidth() - this.size0.getWidth();
+			final int deltaHeight = this.size1.getHeight() - this.size0.getHeight();
+			deltaRect = new ImmutableRectangle(	deltaX,
+												deltaY,
+												deltaWidth,
+												deltaHeight);
+			this.deltaRect = deltaRect;
+		}
+		return deltaRect;
 	}
 
 	/***************************************
@@ -90,7 +172,13 @@ public class ShellNodeTransformation {
 	 ***************************************
 	 */
 	public Rectangle getRect1() {
-		return this.rect1;
+		Rectangle rect1 = this.rect1;
+		if (rect1 == null) {
+			rect1 = new ImmutableRectangle(	this.position1,
+											this.size1);
+			this.rect1 = rect1;
+		}
+		return rect1;
 	}
 
 	/***************************************
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene.index;
+
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNode;
+
+/***************************************
+ * Tracks which sibling {@link ShellNode}s are fully covered by visible
+ * siblings stacked above them. The move and resize operations of an occluded
+ * node are deferred, see {@link AbstractShellNode#setGeometryDeferred(boolean)}
+ * , until it becomes uncovered again.
+ *
+ ***************************************
+ */
+@ExecutionContext(ShellExecutor.class)
+public interface ShellOcclusionTracker {
+
+	/***************************************
+	 * Start tracking a child {@link ShellNode}.
+	 *
+	 * @param child
+	 *            A child {@link ShellNode}.
+	 ***************************************
+	 */
+	void addChildNode(ShellNode child);
+
+	/***************************************
+	 * Stop tracking a child {@link ShellNode}. Any deferred geometry of the
+	 * child is executed.
+	 *
+	 * @param child
+	 *            A child {@link ShellNode}.
+	 ***************************************
+	 */
+	void removeChild(ShellNode child);
+
+	/***************************************
+	 * Indicates if a tracked child is fully covered by its siblings.
+	 *
+	 * @param child
+	 *            A child {@link ShellNode}.
+	 * @return True if the child is occluded, false if it is (partially)
+	 *         uncovered or not tracked.
+	 ***************************************
+	 */
+	boolean isOccluded(ShellNode child);
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene.index;
+
+import java.util.List;
+
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+
+import com.google.common.base.Optional;
+
+/***************************************
+ * Indexes the geometry of sibling {@link ShellNode}s so hit-testing and
+ * visibility queries don't need to walk the scene. All coordinates are
+ * relative to the common {@link ShellNodeParent} of the indexed nodes.
+ * <p>
+ * A registered child is tracked through the geometry, stacking and visibility
+ * events it posts, until it is destroyed or moved to another parent. Hidden
+ * children are kept out of query results until they are shown again.
+ *
+ ***************************************
+ */
+@ExecutionContext(ShellExecutor.class)
+public interface ShellSpatialIndex {
+
+	/***************************************
+	 * Start tracking a child {@link ShellNode}. The child is considered to be
+	 * on top of all previously added children.
+	 *
+	 * @param child
+	 *            A child {@link ShellNode}.
+	 ***************************************
+	 */
+	void addChildNode(ShellNode child);
+
+	/***************************************
+	 * Stop tracking a previously added child {@link ShellNode}.
+	 *
+	 * @param child
+	 *            A child {@link ShellNode}.
+	 ***************************************
+	 */
+	void removeChild(ShellNode child);
+
+	/***************************************
+	 * All visible children that contain the given point.
+	 *
+	 * @param point
+	 *            A {@link Coordinate} relative to the parent.
+	 * @return A {@link List} of child {@link ShellNode}s, ordered from top to
+	 *         bottom.
+	 ***************************************
+	 */
+	List<ShellNode> getNodesAt(Coordinate point);
+
+	/***************************************
+	 * All visible children that intersect the given rectangle.
+	 *
+	 * @param area
+	 *            A {@link Rectangle} relative to the parent.
+	 * @return A {@link List} of child {@link ShellNode}s, ordered from top to
+	 *         bottom.
+	 ***************************************
+	 */
+	List<ShellNode> getNodesIntersecting(Rectangle area);
+
+	/***************************************
+	 * The visible child that is stacked on top of all other visible children
+	 * containing the given point.
+	 *
+	 * @param point
+	 *            A {@link Coordinate} relative to the parent.
+	 * @return An optional {@link ShellNode}, absent if no child contains the
+	 *         given point.
+	 ***************************************
+	 */
+	Optional<ShellNode> getTopmostNodeAt(Coordinate point);
+
+	/***************************************
+	 * The number of tracked children, visible or not.
+	 *
+	 * @return The number of children.
+	 ***************************************
+	 */
+	int size();
+}
@@ -0,0 +1,5 @@
+/**
+ * Spatial indexes that answer geometric queries over the children of a
+ * {@link org.trinity.shell.api.scene.ShellNodeParent}.
+ */
+package org.trinity.shell.api.scene.index;
@@ -19,6 +19,8 @@
  ******************************************************************************/
 package org.trinity.shell.api.scene.manager;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -29,8 +31,12 @@ import java.util.Map.Entry;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import org.trinity.foundation.api.display.DisplayBatch;
 import org.trinity.foundation.api.display.event.ShowRequest;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.scene.AbstractShellNode;
 import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
 import org.trinity.shell.api.scene.event.ShellNodeHideRequestEvent;
 import org.trinity.shell.api.scene.event.ShellNodeLowerRequestEvent;
 import org.trinity.shell.api.scene.event.ShellNodeMoveRequestEvent;
@@ -122,6 +128,55 @@ public abstract class AbstractShellLayoutManager implements ShellLayoutManager {
 		return this.childrenWithLayoutProperty.get(child);
 	}
 
+	@Override
+	public void layout(final ShellNodeParent parent) {
+		if (parent == null) {
+			return;
+		}
+		commitLayout(computeLayout(snapshot(parent)));
+	}
+
+	@Override
+	public ShellLayoutSnapshot snapshot(@Nonnull final ShellNodeParent parent) {
+		checkArgument(parent instanceof AbstractShellNode);
+
+		final List<ShellLayoutSnapshot.Child> children = new ArrayList<ShellLayoutSnapshot.Child>(this.childrenWithLayoutProperty.size());
+		for (final Entry<ShellNode, ShellLayoutProperty> entry : this.childrenWithLayoutProperty.entrySet()) {
+			final ShellNode child = entry.getKey();
+			checkArgument(child instanceof AbstractShellNode);
+			children.add(new ShellLayoutSnapshot.Child(	child,
+														entry.getValue(),
+														((AbstractShellNode) child).getDesiredSize()));
+		}
+		return new ShellLayoutSnapshot(	((AbstractShellNode) parent).getSizeImpl(),
+										children);
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 * <p>
+	 * Each child in the plan is moved and resized, in plan order. The children
+	 * are updated directly, so this must be called by the shell executor. The
+	 * resulting display requests are sent in a single {@link DisplayBatch}.
+	 ***************************************
+	 */
+	@Override
+	public void commitLayout(@Nonnull final ShellLayoutPlan plan) {
+		final DisplayBatch batch = DisplayBatch.open();
+		try {
+			for (final Entry<ShellNode, Rectangle> entry : plan.getChildGeometries().entrySet()) {
+				final AbstractShellNode child = (AbstractShellNode) entry.getKey();
+				final Rectangle geometry = entry.getValue();
+				child.setSizeImpl(	geometry.getSize().getWidth(),
+									geometry.getSize().getHeight());
+				child.setPositionImpl(geometry.getPosition());
+				child.doMoveResizeImpl();
+			}
+		} finally {
+			batch.close();
+		}
+	}
+
 	/***************************************
 	 * Called when a child {@link ShellNode} requests to be resized.
 	 *
@@ -105,11 +105,48 @@ public interface ShellLayoutManager {
 
 	/***************************************
 	 * Layout all child {@link ShellNode}s. This method should only be called by
-	 * a {@link ShellNodeParent}.
+	 * a {@link ShellNodeParent}. It is the equivalent of committing the plan
+	 * computed from a snapshot of the given parent.
 	 *
 	 * @param containerNode
 	 *            The parent {@link ShellNode}.
+	 * @see #snapshot(ShellNodeParent)
+	 * @see #computeLayout(ShellLayoutSnapshot)
+	 * @see #commitLayout(ShellLayoutPlan)
 	 ***************************************
 	 */
 	void layout(ShellNodeParent parent);
+
+	/***************************************
+	 * Capture the state needed to layout the children of the given parent.
+	 * This method must be called by the shell executor.
+	 *
+	 * @param parent
+	 *            The parent {@link ShellNode}.
+	 * @return an immutable {@link ShellLayoutSnapshot}.
+	 ***************************************
+	 */
+	ShellLayoutSnapshot snapshot(ShellNodeParent parent);
+
+	/***************************************
+	 * Calculate the geometry of the children in the given snapshot. This
+	 * method has no side effects and does not touch any {@link ShellNode}
+	 * state, so it can be called from any thread.
+	 *
+	 * @param snapshot
+	 *            a {@link ShellLayoutSnapshot}.
+	 * @return the resulting {@link ShellLayoutPlan}.
+	 ***************************************
+	 */
+	ShellLayoutPlan computeLayout(ShellLayoutSnapshot snapshot);
+
+	/***************************************
+	 * Apply a previously computed plan to the children. This method must be
+	 * called by the shell executor.
+	 *
+	 * @param plan
+	 *            a {@link ShellLayoutPlan}.
+	 ***************************************
+	 */
+	void commitLayout(ShellLayoutPlan plan);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene.manager;
+
+import org.trinity.shell.api.scene.ShellNode;
+
+/***************************************
+ * Tiles child {@link ShellNode}s by recursively splitting the available space
+ * in two, alternating between side by side and stacked depending on the shape
+ * of the space being split. A new child splits the space of an existing child
+ * in the least populated half of the tree, so the tree stays balanced. Adding,
+ * removing or resizing a child only recalculates the part of the tree it
+ * belongs to, and only children whose geometry actually changed are moved or
+ * resized.
+ * <p>
+ * Children are configured with a {@link ShellLayoutPropertyLine}. The weight of
+ * a new child, relative to the weight of the child it splits, determines the
+ * share of the space it receives. The margins are subtracted from the space a
+ * child receives.
+ ***************************************
+ */
+public interface ShellLayoutManagerBsp extends ShellLayoutManager {
+
+	@Override
+	public ShellLayoutPropertyLine getLayoutProperty(ShellNode child);
+}
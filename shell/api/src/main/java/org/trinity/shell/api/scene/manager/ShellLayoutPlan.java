@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene.manager;
+
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.scene.ShellNode;
+
+import com.google.common.collect.ImmutableMap;
+
+/***************************************
+ * The outcome of a layout calculation: the new geometry of each child
+ * {@link ShellNode}, relative to its parent. A plan is applied with
+ * {@link ShellLayoutManager#commitLayout(ShellLayoutPlan)}.
+ *
+ ***************************************
+ */
+@Immutable
+public class ShellLayoutPlan {
+
+	/**
+	 * A plan that doesn't change any child.
+	 */
+	public static final ShellLayoutPlan EMPTY = new ShellLayoutPlan(ImmutableMap.<ShellNode, Rectangle> of());
+
+	private final ImmutableMap<ShellNode, Rectangle> childGeometries;
+
+	/***************************************
+	 * Create a new plan.
+	 *
+	 * @param childGeometries
+	 *            The new geometry of each child, iteration order is kept.
+	 ***************************************
+	 */
+	public ShellLayoutPlan(@Nonnull final Map<ShellNode, ? extends Rectangle> childGeometries) {
+		this.childGeometries = ImmutableMap.<ShellNode, Rectangle> copyOf(childGeometries);
+	}
+
+	/***************************************
+	 * The new geometry of each child.
+	 *
+	 * @return an immutable {@link Map} of child {@link ShellNode} to its
+	 *         geometry.
+	 ***************************************
+	 */
+	public Map<ShellNode, Rectangle> getChildGeometries() {
+		return this.childGeometries;
+	}
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene.manager;
+
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+
+import com.google.common.collect.ImmutableList;
+
+/***************************************
+ * An immutable copy of everything a {@link ShellLayoutManager} needs to
+ * calculate the layout of a {@link ShellNodeParent}. A snapshot is taken on the
+ * shell executor but can be used to compute a {@link ShellLayoutPlan} on any
+ * thread.
+ *
+ ***************************************
+ */
+@Immutable
+public class ShellLayoutSnapshot {
+
+	/***************************************
+	 * The state of a single child at the time the snapshot was taken.
+	 ***************************************
+	 */
+	@Immutable
+	public static class Child {
+
+		private final ShellNode node;
+		private final ShellLayoutProperty layoutProperty;
+		private final Size desiredSize;
+
+		public Child(	@Nonnull final ShellNode node,
+						@Nonnull final ShellLayoutProperty layoutProperty,
+						@Nonnull final Size desiredSize) {
+			this.node = node;
+			this.layoutProperty = layoutProperty;
+			this.desiredSize = desiredSize;
+		}
+
+		/**
+		 * The child node. Only use it as a key, its state should not be read
+		 * outside the shell executor.
+		 */
+		public ShellNode getNode() {
+			return this.node;
+		}
+
+		public ShellLayoutProperty getLayoutProperty() {
+			return this.layoutProperty;
+		}
+
+		/**
+		 * The size the child would like to have, as set by
+		 * {@link ShellNode#setSize(Size)}.
+		 */
+		public Size getDesiredSize() {
+			return this.desiredSize;
+		}
+	}
+
+	private final Size containerSize;
+	private final ImmutableList<Child> children;
+
+	public ShellLayoutSnapshot(	@Nonnull final Size containerSize,
+								@Nonnull final List<Child> children) {
+		this.containerSize = containerSize;
+		this.children = ImmutableList.copyOf(children);
+	}
+
+	/***************************************
+	 * The size of the {@link ShellNodeParent} that is being layed out.
+	 *
+	 * @return a {@link Size}.
+	 ***************************************
+	 */
+	public Size getContainerSize() {
+		return this.containerSize;
+	}
+
+	/***************************************
+	 * The managed children, in layout order.
+	 *
+	 * @return an immutable {@link List} of {@link Child}ren.
+	 ***************************************
+	 */
+	public List<Child> getChildren() {
+		return this.children;
+	}
+
+	/***************************************
+	 * A copy of this snapshot for a container of a different size. Used when
+	 * the size of a nested container is itself the result of a layout that has
+	 * not been committed yet.
+	 *
+	 * @param containerSize
+	 *            The new container {@link Size}.
+	 * @return a new {@code ShellLayoutSnapshot}.
+	 ***************************************
+	 */
+	public ShellLayoutSnapshot withContainerSize(@Nonnull final Size containerSize) {
+		return new ShellLayoutSnapshot(	containerSize,
+										this.children);
+	}
+}
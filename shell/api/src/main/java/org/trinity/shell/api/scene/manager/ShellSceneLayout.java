@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene.manager;
+
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.ShellNodeParent;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/***************************************
+ * Lays out a {@link ShellNodeParent} together with all nested
+ * {@code ShellNodeParent}s that are managed by a {@link ShellLayoutManager}.
+ * The layout of independent subtrees is computed in parallel from a
+ * {@link ShellLayoutSnapshot} of each container. The resulting
+ * {@link ShellLayoutPlan}s are committed on the shell executor, from the top
+ * of the tree down.
+ *
+ ***************************************
+ */
+@ExecutionContext(ShellExecutor.class)
+public interface ShellSceneLayout {
+
+	/***************************************
+	 * Layout the given parent and its nested containers.
+	 *
+	 * @param parent
+	 *            The top {@link ShellNodeParent} of the tree to layout.
+	 * @return A future that is done once all plans are committed.
+	 ***************************************
+	 */
+	ListenableFuture<Void> layout(ShellNodeParent parent);
+}
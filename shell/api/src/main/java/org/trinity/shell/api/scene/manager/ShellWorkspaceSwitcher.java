@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.api.scene.manager;
+
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.ShellNode;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/***************************************
+ * Switches between workspaces, nodes that group the windows of a virtual
+ * desktop. Only one workspace is visible at a time.
+ *
+ ***************************************
+ */
+@ExecutionContext(ShellExecutor.class)
+public interface ShellWorkspaceSwitcher {
+
+	/***************************************
+	 * Hide the current workspace and show the given workspace in its place.
+	 * The windows of the new workspace are moved to their current shell
+	 * geometry before they are shown. All hide and show operations are
+	 * executed in a single {@link DisplayBatch}.
+	 *
+	 * @param from
+	 *            the visible workspace.
+	 * @param to
+	 *            the workspace to show.
+	 * @return A future that is done once the switch is made.
+	 ***************************************
+	 */
+	ListenableFuture<Void> switchWorkspace(	ShellNode from,
+											ShellNode to);
+}
@@ -21,6 +21,7 @@ package org.trinity.shell.api.surface;
 
 import org.trinity.foundation.api.display.DisplaySurface;
 import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.Rectangle;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import org.trinity.shell.api.bindingkey.ShellExecutor;
@@ -36,6 +37,8 @@ public interface ShellSurfaceFactory {
 	/***************************************
 	 * Create a new shell surface that is backed by the given display surface.
 	 * The new shell surface will have the root shell surface as its parent.
+	 * The geometry of the display surface is queried asynchronously, the
+	 * returned future completes once the shell surface is fully initialized.
 	 *
 	 * @param displaySurface
 	 *            a {@link DisplaySurface}
@@ -43,4 +46,20 @@ public interface ShellSurfaceFactory {
 	 ***************************************
 	 */
 	ListenableFuture<ShellSurface> createShellClientSurface(@Nonnull DisplaySurface displaySurface);
+
+	/***************************************
+	 * Create a new shell surface that is backed by the given display surface,
+	 * using an already known geometry. This avoids a round trip to the
+	 * display server.
+	 *
+	 * @param displaySurface
+	 *            a {@link DisplaySurface}
+	 * @param geometry
+	 *            the current geometry of the {@code DisplaySurface}.
+	 * @return a new future {@link ShellSurface}.
+	 * @see #createShellClientSurface(DisplaySurface)
+	 ***************************************
+	 */
+	ListenableFuture<ShellSurface> createShellClientSurface(@Nonnull DisplaySurface displaySurface,
+															@Nonnull Rectangle geometry);
 }
\ No newline at end of file
@@ -60,6 +60,7 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 public class ShellVirtualSurface extends AbstractShellNodeParent {
 
 	private final ShellNodeGeometryDelegate shellNodeGeometryDelegate = new ShellVirtualSurfaceExecutor(this);
+	private boolean executingMove;
 
 	@Inject
 	protected ShellVirtualSurface(	@Nonnull @ShellRootNode final ShellNodeParent rootShellNode,
@@ -74,4 +75,39 @@ public class ShellVirtualSurface extends AbstractShellNodeParent {
 	public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
 		return this.shellNodeGeometryDelegate;
 	}
+
+	@Override
+	protected void doMove(final boolean execute) {
+		this.executingMove = execute;
+		try {
+			super.doMove(execute);
+		} finally {
+			this.executingMove = false;
+		}
+	}
+
+	@Override
+	protected void doMoveResize(final boolean execute) {
+		this.executingMove = execute;
+		try {
+			super.doMoveResize(execute);
+		} finally {
+			this.executingMove = false;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * When a move is executed, the children of a virtual surface are moved by
+	 * its {@link ShellVirtualSurfaceExecutor}, as a single batched group
+	 * operation, so there is nothing to do here. A move that is not executed
+	 * still moves the children right away.
+	 */
+	@Override
+	protected void updateChildrenPosition() {
+		if (!this.executingMove) {
+			super.updateChildrenPosition();
+		}
+	}
 }
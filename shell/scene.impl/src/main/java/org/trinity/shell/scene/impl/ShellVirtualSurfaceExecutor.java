@@ -19,17 +19,19 @@
  ******************************************************************************/
 package org.trinity.shell.scene.impl;
 
+import org.trinity.foundation.api.display.DisplayBatch;
 import org.trinity.foundation.api.shared.Coordinate;
 import org.trinity.foundation.api.shared.ExecutionContext;
 import org.trinity.foundation.api.shared.Size;
 import org.trinity.shell.api.bindingkey.ShellExecutor;
 import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.AbstractShellNodeParent;
 import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
 import org.trinity.shell.api.scene.ShellNodeParent;
-import org.trinity.shell.api.scene.ShellNodeTransformation;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
 import java.util.List;
 
 // TODO documentation
@@ -37,6 +39,13 @@ import java.util.List;
 /**
  * A <code>ShellGeoVExecutor</code> executes the actual geometry changes for a
  * {@link ShellVirtualSurface}.
+ * <p>
+ * A virtual surface has no on-screen representation, so every operation is
+ * applied to the non-virtual nodes it contains instead. Nested virtual
+ * surfaces are flattened into a single list of these nodes, and the
+ * operation is applied to all of them inside one {@link DisplayBatch}. This
+ * way moving, showing or hiding a whole group ends up as a single flush on
+ * the display side.
  *
  * @author Erik De Rijcke
  * @since 1.0
@@ -56,36 +65,74 @@ public class ShellVirtualSurfaceExecutor implements ShellNodeGeometryDelegate {
         return this.shellVirtualSurface;
     }
 
+    /**
+     * The non-virtual nodes that are part of this virtual surface, including
+     * the ones inside nested virtual surfaces.
+     *
+     * @return the nodes, ordered from bottom to top.
+     */
+    protected List<AbstractShellNode> getFlattenedChildren() {
+        final List<AbstractShellNode> flattenedChildren = new ArrayList<>();
+        addFlattenedChildren(getShellNode(),
+                flattenedChildren);
+        return flattenedChildren;
+    }
+
+    private static void addFlattenedChildren(@Nonnull final AbstractShellNodeParent parent,
+                                             @Nonnull final List<AbstractShellNode> flattenedChildren) {
+        for (final AbstractShellNode child : parent.getChildrenImpl()) {
+            if (child instanceof ShellVirtualSurface) {
+                addFlattenedChildren((ShellVirtualSurface) child,
+                        flattenedChildren);
+            } else {
+                flattenedChildren.add(child);
+            }
+        }
+    }
+
     @Override
     public void lower() {
-        for (final AbstractShellNode child : getShellNode().getChildrenImpl()) {
-            child.getShellNodeGeometryDelegate().lower();
+        final List<AbstractShellNode> children = getFlattenedChildren();
+        final DisplayBatch batch = DisplayBatch.open();
+        try {
+            // every lowered node ends up at the bottom, so start at the top to
+            // keep the relative stacking order.
+            for (int i = children.size() - 1; i >= 0; i--) {
+                children.get(i).getShellNodeGeometryDelegate().lower();
+            }
+        } finally {
+            batch.close();
         }
     }
 
     @Override
     public void raise() {
-        final List<AbstractShellNode> children = getShellNode().getChildrenImpl();
-        for (final AbstractShellNode child : children) {
-            child.getShellNodeGeometryDelegate().raise();
+        final List<AbstractShellNode> children = getFlattenedChildren();
+        final DisplayBatch batch = DisplayBatch.open();
+        try {
+            // every raised node ends up at the top, so start at the bottom to
+            // keep the relative stacking order.
+            for (final AbstractShellNode child : children) {
+                child.getShellNodeGeometryDelegate().raise();
+            }
+        } finally {
+            batch.close();
         }
     }
 
     @Override
     public void move(@Nonnull final Coordinate position) {
-        final ShellVirtualSurface shellNode = getShellNode();
-        final ShellNodeTransformation shellNodeTransformation = shellNode.toGeoTransformationImpl();
-
-        final Coordinate deltaPosition = shellNodeTransformation.getDeltaRect().getPosition();
-
-        for (final AbstractShellNode child : shellNode.getChildrenImpl()) {
-            final Coordinate oldRelPosition = child.getPositionImpl();
-
-            final Coordinate newRelPosition = oldRelPosition.add(deltaPosition);
-
-            // directly manipulated underlying platform specific geometry of the
-            // child
-            child.getShellNodeGeometryDelegate().move(newRelPosition);
+        final List<AbstractShellNode> children = getFlattenedChildren();
+        final DisplayBatch batch = DisplayBatch.open();
+        try {
+            for (final AbstractShellNode child : children) {
+                // The position of a child is relative to its shell parent.
+                // The child's delegate translates it to an on-screen position
+                // using the already updated position of this surface.
+                child.getShellNodeGeometryDelegate().move(child.getPositionImpl());
+            }
+        } finally {
+            batch.close();
         }
     }
 
@@ -102,46 +149,60 @@ public class ShellVirtualSurfaceExecutor implements ShellNodeGeometryDelegate {
 
     @Override
     public void show() {
-        for (final AbstractShellNode child : getShellNode().getChildrenImpl()) {
-            updateChildVisibility(child,
-                    true);
+        final List<AbstractShellNode> children = getFlattenedChildren();
+        final DisplayBatch batch = DisplayBatch.open();
+        try {
+            // map from top to bottom so nodes that end up covered don't
+            // receive any expose events.
+            for (int i = children.size() - 1; i >= 0; i--) {
+                final AbstractShellNode child = children.get(i);
+                if (child.isVisibleImpl()) {
+                    // make sure the child is mapped with its current geometry
+                    // instead of moving it after it became visible.
+                    child.flushDeferredGeometry();
+                    child.getShellNodeGeometryDelegate().show();
+                }
+            }
+        } finally {
+            batch.close();
         }
     }
 
     @Override
     public void hide() {
-        for (final AbstractShellNode child : getShellNode().getChildrenImpl()) {
-            updateChildVisibility(child,
-                    false);
-        }
-    }
-
-    private void updateChildVisibility(@Nonnull final AbstractShellNode child,
-                                       final boolean parentVisible) {
-        final boolean childVisible = child.isVisibleImpl();
-        // directly update underlying platform specific visibility of
-        // the child
-        if (childVisible & parentVisible) {
-            child.getShellNodeGeometryDelegate().show();
-        } else {
-            child.getShellNodeGeometryDelegate().hide();
+        final List<AbstractShellNode> children = getFlattenedChildren();
+        final DisplayBatch batch = DisplayBatch.open();
+        try {
+            // unmap from bottom to top so no node is uncovered, and exposed,
+            // while the group is being hidden.
+            for (final AbstractShellNode child : children) {
+                child.getShellNodeGeometryDelegate().hide();
+            }
+        } finally {
+            batch.close();
         }
     }
 
     @Override
     public void reparent(@Nonnull final ShellNodeParent parent) {
-        final ShellVirtualSurface shellNode = getShellNode();
-
-        final boolean nodeVisible = shellNode.isVisibleImpl();
-        for (final AbstractShellNode child : shellNode.getChildrenImpl()) {
-            // reparent children to ourself, this will trigger an update of
-            // these children who will search for a compatible
-            // grand-parent for them to be a child of in the underlying
-            // relation.
-            child.getShellNodeGeometryDelegate().reparent(shellNode);
-
-            updateChildVisibility(child,
-                    nodeVisible);
+        final List<AbstractShellNode> children = getFlattenedChildren();
+        final DisplayBatch batch = DisplayBatch.open();
+        try {
+            for (final AbstractShellNode child : children) {
+                // reparent children to their own shell parent, this will
+                // trigger an update of these children who will search for a
+                // compatible grand-parent for them to be a child of in the
+                // underlying relation.
+                final ShellNodeGeometryDelegate childDelegate = child.getShellNodeGeometryDelegate();
+                childDelegate.reparent(child.getParentImpl());
+                if (child.isVisibleImpl()) {
+                    childDelegate.show();
+                } else {
+                    childDelegate.hide();
+                }
+            }
+        } finally {
+            batch.close();
         }
     }
 
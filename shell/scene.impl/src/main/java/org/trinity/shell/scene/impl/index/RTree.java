@@ -0,0 +1,410 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * An R-tree using Guttman's quadratic split. Each value maps to a single
+ * half-open rectangle <code>[minX, maxX) x [minY, maxY)</code>. Inserting,
+ * updating and removing a value as well as searching are logarithmic in the
+ * number of values.
+ *
+ * @param <T>
+ *            The type of the indexed values.
+ */
+@NotThreadSafe
+final class RTree<T> {
+
+	/**
+	 * Receives the values found by a search.
+	 */
+	interface Visitor<T> {
+		void visit(T value);
+	}
+
+	static final int MAX_ENTRIES = 16;
+	static final int MIN_ENTRIES = 6;
+
+	private final Map<T, Entry<T>> leafEntries = new HashMap<>();
+	private Node<T> root = new Node<>(true);
+
+	/**
+	 * Insert a value or, if it is already present, update its bounds.
+	 */
+	void put(	@Nonnull final T value,
+				final int x,
+				final int y,
+				final int width,
+				final int height) {
+		Entry<T> entry = this.leafEntries.get(value);
+		if (entry != null) {
+			if (entry.minX == x && entry.minY == y && entry.maxX == x + width && entry.maxY == y + height) {
+				return;
+			}
+			remove(value);
+		}
+		entry = new Entry<>();
+		entry.value = value;
+		entry.minX = x;
+		entry.minY = y;
+		entry.maxX = x + width;
+		entry.maxY = y + height;
+		insertLeafEntry(entry);
+	}
+
+	boolean remove(@Nonnull final T value) {
+		final Entry<T> entry = this.leafEntries.remove(value);
+		if (entry == null) {
+			return false;
+		}
+		final Node<T> leaf = entry.owner;
+		leaf.entries.remove(entry);
+		condense(leaf);
+		return true;
+	}
+
+	boolean contains(@Nonnull final T value) {
+		return this.leafEntries.containsKey(value);
+	}
+
+	int size() {
+		return this.leafEntries.size();
+	}
+
+	void clear() {
+		this.leafEntries.clear();
+		this.root = new Node<>(true);
+	}
+
+	/**
+	 * Visit all values whose bounds intersect the given half-open rectangle.
+	 */
+	void search(final int minX,
+				final int minY,
+				final int maxX,
+				final int maxY,
+				@Nonnull final Visitor<? super T> visitor) {
+		search(	this.root,
+				minX,
+				minY,
+				maxX,
+				maxY,
+				visitor);
+	}
+
+	private void search(final Node<T> node,
+						final int minX,
+						final int minY,
+						final int maxX,
+						final int maxY,
+						final Visitor<? super T> visitor) {
+		final List<Entry<T>> entries = node.entries;
+		for (int i = 0, n = entries.size(); i < n; i++) {
+			final Entry<T> entry = entries.get(i);
+			if (entry.minX < maxX && minX < entry.maxX && entry.minY < maxY && minY < entry.maxY) {
+				if (node.leaf) {
+					visitor.visit(entry.value);
+				} else {
+					search(	entry.child,
+							minX,
+							minY,
+							maxX,
+							maxY,
+							visitor);
+				}
+			}
+		}
+	}
+
+	private void insertLeafEntry(final Entry<T> entry) {
+		this.leafEntries.put(	entry.value,
+								entry);
+		final Node<T> leaf = chooseLeaf(entry);
+		leaf.add(entry);
+		Node<T> split = null;
+		if (leaf.entries.size() > MAX_ENTRIES) {
+			split = split(leaf);
+		}
+		adjust(	leaf,
+				split);
+	}
+
+	private Node<T> chooseLeaf(final Entry<T> entry) {
+		Node<T> node = this.root;
+		while (!node.leaf) {
+			Entry<T> best = null;
+			long bestEnlargement = Long.MAX_VALUE;
+			long bestArea = Long.MAX_VALUE;
+			for (final Entry<T> candidate : node.entries) {
+				final long area = candidate.area();
+				final long enlargement = candidate.unionArea(entry) - area;
+				if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+					best = candidate;
+					bestEnlargement = enlargement;
+					bestArea = area;
+				}
+			}
+			node = best.child;
+		}
+		return node;
+	}
+
+	/**
+	 * Walk up from a modified node, refreshing bounds and propagating splits.
+	 */
+	private void adjust(Node<T> node,
+						Node<T> split) {
+		while (node != this.root) {
+			final Entry<T> parentEntry = node.parentEntry;
+			parentEntry.fit(node);
+			final Node<T> parent = parentEntry.owner;
+			Node<T> parentSplit = null;
+			if (split != null) {
+				parent.add(Entry.of(split));
+				if (parent.entries.size() > MAX_ENTRIES) {
+					parentSplit = split(parent);
+				}
+			}
+			node = parent;
+			split = parentSplit;
+		}
+		if (split != null) {
+			final Node<T> newRoot = new Node<>(false);
+			newRoot.add(Entry.of(node));
+			newRoot.add(Entry.of(split));
+			this.root = newRoot;
+		}
+	}
+
+	private void condense(final Node<T> leaf) {
+		final List<Entry<T>> orphans = new ArrayList<>();
+		Node<T> node = leaf;
+		while (node != this.root) {
+			final Entry<T> parentEntry = node.parentEntry;
+			final Node<T> parent = parentEntry.owner;
+			if (node.entries.size() < MIN_ENTRIES) {
+				parent.entries.remove(parentEntry);
+				collectLeafEntries(	node,
+									orphans);
+			} else {
+				parentEntry.fit(node);
+			}
+			node = parent;
+		}
+		while (!this.root.leaf && this.root.entries.size() == 1) {
+			this.root = this.root.entries.get(0).child;
+			this.root.parentEntry = null;
+		}
+		if (!this.root.leaf && this.root.entries.isEmpty()) {
+			this.root = new Node<>(true);
+		}
+		for (final Entry<T> orphan : orphans) {
+			insertLeafEntry(orphan);
+		}
+	}
+
+	private void collectLeafEntries(final Node<T> node,
+									final List<Entry<T>> result) {
+		for (final Entry<T> entry : node.entries) {
+			if (node.leaf) {
+				result.add(entry);
+			} else {
+				collectLeafEntries(	entry.child,
+									result);
+			}
+		}
+	}
+
+	/**
+	 * Quadratic split. The given node keeps one group, the returned sibling
+	 * receives the other.
+	 */
+	private Node<T> split(final Node<T> node) {
+		final List<Entry<T>> remaining = new ArrayList<>(node.entries);
+		node.entries.clear();
+		final Node<T> sibling = new Node<>(node.leaf);
+
+		// pick the two entries that would waste the most area together
+		int seedA = 0;
+		int seedB = 1;
+		long worstWaste = Long.MIN_VALUE;
+		for (int i = 0; i < remaining.size(); i++) {
+			final Entry<T> a = remaining.get(i);
+			for (int j = i + 1; j < remaining.size(); j++) {
+				final Entry<T> b = remaining.get(j);
+				final long waste = a.unionArea(b) - a.area() - b.area();
+				if (waste > worstWaste) {
+					worstWaste = waste;
+					seedA = i;
+					seedB = j;
+				}
+			}
+		}
+		// remove the higher index first so the lower one stays valid
+		final Entry<T> b = remaining.remove(seedB);
+		final Entry<T> a = remaining.remove(seedA);
+		node.add(a);
+		sibling.add(b);
+		final Entry<T> boundsA = a.copyBounds();
+		final Entry<T> boundsB = b.copyBounds();
+
+		while (!remaining.isEmpty()) {
+			if (node.entries.size() + remaining.size() == MIN_ENTRIES) {
+				for (final Entry<T> entry : remaining) {
+					node.add(entry);
+				}
+				break;
+			}
+			if (sibling.entries.size() + remaining.size() == MIN_ENTRIES) {
+				for (final Entry<T> entry : remaining) {
+					sibling.add(entry);
+				}
+				break;
+			}
+
+			// pick the entry with the strongest preference for one group
+			int next = 0;
+			long maxDifference = -1;
+			long nextEnlargementA = 0;
+			long nextEnlargementB = 0;
+			for (int i = 0; i < remaining.size(); i++) {
+				final Entry<T> entry = remaining.get(i);
+				final long enlargementA = boundsA.unionArea(entry) - boundsA.area();
+				final long enlargementB = boundsB.unionArea(entry) - boundsB.area();
+				final long difference = Math.abs(enlargementA - enlargementB);
+				if (difference > maxDifference) {
+					maxDifference = difference;
+					next = i;
+					nextEnlargementA = enlargementA;
+					nextEnlargementB = enlargementB;
+				}
+			}
+			final Entry<T> entry = remaining.remove(next);
+
+			final boolean toA;
+			if (nextEnlargementA != nextEnlargementB) {
+				toA = nextEnlargementA < nextEnlargementB;
+			} else if (boundsA.area() != boundsB.area()) {
+				toA = boundsA.area() < boundsB.area();
+			} else {
+				toA = node.entries.size() <= sibling.entries.size();
+			}
+			if (toA) {
+				node.add(entry);
+				boundsA.include(entry);
+			} else {
+				sibling.add(entry);
+				boundsB.include(entry);
+			}
+		}
+		return sibling;
+	}
+
+	private static final class Node<T> {
+		final boolean leaf;
+		final List<Entry<T>> entries = new ArrayList<>(MAX_ENTRIES + 1);
+		// the entry in the parent node that points to this node
+		Entry<T> parentEntry;
+
+		Node(final boolean leaf) {
+			this.leaf = leaf;
+		}
+
+		void add(final Entry<T> entry) {
+			entry.owner = this;
+			this.entries.add(entry);
+		}
+	}
+
+	private static final class Entry<T> {
+		int minX, minY, maxX, maxY;
+		// the node that holds this entry
+		Node<T> owner;
+		// set for entries of non-leaf nodes
+		Node<T> child;
+		// set for entries of leaf nodes
+		T value;
+
+		static <T> Entry<T> of(final Node<T> child) {
+			final Entry<T> entry = new Entry<>();
+			entry.child = child;
+			child.parentEntry = entry;
+			entry.fit(child);
+			return entry;
+		}
+
+		void fit(final Node<T> node) {
+			final List<Entry<T>> entries = node.entries;
+			if (entries.isEmpty()) {
+				this.minX = this.minY = this.maxX = this.maxY = 0;
+				return;
+			}
+			final Entry<T> first = entries.get(0);
+			this.minX = first.minX;
+			this.minY = first.minY;
+			this.maxX = first.maxX;
+			this.maxY = first.maxY;
+			for (int i = 1, n = entries.size(); i < n; i++) {
+				include(entries.get(i));
+			}
+		}
+
+		void include(final Entry<T> other) {
+			this.minX = Math.min(	this.minX,
+									other.minX);
+			this.minY = Math.min(	this.minY,
+									other.minY);
+			this.maxX = Math.max(	this.maxX,
+									other.maxX);
+			this.maxY = Math.max(	this.maxY,
+									other.maxY);
+		}
+
+		Entry<T> copyBounds() {
+			final Entry<T> copy = new Entry<>();
+			copy.minX = this.minX;
+			copy.minY = this.minY;
+			copy.maxX = this.maxX;
+			copy.maxY = this.maxY;
+			return copy;
+		}
+
+		long area() {
+			return (long) (this.maxX - this.minX) * (this.maxY - this.minY);
+		}
+
+		long unionArea(final Entry<T> other) {
+			final long width = Math.max(this.maxX,
+										other.maxX) - Math.min(	this.minX,
+																other.minX);
+			final long height = Math.max(	this.maxY,
+											other.maxY) - Math.min(	this.minY,
+																	other.minY);
+			return width * height;
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.onami.autobind.annotations.To.Type.CUSTOM;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.inject.Inject;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.apache.onami.autobind.annotations.To;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.index.ShellOcclusionTracker;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * A {@link ShellOcclusionTracker} that keeps its children in a
+ * {@link ShellSpatialIndexImpl}. Each change in the index damages the old and
+ * new area of the changed child. Damaged areas are collected and re-evaluated
+ * in a single task on the shell executor, so a layout that touches many
+ * children only triggers one occlusion pass.
+ * <p>
+ * A child is occluded when subtracting the areas of all visible siblings
+ * stacked above it leaves nothing of its own area.
+ */
+@Bind(to = @To(value = CUSTOM, customs = ShellOcclusionTracker.class))
+@NotThreadSafe
+@ExecutionContext(ShellExecutor.class)
+public class ShellOcclusionTrackerImpl implements ShellOcclusionTracker {
+
+	// give up on an area that is fragmented beyond this and treat it as
+	// uncovered.
+	private static final int MAX_FRAGMENTS = 64;
+
+	private final ShellSpatialIndexImpl spatialIndex = new ShellSpatialIndexImpl();
+	private final ListeningExecutorService shellExecutor;
+	private final Set<ShellNode> occludedNodes = new HashSet<>();
+	private final Set<ShellNode> changedNodes = new LinkedHashSet<>();
+	private final List<Rectangle> damage = new ArrayList<>();
+	private boolean updateScheduled;
+
+	private final Runnable occlusionUpdate = new Runnable() {
+		@Override
+		public void run() {
+			ShellOcclusionTrackerImpl.this.updateScheduled = false;
+			updateOcclusion();
+		}
+	};
+
+	@Inject
+	ShellOcclusionTrackerImpl(@ShellExecutor final ListeningExecutorService shellExecutor) {
+		this.shellExecutor = shellExecutor;
+		this.spatialIndex.setChangeListener(new ShellSpatialIndexImpl.ChangeListener() {
+			@Override
+			public void indexChanged(	final ShellNode child,
+										@Nullable final Rectangle oldArea,
+										@Nullable final Rectangle newArea) {
+				handleIndexChanged(	child,
+									oldArea,
+									newArea);
+			}
+		});
+	}
+
+	@Override
+	public void addChildNode(@Nonnull final ShellNode child) {
+		checkArgument(child instanceof AbstractShellNode);
+		this.spatialIndex.addChildNode(child);
+	}
+
+	@Override
+	public void removeChild(@Nonnull final ShellNode child) {
+		this.spatialIndex.removeChild(child);
+	}
+
+	@Override
+	public boolean isOccluded(@Nonnull final ShellNode child) {
+		return this.occludedNodes.contains(child);
+	}
+
+	private void handleIndexChanged(final ShellNode child,
+									@Nullable final Rectangle oldArea,
+									@Nullable final Rectangle newArea) {
+		if (newArea == null) {
+			// hidden or removed children are never occluded.
+			setOccluded(child,
+						false);
+		} else {
+			this.changedNodes.add(child);
+			this.damage.add(newArea);
+		}
+		if (oldArea != null) {
+			this.damage.add(oldArea);
+		}
+		scheduleUpdate();
+	}
+
+	private void scheduleUpdate() {
+		if (this.updateScheduled) {
+			return;
+		}
+		this.updateScheduled = true;
+		this.shellExecutor.submit(this.occlusionUpdate);
+	}
+
+	private void updateOcclusion() {
+		// every visible child that overlaps a damaged area might have been
+		// covered or uncovered.
+		final Set<ShellNode> affectedNodes = new LinkedHashSet<>(this.changedNodes);
+		for (final Rectangle damagedArea : this.damage) {
+			affectedNodes.addAll(this.spatialIndex.getNodesIntersecting(damagedArea));
+		}
+		this.changedNodes.clear();
+		this.damage.clear();
+
+		for (final ShellNode affectedNode : affectedNodes) {
+			setOccluded(affectedNode,
+						calculateOccluded(affectedNode));
+		}
+	}
+
+	private boolean calculateOccluded(final ShellNode child) {
+		final Rectangle area = ((AbstractShellNode) child).getGeometryImpl();
+		// results are ordered top to bottom, everything before the child
+		// is stacked above it.
+		final List<ShellNode> overlappingNodes = this.spatialIndex.getNodesIntersecting(area);
+		if (!overlappingNodes.contains(child)) {
+			// not visible
+			return false;
+		}
+
+		List<int[]> uncovered = new ArrayList<>();
+		uncovered.add(bounds(area));
+		for (final ShellNode overlappingNode : overlappingNodes) {
+			if (overlappingNode == child) {
+				break;
+			}
+			uncovered = subtract(	uncovered,
+									bounds(((AbstractShellNode) overlappingNode).getGeometryImpl()));
+			if (uncovered.isEmpty()) {
+				return true;
+			}
+			if (uncovered.size() > MAX_FRAGMENTS) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	private void setOccluded(	final ShellNode child,
+								final boolean occluded) {
+		final boolean changed = occluded ? this.occludedNodes.add(child) : this.occludedNodes.remove(child);
+		if (changed) {
+			((AbstractShellNode) child).setGeometryDeferred(occluded);
+		}
+	}
+
+	private static int[] bounds(final Rectangle rectangle) {
+		final int x = rectangle.getPosition().getX();
+		final int y = rectangle.getPosition().getY();
+		return new int[] { x, y, x + rectangle.getSize().getWidth(), y + rectangle.getSize().getHeight() };
+	}
+
+	/**
+	 * Subtract a rectangle from a set of disjoint rectangles. All rectangles
+	 * are given as <code>{minX, minY, maxX, maxY}</code>.
+	 */
+	static List<int[]> subtract(final List<int[]> fragments,
+								final int[] cover) {
+		final List<int[]> result = new ArrayList<>(fragments.size() + 4);
+		for (final int[] f : fragments) {
+			if (cover[0] >= f[2] || cover[2] <= f[0] || cover[1] >= f[3] || cover[3] <= f[1]) {
+				result.add(f);
+				continue;
+			}
+			// split what's left of the fragment into a top, bottom, left and
+			// right part.
+			final int top = Math.max(	f[1],
+										cover[1]);
+			final int bottom = Math.min(f[3],
+										cover[3]);
+			if (f[1] < top) {
+				result.add(new int[] { f[0], f[1], f[2], top });
+			}
+			if (bottom < f[3]) {
+				result.add(new int[] { f[0], bottom, f[2], f[3] });
+			}
+			if (f[0] < cover[0]) {
+				result.add(new int[] { f[0], top, cover[0], bottom });
+			}
+			if (cover[2] < f[2]) {
+				result.add(new int[] { cover[2], top, f[2], bottom });
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,392 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.index;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.onami.autobind.annotations.To.Type.CUSTOM;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.apache.onami.autobind.annotations.To;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.api.scene.ShellNodeTransformation;
+import org.trinity.shell.api.scene.event.ShellNodeDestroyedEvent;
+import org.trinity.shell.api.scene.event.ShellNodeEvent;
+import org.trinity.shell.api.scene.event.ShellNodeHiddenEvent;
+import org.trinity.shell.api.scene.event.ShellNodeLoweredEvent;
+import org.trinity.shell.api.scene.event.ShellNodeMovedEvent;
+import org.trinity.shell.api.scene.event.ShellNodeMovedResizedEvent;
+import org.trinity.shell.api.scene.event.ShellNodeRaisedEvent;
+import org.trinity.shell.api.scene.event.ShellNodeReparentedEvent;
+import org.trinity.shell.api.scene.event.ShellNodeResizedEvent;
+import org.trinity.shell.api.scene.event.ShellNodeShowedEvent;
+import org.trinity.shell.api.scene.index.ShellSpatialIndex;
+
+import com.google.common.base.Optional;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * A {@link ShellSpatialIndex} backed by an {@link RTree}. Only visible children
+ * are kept in the tree, hidden children are only remembered so they can be
+ * put back when they are shown again. The children share their parent, so a
+ * child counts as visible when it is shown itself, regardless of its parent.
+ * A child that moves to another parent is no longer indexed.
+ */
+@Bind(to = @To(value = CUSTOM, customs = ShellSpatialIndex.class))
+@NotThreadSafe
+@ExecutionContext(ShellExecutor.class)
+public class ShellSpatialIndexImpl implements ShellSpatialIndex {
+
+	/**
+	 * Notified each time the indexed area or stacking of a child changes.
+	 */
+	interface ChangeListener {
+		/**
+		 * @param child
+		 *            The child that changed.
+		 * @param oldArea
+		 *            The area the child covered before the change, null if it
+		 *            was not visible.
+		 * @param newArea
+		 *            The area the child covers after the change, null if it is
+		 *            not visible or no longer indexed.
+		 */
+		void indexChanged(	ShellNode child,
+							@Nullable Rectangle oldArea,
+							@Nullable Rectangle newArea);
+	}
+
+	private static final Comparator<IndexedNode> TOP_TO_BOTTOM = new Comparator<IndexedNode>() {
+		@Override
+		public int compare(	final IndexedNode o1,
+							final IndexedNode o2) {
+			return Long.compare(o2.stackOrder,
+								o1.stackOrder);
+		}
+	};
+
+	private final Map<ShellNode, IndexedNode> indexedNodes = new HashMap<>();
+	private final RTree<IndexedNode> tree = new RTree<>();
+	private final ChildListener childListener = new ChildListener();
+	private long topStackOrder = 0;
+	private long bottomStackOrder = 0;
+	private ChangeListener changeListener;
+
+	ShellSpatialIndexImpl() {
+	}
+
+	void setChangeListener(@Nullable final ChangeListener changeListener) {
+		this.changeListener = changeListener;
+	}
+
+	@Override
+	public void addChildNode(@Nonnull final ShellNode child) {
+		checkArgument(child instanceof AbstractShellNode);
+		if (this.indexedNodes.containsKey(child)) {
+			return;
+		}
+
+		final AbstractShellNode node = (AbstractShellNode) child;
+		final IndexedNode indexedNode = new IndexedNode(node);
+		indexedNode.stackOrder = ++this.topStackOrder;
+		indexedNode.parent = node.getParentImpl();
+		// the same visibility the show and hide events track.
+		indexedNode.visible = node.snapshot().isVisible();
+		indexedNode.setGeometry(node.getPositionImpl(),
+								node.getSizeImpl());
+		this.indexedNodes.put(	child,
+								indexedNode);
+		updateTree(indexedNode);
+
+		child.register(this.childListener);
+		fireIndexChanged(	indexedNode,
+							null);
+	}
+
+	@Override
+	public void removeChild(@Nonnull final ShellNode child) {
+		final IndexedNode indexedNode = this.indexedNodes.remove(child);
+		if (indexedNode == null) {
+			return;
+		}
+		child.unregister(this.childListener);
+		this.tree.remove(indexedNode);
+		if (this.changeListener != null) {
+			this.changeListener.indexChanged(	child,
+												indexedNode.area(),
+												null);
+		}
+	}
+
+	@Override
+	public List<ShellNode> getNodesAt(@Nonnull final Coordinate point) {
+		return query(	point.getX(),
+						point.getY(),
+						point.getX() + 1,
+						point.getY() + 1);
+	}
+
+	@Override
+	public List<ShellNode> getNodesIntersecting(@Nonnull final Rectangle area) {
+		final Coordinate position = area.getPosition();
+		return query(	position.getX(),
+						position.getY(),
+						position.getX() + area.getSize().getWidth(),
+						position.getY() + area.getSize().getHeight());
+	}
+
+	@Override
+	public Optional<ShellNode> getTopmostNodeAt(@Nonnull final Coordinate point) {
+		final TopmostVisitor topmostVisitor = new TopmostVisitor();
+		this.tree.search(	point.getX(),
+							point.getY(),
+							point.getX() + 1,
+							point.getY() + 1,
+							topmostVisitor);
+		if (topmostVisitor.topmost == null) {
+			return Optional.absent();
+		}
+		return Optional.<ShellNode> of(topmostVisitor.topmost.node);
+	}
+
+	@Override
+	public int size() {
+		return this.indexedNodes.size();
+	}
+
+	private List<ShellNode> query(	final int minX,
+									final int minY,
+									final int maxX,
+									final int maxY) {
+		final List<IndexedNode> hits = new ArrayList<>();
+		this.tree.search(	minX,
+							minY,
+							maxX,
+							maxY,
+							new RTree.Visitor<IndexedNode>() {
+								@Override
+								public void visit(final IndexedNode value) {
+									hits.add(value);
+								}
+							});
+		Collections.sort(	hits,
+							TOP_TO_BOTTOM);
+		final List<ShellNode> nodes = new ArrayList<>(hits.size());
+		for (final IndexedNode hit : hits) {
+			nodes.add(hit.node);
+		}
+		return nodes;
+	}
+
+	private void fireIndexChanged(	final IndexedNode indexedNode,
+									@Nullable final Rectangle oldArea) {
+		if (this.changeListener != null) {
+			this.changeListener.indexChanged(	indexedNode.node,
+												oldArea,
+												indexedNode.area());
+		}
+	}
+
+	private void updateTree(final IndexedNode indexedNode) {
+		if (indexedNode.visible) {
+			this.tree.put(	indexedNode,
+							indexedNode.x,
+							indexedNode.y,
+							indexedNode.width,
+							indexedNode.height);
+		} else {
+			this.tree.remove(indexedNode);
+		}
+	}
+
+	private void handleGeometryChanged(final ShellNodeEvent event) {
+		final IndexedNode indexedNode = this.indexedNodes.get(event.getSource());
+		if (indexedNode == null) {
+			return;
+		}
+		final Rectangle oldArea = indexedNode.area();
+		final ShellNodeTransformation transformation = event.getSourceTransformation();
+		indexedNode.setGeometry(transformation.getPosition0(),
+								transformation.getSize0());
+		updateTree(indexedNode);
+		fireIndexChanged(	indexedNode,
+							oldArea);
+	}
+
+	private void handleVisibilityChanged(	final ShellNodeEvent event,
+											final boolean visible) {
+		final IndexedNode indexedNode = this.indexedNodes.get(event.getSource());
+		if (indexedNode == null) {
+			return;
+		}
+		final Rectangle oldArea = indexedNode.area();
+		indexedNode.visible = visible;
+		updateTree(indexedNode);
+		fireIndexChanged(	indexedNode,
+							oldArea);
+	}
+
+	private void handleReparented(final ShellNodeReparentedEvent event) {
+		final ShellNode child = event.getSource();
+		final IndexedNode indexedNode = this.indexedNodes.get(child);
+		if (indexedNode == null) {
+			return;
+		}
+		if (((AbstractShellNode) child).getParentImpl() != indexedNode.parent) {
+			removeChild(child);
+		}
+	}
+
+	private void handleStackingChanged(	final ShellNodeEvent event,
+										final boolean raised) {
+		final IndexedNode indexedNode = this.indexedNodes.get(event.getSource());
+		if (indexedNode == null) {
+			return;
+		}
+		// stacking order only affects how results are sorted, the tree itself
+		// is left untouched.
+		indexedNode.stackOrder = raised ? ++this.topStackOrder : --this.bottomStackOrder;
+		final Rectangle area = indexedNode.area();
+		fireIndexChanged(	indexedNode,
+							area);
+	}
+
+	private static class IndexedNode {
+		final ShellNode node;
+		ShellNodeParent parent;
+		int x, y, width, height;
+		long stackOrder;
+		boolean visible;
+
+		IndexedNode(final ShellNode node) {
+			this.node = node;
+		}
+
+		void setGeometry(	final Coordinate position,
+							final Size size) {
+			this.x = position.getX();
+			this.y = position.getY();
+			this.width = size.getWidth();
+			this.height = size.getHeight();
+		}
+
+		@Nullable
+		Rectangle area() {
+			if (!this.visible) {
+				return null;
+			}
+			return new ImmutableRectangle(	this.x,
+											this.y,
+											this.width,
+											this.height);
+		}
+	}
+
+	private static class TopmostVisitor implements RTree.Visitor<IndexedNode> {
+		IndexedNode topmost;
+
+		@Override
+		public void visit(final IndexedNode value) {
+			if (this.topmost == null || value.stackOrder > this.topmost.stackOrder) {
+				this.topmost = value;
+			}
+		}
+	}
+
+	private class ChildListener {
+		// unused methods are used by guava's eventbus.
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildMoved(final ShellNodeMovedEvent shellNodeMovedEvent) {
+			handleGeometryChanged(shellNodeMovedEvent);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildResized(final ShellNodeResizedEvent shellNodeResizedEvent) {
+			handleGeometryChanged(shellNodeResizedEvent);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildMovedResized(final ShellNodeMovedResizedEvent shellNodeMovedResizedEvent) {
+			handleGeometryChanged(shellNodeMovedResizedEvent);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildRaised(final ShellNodeRaisedEvent shellNodeRaisedEvent) {
+			handleStackingChanged(	shellNodeRaisedEvent,
+									true);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildLowered(final ShellNodeLoweredEvent shellNodeLoweredEvent) {
+			handleStackingChanged(	shellNodeLoweredEvent,
+									false);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildShowed(final ShellNodeShowedEvent shellNodeShowedEvent) {
+			handleVisibilityChanged(shellNodeShowedEvent,
+									true);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildHidden(final ShellNodeHiddenEvent shellNodeHiddenEvent) {
+			handleVisibilityChanged(shellNodeHiddenEvent,
+									false);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildReparented(final ShellNodeReparentedEvent shellNodeReparentedEvent) {
+			handleReparented(shellNodeReparentedEvent);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildDestroyed(final ShellNodeDestroyedEvent shellNodeDestroyedEvent) {
+			removeChild(shellNodeDestroyedEvent.getSource());
+		}
+	}
+}
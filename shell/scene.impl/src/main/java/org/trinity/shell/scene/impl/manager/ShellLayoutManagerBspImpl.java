@@ -0,0 +1,769 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.manager;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.onami.autobind.annotations.To.Type.CUSTOM;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.apache.onami.autobind.annotations.To;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Margins;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.api.scene.event.ShellNodeDestroyedEvent;
+import org.trinity.shell.api.scene.event.ShellNodeHideRequestEvent;
+import org.trinity.shell.api.scene.event.ShellNodeLowerRequestEvent;
+import org.trinity.shell.api.scene.event.ShellNodeMoveResizeRequestEvent;
+import org.trinity.shell.api.scene.event.ShellNodeRaiseRequestEvent;
+import org.trinity.shell.api.scene.event.ShellNodeReparentRequestEvent;
+import org.trinity.shell.api.scene.event.ShellNodeShowRequestEvent;
+import org.trinity.shell.api.scene.manager.AbstractShellLayoutManager;
+import org.trinity.shell.api.scene.manager.ShellLayoutManagerBsp;
+import org.trinity.shell.api.scene.manager.ShellLayoutPlan;
+import org.trinity.shell.api.scene.manager.ShellLayoutProperty;
+import org.trinity.shell.api.scene.manager.ShellLayoutPropertyLine;
+import org.trinity.shell.api.scene.manager.ShellLayoutSnapshot;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * A {@link ShellLayoutManagerBsp} that keeps the space of each tree node
+ * cached. Changes to the tree mark the affected subtree dirty and flag the path
+ * to the root, so a layout only descends into flagged nodes and only
+ * recalculates dirty subtrees. A layout computed from a {@link #snapshot(ShellNodeParent)}
+ * does the same on a frozen copy of the tree, and its outcome becomes the
+ * cached state when it's committed to an unchanged tree.
+ */
+@Bind(to = @To(value = CUSTOM, customs = ShellLayoutManagerBsp.class))
+@NotThreadSafe
+@ExecutionContext(ShellExecutor.class)
+public class ShellLayoutManagerBspImpl extends AbstractShellLayoutManager implements ShellLayoutManagerBsp {
+
+	private static final ShellLayoutPropertyLine DEFAULT_LAYOUT_PROPERTY = new ShellLayoutPropertyLine(	1,
+																										new Margins(0));
+	private static final double MIN_RATIO = 0.05;
+	private static final double MAX_RATIO = 0.95;
+
+	private final Map<ShellNode, Leaf> leafs = new HashMap<ShellNode, Leaf>();
+	private final ChildGeoListener childGeoListener = new ChildGeoListener();
+	private Cell root;
+	private Size containerSize;
+	// incremented on every change of the cached state, so a plan computed from
+	// an older snapshot is not mistaken for the current state.
+	private long version;
+
+	ShellLayoutManagerBspImpl() {
+	}
+
+	@Override
+	public void addChildNode(	@Nonnull final ShellNode child,
+								@Nonnull final ShellLayoutProperty layoutProperty) {
+		checkArgument(layoutProperty instanceof ShellLayoutPropertyLine);
+		super.addChildNode(	child,
+							layoutProperty);
+
+		final Leaf existingLeaf = this.leafs.get(child);
+		if (existingLeaf != null) {
+			existingLeaf.layoutProperty = (ShellLayoutPropertyLine) layoutProperty;
+			markDirty(existingLeaf);
+			return;
+		}
+
+		final Leaf leaf = new Leaf(	child,
+									(ShellLayoutPropertyLine) layoutProperty);
+		this.leafs.put(	child,
+						leaf);
+		insert(leaf);
+		child.register(this.childGeoListener);
+	}
+
+	@Override
+	public void removeChild(@Nonnull final ShellNode child) {
+		super.removeChild(child);
+		final Leaf leaf = this.leafs.remove(child);
+		if (leaf == null) {
+			return;
+		}
+		child.unregister(this.childGeoListener);
+		remove(leaf);
+	}
+
+	@Override
+	public ShellLayoutPropertyLine getLayoutProperty(@Nonnull final ShellNode child) {
+		return (ShellLayoutPropertyLine) super.getLayoutProperty(child);
+	}
+
+	@Override
+	protected ShellLayoutPropertyLine defaultLayoutProperty() {
+		return DEFAULT_LAYOUT_PROPERTY;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Only the parts of the tree that changed since the previous layout are
+	 * recalculated, unless the size of the parent changed.
+	 */
+	@Override
+	public void layout(final ShellNodeParent parent) {
+		if (parent == null || this.root == null) {
+			return;
+		}
+		checkArgument(parent instanceof AbstractShellNode);
+		this.version++;
+		final Size size = ((AbstractShellNode) parent).getSizeImpl();
+		if (this.containerSize == null || this.containerSize.getWidth() != size.getWidth()
+				|| this.containerSize.getHeight() != size.getHeight()) {
+			this.containerSize = size;
+			this.root.setSpace(	0,
+								0,
+								size.getWidth(),
+								size.getHeight());
+			markDirty(this.root);
+		}
+
+		final Map<ShellNode, Rectangle> changedGeometries = new LinkedHashMap<ShellNode, Rectangle>();
+		update(	this.root,
+				changedGeometries);
+		commitLayout(new ShellLayoutPlan(changedGeometries));
+	}
+
+	@Override
+	public ShellLayoutSnapshot snapshot(@Nonnull final ShellNodeParent parent) {
+		final ShellLayoutSnapshot snapshot = super.snapshot(parent);
+		return new BspSnapshot(	snapshot.getContainerSize(),
+								snapshot.getChildren(),
+								this.root == null ? null : this.root.freeze(),
+								this.containerSize,
+								this.version);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Only the parts of the frozen tree that were dirty when the snapshot was
+	 * taken are recalculated, unless the size of the parent changed.
+	 */
+
+	@Override
+	public ShellLayoutPlan computeLayout(@Nonnull final ShellLayoutSnapshot snapshot) {
+		checkArgument(snapshot instanceof BspSnapshot);
+		final BspSnapshot bspSnapshot = (BspSnapshot) snapshot;
+		final FrozenCell frozenRoot = bspSnapshot.root;
+		if (frozenRoot == null) {
+			return ShellLayoutPlan.EMPTY;
+		}
+		final Size size = snapshot.getContainerSize();
+		final Map<ShellNode, Rectangle> childGeometries = new LinkedHashMap<ShellNode, Rectangle>();
+		final Map<Cell, Rectangle> cellSpaces = new HashMap<Cell, Rectangle>();
+		final Size cachedSize = bspSnapshot.cachedContainerSize;
+		if (cachedSize == null || cachedSize.getWidth() != size.getWidth()
+				|| cachedSize.getHeight() != size.getHeight()) {
+			frozenRoot.recalculate(	0,
+									0,
+									size.getWidth(),
+									size.getHeight(),
+									childGeometries,
+									cellSpaces);
+		} else {
+			frozenRoot.update(	childGeometries,
+								cellSpaces);
+		}
+		return new BspPlan(	childGeometries,
+							cellSpaces,
+							size,
+							bspSnapshot.version);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Children that already have their planned geometry are left alone. A plan
+	 * computed by this layout manager also updates the cached space of the
+	 * recalculated tree nodes, if the tree didn't change since the plan's
+	 * snapshot was taken.
+	 */
+	@Override
+	public void commitLayout(@Nonnull final ShellLayoutPlan plan) {
+		if (plan instanceof BspPlan && ((BspPlan) plan).version == this.version) {
+			final BspPlan bspPlan = (BspPlan) plan;
+			for (final Map.Entry<Cell, Rectangle> entry : bspPlan.cellSpaces.entrySet()) {
+				final Cell cell = entry.getKey();
+				final Rectangle space = entry.getValue();
+				cell.setSpace(	space.getPosition().getX(),
+								space.getPosition().getY(),
+								space.getSize().getWidth(),
+								space.getSize().getHeight());
+				cell.dirty = false;
+				cell.dirtyDescendant = false;
+			}
+			this.containerSize = bspPlan.containerSize;
+			this.version++;
+		}
+
+		final Map<ShellNode, Rectangle> changedGeometries = new LinkedHashMap<ShellNode, Rectangle>();
+		for (final Map.Entry<ShellNode, Rectangle> entry : plan.getChildGeometries().entrySet()) {
+			final Rectangle current = ((AbstractShellNode) entry.getKey()).getGeometryImpl();
+			final Rectangle planned = entry.getValue();
+			if (current.getPosition().getX() != planned.getPosition().getX()
+					|| current.getPosition().getY() != planned.getPosition().getY()
+					|| current.getSize().getWidth() != planned.getSize().getWidth()
+					|| current.getSize().getHeight() != planned.getSize().getHeight()) {
+				changedGeometries.put(	entry.getKey(),
+										planned);
+			}
+		}
+		super.commitLayout(new ShellLayoutPlan(changedGeometries));
+	}
+
+	private void insert(final Leaf leaf) {
+		if (this.root == null) {
+			this.root = leaf;
+			if (this.containerSize != null) {
+				leaf.setSpace(	0,
+								0,
+								this.containerSize.getWidth(),
+								this.containerSize.getHeight());
+			}
+			markDirty(leaf);
+			return;
+		}
+
+		// descend into the least populated half to keep the tree balanced.
+		Cell target = this.root;
+		while (target instanceof Split) {
+			final Split split = (Split) target;
+			target = split.second.leafCount < split.first.leafCount ? split.second : split.first;
+		}
+
+		final Leaf splitLeaf = (Leaf) target;
+		final boolean sideBySide = splitLeaf.width == splitLeaf.height ? depth(splitLeaf) % 2 == 0
+				: splitLeaf.width > splitLeaf.height;
+		final double splitWeight = Math.max(1,
+											splitLeaf.layoutProperty.getWeight());
+		final double newWeight = Math.max(	1,
+											leaf.layoutProperty.getWeight());
+		final Split split = new Split(	sideBySide,
+										clampRatio(splitWeight / (splitWeight + newWeight)));
+		replace(splitLeaf,
+				split);
+		split.setSpace(	splitLeaf.x,
+						splitLeaf.y,
+						splitLeaf.width,
+						splitLeaf.height);
+		split.setChildren(	splitLeaf,
+							leaf);
+		for (Split ancestor = split.parent; ancestor != null; ancestor = ancestor.parent) {
+			ancestor.leafCount++;
+		}
+		markDirty(split);
+	}
+
+	private void remove(final Leaf leaf) {
+		final Split parent = leaf.parent;
+		if (parent == null) {
+			this.root = null;
+			return;
+		}
+		final Cell sibling = parent.first == leaf ? parent.second : parent.first;
+		replace(parent,
+				sibling);
+		sibling.setSpace(	parent.x,
+							parent.y,
+							parent.width,
+							parent.height);
+		for (Split ancestor = sibling.parent; ancestor != null; ancestor = ancestor.parent) {
+			ancestor.leafCount--;
+		}
+		markDirty(sibling);
+	}
+
+	private void replace(	final Cell cell,
+							final Cell replacement) {
+		final Split parent = cell.parent;
+		replacement.parent = parent;
+		if (parent == null) {
+			this.root = replacement;
+		} else if (parent.first == cell) {
+			parent.first = replacement;
+		} else {
+			parent.second = replacement;
+		}
+	}
+
+	private static int depth(final Cell cell) {
+		int depth = 0;
+		for (Split ancestor = cell.parent; ancestor != null; ancestor = ancestor.parent) {
+			depth++;
+		}
+		return depth;
+	}
+
+	private static double clampRatio(final double ratio) {
+		return Math.min(MAX_RATIO,
+						Math.max(	MIN_RATIO,
+									ratio));
+	}
+
+	private void markDirty(final Cell cell) {
+		this.version++;
+		cell.dirty = true;
+		for (Split ancestor = cell.parent; ancestor != null && !ancestor.dirtyDescendant; ancestor = ancestor.parent) {
+			ancestor.dirtyDescendant = true;
+		}
+	}
+
+	private static void update(	final Cell cell,
+								final Map<ShellNode, Rectangle> changedGeometries) {
+		if (cell.dirty) {
+			cell.recalculate(changedGeometries);
+		} else if (cell.dirtyDescendant) {
+			cell.dirtyDescendant = false;
+			final Split split = (Split) cell;
+			update(	split.first,
+					changedGeometries);
+			update(	split.second,
+					changedGeometries);
+		}
+	}
+
+	/**
+	 * Change the split ratio of the closest ancestor that splits in the given
+	 * direction, so the side holding the given cell grows by delta.
+	 */
+	private void adjustRatio(	final Cell cell,
+									final boolean sideBySide,
+									final int delta) {
+		if (delta == 0) {
+			return;
+		}
+		for (Cell side = cell; side.parent != null; side = side.parent) {
+			final Split split = side.parent;
+			if (split.sideBySide != sideBySide) {
+				continue;
+			}
+			final int total = sideBySide ? split.width : split.height;
+			if (total <= 0) {
+				return;
+			}
+			final int firstSize = (int) Math.round(total * split.ratio);
+			final int newFirstSize = split.first == side ? firstSize + delta : firstSize - delta;
+			split.ratio = clampRatio((double) newFirstSize / total);
+			markDirty(split);
+			return;
+		}
+	}
+
+	private abstract static class Cell {
+		Split parent;
+		int leafCount;
+		// the space of this cell, relative to the container.
+		int x, y, width, height;
+		boolean dirty;
+		boolean dirtyDescendant;
+
+		void setSpace(	final int x,
+						final int y,
+						final int width,
+						final int height) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		void recalculate(final Map<ShellNode, Rectangle> changedGeometries) {
+			this.dirty = false;
+			this.dirtyDescendant = false;
+			recalculateImpl(changedGeometries);
+		}
+
+		abstract void recalculateImpl(Map<ShellNode, Rectangle> changedGeometries);
+
+		abstract FrozenCell freeze();
+	}
+
+	private static class Leaf extends Cell {
+		final ShellNode node;
+		ShellLayoutPropertyLine layoutProperty;
+
+		Leaf(	final ShellNode node,
+				final ShellLayoutPropertyLine layoutProperty) {
+			this.node = node;
+			this.layoutProperty = layoutProperty;
+			this.leafCount = 1;
+		}
+
+		@Override
+		void recalculateImpl(final Map<ShellNode, Rectangle> changedGeometries) {
+			changedGeometries.put(	this.node,
+									withMargins(this.x,
+												this.y,
+												this.width,
+												this.height,
+												this.layoutProperty.getMargins()));
+		}
+
+		@Override
+		FrozenCell freeze() {
+			return new FrozenCell(	this,
+									this.layoutProperty.getMargins());
+		}
+	}
+
+	private static class Split extends Cell {
+		// true if the halves are placed next to each other, false if they
+		// are placed on top of each other.
+		final boolean sideBySide;
+		// the share of the space given to the first half.
+		double ratio;
+		Cell first;
+		Cell second;
+
+		Split(	final boolean sideBySide,
+				final double ratio) {
+			this.sideBySide = sideBySide;
+			this.ratio = ratio;
+		}
+
+		void setChildren(	final Cell first,
+							final Cell second) {
+			this.first = first;
+			this.second = second;
+			first.parent = this;
+			second.parent = this;
+			this.leafCount = first.leafCount + second.leafCount;
+		}
+
+		@Override
+		void recalculateImpl(final Map<ShellNode, Rectangle> changedGeometries) {
+			if (this.sideBySide) {
+				final int firstWidth = (int) Math.round(this.width * this.ratio);
+				this.first.setSpace(this.x,
+									this.y,
+									firstWidth,
+									this.height);
+				this.second.setSpace(	this.x + firstWidth,
+										this.y,
+										this.width - firstWidth,
+										this.height);
+			} else {
+				final int firstHeight = (int) Math.round(this.height * this.ratio);
+				this.first.setSpace(this.x,
+									this.y,
+									this.width,
+									firstHeight);
+				this.second.setSpace(	this.x,
+										this.y + firstHeight,
+										this.width,
+										this.height - firstHeight);
+			}
+			this.first.recalculate(changedGeometries);
+			this.second.recalculate(changedGeometries);
+		}
+
+		@Override
+		FrozenCell freeze() {
+			return new FrozenCell(	this,
+									this.first.freeze(),
+									this.second.freeze());
+		}
+	}
+
+	private static Rectangle withMargins(	final int x,
+											final int y,
+											final int width,
+											final int height,
+											final Margins margins) {
+		return new ImmutableRectangle(	x + margins.getLeft(),
+										y + margins.getTop(),
+										width - margins.getLeft() - margins.getRight(),
+										height - margins.getTop() - margins.getBottom());
+	}
+
+	/**
+	 * An immutable copy of a tree node and its cached state, used to compute a
+	 * layout outside the shell executor. The tree node itself is only kept to
+	 * update its cached state when the layout is committed.
+	 */
+	@Immutable
+	private static class FrozenCell {
+		final Cell cell;
+		final ShellNode node;
+		final Margins margins;
+		final boolean sideBySide;
+		final double ratio;
+		final FrozenCell first;
+		final FrozenCell second;
+		final int x, y, width, height;
+		final boolean dirty;
+		final boolean dirtyDescendant;
+
+		FrozenCell(	final Leaf leaf,
+					final Margins margins) {
+			this(	leaf,
+					leaf.node,
+					margins,
+					false,
+					0,
+					null,
+					null);
+		}
+
+		FrozenCell(	final Split split,
+					final FrozenCell first,
+					final FrozenCell second) {
+			this(	split,
+					null,
+					null,
+					split.sideBySide,
+					split.ratio,
+					first,
+					second);
+		}
+
+		private FrozenCell(	final Cell cell,
+							final ShellNode node,
+							final Margins margins,
+							final boolean sideBySide,
+							final double ratio,
+							final FrozenCell first,
+							final FrozenCell second) {
+			this.cell = cell;
+			this.node = node;
+			this.margins = margins;
+			this.sideBySide = sideBySide;
+			this.ratio = ratio;
+			this.first = first;
+			this.second = second;
+			this.x = cell.x;
+			this.y = cell.y;
+			this.width = cell.width;
+			this.height = cell.height;
+			this.dirty = cell.dirty;
+			this.dirtyDescendant = cell.dirtyDescendant;
+		}
+
+		void update(final Map<ShellNode, Rectangle> childGeometries,
+					final Map<Cell, Rectangle> cellSpaces) {
+			if (this.dirty) {
+				recalculate(this.x,
+							this.y,
+							this.width,
+							this.height,
+							childGeometries,
+							cellSpaces);
+			} else if (this.dirtyDescendant) {
+				cellSpaces.put(	this.cell,
+								new ImmutableRectangle(	this.x,
+														this.y,
+														this.width,
+														this.height));
+				this.first.update(	childGeometries,
+									cellSpaces);
+				this.second.update(	childGeometries,
+									cellSpaces);
+			}
+		}
+
+		void recalculate(	final int x,
+							final int y,
+							final int width,
+							final int height,
+							final Map<ShellNode, Rectangle> childGeometries,
+							final Map<Cell, Rectangle> cellSpaces) {
+			cellSpaces.put(	this.cell,
+							new ImmutableRectangle(	x,
+													y,
+													width,
+													height));
+			if (this.node != null) {
+				childGeometries.put(this.node,
+									withMargins(x,
+												y,
+												width,
+												height,
+												this.margins));
+			} else if (this.sideBySide) {
+				final int firstWidth = (int) Math.round(width * this.ratio);
+				this.first.recalculate(	x,
+										y,
+										firstWidth,
+										height,
+										childGeometries,
+										cellSpaces);
+				this.second.recalculate(x + firstWidth,
+										y,
+										width - firstWidth,
+										height,
+										childGeometries,
+										cellSpaces);
+			} else {
+				final int firstHeight = (int) Math.round(height * this.ratio);
+				this.first.recalculate(	x,
+										y,
+										width,
+										firstHeight,
+										childGeometries,
+										cellSpaces);
+				this.second.recalculate(x,
+										y + firstHeight,
+										width,
+										height - firstHeight,
+										childGeometries,
+										cellSpaces);
+			}
+		}
+	}
+
+	@Immutable
+	private static class BspSnapshot extends ShellLayoutSnapshot {
+		final FrozenCell root;
+		// the container size the cached state was calculated for.
+		final Size cachedContainerSize;
+		final long version;
+
+		BspSnapshot(final Size containerSize,
+					final List<Child> children,
+					final FrozenCell root,
+					final Size cachedContainerSize,
+					final long version) {
+			super(	containerSize,
+					children);
+			this.root = root;
+			this.cachedContainerSize = cachedContainerSize;
+			this.version = version;
+		}
+
+		@Override
+		public ShellLayoutSnapshot withContainerSize(@Nonnull final Size containerSize) {
+			return new BspSnapshot(	containerSize,
+									getChildren(),
+									this.root,
+									this.cachedContainerSize,
+									this.version);
+		}
+	}
+
+	@Immutable
+	private static class BspPlan extends ShellLayoutPlan {
+		// the space of each recalculated or visited tree node.
+		final Map<Cell, Rectangle> cellSpaces;
+		final Size containerSize;
+		final long version;
+
+		BspPlan(final Map<ShellNode, Rectangle> childGeometries,
+				final Map<Cell, Rectangle> cellSpaces,
+				final Size containerSize,
+				final long version) {
+			super(childGeometries);
+			this.cellSpaces = ImmutableMap.copyOf(cellSpaces);
+			this.containerSize = containerSize;
+			this.version = version;
+		}
+	}
+
+	private class ChildGeoListener {
+		// unused methods are used by guava's eventbus.
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildMoveResizeRequest(final ShellNodeMoveResizeRequestEvent shellNodeMoveResizeRequestEvent) {
+			final ShellNode child = shellNodeMoveResizeRequestEvent.getSource();
+			checkArgument(child instanceof AbstractShellNode);
+			final Leaf leaf = ShellLayoutManagerBspImpl.this.leafs.get(child);
+			if (leaf == null) {
+				return;
+			}
+			// the position is owned by the layout, a requested size moves the
+			// split line next to the child.
+			final Size desiredSize = shellNodeMoveResizeRequestEvent.getSourceTransformation().getRect1().getSize();
+			final Margins margins = leaf.layoutProperty.getMargins();
+			adjustRatio(leaf,
+						true,
+						desiredSize.getWidth() + margins.getLeft() + margins.getRight() - leaf.width);
+			adjustRatio(leaf,
+						false,
+						desiredSize.getHeight() + margins.getTop() + margins.getBottom() - leaf.height);
+			child.cancelPendingMove();
+			child.cancelPendingResize();
+			layout(((AbstractShellNode) child).getParentImpl());
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildDestroyed(final ShellNodeDestroyedEvent shellNodeDestroyedEvent) {
+			final ShellNode child = shellNodeDestroyedEvent.getSource();
+			checkArgument(child instanceof AbstractShellNode);
+			removeChild(child);
+			layout(((AbstractShellNode) child).getParentImpl());
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildReparentRequest(final ShellNodeReparentRequestEvent shellNodeReparentRequestEvent) {
+			final ShellNode child = shellNodeReparentRequestEvent.getSource();
+			checkArgument(child instanceof AbstractShellNode);
+			final ShellNodeParent oldParent = ((AbstractShellNode) child).getParentImpl();
+			child.doReparent();
+			layout(oldParent);
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildShowRequest(final ShellNodeShowRequestEvent shellNodeShowRequestEvent) {
+			shellNodeShowRequestEvent.getSource().doShow();
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildHideRequest(final ShellNodeHideRequestEvent shellNodeHideRequestEvent) {
+			shellNodeHideRequestEvent.getSource().doHide();
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildLowerRequest(final ShellNodeLowerRequestEvent shellNodeLowerRequestEvent) {
+			shellNodeLowerRequestEvent.getSource().doLower();
+		}
+
+		@SuppressWarnings("unused")
+		@Subscribe
+		public void handleChildRaiseRequest(final ShellNodeRaiseRequestEvent shellNodeRaiseRequestEvent) {
+			shellNodeRaiseRequestEvent.getSource().doRaise();
+		}
+	}
+}
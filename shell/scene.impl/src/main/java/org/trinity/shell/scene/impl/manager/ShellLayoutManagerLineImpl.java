@@ -22,7 +22,8 @@ package org.trinity.shell.scene.impl.manager;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.apache.onami.autobind.annotations.To.Type.CUSTOM;
 
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -30,7 +31,9 @@ import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.onami.autobind.annotations.Bind;
 import org.apache.onami.autobind.annotations.To;
 import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
 import org.trinity.foundation.api.shared.Margins;
+import org.trinity.foundation.api.shared.Rectangle;
 import org.trinity.foundation.api.shared.Size;
 import org.trinity.shell.api.bindingkey.ShellExecutor;
 import org.trinity.shell.api.scene.AbstractShellNode;
@@ -40,14 +43,15 @@ import org.trinity.shell.api.scene.event.ShellNodeDestroyedEvent;
 import org.trinity.shell.api.scene.event.ShellNodeHideRequestEvent;
 import org.trinity.shell.api.scene.event.ShellNodeLowerRequestEvent;
 import org.trinity.shell.api.scene.event.ShellNodeMoveResizeRequestEvent;
-import org.trinity.shell.api.scene.event.ShellNodeMovedResizedEvent;
 import org.trinity.shell.api.scene.event.ShellNodeRaiseRequestEvent;
 import org.trinity.shell.api.scene.event.ShellNodeReparentRequestEvent;
 import org.trinity.shell.api.scene.event.ShellNodeShowRequestEvent;
 import org.trinity.shell.api.scene.manager.AbstractShellLayoutManager;
 import org.trinity.shell.api.scene.manager.ShellLayoutManagerLine;
+import org.trinity.shell.api.scene.manager.ShellLayoutPlan;
 import org.trinity.shell.api.scene.manager.ShellLayoutProperty;
 import org.trinity.shell.api.scene.manager.ShellLayoutPropertyLine;
+import org.trinity.shell.api.scene.manager.ShellLayoutSnapshot;
 
 import com.google.common.base.Preconditions;
 import com.google.common.eventbus.Subscribe;
@@ -66,8 +70,9 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 	private static final ShellLayoutPropertyLine DEFAULT_LAYOUT_PROPERTY = new ShellLayoutPropertyLine(	1,
 																										new Margins(0));
 	private final ChildGeoListener childGeoListener = new ChildGeoListener();
-	private boolean horizontalDirection = true;
-	private boolean inverseDirection = false;
+	// read by computeLayout, which may run outside the shell executor.
+	private volatile boolean horizontalDirection = true;
+	private volatile boolean inverseDirection = false;
 
 	ShellLayoutManagerLineImpl() {
 	}
@@ -88,29 +93,36 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 		square.cancelPendingResize();
 	}
 
-	protected void layoutHorizontal(@Nonnull final ShellNode containerNode) {
-		// total available size of the container
-		checkArgument(containerNode instanceof AbstractShellNode);
+	@Override
+	public ShellLayoutPlan computeLayout(@Nonnull final ShellLayoutSnapshot snapshot) {
+		if (this.horizontalDirection) {
+			return layoutHorizontal(snapshot);
+		} else {
+			return layoutVertical(snapshot);
+		}
+	}
 
+	protected ShellLayoutPlan layoutHorizontal(@Nonnull final ShellLayoutSnapshot snapshot) {
+		// total available size of the container
 		int newWidthSize = 0;
 		int fixedHeightSize = 0;
-		final Size size = ((AbstractShellNode) containerNode).getSizeImpl();
+		final Size size = snapshot.getContainerSize();
 		newWidthSize = size.getWidth();
 		fixedHeightSize = size.getHeight();
 
 		if (newWidthSize == 0) {
-			return;
+			return ShellLayoutPlan.EMPTY;
 		}
 
 		// total size of all children
 		double totalWeightedChildSizes = 0;
 
-		for (final ShellNode child : getChildren()) {
+		for (final ShellLayoutSnapshot.Child child : snapshot.getChildren()) {
 			final int childWeight = getLayoutProperty(child).getWeight();
 			// we don't want to include children with 0 weight in the scale
 			// calculation since they are treated as constants
 			if (childWeight == 0) {
-				newWidthSize -= ((AbstractShellNode) child).toGeoTransformationImpl().getRect1().getSize().getWidth();
+				newWidthSize -= child.getDesiredSize().getWidth();
 			}
 			totalWeightedChildSizes += childWeight;
 		}
@@ -125,11 +137,11 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 		// new place of the next child
 		int newPlace = 0;
 		if (this.inverseDirection) {
-			newPlace = ((AbstractShellNode) containerNode).getSizeImpl().getWidth();
+			newPlace = size.getWidth();
 		}
 
-		final List<ShellNode> children = getChildren();
-		for (final ShellNode child : children) {
+		final Map<ShellNode, Rectangle> childGeometries = new LinkedHashMap<ShellNode, Rectangle>();
+		for (final ShellLayoutSnapshot.Child child : snapshot.getChildren()) {
 			final ShellLayoutPropertyLine layoutProperty = getLayoutProperty(child);
 			int childWeight = layoutProperty.getWeight();
 
@@ -140,7 +152,7 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 
 			if (childWeight == 0) {
 				resizeFactor = 1;
-				childWeight = ((AbstractShellNode) child).toGeoTransformationImpl().getRect1().getSize().getWidth();
+				childWeight = child.getDesiredSize().getWidth();
 			}
 
 			final int vMargins = layoutProperty.getMargins().getTop() + layoutProperty.getMargins().getBottom();
@@ -150,46 +162,48 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 
 			final int hMargins = layoutProperty.getMargins().getLeft() + layoutProperty.getMargins().getRight();
 
-			((AbstractShellNode) child).setSizeImpl(newChildWidth - hMargins,
-													fixedHeightSize - vMargins);
-
 			final int leftMargin = layoutProperty.getMargins().getLeft();
 			final int topMargin = layoutProperty.getMargins().getTop();
+			final int childX;
 			if (this.inverseDirection) {
 				newPlace -= newChildWidth;
-				((AbstractShellNode) child).setPositionImpl(newPlace + leftMargin,
-															topMargin);
+				childX = newPlace + leftMargin;
 			} else {
-				((AbstractShellNode) child).setPositionImpl(newPlace + leftMargin,
-															topMargin);
+				childX = newPlace + leftMargin;
 				// calculate next child's position
 				newPlace += newChildWidth;
 			}
 
-			child.doMoveResize();
+			childGeometries.put(child.getNode(),
+								new ImmutableRectangle(	childX,
+														topMargin,
+														newChildWidth - hMargins,
+														fixedHeightSize - vMargins));
 		}
+		return new ShellLayoutPlan(childGeometries);
 	}
 
-	protected void layoutVertical(@Nonnull final ShellNode containerNode) {
+	protected ShellLayoutPlan layoutVertical(@Nonnull final ShellLayoutSnapshot snapshot) {
 		int newHeightSize = 0;
 		int fixedWidthSize = 0;
 
-		newHeightSize = ((AbstractShellNode) containerNode).getSizeImpl().getHeight();
-		fixedWidthSize = ((AbstractShellNode) containerNode).getSizeImpl().getWidth();
+		final Size size = snapshot.getContainerSize();
+		newHeightSize = size.getHeight();
+		fixedWidthSize = size.getWidth();
 
 		if (newHeightSize == 0) {
-			return;
+			return ShellLayoutPlan.EMPTY;
 		}
 
 		// total size of all children
 		double totalWeightedChildSizes = 0;
 
-		for (final ShellNode child : getChildren()) {
+		for (final ShellLayoutSnapshot.Child child : snapshot.getChildren()) {
 			final int childWeight = getLayoutProperty(child).getWeight();
 			// we don't want to include children with 0 weight in the scale
 			// calculation since they are treated as constants
 			if (childWeight == 0) {
-				newHeightSize -= ((AbstractShellNode) child).toGeoTransformationImpl().getRect1().getSize().getHeight();
+				newHeightSize -= child.getDesiredSize().getHeight();
 			}
 			totalWeightedChildSizes += childWeight;
 		}
@@ -204,11 +218,11 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 		// new place of the next child
 		int newPlace = 0;
 		if (this.inverseDirection) {
-			newPlace = ((AbstractShellNode) containerNode).getSizeImpl().getHeight();
+			newPlace = size.getHeight();
 		}
 
-		final List<ShellNode> children = getChildren();
-		for (final ShellNode child : children) {
+		final Map<ShellNode, Rectangle> childGeometries = new LinkedHashMap<ShellNode, Rectangle>();
+		for (final ShellLayoutSnapshot.Child child : snapshot.getChildren()) {
 			final ShellLayoutPropertyLine layoutProperty = getLayoutProperty(child);
 			int childWeight = layoutProperty.getWeight();
 
@@ -219,7 +233,7 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 
 			if (childWeight == 0) {
 				resizeFactor = 1;
-				childWeight = ((AbstractShellNode) child).toGeoTransformationImpl().getRect1().getSize().getHeight();
+				childWeight = child.getDesiredSize().getHeight();
 			}
 			final int hMargins = layoutProperty.getMargins().getLeft() + layoutProperty.getMargins().getRight();
 			// calculate new height
@@ -229,22 +243,28 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 
 			final int vMargins = layoutProperty.getMargins().getTop() + layoutProperty.getMargins().getBottom();
 
-			((AbstractShellNode) child).setSizeImpl(fixedWidthSize - hMargins,
-													newChildHeight - vMargins);
-
 			final int topMargin = layoutProperty.getMargins().getTop();
 			final int leftMargin = layoutProperty.getMargins().getLeft();
+			final int childY;
 			if (this.inverseDirection) {
 				newPlace -= newChildHeight;
-				((AbstractShellNode) child).setPositionImpl(leftMargin,
-															newPlace + topMargin);
+				childY = newPlace + topMargin;
 			} else {
-				((AbstractShellNode) child).setPositionImpl(leftMargin,
-															newPlace + topMargin);
+				childY = newPlace + topMargin;
 				newPlace += newChildHeight;
 			}
-			child.doMoveResize();
+
+			childGeometries.put(child.getNode(),
+								new ImmutableRectangle(	leftMargin,
+														childY,
+														fixedWidthSize - hMargins,
+														newChildHeight - vMargins));
 		}
+		return new ShellLayoutPlan(childGeometries);
+	}
+
+	private ShellLayoutPropertyLine getLayoutProperty(@Nonnull final ShellLayoutSnapshot.Child child) {
+		return (ShellLayoutPropertyLine) child.getLayoutProperty();
 	}
 
 	@Override
@@ -263,28 +283,11 @@ public class ShellLayoutManagerLineImpl extends AbstractShellLayoutManager imple
 		super.removeChild(child);
 	}
 
-	@Override
-	public void layout(@Nonnull final ShellNodeParent containerNode) {
-		if (containerNode == null) {
-			return;
-		}
-		if (this.horizontalDirection) {
-			layoutHorizontal(containerNode);
-		} else {
-			layoutVertical(containerNode);
-		}
-	}
-
 	@Override
 	public ShellLayoutPropertyLine getLayoutProperty(@Nonnull final ShellNode child) {
 		return (ShellLayoutPropertyLine) super.getLayoutProperty(child);
 	}
 
-	@Subscribe
-	public void handleContainerMoveResize(final ShellNodeMovedResizedEvent moveResizeEvent) {
-		layout((ShellNodeParent) moveResizeEvent.getSource());
-	}
-
 	@Override
 	public ShellLayoutPropertyLine defaultLayoutProperty() {
 		return this.DEFAULT_LAYOUT_PROPERTY;
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.manager;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.onami.autobind.annotations.To.Type.CUSTOM;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.apache.onami.autobind.annotations.To;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.AbstractShellNodeParent;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.api.scene.manager.ShellLayoutManager;
+import org.trinity.shell.api.scene.manager.ShellLayoutPlan;
+import org.trinity.shell.api.scene.manager.ShellLayoutSnapshot;
+import org.trinity.shell.api.scene.manager.ShellSceneLayout;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * A {@link ShellSceneLayout} that computes layouts on a {@link ForkJoinPool}.
+ * Each container is a fork join task that, once its own plan is known, forks a
+ * task for every nested container with the size the plan gives it.
+ */
+@Bind(to = @To(value = CUSTOM, customs = ShellSceneLayout.class))
+@Singleton
+@ThreadSafe
+@ExecutionContext(ShellExecutor.class)
+public class ShellSceneLayoutImpl implements ShellSceneLayout {
+
+	private final ListeningExecutorService shellExecutor;
+	private final ForkJoinPool forkJoinPool;
+
+	@Inject
+	ShellSceneLayoutImpl(@ShellExecutor final ListeningExecutorService shellExecutor) {
+		this(	shellExecutor,
+				ForkJoinPool.commonPool());
+	}
+
+	ShellSceneLayoutImpl(	final ListeningExecutorService shellExecutor,
+							final ForkJoinPool forkJoinPool) {
+		this.shellExecutor = shellExecutor;
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	// called by shell executor
+	@Override
+	public ListenableFuture<Void> layout(@Nonnull final ShellNodeParent parent) {
+		checkArgument(parent instanceof AbstractShellNodeParent);
+
+		final Optional<Container> optionalContainer = snapshotTree((AbstractShellNodeParent) parent);
+		if (!optionalContainer.isPresent()) {
+			return Futures.immediateFuture(null);
+		}
+		final Container container = optionalContainer.get();
+
+		final SettableFuture<Void> committed = SettableFuture.create();
+		this.forkJoinPool.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					final List<ComputedPlan> computedPlans = new ComputeTask(	container,
+																				container.snapshot).invoke();
+					ShellSceneLayoutImpl.this.shellExecutor.submit(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								commit(computedPlans);
+								committed.set(null);
+							} catch (final RuntimeException e) {
+								committed.setException(e);
+							}
+						}
+					});
+				} catch (final RuntimeException e) {
+					committed.setException(e);
+				}
+			}
+		});
+		return committed;
+	}
+
+	// called by shell executor
+	private Optional<Container> snapshotTree(final AbstractShellNodeParent parent) {
+		final Optional<ShellLayoutManager> optionalLayoutManager = parent.getLayoutManagerImpl();
+		if (!optionalLayoutManager.isPresent()) {
+			return Optional.absent();
+		}
+		final ShellLayoutManager layoutManager = optionalLayoutManager.get();
+		final ShellLayoutSnapshot snapshot = layoutManager.snapshot(parent);
+
+		final Map<ShellNode, Container> nestedContainers = new LinkedHashMap<ShellNode, Container>();
+		for (final ShellLayoutSnapshot.Child child : snapshot.getChildren()) {
+			final ShellNode childNode = child.getNode();
+			if (childNode instanceof AbstractShellNodeParent) {
+				final Optional<Container> nestedContainer = snapshotTree((AbstractShellNodeParent) childNode);
+				if (nestedContainer.isPresent()) {
+					nestedContainers.put(	childNode,
+											nestedContainer.get());
+				}
+			}
+		}
+		return Optional.of(new Container(	parent,
+											layoutManager,
+											snapshot,
+											nestedContainers));
+	}
+
+	// called by shell executor
+	private void commit(final List<ComputedPlan> computedPlans) {
+		// Committing a plan moves and resizes nested containers. Their
+		// own plan is committed right after, so they shouldn't layout
+		// themselves in the meantime.
+		for (final ComputedPlan computedPlan : computedPlans) {
+			computedPlan.container.parent.setLayoutSuspended(true);
+		}
+		try {
+			// plans are ordered parent first.
+			for (final ComputedPlan computedPlan : computedPlans) {
+				final Container container = computedPlan.container;
+				if (container.parent.isDestroyedImpl()) {
+					continue;
+				}
+				container.layoutManager.commitLayout(withoutStaleChildren(	container,
+																			computedPlan.plan));
+			}
+		} finally {
+			for (final ComputedPlan computedPlan : computedPlans) {
+				computedPlan.container.parent.setLayoutSuspended(false);
+			}
+		}
+	}
+
+	/**
+	 * The plan is computed from a snapshot, so by the time it is committed
+	 * some children may be destroyed or may have left the container. Those
+	 * are left alone.
+	 */
+	// called by shell executor
+	private ShellLayoutPlan withoutStaleChildren(	final Container container,
+													final ShellLayoutPlan plan) {
+		final Map<ShellNode, Rectangle> childGeometries = new LinkedHashMap<ShellNode, Rectangle>();
+		for (final Map.Entry<ShellNode, Rectangle> entry : plan.getChildGeometries().entrySet()) {
+			final ShellNode child = entry.getKey();
+			if (isStaleChild(	container,
+								child)) {
+				continue;
+			}
+			childGeometries.put(child,
+								entry.getValue());
+		}
+		return childGeometries.size() == plan.getChildGeometries().size() ? plan
+				: new ShellLayoutPlan(childGeometries);
+	}
+
+	// called by shell executor
+	private boolean isStaleChild(	final Container container,
+									final ShellNode child) {
+		if (container.layoutManager.getLayoutProperty(child) == null) {
+			return true;
+		}
+		if (child instanceof AbstractShellNode) {
+			final AbstractShellNode childNode = (AbstractShellNode) child;
+			return childNode.isDestroyedImpl() || (childNode.getDesiredParent() != container.parent);
+		}
+		return false;
+	}
+
+	private static class Container {
+		final AbstractShellNodeParent parent;
+		final ShellLayoutManager layoutManager;
+		final ShellLayoutSnapshot snapshot;
+		final Map<ShellNode, Container> nestedContainers;
+
+		Container(	final AbstractShellNodeParent parent,
+					final ShellLayoutManager layoutManager,
+					final ShellLayoutSnapshot snapshot,
+					final Map<ShellNode, Container> nestedContainers) {
+			this.parent = parent;
+			this.layoutManager = layoutManager;
+			this.snapshot = snapshot;
+			this.nestedContainers = nestedContainers;
+		}
+	}
+
+	private static class ComputedPlan {
+		final Container container;
+		final ShellLayoutPlan plan;
+
+		ComputedPlan(	final Container container,
+						final ShellLayoutPlan plan) {
+			this.container = container;
+			this.plan = plan;
+		}
+	}
+
+	private static class ComputeTask extends RecursiveTask<List<ComputedPlan>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Container container;
+		private final ShellLayoutSnapshot snapshot;
+
+		ComputeTask(final Container container,
+					final ShellLayoutSnapshot snapshot) {
+			this.container = container;
+			this.snapshot = snapshot;
+		}
+
+		@Override
+		protected List<ComputedPlan> compute() {
+			final ShellLayoutPlan plan = this.container.layoutManager.computeLayout(this.snapshot);
+
+			final List<ComputeTask> nestedTasks = new ArrayList<ComputeTask>(this.container.nestedContainers.size());
+			for (final Map.Entry<ShellNode, Container> entry : this.container.nestedContainers.entrySet()) {
+				final Container nestedContainer = entry.getValue();
+				final Rectangle plannedGeometry = plan.getChildGeometries().get(entry.getKey());
+				final Size nestedSize = plannedGeometry == null ? nestedContainer.snapshot.getContainerSize()
+						: plannedGeometry.getSize();
+				nestedTasks.add(new ComputeTask(nestedContainer,
+												nestedContainer.snapshot.withContainerSize(nestedSize)));
+			}
+			invokeAll(nestedTasks);
+
+			final List<ComputedPlan> computedPlans = new ArrayList<ComputedPlan>();
+			computedPlans.add(new ComputedPlan(	this.container,
+												plan));
+			for (final ComputeTask nestedTask : nestedTasks) {
+				computedPlans.addAll(nestedTask.join());
+			}
+			return computedPlans;
+		}
+	}
+}
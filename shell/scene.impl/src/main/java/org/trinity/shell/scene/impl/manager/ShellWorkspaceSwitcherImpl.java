@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shell.scene.impl.manager;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.onami.autobind.annotations.To.Type.CUSTOM;
+
+import java.util.concurrent.Callable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.onami.autobind.annotations.Bind;
+import org.apache.onami.autobind.annotations.To;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.AbstractShellNodeParent;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.manager.ShellLayoutManager;
+import org.trinity.shell.api.scene.manager.ShellWorkspaceSwitcher;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * A {@link ShellWorkspaceSwitcher} for workspaces that are
+ * {@link org.trinity.shell.scene.impl.ShellVirtualSurface}s, or any other
+ * {@link AbstractShellNode}.
+ * <p>
+ * The outgoing workspace is unmapped before the incoming one is mapped. Both
+ * happen in the same {@link DisplayBatch}, so the display receives the whole
+ * switch in a single flush. Any geometry change of the incoming windows that
+ * is still pending is executed right before they are mapped, in that same
+ * batch. Children that were added to the incoming workspace while it was
+ * hidden are laid out first, so their geometry is part of the same batch.
+ */
+@Bind(to = @To(value = CUSTOM, customs = ShellWorkspaceSwitcher.class))
+@Singleton
+@ThreadSafe
+@ExecutionContext(ShellExecutor.class)
+public class ShellWorkspaceSwitcherImpl implements ShellWorkspaceSwitcher {
+
+	private final ListeningExecutorService shellExecutor;
+
+	@Inject
+	ShellWorkspaceSwitcherImpl(@ShellExecutor final ListeningExecutorService shellExecutor) {
+		this.shellExecutor = shellExecutor;
+	}
+
+	@Override
+	public ListenableFuture<Void> switchWorkspace(	@Nonnull final ShellNode from,
+													@Nonnull final ShellNode to) {
+		checkArgument(from instanceof AbstractShellNode);
+		checkArgument(to instanceof AbstractShellNode);
+
+		return this.shellExecutor.submit(new Callable<Void>() {
+			@Override
+			public Void call() {
+				return switchWorkspaceImpl(	(AbstractShellNode) from,
+											(AbstractShellNode) to);
+			}
+		});
+	}
+
+	/**
+	 * Concrete implementation of
+	 * {@link #switchWorkspace(ShellNode, ShellNode)}. This method is invoked by
+	 * the shell thread.
+	 */
+	public Void switchWorkspaceImpl(@Nonnull final AbstractShellNode from,
+									@Nonnull final AbstractShellNode to) {
+		if (from.equals(to)) {
+			return null;
+		}
+
+		final DisplayBatch batch = DisplayBatch.open();
+		try {
+			from.doHideImpl();
+			if (to instanceof AbstractShellNodeParent) {
+				final Optional<ShellLayoutManager> layoutManager = ((AbstractShellNodeParent) to).getLayoutManagerImpl();
+				if (layoutManager.isPresent()) {
+					layoutManager.get().layout((AbstractShellNodeParent) to);
+				}
+			}
+			to.doShowImpl();
+		} finally {
+			batch.close();
+		}
+		return null;
+	}
+}
@@ -0,0 +1,252 @@
+package org.trinity.shell.scene.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
+import org.trinity.shell.api.scene.ShellNodeParent;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellNodeGeometryFlushTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.listeningDecorator(Executors
+			.newSingleThreadExecutor());
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+
+	@After
+	public void tearDown() {
+		this.shellExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testChangesInOneTickAreMerged() throws Exception {
+		final TestNode node = onShellThread(new Callable<TestNode>() {
+			@Override
+			public TestNode call() {
+				return new TestNode();
+			}
+		});
+
+		onShellThread(new Callable<Void>() {
+			@Override
+			public Void call() {
+				node.setPositionImpl(	10,
+										10);
+				node.doMoveImpl();
+				node.setSizeImpl(	100,
+									100);
+				node.doResizeImpl();
+				node.setSizeImpl(	200,
+									150);
+				node.doResizeImpl();
+				node.setPositionImpl(	20,
+										30);
+				node.cancelPendingMoveImpl();
+				return null;
+			}
+		});
+		// wait for the end of the tick.
+		onShellThread(new Callable<Void>() {
+			@Override
+			public Void call() {
+				return null;
+			}
+		});
+
+		assertEquals(	10,
+						node.getPositionImpl().getX());
+		assertEquals(	150,
+						node.getSizeImpl().getHeight());
+		verify(	node.delegate,
+				times(1)).moveResize(	node.getPositionImpl(),
+										node.getSizeImpl());
+		verify(	node.delegate,
+				never()).move(any(Coordinate.class));
+		verify(	node.delegate,
+				never()).resize(any(Size.class));
+	}
+
+	@Test
+	public void testExecutedGeometryIsNotRepeated() throws Exception {
+		final TestNode node = onShellThread(new Callable<TestNode>() {
+			@Override
+			public TestNode call() {
+				return new TestNode();
+			}
+		});
+
+		for (int i = 0; i < 2; i++) {
+			onShellThread(new Callable<Void>() {
+				@Override
+				public Void call() {
+					node.setPositionImpl(	10,
+											10);
+					node.setSizeImpl(	100,
+										100);
+					node.doMoveResizeImpl();
+					return null;
+				}
+			});
+		}
+		// a new position only moves the node.
+		onShellThread(new Callable<Void>() {
+			@Override
+			public Void call() {
+				node.setPositionImpl(	20,
+										10);
+				node.setSizeImpl(	100,
+									100);
+				node.doMoveResizeImpl();
+				return null;
+			}
+		});
+		// wait for the end of the tick.
+		onShellThread(new Callable<Void>() {
+			@Override
+			public Void call() {
+				return null;
+			}
+		});
+
+		verify(	node.delegate,
+				times(1)).moveResize(	any(Coordinate.class),
+										any(Size.class));
+		verify(	node.delegate,
+				times(1)).move(node.getPositionImpl());
+		verify(	node.delegate,
+				never()).resize(any(Size.class));
+	}
+
+	@Test
+	public void testChangesInBatchAreFlushedWithTheBatch() throws Exception {
+		final TestNode node = onShellThread(new Callable<TestNode>() {
+			@Override
+			public TestNode call() {
+				return new TestNode();
+			}
+		});
+		final AtomicBoolean batched = new AtomicBoolean();
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(final InvocationOnMock invocation) {
+				batched.set(DisplayBatch.isOpen());
+				return null;
+			}
+		}).when(node.delegate).moveResize(	any(Coordinate.class),
+											any(Size.class));
+
+		onShellThread(new Callable<Void>() {
+			@Override
+			public Void call() {
+				final DisplayBatch batch = DisplayBatch.open();
+				try {
+					node.setPositionImpl(	10,
+											10);
+					node.doMoveImpl();
+					node.setSizeImpl(	100,
+										100);
+					node.doResizeImpl();
+				} finally {
+					batch.close();
+				}
+				// the flush is not left to the end of the tick.
+				verify(	node.delegate,
+						times(1)).moveResize(	node.getPositionImpl(),
+												node.getSizeImpl());
+				return null;
+			}
+		});
+
+		assertTrue(batched.get());
+	}
+
+	@Test
+	public void testRaiseFlushesDeferredGeometry() throws Exception {
+		final TestNode node = onShellThread(new Callable<TestNode>() {
+			@Override
+			public TestNode call() {
+				// raising needs a parent to restack the node in.
+				return new TestNode(new ShellVirtualSurface(null,
+															ShellNodeGeometryFlushTest.this.shellScene,
+															ShellNodeGeometryFlushTest.this.shellExecutor) {
+				});
+			}
+		});
+
+		onShellThread(new Callable<Void>() {
+			@Override
+			public Void call() {
+				node.setGeometryDeferred(true);
+				node.setPositionImpl(	10,
+										10);
+				node.doMoveImpl();
+				node.doRaiseImpl();
+				return null;
+			}
+		});
+		// wait for the end of the tick.
+		onShellThread(new Callable<Void>() {
+			@Override
+			public Void call() {
+				return null;
+			}
+		});
+
+		// the node is uncovered, so it gets its geometry before the raise.
+		final InOrder inOrder = inOrder(node.delegate);
+		inOrder.verify(node.delegate).move(node.getPositionImpl());
+		inOrder.verify(node.delegate).raise();
+		assertFalse(node.isGeometryDeferred());
+	}
+
+	private <T> T onShellThread(final Callable<T> callable) throws Exception {
+		return this.shellExecutor.submit(callable).get();
+	}
+
+	private class TestNode extends AbstractShellNode {
+
+		final ShellNodeGeometryDelegate delegate = mock(ShellNodeGeometryDelegate.class);
+
+		TestNode() {
+			this(null);
+		}
+
+		TestNode(final ShellNodeParent parent) {
+			super(	parent,
+					ShellNodeGeometryFlushTest.this.shellScene,
+					ShellNodeGeometryFlushTest.this.shellExecutor);
+			if (parent != null) {
+				doReparent(false);
+			}
+		}
+
+		@Override
+		public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
+			return this.delegate;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package org.trinity.shell.scene.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.api.scene.ShellNodeState;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellNodeStateTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+
+	@Test
+	public void testCommittedGeometryIsPublished() {
+		final ShellVirtualSurface root = newNode(null);
+		final ShellVirtualSurface node = newNode(root);
+		final ShellNodeState initial = node.snapshot();
+
+		node.setPositionImpl(	10,
+								20);
+		node.setSizeImpl(	300,
+							400);
+		// not committed yet
+		assertSame(	initial,
+					node.snapshot());
+
+		node.doMoveResizeImpl();
+		final ShellNodeState moved = node.snapshot();
+		assertEquals(	10,
+						moved.getPosition().getX());
+		assertEquals(	20,
+						moved.getPosition().getY());
+		assertEquals(	300,
+						moved.getSize().getWidth());
+		assertEquals(	400,
+						moved.getSize().getHeight());
+		assertSame(	root,
+					moved.getParent());
+		assertTrue(moved.getVersion() > initial.getVersion());
+
+		node.doShowImpl();
+		assertTrue(node.snapshot().isVisible());
+		node.doHideImpl();
+		assertFalse(node.snapshot().isVisible());
+		node.doDestroyImpl();
+		assertTrue(node.snapshot().isDestroyed());
+	}
+
+	@Test
+	public void testStackIndexIsPublished() {
+		final ShellVirtualSurface root = newNode(null);
+		final ShellVirtualSurface bottom = newNode(null);
+		final ShellVirtualSurface top = newNode(null);
+		bottom.setParentImpl(root);
+		bottom.doReparentImpl();
+		top.setParentImpl(root);
+		top.doReparentImpl();
+
+		assertEquals(	0,
+						bottom.snapshot().getStackIndex());
+		assertEquals(	1,
+						top.snapshot().getStackIndex());
+
+		bottom.doRaiseImpl();
+		assertEquals(	1,
+						bottom.snapshot().getStackIndex());
+		assertEquals(	0,
+						top.snapshot().getStackIndex());
+	}
+
+	private ShellVirtualSurface newNode(final ShellNodeParent parent) {
+		return new ShellVirtualSurface(	parent,
+										this.shellScene,
+										this.shellExecutor) {
+		};
+	}
+}
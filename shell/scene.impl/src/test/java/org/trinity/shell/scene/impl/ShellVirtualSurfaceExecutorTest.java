@@ -0,0 +1,196 @@
+package org.trinity.shell.scene.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.trinity.foundation.api.display.DisplayBatch;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
+import org.trinity.shell.api.scene.ShellNodeParent;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellVirtualSurfaceExecutorTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+	private final List<String> calls = new ArrayList<>();
+
+	@Test
+	public void testNestedGroupsAreFlattened() {
+		final ShellVirtualSurface root = new ShellVirtualSurface(	null,
+																	this.shellScene,
+																	this.shellExecutor) {
+			@Override
+			public Boolean isVisibleImpl() {
+				return Boolean.TRUE;
+			}
+		};
+		final ShellVirtualSurface group = newVirtualSurface(root);
+		final TestNode bottom = new TestNode(	"bottom",
+												group);
+		final ShellVirtualSurface nestedGroup = newVirtualSurface(group);
+		final TestNode middle = new TestNode(	"middle",
+												nestedGroup);
+		final TestNode top = new TestNode(	"top",
+											group);
+
+		group.setPositionImpl(	10,
+								10);
+		group.doMoveImpl();
+		assertEquals(	Arrays.asList(	"bottom move batched",
+										"middle move batched",
+										"top move batched"),
+						this.calls);
+
+		this.calls.clear();
+		group.doShowImpl();
+		// mapped top first
+		assertEquals(	Arrays.asList(	"top show batched",
+										"middle show batched",
+										"bottom show batched"),
+						this.calls);
+
+		this.calls.clear();
+		group.doHideImpl();
+		// unmapped bottom first
+		assertEquals(	Arrays.asList(	"bottom hide batched",
+										"middle hide batched",
+										"top hide batched"),
+						this.calls);
+	}
+
+	@Test
+	public void testMoveWithoutExecuteMovesChildren() {
+		final ShellVirtualSurface root = new ShellVirtualSurface(	null,
+																	this.shellScene,
+																	this.shellExecutor) {
+		};
+		final ShellVirtualSurface group = newVirtualSurface(root);
+		final TestNode bottom = new TestNode(	"bottom",
+												group);
+		final ShellVirtualSurface nestedGroup = newVirtualSurface(group);
+		final TestNode middle = new TestNode(	"middle",
+												nestedGroup);
+		final TestNode top = new TestNode(	"top",
+											group);
+
+		this.calls.clear();
+		group.setPositionImpl(	10,
+								10);
+		group.doMove(false);
+
+		assertEquals(	Arrays.asList(	"bottom move",
+										"middle move batched",
+										"top move"),
+						this.calls);
+	}
+
+	private ShellVirtualSurface newVirtualSurface(final ShellNodeParent parent) {
+		final ShellVirtualSurface virtualSurface = new ShellVirtualSurface(	parent,
+																			this.shellScene,
+																			this.shellExecutor) {
+		};
+		virtualSurface.doReparentImpl();
+		virtualSurface.doShowImpl();
+		return virtualSurface;
+	}
+
+	private class TestNode extends AbstractShellNode {
+
+		private final ShellNodeGeometryDelegate delegate;
+
+		TestNode(	final String name,
+					final ShellNodeParent parent) {
+			super(	parent,
+					ShellVirtualSurfaceExecutorTest.this.shellScene,
+					ShellVirtualSurfaceExecutorTest.this.shellExecutor);
+			this.delegate = new RecordingDelegate(	name,
+													this);
+			doReparent(false);
+			doShow(false);
+		}
+
+		@Override
+		public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
+			return this.delegate;
+		}
+	}
+
+	private class RecordingDelegate implements ShellNodeGeometryDelegate {
+
+		private final String name;
+		private final ShellNode shellNode;
+
+		RecordingDelegate(	final String name,
+							final ShellNode shellNode) {
+			this.name = name;
+			this.shellNode = shellNode;
+		}
+
+		private void record(final String call) {
+			ShellVirtualSurfaceExecutorTest.this.calls.add(this.name + " " + call
+					+ (DisplayBatch.isOpen() ? " batched" : ""));
+		}
+
+		@Override
+		public ShellNode getShellNode() {
+			return this.shellNode;
+		}
+
+		@Override
+		public void lower() {
+			record("lower");
+		}
+
+		@Override
+		public void raise() {
+			record("raise");
+		}
+
+		@Override
+		public void move(final Coordinate desiredPosition) {
+			record("move");
+		}
+
+		@Override
+		public void resize(final Size desiredSize) {
+			record("resize");
+		}
+
+		@Override
+		public void moveResize(	final Coordinate desiredPosition,
+								final Size desiredSize) {
+			record("moveResize");
+		}
+
+		@Override
+		public void show() {
+			record("show");
+		}
+
+		@Override
+		public void hide() {
+			record("hide");
+		}
+
+		@Override
+		public void reparent(final ShellNodeParent parent) {
+			record("reparent");
+		}
+
+		@Override
+		public void destroy() {
+			record("destroy");
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package org.trinity.shell.scene.impl.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class RTreeTest {
+
+	private static final int VALUES = 2000;
+	private static final int EXTENT = 4000;
+
+	@Test
+	public void testSearchMatchesBruteForce() {
+		final Random random = new Random(42);
+		final RTree<Integer> tree = new RTree<>();
+		final int[][] bounds = new int[VALUES][];
+
+		for (int i = 0; i < VALUES; i++) {
+			bounds[i] = randomBounds(random);
+			tree.put(	i,
+						bounds[i][0],
+						bounds[i][1],
+						bounds[i][2],
+						bounds[i][3]);
+		}
+		// move half of the values around and remove a quarter.
+		for (int i = 0; i < VALUES; i += 2) {
+			bounds[i] = randomBounds(random);
+			tree.put(	i,
+						bounds[i][0],
+						bounds[i][1],
+						bounds[i][2],
+						bounds[i][3]);
+		}
+		for (int i = 1; i < VALUES; i += 4) {
+			tree.remove(i);
+			bounds[i] = null;
+		}
+		assertEquals(	VALUES - (VALUES / 4),
+						tree.size());
+
+		for (int q = 0; q < 500; q++) {
+			final int[] query = randomBounds(random);
+			final Set<Integer> expected = new HashSet<>();
+			for (int i = 0; i < VALUES; i++) {
+				final int[] b = bounds[i];
+				if (b != null && b[0] < query[0] + query[2] && query[0] < b[0] + b[2] && b[1] < query[1] + query[3]
+						&& query[1] < b[1] + b[3]) {
+					expected.add(i);
+				}
+			}
+			final Set<Integer> found = new HashSet<>();
+			tree.search(query[0],
+						query[1],
+						query[0] + query[2],
+						query[1] + query[3],
+						new RTree.Visitor<Integer>() {
+							@Override
+							public void visit(final Integer value) {
+								assertFalse(found.contains(value));
+								found.add(value);
+							}
+						});
+			assertEquals(	expected,
+							found);
+		}
+	}
+
+	@Test
+	public void testRemoveAll() {
+		final Random random = new Random(7);
+		final RTree<Integer> tree = new RTree<>();
+		for (int i = 0; i < VALUES; i++) {
+			final int[] b = randomBounds(random);
+			tree.put(	i,
+						b[0],
+						b[1],
+						b[2],
+						b[3]);
+		}
+		for (int i = 0; i < VALUES; i++) {
+			tree.remove(i);
+		}
+		assertEquals(	0,
+						tree.size());
+		final Set<Integer> found = new HashSet<>();
+		tree.search(Integer.MIN_VALUE,
+					Integer.MIN_VALUE,
+					Integer.MAX_VALUE,
+					Integer.MAX_VALUE,
+					new RTree.Visitor<Integer>() {
+						@Override
+						public void visit(final Integer value) {
+							found.add(value);
+						}
+					});
+		assertEquals(	0,
+						found.size());
+	}
+
+	private static int[] randomBounds(final Random random) {
+		return new int[] { random.nextInt(EXTENT), random.nextInt(EXTENT), 1 + random.nextInt(300),
+				1 + random.nextInt(300) };
+	}
+}
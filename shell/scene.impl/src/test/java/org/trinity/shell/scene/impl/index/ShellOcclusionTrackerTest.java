@@ -0,0 +1,123 @@
+package org.trinity.shell.scene.impl.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellOcclusionTrackerTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+
+	@Test
+	public void testCoveredNodeDefersGeometry() {
+		final ShellOcclusionTrackerImpl tracker = new ShellOcclusionTrackerImpl(this.shellExecutor);
+		final TestNode bottom = new TestNode(	0,
+												0,
+												100,
+												100);
+		final TestNode left = new TestNode(	0,
+											0,
+											50,
+											100);
+		final TestNode right = new TestNode(50,
+											0,
+											60,
+											100);
+		tracker.addChildNode(bottom);
+		tracker.addChildNode(left);
+		tracker.addChildNode(right);
+
+		assertTrue(tracker.isOccluded(bottom));
+		assertTrue(bottom.isGeometryDeferred());
+		assertFalse(tracker.isOccluded(left));
+		assertFalse(tracker.isOccluded(right));
+
+		// changes while covered only update the node's state.
+		bottom.setPositionImpl(	10,
+								0);
+		bottom.doMoveImpl();
+		bottom.setSizeImpl(	80,
+							90);
+		bottom.doResizeImpl();
+		verify(	bottom.delegate,
+				never()).move(any(Coordinate.class));
+		verify(	bottom.delegate,
+				never()).resize(any(Size.class));
+		assertEquals(	10,
+						bottom.getPositionImpl().getX());
+
+		// uncover part of the bottom node, the merged geometry is executed
+		// once.
+		right.setPositionImpl(	200,
+								0);
+		right.doMoveImpl();
+		assertFalse(tracker.isOccluded(bottom));
+		assertFalse(bottom.isGeometryDeferred());
+		verify(	bottom.delegate,
+				times(1)).moveResize(	bottom.getPositionImpl(),
+										bottom.getSizeImpl());
+	}
+
+	@Test
+	public void testSubtract() {
+		final List<int[]> fragments = ShellOcclusionTrackerImpl.subtract(	Arrays.asList(new int[] { 0, 0, 100, 100 }),
+																			new int[] { 25, 25, 75, 75 });
+		long area = 0;
+		for (final int[] f : fragments) {
+			area += (long) (f[2] - f[0]) * (f[3] - f[1]);
+		}
+		assertEquals(	(100 * 100) - (50 * 50),
+						area);
+		assertTrue(ShellOcclusionTrackerImpl.subtract(	fragments,
+														new int[] { -1, -1, 101, 101 }).isEmpty());
+	}
+
+	private class TestNode extends AbstractShellNode {
+
+		final ShellNodeGeometryDelegate delegate = mock(ShellNodeGeometryDelegate.class);
+
+		TestNode(	final int x,
+					final int y,
+					final int width,
+					final int height) {
+			super(	null,
+					ShellOcclusionTrackerTest.this.shellScene,
+					ShellOcclusionTrackerTest.this.shellExecutor);
+			setPositionImpl(x,
+							y);
+			setSizeImpl(width,
+						height);
+			doMoveResize(false);
+			doShow(false);
+		}
+
+		@Override
+		public Boolean isVisibleImpl() {
+			return Boolean.TRUE;
+		}
+
+		@Override
+		public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
+			return this.delegate;
+		}
+	}
+}
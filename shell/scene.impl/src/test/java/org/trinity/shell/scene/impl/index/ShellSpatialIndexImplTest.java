@@ -0,0 +1,134 @@
+package org.trinity.shell.scene.impl.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.Coordinate;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellSpatialIndexImplTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+
+	@Test
+	public void testIndexFollowsNodeEvents() {
+		// the parent is not shown, its children are indexed all the same.
+		final ShellVirtualSurface parent = newParent();
+		final ShellSpatialIndexImpl index = new ShellSpatialIndexImpl();
+		final TestNode bottom = new TestNode(	parent,
+												0,
+												0,
+												100,
+												100);
+		final TestNode top = new TestNode(	parent,
+											50,
+											50,
+											100,
+											100);
+		index.addChildNode(bottom);
+		index.addChildNode(top);
+		assertEquals(	Arrays.asList(	top,
+										bottom),
+						index.getNodesAt(new Coordinate(75,
+														75)));
+
+		// move
+		top.setPositionImpl(200,
+							0);
+		top.doMoveImpl();
+		assertEquals(	Arrays.asList(bottom),
+						index.getNodesAt(new Coordinate(75,
+														75)));
+		assertEquals(	Arrays.asList(top),
+						index.getNodesAt(new Coordinate(250,
+														50)));
+
+		// resize
+		bottom.setSizeImpl(	300,
+							100);
+		bottom.doResizeImpl();
+		assertEquals(	Arrays.asList(	top,
+										bottom),
+						index.getNodesAt(new Coordinate(250,
+														50)));
+
+		// lower
+		top.doLowerImpl();
+		assertEquals(	Arrays.asList(	bottom,
+										top),
+						index.getNodesAt(new Coordinate(250,
+														50)));
+
+		// hide and show
+		bottom.doHideImpl();
+		assertEquals(	Arrays.asList(top),
+						index.getNodesAt(new Coordinate(250,
+														50)));
+		bottom.doShowImpl();
+		assertEquals(	Arrays.asList(	bottom,
+										top),
+						index.getNodesAt(new Coordinate(250,
+														50)));
+
+		// reparent
+		top.setParentImpl(newParent());
+		top.doReparentImpl();
+		assertEquals(	1,
+						index.size());
+		assertEquals(	Arrays.asList(bottom),
+						index.getNodesAt(new Coordinate(250,
+														50)));
+
+		// destroy
+		bottom.doDestroyImpl();
+		assertEquals(	0,
+						index.size());
+		assertTrue(index.getNodesAt(new Coordinate(250,
+													50)).isEmpty());
+	}
+
+	private ShellVirtualSurface newParent() {
+		return new ShellVirtualSurface(	null,
+										this.shellScene,
+										this.shellExecutor) {
+		};
+	}
+
+	private class TestNode extends AbstractShellNode {
+
+		final ShellNodeGeometryDelegate delegate = mock(ShellNodeGeometryDelegate.class);
+
+		TestNode(	final ShellNodeParent parent,
+					final int x,
+					final int y,
+					final int width,
+					final int height) {
+			super(	parent,
+					ShellSpatialIndexImplTest.this.shellScene,
+					ShellSpatialIndexImplTest.this.shellExecutor);
+			setPositionImpl(x,
+							y);
+			setSizeImpl(width,
+						height);
+			doReparent(false);
+			doShow(false);
+		}
+
+		@Override
+		public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
+			return this.delegate;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package org.trinity.shell.scene.impl.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.scene.ShellNode;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.api.scene.event.ShellNodeMovedResizedEvent;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellLayoutManagerBspImplTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+	private int moveResizeCount;
+
+	@Test
+	public void testChildrenTileContainer() {
+		final ShellVirtualSurface root = newNode(null);
+		root.setSizeImpl(	800,
+							600);
+		root.flushSizeValues();
+		final ShellLayoutManagerBspImpl layoutManager = new ShellLayoutManagerBspImpl();
+
+		final List<ShellVirtualSurface> children = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			final ShellVirtualSurface child = newNode(root);
+			children.add(child);
+			layoutManager.addChildNode(child);
+			layoutManager.layout(root);
+			assertTiled(children,
+						800,
+						600);
+		}
+
+		layoutManager.removeChild(children.remove(3));
+		final Map<ShellNode, Rectangle> planned = layoutManager.computeLayout(layoutManager.snapshot(root))
+				.getChildGeometries();
+		layoutManager.layout(root);
+		assertTiled(children,
+					800,
+					600);
+
+		// a computed plan matches the committed layout
+		assertFalse(planned.isEmpty());
+		for (final Map.Entry<ShellNode, Rectangle> entry : planned.entrySet()) {
+			final Rectangle geometry = ((ShellVirtualSurface) entry.getKey()).getGeometryImpl();
+			assertEquals(	geometry.getPosition().getX(),
+							entry.getValue().getPosition().getX());
+			assertEquals(	geometry.getSize().getHeight(),
+							entry.getValue().getSize().getHeight());
+		}
+	}
+
+	@Test
+	public void testOnlyChangedChildrenAreCommitted() {
+		final ShellVirtualSurface root = newNode(null);
+		root.setSizeImpl(	1024,
+							1024);
+		root.flushSizeValues();
+		final ShellLayoutManagerBspImpl layoutManager = new ShellLayoutManagerBspImpl();
+		for (int i = 0; i < 64; i++) {
+			layoutManager.addChildNode(newNode(root));
+		}
+		layoutManager.layout(root);
+
+		this.moveResizeCount = 0;
+		layoutManager.addChildNode(newNode(root));
+		layoutManager.layout(root);
+		// the split child and the new child
+		assertEquals(	2,
+						this.moveResizeCount);
+
+		this.moveResizeCount = 0;
+		layoutManager.layout(root);
+		assertEquals(	0,
+						this.moveResizeCount);
+	}
+
+	@Test
+	public void testComputedLayoutUpdatesTree() {
+		final ShellVirtualSurface root = newNode(null);
+		root.setSizeImpl(	400,
+							200);
+		root.flushSizeValues();
+		final ShellLayoutManagerBspImpl layoutManager = new ShellLayoutManagerBspImpl();
+		final ShellVirtualSurface child0 = newNode(root);
+		final ShellVirtualSurface child1 = newNode(root);
+		layoutManager.addChildNode(child0);
+		layoutManager.addChildNode(child1);
+		layoutManager.commitLayout(layoutManager.computeLayout(layoutManager.snapshot(root)));
+		assertEquals(	200,
+						child0.getSizeImpl().getWidth());
+
+		// nothing changed since the committed layout
+		assertTrue(layoutManager.computeLayout(layoutManager.snapshot(root)).getChildGeometries().isEmpty());
+
+		// a requested size moves the split line, starting from the committed
+		// layout.
+		child0.setSizeImpl(	300,
+							200);
+		child0.requestMoveResizeImpl();
+		assertEquals(	300,
+						child0.getSizeImpl().getWidth());
+		assertEquals(	300,
+						child1.getPositionImpl().getX());
+		assertEquals(	100,
+						child1.getSizeImpl().getWidth());
+	}
+
+	private void assertTiled(	final List<ShellVirtualSurface> children,
+								final int width,
+								final int height) {
+		long area = 0;
+		for (int i = 0; i < children.size(); i++) {
+			final Rectangle a = children.get(i).getGeometryImpl();
+			area += (long) a.getSize().getWidth() * a.getSize().getHeight();
+			for (int j = i + 1; j < children.size(); j++) {
+				final Rectangle b = children.get(j).getGeometryImpl();
+				assertFalse(a.getPosition().getX() < b.getPosition().getX() + b.getSize().getWidth()
+						&& b.getPosition().getX() < a.getPosition().getX() + a.getSize().getWidth()
+						&& a.getPosition().getY() < b.getPosition().getY() + b.getSize().getHeight()
+						&& b.getPosition().getY() < a.getPosition().getY() + a.getSize().getHeight());
+			}
+		}
+		assertEquals(	(long) width * height,
+						area);
+	}
+
+	private ShellVirtualSurface newNode(final ShellNodeParent parent) {
+		final ShellVirtualSurface node = new ShellVirtualSurface(	parent,
+																	this.shellScene,
+																	this.shellExecutor) {
+		};
+		node.register(new Object() {
+			@Subscribe
+			public void onMovedResized(final ShellNodeMovedResizedEvent event) {
+				ShellLayoutManagerBspImplTest.this.moveResizeCount++;
+			}
+		});
+		return node;
+	}
+}
@@ -0,0 +1,59 @@
+package org.trinity.shell.scene.impl.manager;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellLayoutManagerLineImplTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+
+	@Test
+	public void testChildAddedIsLayedOutExplicitly() {
+		final ShellVirtualSurface root = newVirtualSurface(null);
+		final ShellVirtualSurface container = newVirtualSurface(root);
+		final ShellLayoutManagerLineImpl containerLayout = new ShellLayoutManagerLineImpl();
+		container.setLayoutManagerImpl(containerLayout);
+		container.setSizeImpl(	600,
+								400);
+		container.doResizeImpl();
+
+		final ShellVirtualSurface child0 = newVirtualSurface(container);
+		containerLayout.addChildNode(child0);
+		child0.doReparentImpl();
+		container.layoutImpl();
+		assertEquals(	600,
+						child0.getSizeImpl().getWidth());
+
+		// when
+		final ShellVirtualSurface child1 = newVirtualSurface(container);
+		containerLayout.addChildNode(child1);
+		child1.doReparentImpl();
+
+		// then the container is only layed out when asked to
+		assertEquals(	600,
+						child0.getSizeImpl().getWidth());
+		container.layoutImpl();
+		assertEquals(	300,
+						child0.getSizeImpl().getWidth());
+		assertEquals(	300,
+						child1.getSizeImpl().getWidth());
+		assertEquals(	300,
+						child1.getPositionImpl().getX());
+
+	}
+
+	private ShellVirtualSurface newVirtualSurface(final ShellNodeParent parent) {
+		return new ShellVirtualSurface(	parent,
+										this.shellScene,
+										this.shellExecutor) {
+		};
+	}
+}
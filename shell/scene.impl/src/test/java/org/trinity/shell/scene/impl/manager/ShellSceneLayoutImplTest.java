@@ -0,0 +1,170 @@
+package org.trinity.shell.scene.impl.manager;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.foundation.api.shared.Size;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.api.scene.manager.ShellSceneLayout;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellSceneLayoutImplTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+
+	@Test
+	public void testNestedContainers() throws Exception {
+		final ShellVirtualSurface root = newNode(null);
+		root.setLayoutManagerImpl(new ShellLayoutManagerLineImpl());
+		root.setSizeImpl(	1000,
+							600);
+		root.flushSizeValues();
+
+		final List<ShellVirtualSurface> leafs = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			final ShellVirtualSurface container = newNode(root);
+			final ShellLayoutManagerLineImpl containerLayout = new ShellLayoutManagerLineImpl();
+			containerLayout.setHorizontalDirection(false);
+			container.setLayoutManagerImpl(containerLayout);
+			root.getLayoutManagerImpl().get().addChildNode(container);
+			for (int j = 0; j < 3; j++) {
+				final ShellVirtualSurface leaf = newNode(container);
+				containerLayout.addChildNode(leaf);
+				leafs.add(leaf);
+			}
+		}
+
+		new ShellSceneLayoutImpl(	this.shellExecutor,
+									new ForkJoinPool(4)).layout(root).get();
+
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 3; j++) {
+				final ShellVirtualSurface leaf = leafs.get((i * 3) + j);
+				assertEquals(	j * 200,
+								leaf.getPositionImpl().getY());
+				assertEquals(	250,
+								leaf.getSizeImpl().getWidth());
+				assertEquals(	200,
+								leaf.getSizeImpl().getHeight());
+				assertEquals(	250,
+								leaf.getParentImpl().getSizeImpl().getWidth());
+				assertEquals(	i * 250,
+								leaf.getParentImpl().getPositionImpl().getX());
+			}
+		}
+	}
+
+	@Test
+	public void testLayoutThroughSceneLayout() throws Exception {
+		final ShellVirtualSurface root = newNode(null);
+		root.setLayoutManagerImpl(new ShellLayoutManagerLineImpl());
+		final ShellVirtualSurface container = newNode(root);
+		final ShellLayoutManagerLineImpl containerLayout = new ShellLayoutManagerLineImpl();
+		container.setLayoutManagerImpl(containerLayout);
+		root.getLayoutManagerImpl().get().addChildNode(container);
+		final ShellVirtualSurface leaf = newNode(container);
+		containerLayout.addChildNode(leaf);
+
+		final ShellSceneLayoutImpl shellSceneLayout = new ShellSceneLayoutImpl(	this.shellExecutor,
+																				new ForkJoinPool(2));
+		final List<ListenableFuture<Void>> layouts = new ArrayList<>();
+		root.setSceneLayout(new ShellSceneLayout() {
+			@Override
+			public ListenableFuture<Void> layout(final ShellNodeParent parent) {
+				final ListenableFuture<Void> layout = shellSceneLayout.layout(parent);
+				layouts.add(layout);
+				return layout;
+			}
+		});
+
+		// resizing the root lays it out through the scene layout.
+		root.setSizeImpl(	800,
+							600);
+		root.doResize();
+
+		assertEquals(	1,
+						layouts.size());
+		layouts.get(0).get();
+		assertEquals(	800,
+						leaf.getSizeImpl().getWidth());
+		assertEquals(	600,
+						leaf.getSizeImpl().getHeight());
+	}
+
+	@Test
+	public void testStaleChildrenAreNotCommitted() throws Exception {
+		final ShellVirtualSurface root = newNode(null);
+		final ShellLayoutManagerLineImpl rootLayout = new ShellLayoutManagerLineImpl();
+		root.setLayoutManagerImpl(rootLayout);
+		root.setSizeImpl(	900,
+							600);
+		root.flushSizeValues();
+		final ShellVirtualSurface other = newNode(null);
+		final List<ShellVirtualSurface> children = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			final ShellVirtualSurface child = newNode(root);
+			rootLayout.addChildNode(child);
+			children.add(child);
+		}
+
+		// the plan is committed by a shell executor that is kept busy until
+		// the children changed.
+		final CountDownLatch childrenChanged = new CountDownLatch(1);
+		final Size destroyedSize;
+		final Size reparentedSize;
+		final ListeningExecutorService shellExecutor = MoreExecutors.listeningDecorator(Executors
+				.newSingleThreadExecutor());
+		try {
+			shellExecutor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws InterruptedException {
+					childrenChanged.await();
+					return null;
+				}
+			});
+			final ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+			final ListenableFuture<Void> layout = new ShellSceneLayoutImpl(	shellExecutor,
+																			forkJoinPool).layout(root);
+			forkJoinPool.awaitQuiescence(	1,
+											TimeUnit.SECONDS);
+
+			children.get(0).doDestroyImpl();
+			children.get(1).setParentImpl(other);
+			destroyedSize = children.get(0).getSizeImpl();
+			reparentedSize = children.get(1).getSizeImpl();
+			childrenChanged.countDown();
+			layout.get(	1,
+						TimeUnit.SECONDS);
+		} finally {
+			shellExecutor.shutdownNow();
+		}
+
+		assertEquals(	destroyedSize,
+						children.get(0).getSizeImpl());
+		assertEquals(	reparentedSize,
+						children.get(1).getSizeImpl());
+		assertEquals(	300,
+						children.get(2).getSizeImpl().getWidth());
+	}
+
+	private ShellVirtualSurface newNode(final ShellNodeParent parent) {
+		return new ShellVirtualSurface(	parent,
+										this.shellScene,
+										this.shellExecutor) {
+		};
+	}
+}
@@ -0,0 +1,123 @@
+package org.trinity.shell.scene.impl.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.trinity.foundation.api.shared.AsyncListenableEventBus;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNodeGeometryDelegate;
+import org.trinity.shell.api.scene.ShellNodeParent;
+import org.trinity.shell.scene.impl.ShellVirtualSurface;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class ShellWorkspaceSwitcherImplTest {
+
+	private final ListeningExecutorService shellExecutor = MoreExecutors.sameThreadExecutor();
+	private final AsyncListenableEventBus shellScene = new AsyncListenableEventBus(this.shellExecutor);
+
+	@Test
+	public void testSwitch() throws Exception {
+		final ShellVirtualSurface root = new ShellVirtualSurface(	null,
+																	this.shellScene,
+																	this.shellExecutor) {
+			@Override
+			public Boolean isVisibleImpl() {
+				return Boolean.TRUE;
+			}
+		};
+		final ShellVirtualSurface workspace0 = newWorkspace(root);
+		final ShellVirtualSurface workspace1 = newWorkspace(root);
+		final TestNode window0 = new TestNode(workspace0);
+		final TestNode window1 = new TestNode(workspace0);
+		final TestNode window2 = new TestNode(workspace1);
+		final TestNode window3 = new TestNode(workspace1);
+		workspace0.doShowImpl();
+
+		// geometry change that was not executed yet.
+		window2.setGeometryDeferred(true);
+		window2.setSizeImpl(100,
+							100);
+		window2.doResizeImpl();
+
+		new ShellWorkspaceSwitcherImpl(this.shellExecutor).switchWorkspace(	workspace0,
+																			workspace1).get();
+
+		final InOrder inOrder = inOrder(window0.delegate,
+										window1.delegate,
+										window2.delegate,
+										window3.delegate);
+		// unmapped bottom first
+		inOrder.verify(window0.delegate).hide();
+		inOrder.verify(window1.delegate).hide();
+		// mapped top first, at their current geometry
+		inOrder.verify(window3.delegate).show();
+		inOrder.verify(window2.delegate).resize(window2.getSizeImpl());
+		inOrder.verify(window2.delegate).show();
+	}
+
+	@Test
+	public void testSwitchLaysOutIncomingWorkspace() throws Exception {
+		final ShellVirtualSurface root = new ShellVirtualSurface(	null,
+																	this.shellScene,
+																	this.shellExecutor) {
+			@Override
+			public Boolean isVisibleImpl() {
+				return Boolean.TRUE;
+			}
+		};
+		final ShellVirtualSurface workspace0 = newWorkspace(root);
+		final ShellVirtualSurface workspace1 = newWorkspace(root);
+		workspace1.setLayoutManagerImpl(new ShellLayoutManagerLineImpl());
+		workspace1.setSizeImpl(	400,
+								100);
+		workspace1.doResizeImpl();
+		final TestNode window0 = new TestNode(workspace1);
+		final TestNode window1 = new TestNode(workspace1);
+		workspace1.getLayoutManagerImpl().get().addChildNode(window0);
+		workspace1.getLayoutManagerImpl().get().addChildNode(window1);
+
+		new ShellWorkspaceSwitcherImpl(this.shellExecutor).switchWorkspace(	workspace0,
+																			workspace1).get();
+
+		assertEquals(	200,
+						window0.getSizeImpl().getWidth());
+		assertEquals(	200,
+						window1.getPositionImpl().getX());
+		final InOrder inOrder = inOrder(window1.delegate);
+		inOrder.verify(window1.delegate).moveResize(window1.getPositionImpl(),
+													window1.getSizeImpl());
+		inOrder.verify(window1.delegate).show();
+	}
+
+	private ShellVirtualSurface newWorkspace(final ShellNodeParent root) {
+		final ShellVirtualSurface workspace = new ShellVirtualSurface(	root,
+																		this.shellScene,
+																		this.shellExecutor) {
+		};
+		workspace.doReparentImpl();
+		return workspace;
+	}
+
+	private class TestNode extends AbstractShellNode {
+
+		final ShellNodeGeometryDelegate delegate = mock(ShellNodeGeometryDelegate.class);
+
+		TestNode(final ShellNodeParent workspace) {
+			super(	workspace,
+					ShellWorkspaceSwitcherImplTest.this.shellScene,
+					ShellWorkspaceSwitcherImplTest.this.shellExecutor);
+			doReparent(false);
+			doShow(false);
+		}
+
+		@Override
+		public ShellNodeGeometryDelegate getShellNodeGeometryDelegate() {
+			return this.delegate;
+		}
+	}
+}
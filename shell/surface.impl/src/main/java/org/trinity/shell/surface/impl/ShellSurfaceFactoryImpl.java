@@ -21,7 +21,6 @@
 package org.trinity.shell.surface.impl;
 
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
@@ -29,8 +28,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.onami.autobind.annotations.Bind;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.trinity.foundation.api.display.DisplaySurface;
 import org.trinity.foundation.api.shared.AsyncListenable;
 import org.trinity.foundation.api.shared.Rectangle;
@@ -41,6 +38,8 @@ import org.trinity.shell.api.scene.ShellNodeParent;
 import org.trinity.shell.api.surface.ShellSurface;
 import org.trinity.shell.api.surface.ShellSurfaceFactory;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -49,7 +48,6 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 @ThreadSafe
 public class ShellSurfaceFactoryImpl implements ShellSurfaceFactory {
 
-	private static final Logger LOG = LoggerFactory.getLogger(ShellSurfaceFactory.class);
 	private final ShellNodeParent shellRootNode;
 	private final AsyncListenable shellScene;
 	private final ListeningExecutorService shellExecutor;
@@ -65,38 +63,46 @@ public class ShellSurfaceFactoryImpl implements ShellSurfaceFactory {
 
 	@Override
 	public ListenableFuture<ShellSurface> createShellClientSurface(@Nonnull final DisplaySurface displaySurface) {
+		// Don't block the shell executor while waiting for the display, the
+		// shell surface is only created once its geometry is known.
+		return Futures.transform(	displaySurface.getGeometry(),
+									new Function<Rectangle, ShellSurface>() {
+										@Override
+										public ShellSurface apply(final Rectangle geometry) {
+											return createShellClientSurfaceImpl(displaySurface,
+																				geometry);
+										}
+									},
+									this.shellExecutor);
+	}
+
+	@Override
+	public ListenableFuture<ShellSurface> createShellClientSurface(	@Nonnull final DisplaySurface displaySurface,
+																	@Nonnull final Rectangle geometry) {
 		return this.shellExecutor.submit(new Callable<ShellSurface>() {
 			@Override
 			public ShellSurface call() {
-				final ShellClientSurface shellClientSurface = new ShellClientSurface(	shellRootNode,
-																						shellScene,
-																						shellExecutor,
-																						displaySurface);
-				syncGeoToDisplaySurfaceImpl(displaySurface,
-											shellClientSurface);
-				displaySurface.register(shellClientSurface,
-										shellExecutor);
-
-				return shellClientSurface;
+				return createShellClientSurfaceImpl(displaySurface,
+													geometry);
 			}
 		});
 	}
 
-	private void syncGeoToDisplaySurfaceImpl(	final DisplaySurface displaySurface,
-												final ShellClientSurface shellClientSurface) {
-		try {
-			// we need to block/sync here because we dont want to expose an
-			// incomplete shellclientsurface object to other threads.
-			final Rectangle displaySurfaceGeo = displaySurface.getGeometry().get();
-			shellClientSurface.setPositionImpl(displaySurfaceGeo.getPosition());
-			shellClientSurface.setSizeImpl(displaySurfaceGeo.getSize());
-			shellClientSurface.flushSizePlaceValues();
-		} catch (final InterruptedException e) {
-			LOG.error(	"Interrupted while waiting for display surface geometry.",
-						e);
-		} catch (final ExecutionException e) {
-			LOG.error(	"Exception while getting display surface geometry.",
-						e);
-		}
+	// called by shell executor
+	private ShellSurface createShellClientSurfaceImpl(	final DisplaySurface displaySurface,
+														final Rectangle geometry) {
+		final ShellClientSurface shellClientSurface = new ShellClientSurface(	this.shellRootNode,
+																				this.shellScene,
+																				this.shellExecutor,
+																				displaySurface);
+		// the new shell surface is not exposed to other threads until it's
+		// fully initialized.
+		shellClientSurface.setPositionImpl(geometry.getPosition());
+		shellClientSurface.setSizeImpl(geometry.getSize());
+		shellClientSurface.flushSizePlaceValues();
+		displaySurface.register(shellClientSurface,
+								this.shellExecutor);
+
+		return shellClientSurface;
 	}
 }
@@ -61,6 +61,11 @@ public class ShellSurfaceGeometryDelegateImpl extends AbstractShellSurfaceGeomet
 			return null;
 		}
 
+		// find the closest ancestor that is of type ShellSurface
+		if (square instanceof AbstractShellSurface) {
+			return (AbstractShellSurface) square;
+		}
+
 		final ShellNodeParent parent = ((AbstractShellNode) square).getParentImpl();
 		if ((parent == null) || parent.equals(square)) {
 			return null;
@@ -23,7 +23,11 @@ package org.trinity.shellplugin.widget.impl.view.qt;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
 
 import org.apache.onami.autobind.annotations.Bind;
 import org.trinity.foundation.api.render.binding.view.delegate.Signal;
@@ -36,8 +40,12 @@ import com.trolltech.qt.gui.QApplication;
 import com.trolltech.qt.gui.QMouseEvent;
 
 @Bind
+@NotThreadSafe
 public class LMBSignalFilter implements EventSignalFilter {
 
+    // only accessed by the Qt thread.
+    private final Map<Signal, QObject> eventFilterBySignal = new HashMap<>();
+
     LMBSignalFilter() {
     }
 
@@ -54,21 +62,58 @@ public class LMBSignalFilter implements EventSignalFilter {
             @Override
             public void run() {
                 final QObject qView = (QObject) view;
-                qView.installEventFilter(new QObject() {
-                    @Override
-                    public boolean eventFilter(final QObject watched,
-                                               final QEvent event) {
-                        if (event.type().equals(QEvent.Type.MouseButtonPress)) {
-                            final QMouseEvent mouseEvent = (QMouseEvent) event;
-                            if (mouseEvent.button().equals(Qt.MouseButton.LeftButton)) {
-                                signal.fire();
-                                return true;
-                            }
-                        }
-                        return false;
-                    }
-                });
+                final QObject eventFilter = new LMBEventFilter(signal);
+                LMBSignalFilter.this.eventFilterBySignal.put(signal,
+                        eventFilter);
+                qView.installEventFilter(eventFilter);
             }
         });
     }
+
+    @Override
+    public void uninstallFilter(@Nonnull final Object view,
+                                @Nonnull final Signal signal) {
+        checkNotNull(view);
+        checkNotNull(signal);
+
+        checkArgument(view instanceof QObject,
+                "Can only uninstall filter on views of type " + QObject.class.getName());
+
+        QApplication.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                final QObject eventFilter = LMBSignalFilter.this.eventFilterBySignal.remove(signal);
+                if (eventFilter != null) {
+                    ((QObject) view).removeEventFilter(eventFilter);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fires a signal on a left mouse button press. It's a static class, an
+     * anonymous event filter would reference the view through the runnable it
+     * is created in, and it's kept by this filter.
+     */
+    private static final class LMBEventFilter extends QObject {
+
+        private final Signal signal;
+
+        LMBEventFilter(final Signal signal) {
+            this.signal = signal;
+        }
+
+        @Override
+        public boolean eventFilter(final QObject watched,
+                                   final QEvent event) {
+            if (event.type().equals(QEvent.Type.MouseButtonPress)) {
+                final QMouseEvent mouseEvent = (QMouseEvent) event;
+                if (mouseEvent.button().equals(Qt.MouseButton.LeftButton)) {
+                    this.signal.fire();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
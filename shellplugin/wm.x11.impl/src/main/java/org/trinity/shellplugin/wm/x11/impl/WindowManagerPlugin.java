@@ -21,8 +21,20 @@
 package org.trinity.shellplugin.wm.x11.impl;
 
 import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.successfulAsList;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -34,16 +46,20 @@ import org.trinity.foundation.api.display.Display;
 import org.trinity.foundation.api.display.DisplaySurface;
 import org.trinity.foundation.api.display.event.CreationNotify;
 import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.Rectangle;
 import org.trinity.shell.api.bindingkey.ShellExecutor;
 import org.trinity.shell.api.plugin.ShellPlugin;
 import org.trinity.shell.api.surface.ShellSurface;
 import org.trinity.shell.api.surface.ShellSurfaceFactory;
 import org.trinity.shellplugin.wm.x11.impl.scene.SceneManager;
+import org.trinity.shellplugin.wm.x11.impl.scene.SceneSnapshot;
 
+import com.google.common.base.Optional;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 @Bind(multiple = true)
 @Singleton
@@ -51,18 +67,26 @@ import com.google.common.util.concurrent.ListenableFuture;
 public class WindowManagerPlugin extends AbstractIdleService implements ShellPlugin {
 
 	private static final Logger LOG = LoggerFactory.getLogger(WindowManagerPlugin.class);
+	private static final Path SCENE_SNAPSHOT_FILE = Paths.get(System.getProperty(	"trinity.scene.snapshot",
+																					System.getProperty("user.home")
+																							+ "/.trinity/scene.snapshot"));
+	private static final long SCENE_SNAPSHOT_PERIOD_SECONDS = 60;
 	private final Display display;
 	private final SceneManager sceneManager;
 	private final ShellSurfaceFactory shellSurfaceFactory;
+	private final ListeningExecutorService shellExecutor;
+	private final ScheduledExecutorService snapshotExecutor = Executors.newSingleThreadScheduledExecutor();
 
 	@Inject
 	WindowManagerPlugin(final SceneManager sceneManager,
 						final ShellSurfaceFactory shellSurfaceFactory,
-						final Display display) {
+						final Display display,
+						@ShellExecutor final ListeningExecutorService shellExecutor) {
 
 		this.display = display;
 		this.sceneManager = sceneManager;
 		this.shellSurfaceFactory = shellSurfaceFactory;
+		this.shellExecutor = shellExecutor;
 	}
 
 	// called by shell executor.
@@ -72,32 +96,71 @@ public class WindowManagerPlugin extends AbstractIdleService implements ShellPlu
 		// means our listener (@Subscribe method) will be
 		// called by the "Display" thread.
 		this.display.register(this);
-		// search & manage existing clients on the display server.
-		find();
+		// search & manage existing clients on the display server, using the
+		// scene we saved before we were restarted if there is one.
+		find(SceneSnapshot.read(SCENE_SNAPSHOT_FILE));
+		this.snapshotExecutor.scheduleWithFixedDelay(	new Runnable() {
+															@Override
+															public void run() {
+																saveSceneSnapshot();
+															}
+														},
+														SCENE_SNAPSHOT_PERIOD_SECONDS,
+														SCENE_SNAPSHOT_PERIOD_SECONDS,
+														TimeUnit.SECONDS);
 	}
 
 	// called by display executor
 	@Subscribe
 	public void handleCreationNotify(final CreationNotify creationNotify) {
-		handleClientDisplaySurface(creationNotify.getDisplaySurface());
+		handleClientDisplaySurface(	creationNotify.getDisplaySurface(),
+									creationNotify.getGeometry(),
+									creationNotify.getTimestamp());
 	}
 
 	// called by shell executor.
 	@Override
 	protected void shutDown() throws Exception {
 		this.display.unregister(this);
+		this.snapshotExecutor.shutdownNow();
+		this.sceneManager.snapshot().write(SCENE_SNAPSHOT_FILE);
+	}
+
+	// called by snapshot executor
+	private void saveSceneSnapshot() {
+		try {
+			final SceneSnapshot sceneSnapshot = this.shellExecutor.submit(new Callable<SceneSnapshot>() {
+				@Override
+				public SceneSnapshot call() {
+					return WindowManagerPlugin.this.sceneManager.snapshot();
+				}
+			}).get();
+			sceneSnapshot.write(SCENE_SNAPSHOT_FILE);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final ExecutionException e) {
+			LOG.error(	"Failed to take scene snapshot.",
+						e);
+		} catch (final IOException e) {
+			LOG.error(	"Failed to save scene snapshot.",
+						e);
+		}
 	}
 
 	// called by shell executor
-	private void find() {
+	private void find(final Optional<SceneSnapshot> sceneSnapshot) {
 		final ListenableFuture<List<DisplaySurface>> clientDisplaySurfaces = this.display.getClientDisplaySurfaces();
 		// called by display thread
 		addCallback(clientDisplaySurfaces,
 					new FutureCallback<List<DisplaySurface>>() {
 						@Override
 						public void onSuccess(final List<DisplaySurface> displaySurfaces) {
-							for (final DisplaySurface displaySurface : displaySurfaces) {
-								handleClientDisplaySurface(displaySurface);
+							if (sceneSnapshot.isPresent() && matches(	sceneSnapshot.get(),
+																		displaySurfaces)) {
+								handleClientDisplaySurfaces(displaySurfaces,
+															sceneSnapshot.get());
+							} else {
+								handleClientDisplaySurfaces(displaySurfaces);
 							}
 						}
 
@@ -110,17 +173,112 @@ public class WindowManagerPlugin extends AbstractIdleService implements ShellPlu
 					});
 	}
 
+	// called by display executor
+	private boolean matches(final SceneSnapshot sceneSnapshot,
+							final List<DisplaySurface> displaySurfaces) {
+		final List<Integer> windowIds = new ArrayList<Integer>(displaySurfaces.size());
+		for (final DisplaySurface displaySurface : displaySurfaces) {
+			windowIds.add((Integer) displaySurface.getDisplaySurfaceHandle().getNativeHandle());
+		}
+		return sceneSnapshot.matches(windowIds);
+	}
+
+	// Called by display executor for existing display surfaces that are
+	// described by the scene snapshot.
+	private void handleClientDisplaySurfaces(	final List<DisplaySurface> displaySurfaces,
+												final SceneSnapshot sceneSnapshot) {
+		final List<ListenableFuture<ShellSurface>> shellSurfaceFutures = new ArrayList<ListenableFuture<ShellSurface>>(displaySurfaces.size());
+		for (final DisplaySurface displaySurface : displaySurfaces) {
+			// the snapshot can be out of date, or the client moved itself in
+			// the meantime, so the shell surface starts from the live
+			// geometry. The snapshot geometry is executed when the client is
+			// managed.
+			shellSurfaceFutures.add(this.shellSurfaceFactory.createShellClientSurface(displaySurface));
+		}
+		// callback will be called by shell executor.
+		addCallback(successfulAsList(shellSurfaceFutures),
+					new FutureCallback<List<ShellSurface>>() {
+						@Override
+						public void onSuccess(final List<ShellSurface> shellSurfaces) {
+							WindowManagerPlugin.this.sceneManager.manageRestoredClients(toClients(	displaySurfaces,
+																									shellSurfaces),
+																						sceneSnapshot);
+						}
+
+						@Override
+						public void onFailure(final Throwable t) {
+							LOG.error(	"Failed to create shellsurfaces",
+										t);
+						}
+					});
+	}
+
+	// Called by display executor for existing display surfaces.
+	private void handleClientDisplaySurfaces(final List<DisplaySurface> displaySurfaces) {
+		if (displaySurfaces.isEmpty()) {
+			return;
+		}
+
+		final List<ListenableFuture<ShellSurface>> shellSurfaceFutures = new ArrayList<ListenableFuture<ShellSurface>>(displaySurfaces.size());
+		for (final DisplaySurface displaySurface : displaySurfaces) {
+			shellSurfaceFutures.add(this.shellSurfaceFactory.createShellClientSurface(displaySurface));
+		}
+		// adopt all clients at once so they are layed out and shown together.
+		// callback will be called by shell executor.
+		addCallback(successfulAsList(shellSurfaceFutures),
+					new FutureCallback<List<ShellSurface>>() {
+						@Override
+						public void onSuccess(final List<ShellSurface> shellSurfaces) {
+							WindowManagerPlugin.this.sceneManager.manageNewClients(toClients(	displaySurfaces,
+																								shellSurfaces));
+						}
+
+						@Override
+						public void onFailure(final Throwable t) {
+							LOG.error(	"Failed to create shellsurfaces",
+										t);
+						}
+					});
+	}
+
+	// called by shell executor
+	private Map<DisplaySurface, ShellSurface> toClients(final List<DisplaySurface> displaySurfaces,
+														final List<ShellSurface> shellSurfaces) {
+		final Map<DisplaySurface, ShellSurface> clients = new LinkedHashMap<DisplaySurface, ShellSurface>();
+		for (int i = 0; i < shellSurfaces.size(); i++) {
+			final ShellSurface shellSurface = shellSurfaces.get(i);
+			if (shellSurface == null) {
+				LOG.error(	"Failed to create a shellsurface for {}",
+							displaySurfaces.get(i));
+				continue;
+			}
+			clients.put(displaySurfaces.get(i),
+						shellSurface);
+		}
+		return clients;
+	}
+
 	// Called by display executor for new display surfaces.
-	private void handleClientDisplaySurface(final DisplaySurface displaySurface) {
-		final ListenableFuture<ShellSurface> shellSurfaceFuture = this.shellSurfaceFactory
-				.createShellClientSurface(displaySurface);
+	private void handleClientDisplaySurface(final DisplaySurface displaySurface,
+											final Optional<Rectangle> geometry,
+											final long discoveredNanos) {
+		// use the geometry we got with the event, if any, so the shell doesn't
+		// have to ask the display for it.
+		final ListenableFuture<ShellSurface> shellSurfaceFuture;
+		if (geometry.isPresent()) {
+			shellSurfaceFuture = this.shellSurfaceFactory.createShellClientSurface(	displaySurface,
+																					geometry.get());
+		} else {
+			shellSurfaceFuture = this.shellSurfaceFactory.createShellClientSurface(displaySurface);
+		}
 		// callback will be called by shell executor.
 		addCallback(shellSurfaceFuture,
 					new FutureCallback<ShellSurface>() {
 						@Override
 						public void onSuccess(final ShellSurface shellSurface) {
 							WindowManagerPlugin.this.sceneManager.manageNewClient(	displaySurface,
-																					shellSurface);
+																					shellSurface,
+																					discoveredNanos);
 						}
 
 						@Override
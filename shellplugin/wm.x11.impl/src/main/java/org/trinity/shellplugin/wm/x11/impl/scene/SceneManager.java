@@ -20,22 +20,42 @@
 
 package org.trinity.shellplugin.wm.x11.impl.scene;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.apache.onami.autobind.annotations.To.Type.IMPLEMENTATION;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.onami.autobind.annotations.Bind;
 import org.apache.onami.autobind.annotations.To;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.display.DisplayBatch;
 import org.trinity.foundation.api.display.DisplaySurface;
+import org.trinity.foundation.api.display.event.ShowNotify;
 import org.trinity.foundation.api.shared.ExecutionContext;
+import org.trinity.foundation.api.shared.LatencyStatistics;
 import org.trinity.foundation.api.shared.Margins;
+import org.trinity.foundation.api.shared.Rectangle;
 import org.trinity.shell.api.bindingkey.ShellExecutor;
+import org.trinity.shell.api.scene.AbstractShellNode;
+import org.trinity.shell.api.scene.ShellNodeState;
 import org.trinity.shell.api.scene.event.ShellNodeDestroyedEvent;
+import org.trinity.shell.api.scene.index.ShellOcclusionTracker;
 import org.trinity.shell.api.scene.manager.ShellLayoutManager;
 import org.trinity.shell.api.scene.manager.ShellLayoutManagerLine;
+import org.trinity.shell.api.scene.manager.ShellLayoutProperty;
 import org.trinity.shell.api.scene.manager.ShellLayoutPropertyLine;
+import org.trinity.shell.api.scene.manager.ShellSceneLayout;
 import org.trinity.shell.api.surface.ShellSurface;
 import org.trinity.shellplugin.wm.x11.impl.protocol.XWindowProtocol;
 
@@ -47,56 +67,292 @@ import com.google.common.eventbus.Subscribe;
 @ExecutionContext(ShellExecutor.class)
 public class SceneManager {
 
+	private static final Logger LOG = LoggerFactory.getLogger(SceneManager.class);
+	private static final ShellLayoutPropertyLine DEFAULT_LAYOUT_PROPERTY = new ShellLayoutPropertyLine(	1,
+																										new Margins(0,
+																													20));
 	private final ClientBarElementFactory clientBarElementFactory;
 	private final ShellLayoutManager rootLayoutManager;
 	private final ShellRootWidget shellRootNode;
 	private final XWindowProtocol xWindowProtocol;
+	private final ShellOcclusionTracker occlusionTracker;
+	private final LatencyStatistics mapLatency = new LatencyStatistics("map latency");
+	private final Map<ShellSurface, DisplaySurface> managedClients = new LinkedHashMap<ShellSurface, DisplaySurface>();
 
 	@Inject
 	SceneManager(	final ClientBarElementFactory clientBarElementFactory,
 					final XWindowProtocol xWindowProtocol,
 					final ShellRootWidget shellRootWidget,
-					final ShellLayoutManagerLine shellLayoutManagerLine) {
+					final ShellLayoutManagerLine shellLayoutManagerLine,
+					final ShellOcclusionTracker occlusionTracker,
+					final ShellSceneLayout shellSceneLayout) {
 		this.clientBarElementFactory = clientBarElementFactory;
 		this.xWindowProtocol = xWindowProtocol;
 		this.shellRootNode = shellRootWidget;
 		this.rootLayoutManager = shellLayoutManagerLine;
+		this.occlusionTracker = occlusionTracker;
 
 		this.shellRootNode.setLayoutManager(this.rootLayoutManager);
+		this.shellRootNode.setSceneLayout(shellSceneLayout);
 		this.shellRootNode.doShow();
 	}
 
+	/**
+	 * Manage a new client. The root is layed out once, synchronously, so the
+	 * new client gets its geometry and the other clients make room for it.
+	 * The resulting configure requests, the reparent and the map of the new
+	 * client all go out in a single {@link DisplayBatch}, so the client is
+	 * configured once, before it is mapped.
+	 *
+	 * @param displaySurface
+	 *            The {@link DisplaySurface} of the client.
+	 * @param client
+	 *            The {@link ShellSurface} of the client.
+	 * @param discoveredNanos
+	 *            The time the client was discovered, as given by
+	 *            {@link System#nanoTime()}.
+	 */
 	// called by shell executor
 	public void manageNewClient(final DisplaySurface displaySurface,
-								final ShellSurface client) {
+								final ShellSurface client,
+								final long discoveredNanos) {
+		checkArgument(client instanceof AbstractShellNode);
+		final AbstractShellNode clientNode = (AbstractShellNode) client;
+
 		this.xWindowProtocol.register(displaySurface);
 		addClientTopBarItem(displaySurface,
 							client);
-		layoutClient(client);
+		clientNode.setParentImpl(this.shellRootNode);
+		addClientToLayout(client);
+
+		recordMapLatency(	displaySurface,
+							discoveredNanos);
+		final DisplayBatch batch = DisplayBatch.open();
+		try {
+			// layout synchronously instead of through the scene layout, so
+			// the client has its geometry before it is shown.
+			this.rootLayoutManager.layout(this.shellRootNode);
+			clientNode.doReparentImpl();
+			// reparenting leaves a move resize to the layed out geometry
+			// pending, showing executes it right before the map.
+			clientNode.doShowImpl();
+		} finally {
+			batch.close();
+		}
+	}
+
+	// called by shell executor
+	private void recordMapLatency(	final DisplaySurface displaySurface,
+									final long discoveredNanos) {
+		// closing the batch only queues the map request, so the latency is
+		// recorded once the display reports the client as mapped.
+		displaySurface.register(new Object() {
+			// called by display executor
+			@Subscribe
+			public void onShowNotify(final ShowNotify showNotify) {
+				displaySurface.unregister(this);
+				SceneManager.this.mapLatency.recordSince(discoveredNanos);
+				LOG.debug(	"Mapped new client {}. {}",
+							displaySurface,
+							SceneManager.this.mapLatency);
+			}
+		});
+	}
+
+	/**
+	 * The time it takes for a new client to be mapped, from the moment it was
+	 * discovered until the display reports it as mapped.
+	 *
+	 * @return {@link LatencyStatistics}
+	 */
+	public LatencyStatistics getMapLatency() {
+		return this.mapLatency;
+	}
+
+	/**
+	 * Manage a group of new clients, eg all clients that already exist when
+	 * the window manager starts. The clients are added to the clients bar in
+	 * one go, the root node is layed out once, and the clients are reparented
+	 * and shown in a single {@link DisplayBatch}. Layout of the root node is
+	 * suspended meanwhile, so nothing the adoption triggers lays it out again.
+	 *
+	 * @param clients
+	 *            The new clients, in the order they should be managed.
+	 */
+	// called by shell executor
+	public void manageNewClients(final Map<DisplaySurface, ShellSurface> clients) {
+		if (clients.isEmpty()) {
+			return;
+		}
+
+		final List<ClientBarElement> clientBarElements = new ArrayList<ClientBarElement>(clients.size());
+		for (final Entry<DisplaySurface, ShellSurface> entry : clients.entrySet()) {
+			final DisplaySurface displaySurface = entry.getKey();
+			final ShellSurface client = entry.getValue();
+			checkArgument(client instanceof AbstractShellNode);
+
+			this.xWindowProtocol.register(displaySurface);
+			clientBarElements.add(createClientTopBarItem(	displaySurface,
+															client));
+			((AbstractShellNode) client).setParentImpl(this.shellRootNode);
+			addClientToLayout(client);
+		}
+		this.shellRootNode.getClientsBar().addAll(clientBarElements);
+
+		final DisplayBatch batch = DisplayBatch.open();
+		this.shellRootNode.setLayoutSuspended(true);
+		try {
+			// layout synchronously instead of through the scene layout, so
+			// the layout is done before the clients are shown.
+			this.rootLayoutManager.layout(this.shellRootNode);
+			for (final ShellSurface client : clients.values()) {
+				final AbstractShellNode clientNode = (AbstractShellNode) client;
+				// showing a node executes its pending geometry, so the
+				// layout ends up in this batch as well.
+				clientNode.doReparentImpl();
+				clientNode.doShowImpl();
+			}
+		} finally {
+			this.shellRootNode.setLayoutSuspended(false);
+			batch.close();
+		}
+	}
+
+	/**
+	 * Manage clients that were managed before the shell restarted, as
+	 * described by the given snapshot. The clients get back the geometry,
+	 * layout property and stacking order they have in the snapshot, and no
+	 * layout pass is done.
+	 *
+	 * @param clients
+	 *            The clients, one for each client in the snapshot.
+	 * @param snapshot
+	 *            The {@link SceneSnapshot} the clients are restored from.
+	 */
+	// called by shell executor
+	public void manageRestoredClients(	final Map<DisplaySurface, ShellSurface> clients,
+										final SceneSnapshot snapshot) {
+		final List<Entry<DisplaySurface, ShellSurface>> stackedClients = new ArrayList<Entry<DisplaySurface, ShellSurface>>(clients.entrySet());
+		// reparenting puts a client on top of its siblings, so going from
+		// bottom to top restores the stacking order.
+		Collections.sort(	stackedClients,
+							new Comparator<Entry<DisplaySurface, ShellSurface>>() {
+								@Override
+								public int compare(	final Entry<DisplaySurface, ShellSurface> entry0,
+													final Entry<DisplaySurface, ShellSurface> entry1) {
+									return Integer.compare(	getSnapshotClient(	snapshot,
+																				entry0.getKey()).getStackIndex(),
+															getSnapshotClient(	snapshot,
+																				entry1.getKey()).getStackIndex());
+								}
+							});
+
+		final List<ClientBarElement> clientBarElements = new ArrayList<ClientBarElement>(clients.size());
+		for (final Entry<DisplaySurface, ShellSurface> entry : clients.entrySet()) {
+			final DisplaySurface displaySurface = entry.getKey();
+			final ShellSurface client = entry.getValue();
+			checkArgument(client instanceof AbstractShellNode);
+
+			this.xWindowProtocol.register(displaySurface);
+			clientBarElements.add(createClientTopBarItem(	displaySurface,
+															client));
+			((AbstractShellNode) client).setParentImpl(this.shellRootNode);
+			addClientToLayout(	client,
+								getSnapshotClient(	snapshot,
+													displaySurface).getLayoutProperty());
+		}
+		this.shellRootNode.getClientsBar().addAll(clientBarElements);
+
+		final DisplayBatch batch = DisplayBatch.open();
+		try {
+			for (final Entry<DisplaySurface, ShellSurface> entry : stackedClients) {
+				final AbstractShellNode clientNode = (AbstractShellNode) entry.getValue();
+				final SceneSnapshot.Client snapshotClient = getSnapshotClient(	snapshot,
+																				entry.getKey());
+				// the client was created with its live geometry, the
+				// snapshot geometry is executed in this batch, before the
+				// client is shown.
+				final Rectangle geometry = snapshotClient.getGeometry();
+				clientNode.setPositionImpl(geometry.getPosition());
+				clientNode.setSizeImpl(geometry.getSize());
+				clientNode.doMoveResizeImpl();
+				clientNode.doReparentImpl();
+				if (snapshotClient.isVisible()) {
+					clientNode.doShowImpl();
+				}
+			}
+		} finally {
+			batch.close();
+		}
+	}
+
+	/**
+	 * Take a snapshot of all managed clients.
+	 *
+	 * @return a {@link SceneSnapshot}.
+	 */
+	// called by shell executor
+	public SceneSnapshot snapshot() {
+		final List<SceneSnapshot.Client> clients = new ArrayList<SceneSnapshot.Client>(this.managedClients.size());
+		for (final Entry<ShellSurface, DisplaySurface> entry : this.managedClients.entrySet()) {
+			final ShellSurface client = entry.getKey();
+			final ShellNodeState state = client.snapshot();
+			if (state.isDestroyed()) {
+				continue;
+			}
+			final ShellLayoutProperty layoutProperty = this.rootLayoutManager.getLayoutProperty(client);
+			final int windowId = (Integer) entry.getValue().getDisplaySurfaceHandle().getNativeHandle();
+			clients.add(new SceneSnapshot.Client(	windowId,
+													state.getGeometry(),
+													state.getStackIndex(),
+													state.isVisible(),
+													layoutProperty instanceof ShellLayoutPropertyLine ? (ShellLayoutPropertyLine) layoutProperty
+															: DEFAULT_LAYOUT_PROPERTY));
+		}
+		return new SceneSnapshot(clients);
+	}
+
+	private SceneSnapshot.Client getSnapshotClient(	final SceneSnapshot snapshot,
+													final DisplaySurface displaySurface) {
+		final int windowId = (Integer) displaySurface.getDisplaySurfaceHandle().getNativeHandle();
+		return snapshot.getClient(windowId).get();
 	}
 
 	// called by shell executor
 	private void addClientTopBarItem(	final DisplaySurface displaySurface,
 										final ShellSurface client) {
-		final ClientBarElement clientBarElement = this.clientBarElementFactory.createClientTopBarItem(displaySurface);
+		final ClientBarElement clientBarElement = createClientTopBarItem(	displaySurface,
+																			client);
 		this.shellRootNode.getClientsBar().add(clientBarElement);
+	}
+
+	// called by shell executor
+	private ClientBarElement createClientTopBarItem(final DisplaySurface displaySurface,
+													final ShellSurface client) {
+		final ClientBarElement clientBarElement = this.clientBarElementFactory.createClientTopBarItem(displaySurface);
+		this.managedClients.put(client,
+								displaySurface);
 		client.register(new Object() {
 			// called by shell executor
 			@Subscribe
 			public void onClientDestroyed(final ShellNodeDestroyedEvent destroyedEvent) {
 				SceneManager.this.shellRootNode.getClientsBar().remove(clientBarElement);
+				SceneManager.this.managedClients.remove(client);
 			}
 		});
+		return clientBarElement;
+	}
+
+	private void addClientToLayout(final ShellSurface client) {
+		addClientToLayout(	client,
+							DEFAULT_LAYOUT_PROPERTY);
 	}
 
-	private void layoutClient(final ShellSurface client) {
-		client.setParent(this.shellRootNode);
+	private void addClientToLayout(	final ShellSurface client,
+									final ShellLayoutPropertyLine layoutProperty) {
 		this.rootLayoutManager.addChildNode(client,
-											new ShellLayoutPropertyLine(1,
-																		new Margins(0,
-																					20)));
-		this.shellRootNode.layout();
-		client.doReparent();
-		client.doShow();
+											layoutProperty);
+		// defer geometry changes of clients that are hidden behind others.
+		this.occlusionTracker.addChildNode(client);
 	}
 }
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Trinity Shell Copyright (C) 2011 Erik De Rijcke
+ *
+ * This file is part of Trinity Shell.
+ *
+ * Trinity Shell is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * Trinity Shell is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the Free Software Foundation, Inc., 51
+ * Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA
+ ******************************************************************************/
+package org.trinity.shellplugin.wm.x11.impl.scene;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.trinity.foundation.api.shared.ImmutableRectangle;
+import org.trinity.foundation.api.shared.Margins;
+import org.trinity.foundation.api.shared.Rectangle;
+import org.trinity.shell.api.scene.manager.ShellLayoutPropertyLine;
+
+import com.google.common.base.Optional;
+
+/**
+ * The managed clients of the scene, as they were at some point in time. A
+ * snapshot can be written to a compact binary file, and read back after a
+ * restart to rebuild the scene without asking the display for every client's
+ * geometry, or laying them out again.
+ * <p>
+ * The file holds a header of 3 ints: a magic number, the format version and
+ * the number of clients. It is followed by a fixed size record of
+ * {@value #RECORD_INTS} ints for every client.
+ */
+@Immutable
+public class SceneSnapshot {
+
+	/**
+	 * A managed client in a {@link SceneSnapshot}.
+	 */
+	@Immutable
+	public static class Client {
+
+		private final int windowId;
+		private final Rectangle geometry;
+		private final int stackIndex;
+		private final boolean visible;
+		private final ShellLayoutPropertyLine layoutProperty;
+
+		public Client(	final int windowId,
+						@Nonnull final Rectangle geometry,
+						final int stackIndex,
+						final boolean visible,
+						@Nonnull final ShellLayoutPropertyLine layoutProperty) {
+			this.windowId = windowId;
+			this.geometry = new ImmutableRectangle(geometry);
+			this.stackIndex = stackIndex;
+			this.visible = visible;
+			this.layoutProperty = layoutProperty;
+		}
+
+		/**
+		 * The native id of the client's window.
+		 *
+		 * @return an X window id.
+		 */
+		public int getWindowId() {
+			return this.windowId;
+		}
+
+		public Rectangle getGeometry() {
+			return this.geometry;
+		}
+
+		public int getStackIndex() {
+			return this.stackIndex;
+		}
+
+		public boolean isVisible() {
+			return this.visible;
+		}
+
+		public ShellLayoutPropertyLine getLayoutProperty() {
+			return this.layoutProperty;
+		}
+	}
+
+	private static final Logger LOG = LoggerFactory.getLogger(SceneSnapshot.class);
+	// "TSS1"
+	private static final int MAGIC = 0x54535331;
+	private static final int VERSION = 1;
+	private static final int HEADER_INTS = 3;
+	private static final int RECORD_INTS = 12;
+
+	private final Map<Integer, Client> clientsByWindowId;
+
+	/**
+	 * Create a new snapshot.
+	 *
+	 * @param clients
+	 *            The managed clients.
+	 */
+	public SceneSnapshot(@Nonnull final List<Client> clients) {
+		final Map<Integer, Client> clientsByWindowId = new LinkedHashMap<Integer, Client>();
+		for (final Client client : clients) {
+			clientsByWindowId.put(	client.getWindowId(),
+									client);
+		}
+		this.clientsByWindowId = Collections.unmodifiableMap(clientsByWindowId);
+	}
+
+	public Collection<Client> getClients() {
+		return this.clientsByWindowId.values();
+	}
+
+	public Optional<Client> getClient(final int windowId) {
+		return Optional.fromNullable(this.clientsByWindowId.get(windowId));
+	}
+
+	/**
+	 * Check if this snapshot describes exactly the given clients.
+	 *
+	 * @param windowIds
+	 *            The native ids of the client windows that currently exist.
+	 * @return true if the snapshot holds a client for each window id, and no
+	 *         other clients.
+	 */
+	public boolean matches(@Nonnull final Collection<Integer> windowIds) {
+		final Set<Integer> liveWindowIds = new HashSet<Integer>(windowIds);
+		return liveWindowIds.size() == windowIds.size() && liveWindowIds.equals(this.clientsByWindowId.keySet());
+	}
+
+	/**
+	 * Write this snapshot to the given file. The file is replaced atomically,
+	 * a reader never sees a partially written snapshot.
+	 *
+	 * @param file
+	 *            The snapshot {@link Path}.
+	 * @throws IOException
+	 *             if the snapshot could not be written.
+	 */
+	public void write(@Nonnull final Path file) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate((HEADER_INTS + (RECORD_INTS * this.clientsByWindowId.size())) * 4);
+		final IntBuffer ints = buffer.asIntBuffer();
+		ints.put(MAGIC).put(VERSION).put(this.clientsByWindowId.size());
+		for (final Client client : this.clientsByWindowId.values()) {
+			final Rectangle geometry = client.getGeometry();
+			final Margins margins = client.getLayoutProperty().getMargins();
+			ints.put(client.getWindowId()).put(geometry.getPosition().getX()).put(geometry.getPosition().getY())
+					.put(geometry.getSize().getWidth()).put(geometry.getSize().getHeight())
+					.put(client.getStackIndex()).put(client.isVisible() ? 1 : 0)
+					.put(client.getLayoutProperty().getWeight()).put(margins.getLeft()).put(margins.getRight())
+					.put(margins.getBottom()).put(margins.getTop());
+		}
+
+		final Path parent = file.toAbsolutePath().getParent();
+		Files.createDirectories(parent);
+		final Path tmpFile = Files.createTempFile(	parent,
+													file.getFileName().toString(),
+													".tmp");
+		final FileChannel channel = FileChannel.open(	tmpFile,
+														StandardOpenOption.WRITE);
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		} finally {
+			channel.close();
+		}
+		Files.move(	tmpFile,
+					file,
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Read a snapshot that was written by {@link #write(Path)}. The file is
+	 * memory mapped, not copied.
+	 *
+	 * @param file
+	 *            The snapshot {@link Path}.
+	 * @return The snapshot, or nothing if the file does not exist or is not a
+	 *         valid snapshot.
+	 */
+	public static Optional<SceneSnapshot> read(@Nonnull final Path file) {
+		try {
+			final FileChannel channel = FileChannel.open(	file,
+															StandardOpenOption.READ);
+			final MappedByteBuffer buffer;
+			try {
+				buffer = channel.map(	MapMode.READ_ONLY,
+										0,
+										channel.size());
+			} finally {
+				// the mapping stays valid after the channel is closed.
+				channel.close();
+			}
+			return read(buffer.asIntBuffer());
+		} catch (final NoSuchFileException e) {
+			return Optional.absent();
+		} catch (final IOException e) {
+			LOG.error(	"Failed to read scene snapshot " + file,
+						e);
+			return Optional.absent();
+		}
+	}
+
+	private static Optional<SceneSnapshot> read(final IntBuffer ints) {
+		if ((ints.remaining() < HEADER_INTS) || (ints.get() != MAGIC) || (ints.get() != VERSION)) {
+			LOG.warn("Ignoring scene snapshot with an unknown format.");
+			return Optional.absent();
+		}
+		final int count = ints.get();
+		if ((count < 0) || (ints.remaining() != (count * RECORD_INTS))) {
+			LOG.warn("Ignoring truncated scene snapshot.");
+			return Optional.absent();
+		}
+
+		final List<Client> clients = new ArrayList<Client>(count);
+		for (int i = 0; i < count; i++) {
+			final int windowId = ints.get();
+			final Rectangle geometry = new ImmutableRectangle(	ints.get(),
+																ints.get(),
+																ints.get(),
+																ints.get());
+			final int stackIndex = ints.get();
+			final boolean visible = ints.get() != 0;
+			final int weight = ints.get();
+			final Margins margins = new Margins(ints.get(),
+												ints.get(),
+												ints.get(),
+												ints.get());
+			clients.add(new Client(	windowId,
+									geometry,
+									stackIndex,
+									visible,
+									new ShellLayoutPropertyLine(weight,
+																margins)));
+		}
+		return Optional.of(new SceneSnapshot(clients));
+	}
+}